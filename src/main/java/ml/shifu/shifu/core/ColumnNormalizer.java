@@ -0,0 +1,529 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+
+import ml.shifu.shifu.container.obj.ColumnConfig;
+import ml.shifu.shifu.container.obj.ModelNormalizeConf.NormType;
+import ml.shifu.shifu.udf.NormalizeUDF.CategoryMissingNormType;
+import ml.shifu.shifu.util.CommonUtils;
+
+/**
+ * {@link ColumnNormalizer} is a per-column normalizer which is built once from {@link ColumnConfig} and then writes
+ * normalized values into caller-provided primitive arrays.
+ *
+ * <p>
+ * Compared with {@link Normalizer#normalize(ColumnConfig, Object, Double, NormType, CategoryMissingNormType)}, all
+ * information like bin boundaries, categorical index map, woe values, mean and standard deviation of woe are
+ * computed in constructor. In {@link #normalize(Object, double[], int)} no boxed Double or list will be created, which
+ * is important for wide data sets with thousands of columns.
+ *
+ * <p>
+ * Results are the same as {@link Normalizer#normalize(ColumnConfig, Object, Double, NormType, CategoryMissingNormType)}
+ * if no categorical index map is set, or the same as
+ * {@link Normalizer#fullNormalize(ColumnConfig, Object, Double, NormType, CategoryMissingNormType, Map)} if categorical
+ * index map is set.
+ *
+ * <p>
+ * Instance is not thread safe to be shared across threads in constructing but is safe after constructed as all fields
+ * are read only in {@link #normalize(Object, double[], int)}.
+ */
+public class ColumnNormalizer {
+
+    /**
+     * Column config of current normalizer
+     */
+    private final ColumnConfig config;
+
+    /**
+     * Norm type of current column
+     */
+    private final NormType normType;
+
+    /**
+     * How to fill missing categorical value in zscale norm.
+     */
+    private final CategoryMissingNormType categoryMissingNormType;
+
+    /**
+     * Standard deviation cutoff after checked by {@link Normalizer#checkCutOff(Double)}.
+     */
+    private final double cutoff;
+
+    /**
+     * If categorical index map is set, *_INDEX norm types take effect like in
+     * {@link Normalizer#fullNormalize(ColumnConfig, Object, Double, NormType, CategoryMissingNormType, Map)}
+     */
+    private final Map<String, Integer> cateIndexMap;
+
+    private final boolean isCategorical;
+
+    private final boolean isHybrid;
+
+    private final double mean;
+
+    private final double stdDev;
+
+    private final double min;
+
+    /**
+     * Numerical bin boundaries, can be empty for categorical column
+     */
+    private final double[] binBoundaries;
+
+    /**
+     * Size of bin category list, 0 for numerical column
+     */
+    private final int binCategorySize;
+
+    /**
+     * Categorical value (including flattened value in group) to bin index.
+     */
+    private final Map<String, Integer> binCategoryIndexMap;
+
+    private final double[] binPosRates;
+
+    private final double[] binCountWoes;
+
+    private final double[] binWeightedWoes;
+
+    /**
+     * {woe mean, woe std dev} for woe zscale norm types, only computed in woe zscale norm types.
+     */
+    private double[] woeMeanAndStdDev;
+
+    /**
+     * Output slot size of current normalizer
+     */
+    private final int size;
+
+    public ColumnNormalizer(ColumnConfig config, Double cutoff, NormType normType) {
+        this(config, cutoff, normType, CategoryMissingNormType.POSRATE);
+    }
+
+    public ColumnNormalizer(ColumnConfig config, Double cutoff, NormType normType,
+            CategoryMissingNormType categoryMissingNormType) {
+        this(config, cutoff, normType, categoryMissingNormType, null);
+    }
+
+    public ColumnNormalizer(ColumnConfig config, Double cutoff, NormType normType,
+            CategoryMissingNormType categoryMissingNormType, Map<String, Integer> cateIndexMap) {
+        this.config = config;
+        this.normType = (normType == null ? NormType.ZSCALE : normType);
+        this.categoryMissingNormType = (categoryMissingNormType == null ? CategoryMissingNormType.POSRATE
+                : categoryMissingNormType);
+        this.cutoff = Normalizer.checkCutOff(cutoff);
+        this.cateIndexMap = cateIndexMap;
+
+        this.isCategorical = config.isCategorical();
+        this.isHybrid = config.isHybrid();
+        this.mean = Normalizer.defaultMissingValue(config);
+        this.stdDev = (config.getStdDev() == null ? 0d : config.getStdDev().doubleValue());
+        this.min = ((config.getColumnStats() == null || config.getColumnStats().getMin() == null) ? 0d
+                : config.getColumnStats().getMin().doubleValue());
+
+        this.binBoundaries = toArray(config.getBinBoundary());
+        List<String> binCategories = config.getBinCategory();
+        this.binCategorySize = (binCategories == null ? 0 : binCategories.size());
+        this.binCategoryIndexMap = buildBinCategoryIndexMap(config);
+
+        this.binPosRates = toArray(config.getBinPosRate());
+        this.binCountWoes = toArray(config.getBinCountWoe());
+        this.binWeightedWoes = toArray(config.getBinWeightedWoe());
+
+        if(isWoeZScale()) {
+            this.woeMeanAndStdDev = Normalizer.calculateWoeMeanAndStdDev(config, isWeightedWoe());
+        }
+
+        this.size = computeSize();
+    }
+
+    /**
+     * @return how many slots are written by each {@link #normalize(Object, double[], int)} call.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public ColumnConfig getColumnConfig() {
+        return this.config;
+    }
+
+    /**
+     * Normalize raw value and write normalized values into output array from offset.
+     *
+     * @param raw
+     *            raw value of such column
+     * @param output
+     *            output array which should have at least {@link #size()} slots from offset
+     * @param offset
+     *            the start index to write in output
+     * @return number of slots written
+     */
+    public int normalize(Object raw, double[] output, int offset) {
+        if(isOneHot()) {
+            int binNum = getBinNum(raw);
+            if(binNum < 0 || binNum >= this.size) {
+                binNum = this.size - 1;
+            }
+            for(int i = 0; i < this.size; i++) {
+                output[offset + i] = 0d;
+            }
+            output[offset + binNum] = 1d;
+        } else {
+            output[offset] = normalizeSingle(raw);
+        }
+        return this.size;
+    }
+
+    /**
+     * Normalize raw value and write normalized values as float into output array from offset.
+     *
+     * @param raw
+     *            raw value of such column
+     * @param output
+     *            output array which should have at least {@link #size()} slots from offset
+     * @param offset
+     *            the start index to write in output
+     * @return number of slots written
+     */
+    public int normalize(Object raw, float[] output, int offset) {
+        if(isOneHot()) {
+            int binNum = getBinNum(raw);
+            if(binNum < 0 || binNum >= this.size) {
+                binNum = this.size - 1;
+            }
+            for(int i = 0; i < this.size; i++) {
+                output[offset + i] = 0f;
+            }
+            output[offset + binNum] = 1f;
+        } else {
+            output[offset] = (float) normalizeSingle(raw);
+        }
+        return this.size;
+    }
+
+    private boolean isOneHot() {
+        return this.normType == NormType.ONEHOT || (this.normType == NormType.ZSCALE_ONEHOT && this.isCategorical);
+    }
+
+    private boolean isIndexNorm() {
+        return this.cateIndexMap != null
+                && (this.normType == NormType.ZSCALE_INDEX || this.normType == NormType.ZSCORE_INDEX
+                        || this.normType == NormType.WOE_INDEX || this.normType == NormType.WOE_ZSCALE_INDEX);
+    }
+
+    private boolean isWoeZScale() {
+        if(isIndexNorm()) {
+            return this.normType == NormType.WOE_ZSCALE_INDEX && !this.isCategorical;
+        }
+        return this.normType == NormType.WOE_ZSCORE || this.normType == NormType.WOE_ZSCALE
+                || this.normType == NormType.WEIGHT_WOE_ZSCORE || this.normType == NormType.WEIGHT_WOE_ZSCALE;
+    }
+
+    private boolean isWeightedWoe() {
+        return this.normType == NormType.WEIGHT_WOE || this.normType == NormType.WEIGHT_HYBRID
+                || this.normType == NormType.WEIGHT_WOE_ZSCORE || this.normType == NormType.WEIGHT_WOE_ZSCALE;
+    }
+
+    private int computeSize() {
+        if(this.normType == NormType.ONEHOT) {
+            return this.isCategorical ? this.binCategorySize + 1 : this.binBoundaries.length + 1;
+        } else if(this.normType == NormType.ZSCALE_ONEHOT && this.isCategorical) {
+            return this.binCategorySize + 1;
+        }
+        return 1;
+    }
+
+    private double normalizeSingle(Object raw) {
+        if(isIndexNorm()) {
+            if(this.isCategorical) {
+                Integer index = this.cateIndexMap.get(raw == null ? "" : raw.toString());
+                if(index == null || index == -1) {
+                    // last index for null category
+                    index = this.binCategorySize;
+                }
+                return index;
+            }
+            switch(this.normType) {
+                case WOE_INDEX:
+                    return woe(raw, false);
+                case WOE_ZSCALE_INDEX:
+                    return computeZScore(woe(raw, false), this.woeMeanAndStdDev[0], this.woeMeanAndStdDev[1]);
+                case ZSCALE_INDEX:
+                case ZSCORE_INDEX:
+                default:
+                    return computeZScore(parseRawValue(raw, CategoryMissingNormType.POSRATE), this.mean,
+                            this.stdDev);
+            }
+        }
+
+        switch(this.normType) {
+            case ASIS_WOE:
+                return asIs(raw, this.binCountWoes);
+            case ASIS_PR:
+                return asIs(raw, this.binPosRates);
+            case WOE:
+                return woe(raw, false);
+            case WEIGHT_WOE:
+                return woe(raw, true);
+            case HYBRID:
+            case WEIGHT_HYBRID:
+                if(this.isCategorical) {
+                    return woe(raw, isWeightedWoe());
+                }
+                return computeZScore(parseRawValue(raw, CategoryMissingNormType.POSRATE), this.mean, this.stdDev);
+            case WOE_ZSCORE:
+            case WOE_ZSCALE:
+            case WEIGHT_WOE_ZSCORE:
+            case WEIGHT_WOE_ZSCALE:
+                return computeZScore(woe(raw, isWeightedWoe()), this.woeMeanAndStdDev[0],
+                        this.woeMeanAndStdDev[1]);
+            case DISCRETE_ZSCORE:
+            case DISCRETE_ZSCALE:
+                return computeZScore(discreteValue(raw), this.mean, this.stdDev);
+            case OLD_ZSCALE:
+            case OLD_ZSCORE:
+                if(this.isCategorical) {
+                    return parseRawValue(raw, this.categoryMissingNormType);
+                }
+                return computeZScore(parseRawValue(raw, this.categoryMissingNormType), this.mean, this.stdDev);
+            case ZSCALE_ONEHOT:
+            case ZSCALE:
+            case ZSCORE:
+            default:
+                return computeZScore(parseRawValue(raw, this.categoryMissingNormType), this.mean, this.stdDev);
+        }
+    }
+
+    private double asIs(Object raw, double[] normVals) {
+        if(this.isCategorical) {
+            int binIndex = getBinNum(raw);
+            return binIndex == -1 ? normVals[normVals.length - 1] : normVals[binIndex];
+        }
+        if(raw instanceof Double) {
+            return (Double) raw;
+        } else if(raw instanceof Integer) {
+            return ((Integer) raw).doubleValue();
+        }
+        double value = parseNumber(raw);
+        return (Double.isNaN(value) && !isNaNLiteral(raw)) ? this.mean : value;
+    }
+
+    private double discreteValue(Object raw) {
+        if(this.isCategorical) {
+            return parseRawValue(raw, this.categoryMissingNormType);
+        }
+        int binIndex = getBinNum(raw);
+        if(binIndex < 0 || binIndex >= this.binBoundaries.length) {
+            // missing value, use mean value, after zscore, it is 0
+            return this.mean;
+        }
+        // the first bin, use min value
+        return binIndex == 0 ? this.min : this.binBoundaries[binIndex];
+    }
+
+    private double woe(Object raw, boolean isWeightedNorm) {
+        double[] woeBins = isWeightedNorm ? this.binWeightedWoes : this.binCountWoes;
+        int binIndex;
+        if(this.isHybrid) {
+            binIndex = (raw == null ? -1 : getCategoricalBinIndex(raw.toString()));
+            if(binIndex != -1) {
+                // append the first numerical bins
+                binIndex = binIndex + this.binBoundaries.length;
+            } else {
+                double douVal = parseNumber(raw);
+                if(Double.isNaN(douVal)) {
+                    binIndex = this.binBoundaries.length + this.binCategorySize;
+                } else {
+                    binIndex = getBinIndex(douVal);
+                }
+            }
+        } else {
+            binIndex = getBinNum(raw);
+        }
+        // The last bin in woeBins is the missing value bin.
+        return binIndex == -1 ? woeBins[woeBins.length - 1] : woeBins[binIndex];
+    }
+
+    private double parseRawValue(Object raw, CategoryMissingNormType missingNormType) {
+        if(raw == null || StringUtils.isBlank(raw.toString())) {
+            return this.isCategorical ? fillDefaultValue(missingNormType) : this.mean;
+        }
+
+        if(this.isCategorical) {
+            int index = getCategoricalBinIndex(raw.toString());
+            if(index == -1 || Double.isNaN(this.binPosRates[index])) {
+                return fillDefaultValue(missingNormType);
+            }
+            return this.binPosRates[index];
+        }
+
+        double value;
+        if(raw instanceof Double) {
+            value = (Double) raw;
+        } else if(raw instanceof Integer) {
+            value = ((Integer) raw).doubleValue();
+        } else if(raw instanceof Float) {
+            value = ((Float) raw).doubleValue();
+        } else {
+            value = parseNumber(raw);
+        }
+        // Infinite or NaN value is treated as missing value
+        return (Double.isInfinite(value) || Double.isNaN(value)) ? this.mean : value;
+    }
+
+    private double fillDefaultValue(CategoryMissingNormType missingNormType) {
+        switch(missingNormType) {
+            case POSRATE:
+                // last one is missing bin, if it is missing, using pos rate for default value.
+                return this.binPosRates[this.binPosRates.length - 1];
+            case MEAN:
+            default:
+                return this.mean;
+        }
+    }
+
+    private double computeZScore(double var, double mean, double stdDev) {
+        double maxCutOff = mean + this.cutoff * stdDev;
+        if(var > maxCutOff) {
+            var = maxCutOff;
+        }
+
+        double minCutOff = mean - this.cutoff * stdDev;
+        if(var < minCutOff) {
+            var = minCutOff;
+        }
+
+        return stdDev > 0.00001 ? (var - mean) / stdDev : 0d;
+    }
+
+    /**
+     * Bin index like {@link ml.shifu.shifu.util.BinUtils#getBinNum(ColumnConfig, Object)}.
+     */
+    private int getBinNum(Object raw) {
+        if(raw == null) {
+            return -1;
+        }
+        if(this.isCategorical) {
+            return getCategoricalBinIndex(raw.toString());
+        }
+
+        double dval;
+        if(raw instanceof Double) {
+            dval = (Double) raw;
+        } else if(raw instanceof Integer) {
+            dval = ((Integer) raw).doubleValue();
+        } else {
+            dval = parseNumber(raw);
+            if(Double.isNaN(dval) && !isNaNLiteral(raw)) {
+                return -1;
+            }
+        }
+        return getBinIndex(dval);
+    }
+
+    private int getCategoricalBinIndex(String cval) {
+        if(StringUtils.isBlank(cval)) {
+            return -1;
+        }
+        Integer index = this.binCategoryIndexMap.get(cval);
+        return (index == null || index < 0) ? -1 : index;
+    }
+
+    /**
+     * Binary search on primitive bin boundaries, the same as {@link ml.shifu.shifu.util.BinUtils#getBinIndex}.
+     */
+    private int getBinIndex(double dval) {
+        int low = 0;
+        int high = this.binBoundaries.length - 1;
+
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Double.compare(this.binBoundaries[mid], dval);
+            if(cmp < 0) {
+                low = mid + 1;
+            } else if(cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid; // key found
+            }
+        }
+
+        return low == 0 ? 0 : low - 1;
+    }
+
+    private static double parseNumber(Object raw) {
+        if(raw == null) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(raw.toString());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static boolean isNaNLiteral(Object raw) {
+        return raw != null && raw.toString().trim().endsWith("NaN");
+    }
+
+    private static Map<String, Integer> buildBinCategoryIndexMap(ColumnConfig config) {
+        if(config.getColumnBinning() != null && config.getColumnBinning().getBinCateMap() != null) {
+            return config.getColumnBinning().getBinCateMap();
+        }
+
+        Map<String, Integer> indexMap = new HashMap<String, Integer>();
+        List<String> binCategories = config.getBinCategory();
+        if(binCategories == null) {
+            return indexMap;
+        }
+        for(int i = 0; i < binCategories.size(); i++) {
+            String binVal = binCategories.get(i);
+            if(binVal == null) {
+                continue;
+            }
+            // first bin wins as in linear search of categories
+            if(!indexMap.containsKey(binVal)) {
+                indexMap.put(binVal, i);
+            }
+            for(String cval: CommonUtils.flattenCatValGrp(binVal)) {
+                if(!indexMap.containsKey(cval)) {
+                    indexMap.put(cval, i);
+                }
+            }
+        }
+        return indexMap;
+    }
+
+    private static double[] toArray(List<Double> list) {
+        if(list == null) {
+            return new double[0];
+        }
+        double[] array = new double[list.size()];
+        for(int i = 0; i < array.length; i++) {
+            Double value = list.get(i);
+            array[i] = (value == null ? Double.NaN : value.doubleValue());
+        }
+        return array;
+    }
+
+}
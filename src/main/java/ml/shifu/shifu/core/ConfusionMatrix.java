@@ -19,7 +19,6 @@ import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.Writer;
-import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -27,8 +26,6 @@ import java.util.List;
 import java.util.Scanner;
 import java.util.Set;
 
-import com.google.common.base.Splitter;
-import com.google.common.collect.Lists;
 import ml.shifu.shifu.util.*;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.ArrayUtils;
@@ -51,6 +48,7 @@ import ml.shifu.shifu.core.dtrain.CommonConstants;
 import ml.shifu.shifu.core.dtrain.nn.NNConstants;
 import ml.shifu.shifu.core.eval.AreaUnderCurve;
 import ml.shifu.shifu.core.eval.GainChart;
+import ml.shifu.shifu.core.eval.ScoreHistogram;
 import ml.shifu.shifu.exception.ShifuErrorCode;
 import ml.shifu.shifu.exception.ShifuException;
 import ml.shifu.shifu.fs.PathFinder;
@@ -116,11 +114,6 @@ public class ConfusionMatrix {
      */
     private PathFinder pathFinder;
 
-    /**
-     * Decimal format score output
-     */
-    private static DecimalFormat SCORE_FORMAT = new DecimalFormat("#.######");
-
     /**
      * Times to scale raw score
      */
@@ -297,196 +290,134 @@ public class ConfusionMatrix {
                 evalConfig.getGbtScoreConvertStrategy(), maxScore, minScore);
 
         SourceType sourceType = evalConfig.getDataSet().getSource();
-        List<Scanner> scanners = ShifuFileUtils.getDataScanners(scoreDataPath, sourceType);
-        LOG.info("Number of score files is {} in eval {}.", scanners.size(), evalConfig.getName());
+        List<String> scoreFiles = ShifuFileUtils.getDataFiles(scoreDataPath, sourceType);
+        LOG.info("Number of score files is {} in eval {}.", scoreFiles.size(), evalConfig.getName());
 
         int numBucket = evalConfig.getPerformanceBucketNum();
         boolean hasWeight = StringUtils.isNotBlank(evalConfig.getDataSet().getWeightColumnName());
         boolean isDir = ShifuFileUtils.isDir(pathFinder.getEvalScorePath(evalConfig, sourceType), sourceType);
 
-        List<PerformanceObject> FPRList = new ArrayList<PerformanceObject>(numBucket + 1);
-        List<PerformanceObject> catchRateList = new ArrayList<PerformanceObject>(numBucket + 1);
-        List<PerformanceObject> gainList = new ArrayList<PerformanceObject>(numBucket + 1);
-        List<PerformanceObject> modelScoreList = new ArrayList<PerformanceObject>(numBucket + 1);
-        List<PerformanceObject> FPRWeightList = new ArrayList<PerformanceObject>(numBucket + 1);
-        List<PerformanceObject> catchRateWeightList = new ArrayList<PerformanceObject>(numBucket + 1);
-        List<PerformanceObject> gainWeightList = new ArrayList<PerformanceObject>(numBucket + 1);
-
-        double binScore = (maxScore - minScore) * 1d / numBucket, binCapacity = 1.0 / numBucket, scoreBinCount = 0,
-                scoreBinWeigthedCount = 0;
-        int fpBin = 1, tpBin = 1, gainBin = 1, fpWeightBin = 1, tpWeightBin = 1, gainWeightBin = 1, modelScoreBin = 1;
-        long index = 0, cnt = 0, invalidTargetCnt = 0, invalidWgtCnt = 0;
+        int gbtScoreStrategy = SortedScoreConfusionMatrixBuilder.GBT_SCORE_NONE;
+        if(isGBTScoreHalfCutoffStreategy()) {
+            gbtScoreStrategy = SortedScoreConfusionMatrixBuilder.GBT_SCORE_HALF_CUTOFF;
+        } else if(isGBTScoreMaxMinScaleStreategy()) {
+            gbtScoreStrategy = SortedScoreConfusionMatrixBuilder.GBT_SCORE_MAXMIN_SCALE;
+        }
 
-        ConfusionMatrixObject prevCmo = buildInitalCmo(pigPosTags, pigNegTags, pigPosWeightTags, pigNegWeightTags,
+        // part files are read in parallel with only target, score and weight fields parsed, results are the same as
+        // reading records one by one
+        SortedScoreConfusionMatrixBuilder builder = new SortedScoreConfusionMatrixBuilder(this.delimiter, posTags,
+                negTags, targetColumnIndex, scoreColumnIndex, weightColumnIndex, numBucket, maxScore, minScore,
+                gbtScoreStrategy, maxPScore, minPScore, scoreScale, pigPosTags, pigNegTags, pigPosWeightTags,
+                pigNegWeightTags);
+        ConfusionMatrixObject initialCmo = buildInitalCmo(pigPosTags, pigNegTags, pigPosWeightTags, pigNegWeightTags,
                 maxScore);
-        PerformanceObject po = buildFirstPO(prevCmo);
-
-        FPRList.add(po);
-        catchRateList.add(po);
-        gainList.add(po);
-        FPRWeightList.add(po);
-        catchRateWeightList.add(po);
-        gainWeightList.add(po);
-        modelScoreList.add(po);
+        int threads = Environment.getInt(Constants.SHIFU_EVAL_CONFUSION_PARALLEL_NUM,
+                Runtime.getRuntime().availableProcessors());
+        // if the evaluation score file is the local file, skip the first line since we add
+        builder.build(scoreFiles, sourceType, !isDir, buildFirstPO(initialCmo), threads);
 
-        boolean isGBTScoreHalfCutoffStreategy = isGBTScoreHalfCutoffStreategy();
-        boolean isGBTScoreMaxMinScaleStreategy = isGBTScoreMaxMinScaleStreategy();
-
-        Splitter splitter = Splitter.on(delimiter).trimResults();
-
-        for(Scanner scanner: scanners) {
-            while(scanner.hasNext()) {
-                if((++cnt) % 100000L == 0L) {
-                    LOG.info("Loaded {} records.", cnt);
-                }
-                if((!isDir) && cnt == 1) {
-                    // if the evaluation score file is the local file, skip the first line since we add
-                    continue;
-                }
-
-                // score is separated by default delimiter in our pig output format
-                String[] raw = Lists.newArrayList(splitter.split(scanner.nextLine())).toArray(new String[0]);
-
-                // tag check
-                String tag = raw[targetColumnIndex];
-                if(StringUtils.isBlank(tag) || (!posTags.contains(tag) && !negTags.contains(tag))) {
-                    invalidTargetCnt += 1;
-                    continue;
-                }
-
-                double weight = 1d;
-                // if has weight
-                if(weightColumnIndex > 0) {
-                    try {
-                        weight = Double.parseDouble(raw[weightColumnIndex]);
-                    } catch (NumberFormatException e) {
-                        invalidWgtCnt += 1;
-                    }
-                    if(weight < 0d) {
-                        invalidWgtCnt += 1;
-                        weight = 1d;
-                    }
-                }
-
-                double score = 0.0;
-                try {
-                    score = Double.parseDouble(raw[scoreColumnIndex]);
-                } catch (NumberFormatException e) {
-                    // user set the score column wrong ?
-                    if(Math.random() < 0.05) {
-                        LOG.warn("The score column - {} is not number. Is score column set correctly?",
-                                raw[scoreColumnIndex]);
-                    }
-                    continue;
-                }
+        long cnt = builder.lineCnt;
+        LOG.info("Totally loading {} records with invalid target records {} and invalid weight records {} in eval {}.",
+                cnt, builder.invalidTargetCnt, builder.invalidWgtCnt, evalConfig.getName());
 
-                scoreBinCount += 1;
-                scoreBinWeigthedCount += weight;
+        PerformanceResult result = buildPerfResult(builder.FPRList, builder.catchRateList, builder.gainList,
+                builder.modelScoreList, builder.FPRWeightList, builder.catchRateWeightList, builder.gainWeightList);
 
-                ConfusionMatrixObject cmo = new ConfusionMatrixObject(prevCmo);
-                if(posTags.contains(tag)) {
-                    // Positive Instance
-                    cmo.setTp(cmo.getTp() + 1);
-                    cmo.setFn(cmo.getFn() - 1);
-                    cmo.setWeightedTp(cmo.getWeightedTp() + weight * 1.0);
-                    cmo.setWeightedFn(cmo.getWeightedFn() - weight * 1.0);
-                } else {
-                    // Negative Instance
-                    cmo.setFp(cmo.getFp() + 1);
-                    cmo.setTn(cmo.getTn() - 1);
-                    cmo.setWeightedFp(cmo.getWeightedFp() + weight * 1.0);
-                    cmo.setWeightedTn(cmo.getWeightedTn() - weight * 1.0);
-                }
+        outputPerfResult(result, hasWeight, evalPerformancePath, isPrint, isGenerateChart);
 
-                if(isGBTScoreHalfCutoffStreategy) {
-                    // half cut off means score <0 then set to 0 and then min score is 0, max score is raw max score,
-                    // use max min scale to rescale to [0, 1]
-                    if(score < 0d) {
-                        score = 0d;
-                    }
-                    score = ((score - 0) * scoreScale) / (maxPScore - 0);
-                } else if(isGBTScoreMaxMinScaleStreategy) {
-                    // use max min scaler to make score in [0, 1], don't foget to time scoreScale
-                    score = ((score - minPScore) * scoreScale) / (maxPScore - minPScore);
-                } else {
-                    // do nothing, use current score
-                }
+        if(cnt == 0) {
+            LOG.error("No score read, the EvalScore did not genernate or is null file");
+            throw new ShifuException(ShifuErrorCode.ERROR_EVALSCORE);
+        }
+        return result;
+    }
 
-                cmo.setScore(Double.parseDouble(SCORE_FORMAT.format(score)));
+    /**
+     * Compute performance from score histogram of one score column instead of sorted score files. Buckets are walked
+     * from the highest score as sorted records, each bucket is aggregated into confusion matrix at once.
+     * 
+     * @param histogram
+     *            the score histogram of one score column
+     * @param evalPerformancePath
+     *            the performance output path
+     * @param isPrint
+     *            if print performance in log
+     * @param isGenerateChart
+     *            if generate gain chart files
+     * @param isUseMaxMinScore
+     *            if use max and min score in model score bucketing
+     * @return performance result
+     * @throws IOException
+     *             any exception in writing performance files
+     */
+    public PerformanceResult computeConfusionMatrixAndPerformance(ScoreHistogram histogram,
+            String evalPerformancePath, boolean isPrint, boolean isGenerateChart, boolean isUseMaxMinScore)
+            throws IOException {
+        if(histogram == null || histogram.size() == 0) {
+            LOG.error("No score histogram read, the EvalScoreHistogram did not genernate or is null file");
+            throw new ShifuException(ShifuErrorCode.ERROR_EVALSCORE);
+        }
 
-                ConfusionMatrixObject object = cmo;
-                po = PerformanceEvaluator.setPerformanceObject(object);
-                if(po.fpr >= fpBin * binCapacity) {
-                    po.binNum = fpBin++;
-                    FPRList.add(po);
-                }
+        long pigPosTags = histogram.getTotalPosCount(), pigNegTags = histogram.getTotalNegCount();
+        double maxPScore = histogram.getMaxScore(), minPScore = histogram.getMinScore();
 
-                if(po.recall >= tpBin * binCapacity) {
-                    po.binNum = tpBin++;
-                    catchRateList.add(po);
-                }
+        double maxScore = 1d * scoreScale, minScore = 0d;
+        if(!isGBTNeedConvertScore() && isUseMaxMinScore) {
+            maxScore = maxPScore;
+            minScore = minPScore;
+        }
 
-                // prevent 99%
-                double validRecordCnt = (double) (index + 1);
-                if(validRecordCnt / (pigPosTags + pigNegTags) >= gainBin * binCapacity) {
-                    po.binNum = gainBin++;
-                    gainList.add(po);
-                }
+        LOG.info("{} Transformed (scale included) max score is {}, transformed min score is {}",
+                evalConfig.getGbtScoreConvertStrategy(), maxScore, minScore);
 
-                if(po.weightedFpr >= fpWeightBin * binCapacity) {
-                    po.binNum = fpWeightBin++;
-                    FPRWeightList.add(po);
-                }
+        int numBucket = evalConfig.getPerformanceBucketNum();
+        boolean hasWeight = StringUtils.isNotBlank(evalConfig.getDataSet().getWeightColumnName());
 
-                if(po.weightedRecall >= tpWeightBin * binCapacity) {
-                    po.binNum = tpWeightBin++;
-                    catchRateWeightList.add(po);
-                }
+        int gbtScoreStrategy = SortedScoreConfusionMatrixBuilder.GBT_SCORE_NONE;
+        if(isGBTScoreHalfCutoffStreategy()) {
+            gbtScoreStrategy = SortedScoreConfusionMatrixBuilder.GBT_SCORE_HALF_CUTOFF;
+        } else if(isGBTScoreMaxMinScaleStreategy()) {
+            gbtScoreStrategy = SortedScoreConfusionMatrixBuilder.GBT_SCORE_MAXMIN_SCALE;
+        }
 
-                if((object.getWeightedTp() + object.getWeightedFp()) / object.getWeightedTotal() >= gainWeightBin
-                        * binCapacity) {
-                    po.binNum = gainWeightBin++;
-                    gainWeightList.add(po);
-                }
+        // the same bucketing logic as sorted score files, buckets are aggregated as records
+        SortedScoreConfusionMatrixBuilder builder = new SortedScoreConfusionMatrixBuilder(this.delimiter, posTags,
+                negTags, -1, -1, -1, numBucket, maxScore, minScore, gbtScoreStrategy, maxPScore, minPScore,
+                scoreScale, pigPosTags, pigNegTags, histogram.getTotalPosWeight(), histogram.getTotalNegWeight());
+        ConfusionMatrixObject initialCmo = buildInitalCmo(pigPosTags, pigNegTags, histogram.getTotalPosWeight(),
+                histogram.getTotalNegWeight(), maxScore);
+        builder.buildFromHistogram(histogram, buildFirstPO(initialCmo));
+        LOG.info("Totally loading {} score buckets with {} records in eval {}.", histogram.size(), builder.lineCnt,
+                evalConfig.getName());
 
-                if((maxScore - (modelScoreBin * binScore)) >= score) {
-                    po.binNum = modelScoreBin++;
-                    po.scoreCount = scoreBinCount;
-                    po.scoreWgtCount = scoreBinWeigthedCount;
-                    // System.out.println("score count is " + scoreBinCount);
-                    // reset to 0 for next bin score cnt stats
-                    scoreBinCount = scoreBinWeigthedCount = 0;
-                    modelScoreList.add(po);
-                }
-                index += 1;
-                prevCmo = cmo;
-            }
-            scanner.close();
-        }
-        LOG.info("Totally loading {} records with invalid target records {} and invalid weight records {} in eval {}.",
-                cnt, invalidTargetCnt, invalidWgtCnt, evalConfig.getName());
+        PerformanceResult result = buildPerfResult(builder.FPRList, builder.catchRateList, builder.gainList,
+                builder.modelScoreList, builder.FPRWeightList, builder.catchRateWeightList, builder.gainWeightList);
 
-        PerformanceResult result = buildPerfResult(FPRList, catchRateList, gainList, modelScoreList, FPRWeightList,
-                catchRateWeightList, gainWeightList);
+        outputPerfResult(result, hasWeight, evalPerformancePath, isPrint, isGenerateChart);
+        return result;
+    }
 
+    private void outputPerfResult(PerformanceResult result, boolean hasWeight, String evalPerformancePath,
+            boolean isPrint, boolean isGenerateChart) throws IOException {
         synchronized(this.lock) {
             if(isPrint) {
-                PerformanceEvaluator.logResult(FPRList, "Bucketing False Positive Rate");
+                PerformanceEvaluator.logResult(result.roc, "Bucketing False Positive Rate");
 
                 if(hasWeight) {
-                    PerformanceEvaluator.logResult(FPRWeightList, "Bucketing Weighted False Positive Rate");
+                    PerformanceEvaluator.logResult(result.weightedRoc, "Bucketing Weighted False Positive Rate");
                 }
 
-                PerformanceEvaluator.logResult(catchRateList, "Bucketing Catch Rate");
+                PerformanceEvaluator.logResult(result.pr, "Bucketing Catch Rate");
 
                 if(hasWeight) {
-                    PerformanceEvaluator.logResult(catchRateWeightList, "Bucketing Weighted Catch Rate");
+                    PerformanceEvaluator.logResult(result.weightedPr, "Bucketing Weighted Catch Rate");
                 }
 
-                PerformanceEvaluator.logResult(gainList, "Bucketing Action Rate");
+                PerformanceEvaluator.logResult(result.gains, "Bucketing Action Rate");
 
                 if(hasWeight) {
-                    PerformanceEvaluator.logResult(gainWeightList, "Bucketing Weighted Action Rate");
+                    PerformanceEvaluator.logResult(result.weightedGains, "Bucketing Weighted Action Rate");
                 }
 
                 PerformanceEvaluator.logAucResult(result, hasWeight);
@@ -498,12 +429,6 @@ public class ConfusionMatrix {
                 generateChartAndJsonPerfFiles(hasWeight, result);
             }
         }
-
-        if(cnt == 0) {
-            LOG.error("No score read, the EvalScore did not genernate or is null file");
-            throw new ShifuException(ShifuErrorCode.ERROR_EVALSCORE);
-        }
-        return result;
     }
 
     private void writePerResult2File(String evalPerformancePath, PerformanceResult result) {
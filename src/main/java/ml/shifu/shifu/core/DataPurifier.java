@@ -23,6 +23,7 @@ import org.apache.commons.jexl2.Expression;
 import org.apache.commons.jexl2.JexlEngine;
 import org.apache.commons.jexl2.JexlException;
 import org.apache.commons.jexl2.MapContext;
+import org.apache.commons.jexl2.Script;
 import org.apache.commons.lang.StringUtils;
 import org.apache.pig.backend.executionengine.ExecException;
 import org.apache.pig.data.Tuple;
@@ -30,6 +31,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * DataPurifier class
@@ -44,6 +49,24 @@ public class DataPurifier {
     private ShifuMapContext jc = new ShifuMapContext();
     private JexlEngine jexl;
 
+    /**
+     * Column indexes and variable names bound into context for text records, only columns referenced by filter
+     * expression are bound, in the same order as binding all full and simple names of headers.
+     */
+    private int[] bindIndexes;
+    private String[] bindNames;
+
+    /**
+     * Column indexes and full names bound into context for tuple records.
+     */
+    private int[] tupleBindIndexes;
+    private String[] tupleBindNames;
+
+    /**
+     * Reusable fields of text record, only fields up to the last referenced column are extracted.
+     */
+    private String[] fields;
+
     public DataPurifier(ModelConfig modelConfig, boolean isForValidationDataSet) throws IOException {
         String filterExpression = (isForValidationDataSet ?
                 modelConfig.getDataSet().getValidationFilterExpressions() : modelConfig.getFilterExpressions());
@@ -58,6 +81,7 @@ public class DataPurifier {
             }
             this.headers = CommonUtils.getFinalHeaders(modelConfig);
             dataDelimiter = modelConfig.getDataSetDelimiter();
+            compileBindings();
         }
     }
 
@@ -77,6 +101,7 @@ public class DataPurifier {
             }
             this.headers = CommonUtils.getFinalHeaders(modelConfig);
             dataDelimiter = modelConfig.getDataSetDelimiter();
+            compileBindings();
         }
     }
 
@@ -97,7 +122,105 @@ public class DataPurifier {
 
             headers = CommonUtils.getFinalHeaders(evalConfig);
             dataDelimiter = evalConfig.getDataSet().getDataDelimiter();
+            compileBindings();
+        }
+    }
+
+    /**
+     * Analyze variables of filter expression once, then only referenced columns are bound for each record instead of
+     * all headers with their full and simple names. If variables cannot be analyzed, all headers are bound.
+     */
+    private void compileBindings() {
+        if(dataFilterExpr == null) {
+            return;
         }
+
+        Set<String> variables = getVariables();
+        List<Integer> indexes = new ArrayList<Integer>();
+        List<String> names = new ArrayList<String>();
+        List<Integer> tupleIndexes = new ArrayList<Integer>();
+        List<String> tupleNames = new ArrayList<String>();
+        int fieldSize = 0;
+        for(int i = 0; i < headers.length; i++) {
+            String simpleName = new NSColumn(headers[i]).getSimpleName();
+            if(variables == null || variables.contains(headers[i])) {
+                indexes.add(i);
+                names.add(headers[i]);
+                tupleIndexes.add(i);
+                tupleNames.add(headers[i]);
+                fieldSize = i + 1;
+            }
+            if(variables == null || variables.contains(simpleName)) {
+                indexes.add(i);
+                names.add(simpleName);
+                fieldSize = i + 1;
+            }
+        }
+
+        this.bindIndexes = toIntArray(indexes);
+        this.bindNames = names.toArray(new String[0]);
+        this.tupleBindIndexes = toIntArray(tupleIndexes);
+        this.tupleBindNames = tupleNames.toArray(new String[0]);
+        this.fields = new String[fieldSize];
+        log.debug("Filter expression {} binds columns {}.", dataFilterExpr.getExpression(), names);
+    }
+
+    /**
+     * Variable names referenced in filter expression, for ant-ish variables like 'a.b.c', 'a', 'a.b' and 'a.b.c' are
+     * all included to match column names with dots.
+     * 
+     * @return referenced variable names, or null if expression cannot be analyzed
+     */
+    private Set<String> getVariables() {
+        if(!(dataFilterExpr instanceof Script)) {
+            return null;
+        }
+        try {
+            Set<String> variables = new HashSet<String>();
+            for(List<String> path: jexl.getVariables((Script) dataFilterExpr)) {
+                StringBuilder name = new StringBuilder();
+                for(String part: path) {
+                    if(name.length() > 0) {
+                        name.append('.');
+                    }
+                    name.append(part);
+                    variables.add(name.toString());
+                }
+            }
+            return variables;
+        } catch (RuntimeException e) {
+            log.warn("Fail to analyze variables of expression {}, all columns are bound.",
+                    dataFilterExpr.getExpression(), e);
+            return null;
+        }
+    }
+
+    private static int[] toIntArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for(int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Extract fields of record into {@link #fields}, fields after the last referenced column are only counted.
+     * 
+     * @return number of fields in record
+     */
+    private int extractFields(String record) {
+        if(StringUtils.isEmpty(record) || StringUtils.isEmpty(dataDelimiter)) {
+            throw new IllegalArgumentException(String.format(
+                    "raw and delimeter should not be null or empty, raw:%s, delimeter:%s", record, dataDelimiter));
+        }
+        return CommonUtils.split(record, dataDelimiter, fields);
+    }
+
+    /**
+     * @return if records are filtered by a valid filter expression
+     */
+    public boolean hasFilter() {
+        return dataFilterExpr != null;
     }
 
     public Boolean isFilter(String record) {
@@ -105,18 +228,16 @@ public class DataPurifier {
             return true;
         }
 
-        String[] fields = CommonUtils.split(record, dataDelimiter);
-        if(fields == null || fields.length != headers.length) {
+        if(extractFields(record) != headers.length) {
             // illegal format data, just skip
             return false;
         }
 
         jc.clear();
 
-        for(int i = 0; i < fields.length; i++) {
-            NSColumn nsColumn = new NSColumn(headers[i]);
-            jc.set(headers[i], (fields[i] == null ? "" : fields[i]));
-            jc.set(nsColumn.getSimpleName(), (fields[i] == null ? "" : fields[i]));
+        for(int i = 0; i < bindIndexes.length; i++) {
+            String field = fields[bindIndexes[i]];
+            jc.set(bindNames[i], (field == null ? "" : field));
         }
 
         Boolean result = Boolean.FALSE;
@@ -154,8 +275,9 @@ public class DataPurifier {
 
         jc.clear();
 
-        for(int i = 0; i < input.size(); i++) {
-            jc.set(headers[i], ((input.get(i) == null) ? null : input.get(i).toString()));
+        for(int i = 0; i < tupleBindIndexes.length; i++) {
+            Object value = input.get(tupleBindIndexes[i]);
+            jc.set(tupleBindNames[i], ((value == null) ? null : value.toString()));
         }
 
         Boolean result = Boolean.FALSE;
@@ -24,6 +24,7 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 import ml.shifu.shifu.util.NormalUtils;
 import org.apache.commons.collections.CollectionUtils;
@@ -86,6 +87,11 @@ public class Scorer {
 
     private Map<String, MLDataPair> cachedNormDataPair;
 
+    /**
+     * Per column normalizers (column num as key) built once and reused for each record
+     */
+    private Map<Integer, ColumnNormalizer> columnNormalizers = new ConcurrentHashMap<Integer, ColumnNormalizer>();
+
     /**
      * Run model in parallel. Size is # of models.
      */
@@ -219,7 +225,7 @@ public class Scorer {
     public ScoreObject scoreNsData(MLDataPair inputPair, Map<NSColumn, String> rawNsDataMap) {
         if(inputPair == null && !this.alg.equalsIgnoreCase(NNConstants.NN_ALG_NAME)) {
             inputPair = NormalUtils.assembleNsDataPair(binCategoryMap, noVarSelect, modelConfig,
-                    selectedColumnConfigList, rawNsDataMap, cutoff, alg);
+                    selectedColumnConfigList, rawNsDataMap, cutoff, alg, null, columnNormalizers);
         }
 
         // clear cache
@@ -243,7 +249,8 @@ public class Scorer {
                 MLDataPair dataPair = cachedNormDataPair.get(cacheKey);
                 if ( dataPair == null ) {
                     dataPair = NormalUtils.assembleNsDataPair(binCategoryMap, noVarSelect, modelConfig,
-                            selectedColumnConfigList, rawNsDataMap, cutoff, alg, network.getFeatureSet());
+                            selectedColumnConfigList, rawNsDataMap, cutoff, alg, network.getFeatureSet(),
+                            columnNormalizers);
                     cachedNormDataPair.put(cacheKey, dataPair);
                 }
                 final MLDataPair networkPair = dataPair;
@@ -293,7 +300,7 @@ public class Scorer {
             } else if(model instanceof BasicNetwork) {
                 final BasicNetwork network = (BasicNetwork) model;
                 final MLDataPair networkPair = NormalUtils.assembleNsDataPair(binCategoryMap, noVarSelect, modelConfig,
-                        columnConfigList, rawNsDataMap, cutoff, alg, null);
+                        columnConfigList, rawNsDataMap, cutoff, alg, null, columnNormalizers);
 
                 Callable<MLData> callable = new Callable<MLData>() {
                     @Override
@@ -0,0 +1,617 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ml.shifu.shifu.container.ConfusionMatrixObject;
+import ml.shifu.shifu.container.PerformanceObject;
+import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
+import ml.shifu.shifu.core.eval.ScoreHistogram;
+import ml.shifu.shifu.fs.ShifuFileUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Build bucketing performance lists from score files sorted by score in descending order, part files are in global
+ * order by file name. Lists can also be built from a {@link ScoreHistogram} by
+ * {@link #buildFromHistogram(ScoreHistogram, PerformanceObject)}, buckets are walked from the highest score with the same bucketing
+ * logic as sorted records.
+ *
+ * <p>
+ * Part files are read in parallel in two passes. The first pass only counts positive and negative records of each
+ * file, prefix sums of such counts are confusion matrix before each file. The second pass computes performance
+ * objects of each file from its start confusion matrix. Bins of a file start as if each former record crosses at most
+ * one bin, which is checked when results are stitched in file order and the file is computed again from the real start
+ * state if not true. So results are the same as reading all records one by one.
+ *
+ * <p>
+ * Only target, score and weight fields are parsed and no object is created per record.
+ */
+class SortedScoreConfusionMatrixBuilder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SortedScoreConfusionMatrixBuilder.class);
+
+    /**
+     * Score is kept with 6 decimal digits as '#.######' format
+     */
+    private static final double SCORE_PRECISION = 1000000d;
+
+    static final int GBT_SCORE_NONE = 0;
+    static final int GBT_SCORE_HALF_CUTOFF = 1;
+    static final int GBT_SCORE_MAXMIN_SCALE = 2;
+
+    private final String delimiter;
+    private final Set<String> posTags;
+    private final Set<String> negTags;
+    private final int targetColumnIndex;
+    private final int scoreColumnIndex;
+    private final int weightColumnIndex;
+
+    private final int numBucket;
+    private final double maxScore;
+    private final double binScore;
+    private final double binCapacity;
+
+    private final int gbtScoreStrategy;
+    private final double maxPScore;
+    private final double minPScore;
+    private final double scoreScale;
+
+    private final long pigPosTags;
+    private final long pigNegTags;
+    private final double pigPosWeightTags;
+    private final double pigNegWeightTags;
+
+    final List<PerformanceObject> FPRList;
+    final List<PerformanceObject> catchRateList;
+    final List<PerformanceObject> gainList;
+    final List<PerformanceObject> modelScoreList;
+    final List<PerformanceObject> FPRWeightList;
+    final List<PerformanceObject> catchRateWeightList;
+    final List<PerformanceObject> gainWeightList;
+
+    long lineCnt;
+    long invalidTargetCnt;
+    long invalidWgtCnt;
+
+    SortedScoreConfusionMatrixBuilder(String delimiter, Set<String> posTags, Set<String> negTags,
+            int targetColumnIndex, int scoreColumnIndex, int weightColumnIndex, int numBucket, double maxScore,
+            double minScore, int gbtScoreStrategy, double maxPScore, double minPScore, double scoreScale,
+            long pigPosTags, long pigNegTags, double pigPosWeightTags, double pigNegWeightTags) {
+        this.delimiter = delimiter;
+        this.posTags = posTags;
+        this.negTags = negTags;
+        this.targetColumnIndex = targetColumnIndex;
+        this.scoreColumnIndex = scoreColumnIndex;
+        this.weightColumnIndex = weightColumnIndex;
+        this.numBucket = numBucket;
+        this.maxScore = maxScore;
+        this.binScore = (maxScore - minScore) * 1d / numBucket;
+        this.binCapacity = 1.0 / numBucket;
+        this.gbtScoreStrategy = gbtScoreStrategy;
+        this.maxPScore = maxPScore;
+        this.minPScore = minPScore;
+        this.scoreScale = scoreScale;
+        this.pigPosTags = pigPosTags;
+        this.pigNegTags = pigNegTags;
+        this.pigPosWeightTags = pigPosWeightTags;
+        this.pigNegWeightTags = pigNegWeightTags;
+
+        this.FPRList = new ArrayList<PerformanceObject>(numBucket + 1);
+        this.catchRateList = new ArrayList<PerformanceObject>(numBucket + 1);
+        this.gainList = new ArrayList<PerformanceObject>(numBucket + 1);
+        this.modelScoreList = new ArrayList<PerformanceObject>(numBucket + 1);
+        this.FPRWeightList = new ArrayList<PerformanceObject>(numBucket + 1);
+        this.catchRateWeightList = new ArrayList<PerformanceObject>(numBucket + 1);
+        this.gainWeightList = new ArrayList<PerformanceObject>(numBucket + 1);
+    }
+
+    /**
+     * Build performance lists from sorted score files.
+     *
+     * @param files
+     *            score part files in score descending order
+     * @param sourceType
+     *            source type of files
+     * @param isSkipFirstLine
+     *            if first line of the first file is header
+     * @param firstPo
+     *            the first performance object of all lists
+     * @param threads
+     *            max threads to read files
+     * @throws IOException
+     *             any exception in reading files
+     */
+    void build(final List<String> files, final SourceType sourceType, final boolean isSkipFirstLine,
+            PerformanceObject firstPo, int threads) throws IOException {
+        addToAll(firstPo);
+        if(files.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, files.size())));
+        try {
+            // 1. count positive and negative records in each file
+            List<Future<FileResult>> countFutures = new ArrayList<Future<FileResult>>(files.size());
+            for(int i = 0; i < files.size(); i++) {
+                final String file = files.get(i);
+                final boolean isSkip = isSkipFirstLine && i == 0;
+                countFutures.add(executor.submit(new Callable<FileResult>() {
+                    @Override
+                    public FileResult call() throws IOException {
+                        return process(file, sourceType, isSkip, null);
+                    }
+                }));
+            }
+            List<FileResult> counts = getAll(countFutures);
+
+            // 2. compute each file from prefix sums of former files
+            List<State> startStates = new ArrayList<State>(files.size());
+            State prefix = new State();
+            for(FileResult count: counts) {
+                startStates.add(newLagFreeState(prefix));
+                prefix.tp += count.state.tp;
+                prefix.fp += count.state.fp;
+                prefix.weightedTp += count.state.weightedTp;
+                prefix.weightedFp += count.state.weightedFp;
+                prefix.index += count.state.index;
+                if(count.state.hasScore) {
+                    prefix.hasScore = true;
+                    prefix.lastScore = count.state.lastScore;
+                }
+                this.lineCnt += count.lineCnt;
+                this.invalidTargetCnt += count.invalidTargetCnt;
+                this.invalidWgtCnt += count.invalidWgtCnt;
+            }
+
+            List<Future<FileResult>> futures = new ArrayList<Future<FileResult>>(files.size());
+            for(int i = 0; i < files.size(); i++) {
+                final String file = files.get(i);
+                final boolean isSkip = isSkipFirstLine && i == 0;
+                final State start = startStates.get(i);
+                futures.add(executor.submit(new Callable<FileResult>() {
+                    @Override
+                    public FileResult call() throws IOException {
+                        return process(file, sourceType, isSkip, start);
+                    }
+                }));
+            }
+            List<FileResult> results = getAll(futures);
+
+            // 3. stitch results in file order
+            State current = new State();
+            for(int i = 0; i < results.size(); i++) {
+                FileResult result = results.get(i);
+                if(!current.isSameBins(startStates.get(i))) {
+                    LOG.info("Score file {} is computed again as bins in former files are not consistent.",
+                            files.get(i));
+                    result = process(files.get(i), sourceType, isSkipFirstLine && i == 0, current.copy());
+                } else if(!result.modelScoreList.isEmpty()) {
+                    // score count before the first model score bin in this file belongs to the bin
+                    PerformanceObject po = result.modelScoreList.get(0);
+                    po.scoreCount += current.scoreBinCount;
+                    po.scoreWgtCount += current.scoreBinWeightedCount;
+                } else {
+                    result.state.scoreBinCount += current.scoreBinCount;
+                    result.state.scoreBinWeightedCount += current.scoreBinWeightedCount;
+                }
+                result.addTo(this);
+                current = result.state;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Build performance lists from score buckets, each bucket is aggregated into confusion matrix at once as the
+     * records in it. A bucket may cross several bins of one list, bins are bounded by bucket number.
+     *
+     * @param histogram
+     *            score histogram of one score column
+     * @param firstPo
+     *            the first performance object of all lists
+     */
+    void buildFromHistogram(ScoreHistogram histogram, PerformanceObject firstPo) {
+        addToAll(firstPo);
+        histogram.sortDesc();
+
+        FileResult result = new FileResult(new State());
+        State state = result.state;
+        ConfusionMatrixObject cmo = new ConfusionMatrixObject();
+        for(int i = 0; i < histogram.size(); i++) {
+            long posCount = histogram.getPosCount(i), negCount = histogram.getNegCount(i);
+            double posWeight = histogram.getPosWeight(i), negWeight = histogram.getNegWeight(i);
+            state.tp += posCount;
+            state.fp += negCount;
+            state.weightedTp += posWeight;
+            state.weightedFp += negWeight;
+            state.scoreBinCount += posCount + negCount;
+            state.scoreBinWeightedCount += posWeight + negWeight;
+            state.index += posCount + negCount;
+
+            // lowest score in bucket is the score of the last record in bucket
+            double score = transformScore(histogram.getMinScore(i));
+            state.lastScore = score;
+            state.hasScore = true;
+
+            setCmo(cmo, state);
+            cmo.setScore(roundScore(score));
+            while(bucketing(cmo, state, score, result, this.numBucket)) {
+                // one bucket may cross several bins, each crossed bin is added
+            }
+        }
+        result.addTo(this);
+        this.lineCnt = state.index;
+    }
+
+    private static List<FileResult> getAll(List<Future<FileResult>> futures) throws IOException {
+        List<FileResult> results = new ArrayList<FileResult>(futures.size());
+        for(Future<FileResult> future: futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                if(e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private void addToAll(PerformanceObject po) {
+        this.FPRList.add(po);
+        this.catchRateList.add(po);
+        this.gainList.add(po);
+        this.FPRWeightList.add(po);
+        this.catchRateWeightList.add(po);
+        this.gainWeightList.add(po);
+        this.modelScoreList.add(po);
+    }
+
+    /**
+     * Start state of a file with counts of former records, each bin is the first one not crossed by former records.
+     */
+    private State newLagFreeState(State prefix) {
+        State state = prefix.copy();
+        state.scoreBinCount = state.scoreBinWeightedCount = 0d;
+        ConfusionMatrixObject cmo = newCmo(state);
+        if(state.index == 0L) {
+            return state;
+        }
+        double fpr = cmo.getFp() / (cmo.getFp() + cmo.getTn());
+        double recall = cmo.getTp() / (cmo.getTp() + cmo.getFn());
+        double weightedFpr = cmo.getWeightedFp() / (cmo.getWeightedFp() + cmo.getWeightedTn());
+        double weightedRecall = cmo.getWeightedTp() / (cmo.getWeightedTp() + cmo.getWeightedFn());
+        double gain = state.index * 1d / (this.pigPosTags + this.pigNegTags);
+        double weightedGain = (cmo.getWeightedTp() + cmo.getWeightedFp()) / cmo.getWeightedTotal();
+
+        state.fpBin = firstNotCrossedBin(fpr);
+        state.tpBin = firstNotCrossedBin(recall);
+        state.gainBin = firstNotCrossedBin(gain);
+        state.fpWeightBin = firstNotCrossedBin(weightedFpr);
+        state.tpWeightBin = firstNotCrossedBin(weightedRecall);
+        state.gainWeightBin = firstNotCrossedBin(weightedGain);
+        int modelScoreBin = 1;
+        while(modelScoreBin <= this.numBucket + 1 && (this.maxScore - (modelScoreBin * this.binScore)) >= state.lastScore) {
+            modelScoreBin += 1;
+        }
+        state.modelScoreBin = modelScoreBin;
+        return state;
+    }
+
+    private int firstNotCrossedBin(double value) {
+        int bin = 1;
+        // NaN is never crossed as in record by record computing
+        while(bin <= this.numBucket + 1 && value >= bin * this.binCapacity) {
+            bin += 1;
+        }
+        return bin;
+    }
+
+    private ConfusionMatrixObject newCmo(State state) {
+        ConfusionMatrixObject cmo = new ConfusionMatrixObject();
+        setCmo(cmo, state);
+        return cmo;
+    }
+
+    private void setCmo(ConfusionMatrixObject cmo, State state) {
+        cmo.setTp(state.tp);
+        cmo.setFp(state.fp);
+        cmo.setFn(this.pigPosTags - state.tp);
+        cmo.setTn(this.pigNegTags - state.fp);
+        cmo.setWeightedTp(state.weightedTp);
+        cmo.setWeightedFp(state.weightedFp);
+        cmo.setWeightedFn(this.pigPosWeightTags - state.weightedTp);
+        cmo.setWeightedTn(this.pigNegWeightTags - state.weightedFp);
+    }
+
+    /**
+     * Read one score file, only count records if start is null or else compute performance objects from start state.
+     */
+    private FileResult process(String file, SourceType sourceType, boolean isSkipFirstLine, State start)
+            throws IOException {
+        FileResult result = new FileResult(start == null ? new State() : start.copy());
+        State state = result.state;
+        ConfusionMatrixObject cmo = new ConfusionMatrixObject();
+        int maxIndex = Math.max(this.targetColumnIndex, Math.max(this.scoreColumnIndex, this.weightColumnIndex));
+        String[] fields = new String[maxIndex + 1];
+
+        BufferedReader reader = ShifuFileUtils.getReader(file, sourceType);
+        try {
+            String line;
+            while((line = reader.readLine()) != null) {
+                result.lineCnt += 1;
+                if(isSkipFirstLine && result.lineCnt == 1L) {
+                    continue;
+                }
+
+                extractFields(line, fields);
+
+                // tag check
+                String tag = fields[this.targetColumnIndex];
+                boolean isPositive = tag != null && this.posTags.contains(tag);
+                if(tag == null || tag.length() == 0 || (!isPositive && !this.negTags.contains(tag))) {
+                    result.invalidTargetCnt += 1;
+                    continue;
+                }
+
+                double weight = 1d;
+                if(this.weightColumnIndex > 0) {
+                    try {
+                        weight = Double.parseDouble(fields[this.weightColumnIndex]);
+                    } catch (NumberFormatException e) {
+                        result.invalidWgtCnt += 1;
+                    } catch (NullPointerException e) {
+                        result.invalidWgtCnt += 1;
+                    }
+                    if(weight < 0d) {
+                        result.invalidWgtCnt += 1;
+                        weight = 1d;
+                    }
+                }
+
+                double score;
+                try {
+                    score = Double.parseDouble(fields[this.scoreColumnIndex]);
+                } catch (NumberFormatException e) {
+                    continue;
+                } catch (NullPointerException e) {
+                    continue;
+                }
+                score = transformScore(score);
+
+                if(isPositive) {
+                    state.tp += 1;
+                    state.weightedTp += weight;
+                } else {
+                    state.fp += 1;
+                    state.weightedFp += weight;
+                }
+                state.scoreBinCount += 1;
+                state.scoreBinWeightedCount += weight;
+                state.index += 1;
+                state.lastScore = score;
+                state.hasScore = true;
+
+                if(start != null) {
+                    setCmo(cmo, state);
+                    cmo.setScore(roundScore(score));
+                    bucketing(cmo, state, score, result, Integer.MAX_VALUE);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return result;
+    }
+
+    /**
+     * Same bucketing logic as computing record by record, performance object is only created if some bin is crossed.
+     *
+     * @return true if any bin is crossed
+     */
+    private boolean bucketing(ConfusionMatrixObject cmo, State state, double score, FileResult result, int maxBin) {
+        double fpr = cmo.getFp() / (cmo.getFp() + cmo.getTn());
+        double recall = cmo.getTp() / (cmo.getTp() + cmo.getFn());
+        double weightedFpr = cmo.getWeightedFp() / (cmo.getWeightedFp() + cmo.getWeightedTn());
+        double weightedRecall = cmo.getWeightedTp() / (cmo.getWeightedTp() + cmo.getWeightedFn());
+        boolean isFpBin = state.fpBin <= maxBin && fpr >= state.fpBin * this.binCapacity;
+        boolean isTpBin = state.tpBin <= maxBin && recall >= state.tpBin * this.binCapacity;
+        boolean isGainBin = state.gainBin <= maxBin
+                && state.index * 1d / (this.pigPosTags + this.pigNegTags) >= state.gainBin * this.binCapacity;
+        boolean isFpWeightBin = state.fpWeightBin <= maxBin && weightedFpr >= state.fpWeightBin * this.binCapacity;
+        boolean isTpWeightBin = state.tpWeightBin <= maxBin
+                && weightedRecall >= state.tpWeightBin * this.binCapacity;
+        boolean isGainWeightBin = state.gainWeightBin <= maxBin
+                && (cmo.getWeightedTp() + cmo.getWeightedFp()) / cmo.getWeightedTotal() >= state.gainWeightBin
+                        * this.binCapacity;
+        boolean isModelScoreBin = state.modelScoreBin <= maxBin
+                && (this.maxScore - (state.modelScoreBin * this.binScore)) >= score;
+        if(!(isFpBin || isTpBin || isGainBin || isFpWeightBin || isTpWeightBin || isGainWeightBin || isModelScoreBin)) {
+            return false;
+        }
+
+        PerformanceObject po = PerformanceEvaluator.setPerformanceObject(cmo);
+        if(isFpBin) {
+            po.binNum = state.fpBin++;
+            result.FPRList.add(po);
+        }
+        if(isTpBin) {
+            po.binNum = state.tpBin++;
+            result.catchRateList.add(po);
+        }
+        if(isGainBin) {
+            po.binNum = state.gainBin++;
+            result.gainList.add(po);
+        }
+        if(isFpWeightBin) {
+            po.binNum = state.fpWeightBin++;
+            result.FPRWeightList.add(po);
+        }
+        if(isTpWeightBin) {
+            po.binNum = state.tpWeightBin++;
+            result.catchRateWeightList.add(po);
+        }
+        if(isGainWeightBin) {
+            po.binNum = state.gainWeightBin++;
+            result.gainWeightList.add(po);
+        }
+        if(isModelScoreBin) {
+            po.binNum = state.modelScoreBin++;
+            po.scoreCount = state.scoreBinCount;
+            po.scoreWgtCount = state.scoreBinWeightedCount;
+            // reset to 0 for next bin score cnt stats
+            state.scoreBinCount = state.scoreBinWeightedCount = 0;
+            result.modelScoreList.add(po);
+        }
+        return true;
+    }
+
+    private double transformScore(double score) {
+        switch(this.gbtScoreStrategy) {
+            case GBT_SCORE_HALF_CUTOFF:
+                // half cut off means score <0 then set to 0 and then min score is 0, max score is raw max score,
+                // use max min scale to rescale to [0, 1]
+                if(score < 0d) {
+                    score = 0d;
+                }
+                score = ((score - 0) * this.scoreScale) / (this.maxPScore - 0);
+                break;
+            case GBT_SCORE_MAXMIN_SCALE:
+                // use max min scaler to make score in [0, 1], don't foget to time scoreScale
+                score = ((score - this.minPScore) * this.scoreScale) / (this.maxPScore - this.minPScore);
+                break;
+            default:
+                break;
+        }
+        return score;
+    }
+
+    /**
+     * Round score to 6 decimal digits, same as formatting with '#.######' and parsing back.
+     */
+    static double roundScore(double score) {
+        if(Double.isNaN(score) || Double.isInfinite(score)) {
+            return score;
+        }
+        return Math.rint(score * SCORE_PRECISION) / SCORE_PRECISION;
+    }
+
+    /**
+     * Extract trimmed fields of line into fields array, fields not existing are set to null.
+     */
+    void extractFields(String line, String[] fields) {
+        int start = 0, delimiterLength = this.delimiter.length();
+        for(int i = 0; i < fields.length; i++) {
+            if(start > line.length()) {
+                fields[i] = null;
+                continue;
+            }
+            int end = line.indexOf(this.delimiter, start);
+            if(end < 0) {
+                end = line.length();
+            }
+            fields[i] = line.substring(start, end).trim();
+            start = end + delimiterLength;
+        }
+    }
+
+    /**
+     * Confusion matrix counts and bins after some record.
+     */
+    private static class State {
+        double tp, fp, weightedTp, weightedFp;
+        long index;
+        double lastScore = Double.NaN;
+        boolean hasScore;
+        int fpBin = 1, tpBin = 1, gainBin = 1, fpWeightBin = 1, tpWeightBin = 1, gainWeightBin = 1,
+                modelScoreBin = 1;
+        double scoreBinCount, scoreBinWeightedCount;
+
+        State copy() {
+            State state = new State();
+            state.tp = this.tp;
+            state.fp = this.fp;
+            state.weightedTp = this.weightedTp;
+            state.weightedFp = this.weightedFp;
+            state.index = this.index;
+            state.lastScore = this.lastScore;
+            state.hasScore = this.hasScore;
+            state.fpBin = this.fpBin;
+            state.tpBin = this.tpBin;
+            state.gainBin = this.gainBin;
+            state.fpWeightBin = this.fpWeightBin;
+            state.tpWeightBin = this.tpWeightBin;
+            state.gainWeightBin = this.gainWeightBin;
+            state.modelScoreBin = this.modelScoreBin;
+            state.scoreBinCount = this.scoreBinCount;
+            state.scoreBinWeightedCount = this.scoreBinWeightedCount;
+            return state;
+        }
+
+        boolean isSameBins(State other) {
+            return this.fpBin == other.fpBin && this.tpBin == other.tpBin && this.gainBin == other.gainBin
+                    && this.fpWeightBin == other.fpWeightBin && this.tpWeightBin == other.tpWeightBin
+                    && this.gainWeightBin == other.gainWeightBin && this.modelScoreBin == other.modelScoreBin;
+        }
+    }
+
+    /**
+     * Performance objects and end state of one file.
+     */
+    private static class FileResult {
+        final State state;
+        long lineCnt, invalidTargetCnt, invalidWgtCnt;
+        final List<PerformanceObject> FPRList = new ArrayList<PerformanceObject>();
+        final List<PerformanceObject> catchRateList = new ArrayList<PerformanceObject>();
+        final List<PerformanceObject> gainList = new ArrayList<PerformanceObject>();
+        final List<PerformanceObject> modelScoreList = new ArrayList<PerformanceObject>();
+        final List<PerformanceObject> FPRWeightList = new ArrayList<PerformanceObject>();
+        final List<PerformanceObject> catchRateWeightList = new ArrayList<PerformanceObject>();
+        final List<PerformanceObject> gainWeightList = new ArrayList<PerformanceObject>();
+
+        FileResult(State state) {
+            this.state = state;
+        }
+
+        void addTo(SortedScoreConfusionMatrixBuilder builder) {
+            builder.FPRList.addAll(this.FPRList);
+            builder.catchRateList.addAll(this.catchRateList);
+            builder.gainList.addAll(this.gainList);
+            builder.modelScoreList.addAll(this.modelScoreList);
+            builder.FPRWeightList.addAll(this.FPRWeightList);
+            builder.catchRateWeightList.addAll(this.catchRateWeightList);
+            builder.gainWeightList.addAll(this.gainWeightList);
+        }
+    }
+
+}
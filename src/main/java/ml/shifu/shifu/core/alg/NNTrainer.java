@@ -78,6 +78,12 @@ public class NNTrainer extends AbstractTrainer {
      */
     private ConvergeJudger judger = new ConvergeJudger();
 
+    /**
+     * Threads used in training and validation, 0 is to use all processors. Set to 1 if many trainers are run at the
+     * same time.
+     */
+    private int threadCount = 0;
+
     static {
         // TODO use UnmodifiableMap or use other immutable Collections such as guava's
         Map<String, Double> tmpLearningRate = new HashMap<String, Double>();
@@ -177,7 +183,7 @@ public class NNTrainer extends AbstractTrainer {
         buildNetwork();
 
         Propagation mlTrain = getMLTrain();
-        mlTrain.setThreadCount(0);
+        mlTrain.setThreadCount(this.threadCount);
 
         if(this.dryRun) {
             return 0.0;
@@ -247,6 +253,14 @@ public class NNTrainer extends AbstractTrainer {
         this.toPersistentModel = false;
     }
 
+    /**
+     * @param threadCount
+     *            threads used in training and validation, 0 is to use all processors
+     */
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
     public void enableLogging() {
         this.toLoggingProcess = true;
     }
@@ -306,6 +320,12 @@ public class NNTrainer extends AbstractTrainer {
 
     private double getValidSetError() {
         // return calculateMSE(this.network, this.validSet);
+        if(this.threadCount == 1) {
+            MSEWorker worker = new MSEWorker(this.network, this.validSet, 0,
+                    (int) this.validSet.getRecordCount() - 1);
+            worker.run();
+            return worker.getTotalError() / this.validSet.getRecordCount();
+        }
         return calculateMSEParallel(this.network, this.validSet);
     }
 
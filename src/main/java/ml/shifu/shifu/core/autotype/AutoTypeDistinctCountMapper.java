@@ -16,11 +16,17 @@
 package ml.shifu.shifu.core.autotype;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import ml.shifu.shifu.container.obj.ColumnConfig;
 import ml.shifu.shifu.container.obj.ModelConfig;
@@ -41,11 +47,42 @@ import com.clearspring.analytics.stream.cardinality.HyperLogLogPlus;
 /**
  * {@link AutoTypeDistinctCountMapper} is a mapper to get {@link HyperLogLogPlus} statistics per split. Such statistics
  * will be merged in our reducer.
+ * 
+ * <p>
+ * Fields are checked and hashed on UTF-8 bytes of records without creating strings. Records are buffered in batches
+ * and columns of one batch are processed by column groups in parallel, each column is only updated by one thread.
+ * Frequent items are kept by {@link FrequentItemsSketch}.
+ * 
+ * <p>
+ * Columns are sampled adaptively: every {@link Constants#SHIFU_AUTOTYPE_SAMPLE_CHECK_INTERVAL} records, if distinct
+ * count of one column grows less than {@link Constants#SHIFU_AUTOTYPE_SAMPLE_STABLE_RATIO} in two checks, the column
+ * is not updated any more. Counts of such column are sample counts, which is fine as only ratios of counts are used
+ * in auto type checking. If all columns are stable, remaining records are skipped. A column is only checked after
+ * it has at least {@link Constants#SHIFU_AUTOTYPE_SAMPLE_CHECK_INTERVAL} non-missing values, so columns which are
+ * missing in leading records are not stopped at zero distinct count. Samples are leading records of each split, not
+ * random records.
  */
 public class AutoTypeDistinctCountMapper extends Mapper<LongWritable, Text, IntWritable, CountAndFrequentItemsWritable> {
 
     private final static Logger LOG = LoggerFactory.getLogger(AutoTypeDistinctCountMapper.class);
 
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Records buffered in one batch.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * Minimal columns of one column group, small tables are not processed in parallel.
+     */
+    private static final int MIN_GROUP_COLUMNS = 50;
+
+    /**
+     * Stable checks to stop sampling one column.
+     */
+    private static final int STABLE_CHECKS = 2;
+
     /**
      * Model Config read from HDFS
      */
@@ -62,9 +99,9 @@ public class AutoTypeDistinctCountMapper extends Mapper<LongWritable, Text, IntW
     private IntWritable outputKey;
 
     /**
-     * Using approximate method to estimate real frequent items and store into this map
+     * Using approximate method to estimate real frequent items, one per column
      */
-    private Map<Integer, CountAndFrequentItems> variableCountMap;
+    private ColumnSketch[] columnSketches;
 
     /**
      * Tag column index
@@ -84,6 +121,53 @@ public class AutoTypeDistinctCountMapper extends Mapper<LongWritable, Text, IntW
      */
     private Set<String> missingOrInvalidValues;
 
+    /**
+     * UTF-8 bytes of missing or invalid values, to check ASCII fields without creating strings.
+     */
+    private byte[][] missingOrInvalidBytes;
+
+    private byte[] delimiter;
+
+    /**
+     * Bytes of buffered records.
+     */
+    private byte[] batchBytes = new byte[64 * 1024];
+
+    private int batchBytesSize;
+
+    /**
+     * Field starts of buffered records, columns + 1 per record. The end of field i is start of field i + 1 minus
+     * delimiter length.
+     */
+    private int[] batchFieldStarts;
+
+    /**
+     * Field count of each buffered record, not over column size.
+     */
+    private int[] batchFieldCounts;
+
+    private int batchRecords;
+
+    /**
+     * Column groups processed in parallel, start column of each group and column size at last.
+     */
+    private int[] groupStarts;
+
+    private ExecutorService executor;
+
+    private long checkInterval;
+
+    private double stableRatio;
+
+    private long sampledRecords;
+
+    private long nextCheckRecords;
+
+    /**
+     * If all columns are stable, records are not sampled any more.
+     */
+    private boolean isAllStable = false;
+
     private void loadConfigFiles(final Context context) {
         try {
             SourceType sourceType = SourceType.valueOf(context.getConfiguration().get(
@@ -105,13 +189,57 @@ public class AutoTypeDistinctCountMapper extends Mapper<LongWritable, Text, IntW
 
         loadTagWeightNum();
 
-        this.variableCountMap = new HashMap<Integer, CountAndFrequentItems>();
-
         this.outputKey = new IntWritable();
 
-        this.tags = new HashSet<String>(modelConfig.getFlattenTags());
+        int threads = context.getConfiguration().getInt(Constants.SHIFU_AUTOTYPE_MAPPER_THREADS,
+                Math.min(4, Runtime.getRuntime().availableProcessors()));
+        long checkInterval = context.getConfiguration().getLong(Constants.SHIFU_AUTOTYPE_SAMPLE_CHECK_INTERVAL,
+                10000L);
+        double stableRatio = context.getConfiguration().getFloat(Constants.SHIFU_AUTOTYPE_SAMPLE_STABLE_RATIO, 0.001f);
+        init(this.columnConfigList.size(), this.tagColumnNum, new HashSet<String>(modelConfig.getFlattenTags()),
+                new HashSet<String>(this.modelConfig.getDataSet().getMissingOrInvalidValues()),
+                this.modelConfig.getDataSetDelimiter(), threads, checkInterval, stableRatio);
+    }
+
+    /**
+     * Init column sketches, batch buffers, column groups and sampling settings.
+     */
+    void init(int columns, int tagColumnNum, Set<String> tags, Set<String> missingOrInvalidValues, String delimiter,
+            int threads, long checkInterval, double stableRatio) {
+        this.tagColumnNum = tagColumnNum;
+        this.tags = tags;
+        this.columnSketches = new ColumnSketch[columns];
+        for(int i = 0; i < columns; i++) {
+            this.columnSketches[i] = new ColumnSketch();
+        }
+
+        this.missingOrInvalidValues = missingOrInvalidValues;
+        List<byte[]> missingBytes = new ArrayList<byte[]>();
+        for(String missingValue: this.missingOrInvalidValues) {
+            if(missingValue != null) {
+                missingBytes.add(missingValue.getBytes(UTF8));
+            }
+        }
+        this.missingOrInvalidBytes = missingBytes.toArray(new byte[0][]);
+
+        this.delimiter = delimiter.getBytes(UTF8);
+        this.batchFieldStarts = new int[BATCH_SIZE * (columns + 1)];
+        this.batchFieldCounts = new int[BATCH_SIZE];
 
-        this.missingOrInvalidValues = new HashSet<String>(this.modelConfig.getDataSet().getMissingOrInvalidValues());
+        int groups = Math.max(1, Math.min(threads, columns / MIN_GROUP_COLUMNS));
+        this.groupStarts = new int[groups + 1];
+        for(int i = 0; i <= groups; i++) {
+            this.groupStarts[i] = (int) ((long) columns * i / groups);
+        }
+        if(groups > 1) {
+            this.executor = Executors.newFixedThreadPool(groups);
+        }
+
+        this.checkInterval = checkInterval;
+        this.stableRatio = stableRatio;
+        this.nextCheckRecords = this.checkInterval;
+        LOG.info("Auto type checking of {} columns in {} groups, distinct count check interval {}.", columns, groups,
+                this.checkInterval);
     }
 
     /**
@@ -132,55 +260,294 @@ public class AutoTypeDistinctCountMapper extends Mapper<LongWritable, Text, IntW
 
     @Override
     protected void map(LongWritable key, Text value, Context context) throws IOException, InterruptedException {
-        String valueStr = value.toString();
-        // StringUtils.isBlank is not used here to avoid import new jar
-        if(valueStr == null || valueStr.length() == 0 || valueStr.trim().length() == 0) {
+        byte[] bytes = value.getBytes();
+        int length = value.getLength();
+        if(ByteFieldUtils.isBlank(bytes, 0, length)) {
             LOG.warn("Empty input.");
             return;
         }
 
         context.getCounter(Constants.SHIFU_GROUP_COUNTER, "TOTAL_VALID_COUNT").increment(1L);
 
-        if(!this.dataPurifier.isFilter(valueStr)) {
+        if(this.isAllStable) {
+            context.getCounter(Constants.SHIFU_GROUP_COUNTER, "AUTOTYPE_SKIPPED_COUNT").increment(1L);
+            return;
+        }
+
+        if(this.dataPurifier.hasFilter() && !this.dataPurifier.isFilter(value.toString())) {
             context.getCounter(Constants.SHIFU_GROUP_COUNTER, "FILTER_OUT_COUNT").increment(1L);
             return;
         }
 
-        String[] units = CommonUtils.split(valueStr, this.modelConfig.getDataSetDelimiter());
-        // tagColumnNum should be in units array, if not IndexOutofBoundException
-        String tag = CommonUtils.trimTag(units[this.tagColumnNum]);
+        if(!addRecord(bytes, length)) {
+            context.getCounter(Constants.SHIFU_GROUP_COUNTER, "INVALID_TAG").increment(1L);
+        }
+    }
+
+    /**
+     * Add record into batch, records with invalid tag are dropped. Batch is processed if it is full.
+     * 
+     * @return false if record is dropped for invalid tag
+     */
+    boolean addRecord(byte[] bytes, int length) throws InterruptedException {
+        int fieldCount = addToBatch(bytes, length);
+        int base = this.batchRecords * (this.columnSketches.length + 1);
+        String tag = null;
+        if(this.tagColumnNum < fieldCount) {
+            int tagStart = this.batchFieldStarts[base + this.tagColumnNum];
+            int tagEnd = this.batchFieldStarts[base + this.tagColumnNum + 1] - this.delimiter.length;
+            tag = CommonUtils.trimTag(new String(this.batchBytes, tagStart, tagEnd - tagStart, UTF8));
+        }
 
-        if(!this.tags.contains(tag)) {
+        if(tag == null || !this.tags.contains(tag)) {
             if(System.currentTimeMillis() % 50 == 0L) {
                 LOG.warn("Data with invalid tag is ignored in distinct count computing, invalid tag: {}.", tag);
             }
-            context.getCounter(Constants.SHIFU_GROUP_COUNTER, "INVALID_TAG").increment(1L);
+            // drop the record from batch
+            this.batchBytesSize = this.batchFieldStarts[base];
+            return false;
+        }
+
+        this.batchRecords += 1;
+        if(this.batchRecords == BATCH_SIZE) {
+            processBatch();
+        }
+        return true;
+    }
+
+    /**
+     * Copy record into batch and split fields by delimiter, the same fields as {@link CommonUtils#split(String,
+     * String)}. Fields over column size are ignored.
+     * 
+     * @return field count of record, not over column size
+     */
+    private int addToBatch(byte[] bytes, int length) {
+        if(this.batchBytesSize + length > this.batchBytes.length) {
+            this.batchBytes = Arrays.copyOf(this.batchBytes, Math.max(this.batchBytes.length * 2,
+                    this.batchBytesSize + length));
+        }
+        int offset = this.batchBytesSize;
+        System.arraycopy(bytes, 0, this.batchBytes, offset, length);
+        this.batchBytesSize += length;
+
+        int columns = this.columnSketches.length;
+        int base = this.batchRecords * (columns + 1);
+        int dLen = this.delimiter.length;
+        int fieldCount = 0;
+        this.batchFieldStarts[base] = offset;
+        for(int i = 0; i <= length - dLen && fieldCount < columns; i++) {
+            if(isDelimiter(bytes, i)) {
+                fieldCount += 1;
+                this.batchFieldStarts[base + fieldCount] = offset + i + dLen;
+                i += dLen - 1;
+            }
+        }
+        if(fieldCount < columns) {
+            // the last field ends at record end
+            fieldCount += 1;
+            this.batchFieldStarts[base + fieldCount] = offset + length + dLen;
+        }
+        this.batchFieldCounts[this.batchRecords] = fieldCount;
+        return fieldCount;
+    }
+
+    private boolean isDelimiter(byte[] bytes, int index) {
+        for(int i = 0; i < this.delimiter.length; i++) {
+            if(bytes[index + i] != this.delimiter[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Offer buffered records into column sketches by column groups, then check if columns are stable.
+     */
+    void processBatch() throws InterruptedException {
+        if(this.batchRecords == 0) {
             return;
         }
+        int groups = this.groupStarts.length - 1;
+        if(groups == 1) {
+            processColumns(0, this.columnSketches.length);
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(groups);
+            for(int i = 0; i < groups; i++) {
+                final int from = this.groupStarts[i], to = this.groupStarts[i + 1];
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        processColumns(from, to);
+                        return null;
+                    }
+                });
+            }
+            try {
+                for(Future<Void> future: this.executor.invokeAll(tasks)) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        this.sampledRecords += this.batchRecords;
+        this.batchRecords = 0;
+        this.batchBytesSize = 0;
+
+        if(this.checkInterval > 0 && this.sampledRecords >= this.nextCheckRecords) {
+            this.nextCheckRecords += this.checkInterval;
+            checkStable();
+        }
+    }
 
-        int i = 0;
-        for(String unit: units) {
-            CountAndFrequentItems countAndFrequentItems = this.variableCountMap.get(i);
-            if(countAndFrequentItems == null) {
-                countAndFrequentItems = new CountAndFrequentItems();
-                this.variableCountMap.put(i, countAndFrequentItems);
+    private void processColumns(int from, int to) {
+        int stride = this.columnSketches.length + 1;
+        int dLen = this.delimiter.length;
+        for(int c = from; c < to; c++) {
+            ColumnSketch sketch = this.columnSketches[c];
+            if(sketch.isStable) {
+                continue;
+            }
+            for(int r = 0; r < this.batchRecords; r++) {
+                if(c >= this.batchFieldCounts[r]) {
+                    continue;
+                }
+                int start = this.batchFieldStarts[r * stride + c];
+                int length = this.batchFieldStarts[r * stride + c + 1] - dLen - start;
+                sketch.offer(this.batchBytes, start, length, isMissingOrInvalid(this.batchBytes, start, length));
             }
-            countAndFrequentItems.offer(this.missingOrInvalidValues, unit);
-            i++;
         }
     }
 
+    /**
+     * The same check as missing or invalid values set contains lower case field string.
+     */
+    private boolean isMissingOrInvalid(byte[] bytes, int start, int length) {
+        if(!ByteFieldUtils.isAscii(bytes, start, length)) {
+            return this.missingOrInvalidValues.contains(new String(bytes, start, length, UTF8).toLowerCase());
+        }
+        for(byte[] missing: this.missingOrInvalidBytes) {
+            if(missing.length == length && equalsLowerCase(missing, bytes, start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean equalsLowerCase(byte[] lowerCase, byte[] bytes, int start) {
+        for(int i = 0; i < lowerCase.length; i++) {
+            byte b = bytes[start + i];
+            if(b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            if(lowerCase[i] != b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stop sampling columns whose distinct counts are stable.
+     */
+    private void checkStable() {
+        int stableColumns = 0;
+        for(ColumnSketch sketch: this.columnSketches) {
+            if(!sketch.isStable) {
+                long cardinality = sketch.hyper.cardinality();
+                // not enough non-missing values to tell if distinct count is stable
+                boolean isSampled = cardinality > 0L && sketch.count - sketch.invalidCount >= this.checkInterval;
+                if(isSampled && cardinality - sketch.lastCardinality <= this.stableRatio * sketch.lastCardinality) {
+                    sketch.stableChecks += 1;
+                    sketch.isStable = sketch.stableChecks >= STABLE_CHECKS;
+                } else {
+                    sketch.stableChecks = 0;
+                }
+                sketch.lastCardinality = cardinality;
+            }
+            if(sketch.isStable) {
+                stableColumns += 1;
+            }
+        }
+        this.isAllStable = stableColumns == this.columnSketches.length;
+        LOG.info("Distinct counts of {} in {} columns are stable after {} records.", stableColumns,
+                this.columnSketches.length, this.sampledRecords);
+    }
+
+    /**
+     * @return if distinct count of column is stable and column is not sampled any more
+     */
+    boolean isStable(int column) {
+        return this.columnSketches[column].isStable;
+    }
+
+    /**
+     * @return distinct count estimate of column
+     */
+    long getCardinality(int column) {
+        return this.columnSketches[column].hyper.cardinality();
+    }
+
     /**
      * Write column info to reducer for merging.
      */
     @Override
     protected void cleanup(Context context) throws IOException, InterruptedException {
-        for(Map.Entry<Integer, CountAndFrequentItems> entry: this.variableCountMap.entrySet()) {
-            this.outputKey.set(entry.getKey());
-            byte[] bytes = entry.getValue().hyper.getBytes();
-            Set<String> frequentItems = entry.getValue().frequentItems;
-            context.write(this.outputKey, new CountAndFrequentItemsWritable(entry.getValue().count,
-                    entry.getValue().invalidCount, entry.getValue().validNumCount, bytes, frequentItems));
+        processBatch();
+        if(this.executor != null) {
+            this.executor.shutdownNow();
+        }
+
+        for(int i = 0; i < this.columnSketches.length; i++) {
+            ColumnSketch sketch = this.columnSketches[i];
+            if(sketch.count == 0L) {
+                continue;
+            }
+            this.outputKey.set(i);
+            context.write(this.outputKey, new CountAndFrequentItemsWritable(sketch.count, sketch.invalidCount,
+                    sketch.validNumCount, sketch.hyper.getBytes(), sketch.frequentItems.getItems()));
+        }
+    }
+
+    /**
+     * Distinct count and frequent items of one column updated on field bytes.
+     */
+    private static class ColumnSketch {
+
+        private final HyperLogLogPlus hyper = new HyperLogLogPlus(8);
+
+        private final FrequentItemsSketch frequentItems = new FrequentItemsSketch(
+                CountAndFrequentItemsWritable.FREQUET_ITEM_MAX_SIZE);
+
+        private long count;
+
+        private long invalidCount;
+
+        private long validNumCount;
+
+        private long lastCardinality;
+
+        private int stableChecks;
+
+        private boolean isStable;
+
+        void offer(byte[] bytes, int start, int length, boolean isMissing) {
+            count += 1;
+
+            if(isMissing) {
+                invalidCount += 1;
+                return;
+            }
+
+            long hash = ByteFieldUtils.hash64(bytes, start, length);
+            hyper.offerHashed(hash);
+
+            if(ByteFieldUtils.isNumber(bytes, start, length)) {
+                validNumCount += 1;
+            }
+
+            frequentItems.offer(hash, bytes, start, length);
         }
     }
 
@@ -197,20 +564,36 @@ public class AutoTypeDistinctCountMapper extends Mapper<LongWritable, Text, IntW
         private long validNumCount;
 
         public void offer(Set<String> missingorInvalidValues, String unit) {
+            if(unit == null || missingorInvalidValues.contains(unit.toLowerCase())) {
+                offer(unit, true, false);
+                return;
+            }
+
+            boolean isNumber = false;
+            try {
+                Double.parseDouble(unit);
+                isNumber = true;
+            } catch (NumberFormatException e) {
+                // ignore as only do stats on validNumCount
+            }
+            offer(unit, false, isNumber);
+        }
+
+        /**
+         * Offer a value whose missing and number check is already done by caller, to avoid duplicated parsing.
+         */
+        public void offer(String unit, boolean isMissing, boolean isNumber) {
             count += 1;
 
-            if(unit == null || missingorInvalidValues.contains(unit.toLowerCase())) {
+            if(isMissing) {
                 invalidCount += 1;
                 return;
             }
 
             hyper.offer(unit);
 
-            try {
-                Double.parseDouble(unit);
+            if(isNumber) {
                 validNumCount += 1;
-            } catch (NumberFormatException e) {
-                // ignore as only do stats on validNumCount
             }
 
             if(frequentItems.size() <= CountAndFrequentItemsWritable.FREQUET_ITEM_MAX_SIZE
@@ -0,0 +1,181 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.autotype;
+
+import java.nio.charset.Charset;
+
+/**
+ * Utilities to check and hash fields in UTF-8 bytes of raw records, so field strings are not created.
+ */
+public final class ByteFieldUtils {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final long MURMUR_M = 0xc6a4a7935bd1e995L;
+
+    private static final int MURMUR_R = 47;
+
+    /**
+     * The same seed as MurmurHash of stream-lib.
+     */
+    private static final int MURMUR_SEED = 0xe17a1465;
+
+    private ByteFieldUtils() {
+    }
+
+    /**
+     * 64-bit MurmurHash2 (MurmurHash64A) of bytes in [start, start + length).
+     */
+    public static long hash64(byte[] bytes, int start, int length) {
+        long h = (MURMUR_SEED & 0xffffffffL) ^ (length * MURMUR_M);
+        int end = start + (length & ~7);
+        for(int i = start; i < end; i += 8) {
+            long k = (bytes[i] & 0xffL) | (bytes[i + 1] & 0xffL) << 8 | (bytes[i + 2] & 0xffL) << 16
+                    | (bytes[i + 3] & 0xffL) << 24 | (bytes[i + 4] & 0xffL) << 32 | (bytes[i + 5] & 0xffL) << 40
+                    | (bytes[i + 6] & 0xffL) << 48 | (bytes[i + 7] & 0xffL) << 56;
+            k *= MURMUR_M;
+            k ^= k >>> MURMUR_R;
+            k *= MURMUR_M;
+            h ^= k;
+            h *= MURMUR_M;
+        }
+
+        switch(length & 7) {
+            case 7:
+                h ^= (bytes[end + 6] & 0xffL) << 48;
+            case 6:
+                h ^= (bytes[end + 5] & 0xffL) << 40;
+            case 5:
+                h ^= (bytes[end + 4] & 0xffL) << 32;
+            case 4:
+                h ^= (bytes[end + 3] & 0xffL) << 24;
+            case 3:
+                h ^= (bytes[end + 2] & 0xffL) << 16;
+            case 2:
+                h ^= (bytes[end + 1] & 0xffL) << 8;
+            case 1:
+                h ^= (bytes[end] & 0xffL);
+                h *= MURMUR_M;
+            default:
+                break;
+        }
+
+        h ^= h >>> MURMUR_R;
+        h *= MURMUR_M;
+        h ^= h >>> MURMUR_R;
+        return h;
+    }
+
+    /**
+     * @return if all bytes are ASCII characters
+     */
+    public static boolean isAscii(byte[] bytes, int start, int length) {
+        for(int i = start; i < start + length; i++) {
+            if(bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return if all bytes are white spaces or control characters, the same as blank check by {@link String#trim()}
+     */
+    public static boolean isBlank(byte[] bytes, int start, int length) {
+        for(int i = start; i < start + length; i++) {
+            if(bytes[i] < 0 || bytes[i] > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if field can be parsed by {@link Double#parseDouble(String)}. Decimal numbers are checked on bytes, only
+     * NaN, Infinity and hexadecimal numbers are checked by creating string.
+     */
+    public static boolean isNumber(byte[] bytes, int start, int length) {
+        int i = start, end = start + length;
+        // the same trimming as Double.parseDouble
+        while(i < end && bytes[i] >= 0 && bytes[i] <= ' ') {
+            i += 1;
+        }
+        while(end > i && bytes[end - 1] >= 0 && bytes[end - 1] <= ' ') {
+            end -= 1;
+        }
+        if(i == end) {
+            return false;
+        }
+
+        int numberStart = i;
+        if(bytes[i] == '+' || bytes[i] == '-') {
+            i += 1;
+        }
+        if(i < end && (bytes[i] == 'N' || bytes[i] == 'I'
+                || (bytes[i] == '0' && i + 1 < end && (bytes[i + 1] == 'x' || bytes[i + 1] == 'X')))) {
+            return isNumberString(bytes, numberStart, end - numberStart);
+        }
+
+        int digits = 0;
+        while(i < end && bytes[i] >= '0' && bytes[i] <= '9') {
+            i += 1;
+            digits += 1;
+        }
+        if(i < end && bytes[i] == '.') {
+            i += 1;
+            while(i < end && bytes[i] >= '0' && bytes[i] <= '9') {
+                i += 1;
+                digits += 1;
+            }
+        }
+        if(digits == 0) {
+            return false;
+        }
+
+        if(i < end && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i += 1;
+            if(i < end && (bytes[i] == '+' || bytes[i] == '-')) {
+                i += 1;
+            }
+            int expDigits = 0;
+            while(i < end && bytes[i] >= '0' && bytes[i] <= '9') {
+                i += 1;
+                expDigits += 1;
+            }
+            if(expDigits == 0) {
+                return false;
+            }
+        }
+
+        if(i < end && (bytes[i] == 'f' || bytes[i] == 'F' || bytes[i] == 'd' || bytes[i] == 'D')) {
+            i += 1;
+        }
+        return i == end;
+    }
+
+    private static boolean isNumberString(byte[] bytes, int start, int length) {
+        if(!isAscii(bytes, start, length)) {
+            return false;
+        }
+        try {
+            Double.parseDouble(new String(bytes, start, length, UTF8));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.autotype;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Heavy hitters sketch of column values by Misra-Gries algorithm. At most capacity values are tracked with counters,
+ * if a new value comes and the sketch is full, all counters are decreased by one and values with zero counter are
+ * removed. Any value with frequency over 1/(capacity+1) of all values is kept in the sketch.
+ * 
+ * <p>
+ * Values are tracked by 64-bit hash, value strings are only created when values are added into the sketch.
+ */
+public class FrequentItemsSketch {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final long[] hashes;
+
+    private final long[] counts;
+
+    private final String[] items;
+
+    private int size;
+
+    public FrequentItemsSketch(int capacity) {
+        this.hashes = new long[capacity];
+        this.counts = new long[capacity];
+        this.items = new String[capacity];
+    }
+
+    /**
+     * Offer a value in UTF-8 bytes, string of value is only created if it is added into the sketch.
+     */
+    public void offer(long hash, byte[] bytes, int start, int length) {
+        if(!increment(hash)) {
+            add(hash, new String(bytes, start, length, UTF8));
+        }
+    }
+
+    public void offer(long hash, String item) {
+        if(!increment(hash)) {
+            add(hash, item);
+        }
+    }
+
+    /**
+     * Increase counter of tracked value, or decrease all counters if sketch is full.
+     * 
+     * @return false if value is not tracked and should be added
+     */
+    private boolean increment(long hash) {
+        for(int i = 0; i < this.size; i++) {
+            if(this.hashes[i] == hash) {
+                this.counts[i] += 1;
+                return true;
+            }
+        }
+        if(this.size < this.hashes.length) {
+            return false;
+        }
+
+        int newSize = 0;
+        for(int i = 0; i < this.size; i++) {
+            if(--this.counts[i] > 0) {
+                this.hashes[newSize] = this.hashes[i];
+                this.counts[newSize] = this.counts[i];
+                this.items[newSize] = this.items[i];
+                newSize += 1;
+            }
+        }
+        Arrays.fill(this.items, newSize, this.size, null);
+        this.size = newSize;
+        return true;
+    }
+
+    private void add(long hash, String item) {
+        this.hashes[this.size] = hash;
+        this.counts[this.size] = 1L;
+        this.items[this.size] = item;
+        this.size += 1;
+    }
+
+    /**
+     * @return tracked values ordered by counter from the most frequent one
+     */
+    public Set<String> getItems() {
+        Integer[] indexes = new Integer[this.size];
+        for(int i = 0; i < this.size; i++) {
+            indexes[i] = i;
+        }
+        Arrays.sort(indexes, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                return Long.valueOf(counts[i2]).compareTo(counts[i1]);
+            }
+        });
+        Set<String> result = new LinkedHashSet<String>(this.size);
+        for(Integer index: indexes) {
+            result.add(this.items[index]);
+        }
+        return result;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+}
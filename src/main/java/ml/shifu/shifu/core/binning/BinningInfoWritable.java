@@ -73,6 +73,11 @@ public class BinningInfoWritable implements Writable {
 
     private CountAndFrequentItemsWritable cfiw = new CountAndFrequentItemsWritable();
 
+    /**
+     * Numerical sketch in single-pass stats, bin boundaries are not known in mapper and will be computed in reducer.
+     */
+    private MergeableHistogram histogram;
+
     /**
      * @return the binBoundaries
      */
@@ -354,6 +359,11 @@ public class BinningInfoWritable implements Writable {
 
         this.cfiw.write(out);
         out.writeBoolean(this.isEmpty);
+
+        out.writeBoolean(this.histogram != null);
+        if(this.histogram != null) {
+            this.histogram.write(out);
+        }
     }
 
     @Override
@@ -425,6 +435,13 @@ public class BinningInfoWritable implements Writable {
         this.cfiw = new CountAndFrequentItemsWritable();
         this.cfiw.readFields(in);
         this.isEmpty = in.readBoolean();
+
+        if(in.readBoolean()) {
+            this.histogram = new MergeableHistogram();
+            this.histogram.readFields(in);
+        } else {
+            this.histogram = null;
+        }
     }
 
     /**
@@ -502,6 +519,21 @@ public class BinningInfoWritable implements Writable {
         this.isEmpty = isEmpty;
     }
 
+    /**
+     * @return the histogram, null if not in single-pass stats
+     */
+    public MergeableHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * @param histogram
+     *            the histogram to set
+     */
+    public void setHistogram(MergeableHistogram histogram) {
+        this.histogram = histogram;
+    }
+
     /*
      * (non-Javadoc)
      * 
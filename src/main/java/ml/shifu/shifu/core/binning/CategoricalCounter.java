@@ -0,0 +1,173 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.binning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link CategoricalCounter} counts positive/negative count and weight per category in single-pass stats, it is used
+ * in mapper to count records and in reducer to merge partial counters.
+ *
+ * <p>
+ * Counts are exact, this is not a frequent items sketch. Like {@link CategoricalBinning}, a column with more than max
+ * category size categories is invalid: the counter keeps at most maxSize + 1 categories, marks itself as overflow and
+ * drops the records of new categories, the column is then ignored in reducer as it is over max category size. Records
+ * of dropped categories are not counted as missing value, so no approximate bin counts are ever published.
+ */
+public class CategoricalCounter {
+
+    private final int maxSize;
+
+    private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+
+    private final List<String> categories = new ArrayList<String>();
+
+    private long[] countPos = new long[16];
+
+    private long[] countNeg = new long[16];
+
+    private double[] weightPos = new double[16];
+
+    private double[] weightNeg = new double[16];
+
+    private long missingCountPos, missingCountNeg;
+
+    private double missingWeightPos, missingWeightNeg;
+
+    private boolean overflow = false;
+
+    public CategoricalCounter(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Add count and weight to a category.
+     *
+     * @return false if category is new and counter is already over max size, the count is dropped
+     */
+    public boolean add(String category, long cntPos, long cntNeg, double wgtPos, double wgtNeg) {
+        Integer index = this.indexes.get(category);
+        if(index == null) {
+            if(this.categories.size() > this.maxSize) {
+                this.overflow = true;
+                return false;
+            }
+            index = this.categories.size();
+            this.indexes.put(category, index);
+            this.categories.add(category);
+            if(index == this.countPos.length) {
+                int capacity = this.countPos.length * 2;
+                this.countPos = Arrays.copyOf(this.countPos, capacity);
+                this.countNeg = Arrays.copyOf(this.countNeg, capacity);
+                this.weightPos = Arrays.copyOf(this.weightPos, capacity);
+                this.weightNeg = Arrays.copyOf(this.weightNeg, capacity);
+            }
+        }
+        this.countPos[index] += cntPos;
+        this.countNeg[index] += cntNeg;
+        this.weightPos[index] += wgtPos;
+        this.weightNeg[index] += wgtNeg;
+        return true;
+    }
+
+    public void addMissing(long cntPos, long cntNeg, double wgtPos, double wgtNeg) {
+        this.missingCountPos += cntPos;
+        this.missingCountNeg += cntNeg;
+        this.missingWeightPos += wgtPos;
+        this.missingWeightNeg += wgtNeg;
+    }
+
+    /**
+     * Merge categories and bin counts of a {@link BinningInfoWritable}, the last bin is missing value bin.
+     */
+    public void merge(BinningInfoWritable info) {
+        List<String> binCategories = info.getBinCategories();
+        for(int i = 0; i < binCategories.size(); i++) {
+            add(binCategories.get(i), info.getBinCountPos()[i], info.getBinCountNeg()[i], info.getBinWeightPos()[i],
+                    info.getBinWeightNeg()[i]);
+        }
+        int last = binCategories.size();
+        addMissing(info.getBinCountPos()[last], info.getBinCountNeg()[last], info.getBinWeightPos()[last],
+                info.getBinWeightNeg()[last]);
+    }
+
+    /**
+     * Set categories and bin counts to {@link BinningInfoWritable}, the last bin is missing value bin.
+     */
+    public void fill(BinningInfoWritable info) {
+        info.setBinCategories(getCategories());
+        info.setBinCountPos(getBinCountPos());
+        info.setBinCountNeg(getBinCountNeg());
+        info.setBinWeightPos(getBinWeightPos());
+        info.setBinWeightNeg(getBinWeightNeg());
+    }
+
+    public List<String> getCategories() {
+        return new ArrayList<String>(this.categories);
+    }
+
+    /**
+     * @return positive count per category, the last one is missing value bin
+     */
+    public long[] getBinCountPos() {
+        long[] binCountPos = Arrays.copyOf(this.countPos, this.categories.size() + 1);
+        binCountPos[this.categories.size()] = this.missingCountPos;
+        return binCountPos;
+    }
+
+    /**
+     * @return negative count per category, the last one is missing value bin
+     */
+    public long[] getBinCountNeg() {
+        long[] binCountNeg = Arrays.copyOf(this.countNeg, this.categories.size() + 1);
+        binCountNeg[this.categories.size()] = this.missingCountNeg;
+        return binCountNeg;
+    }
+
+    /**
+     * @return positive weight per category, the last one is missing value bin
+     */
+    public double[] getBinWeightPos() {
+        double[] binWeightPos = Arrays.copyOf(this.weightPos, this.categories.size() + 1);
+        binWeightPos[this.categories.size()] = this.missingWeightPos;
+        return binWeightPos;
+    }
+
+    /**
+     * @return negative weight per category, the last one is missing value bin
+     */
+    public double[] getBinWeightNeg() {
+        double[] binWeightNeg = Arrays.copyOf(this.weightNeg, this.categories.size() + 1);
+        binWeightNeg[this.categories.size()] = this.missingWeightNeg;
+        return binWeightNeg;
+    }
+
+    /**
+     * @return true if more than max category size categories are seen, bin counts are not exact any more
+     */
+    public boolean isOverflow() {
+        return this.overflow || this.categories.size() > this.maxSize;
+    }
+
+    public int size() {
+        return this.categories.size();
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.binning;
+
+import ml.shifu.shifu.util.Constants;
+
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.mapreduce.Partitioner;
+
+/**
+ * {@link ColumnPartitioner} sends column ids to reducers planned by {@link StatsColumnPlanner} in
+ * {@link Constants#SHIFU_STATS_COLUMN_PARTITIONS}. Column ids not in the plan fall back to hash partitioning.
+ */
+public class ColumnPartitioner extends Partitioner<IntWritable, BinningInfoWritable> implements Configurable {
+
+    private Configuration conf;
+
+    private int[] partitions;
+
+    @Override
+    public int getPartition(IntWritable key, BinningInfoWritable value, int numPartitions) {
+        int columnId = key.get();
+        if(this.partitions != null && columnId >= 0 && columnId < this.partitions.length) {
+            return this.partitions[columnId] % numPartitions;
+        }
+        return (key.hashCode() & Integer.MAX_VALUE) % numPartitions;
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+        this.partitions = StatsColumnPlanner.decodePartitions(conf.get(Constants.SHIFU_STATS_COLUMN_PARTITIONS));
+    }
+
+    @Override
+    public Configuration getConf() {
+        return this.conf;
+    }
+
+}
@@ -19,10 +19,8 @@ package ml.shifu.shifu.core.binning;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.HashMap;
-import java.util.Map;
 
-import ml.shifu.shifu.core.binning.obj.LinkNode;
+import ml.shifu.shifu.util.QuickSort;
 
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -30,6 +28,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * EqualPopulationBinning class
+ * 
+ * <p>
+ * Histogram units are kept in sorted primitive arrays. New values are appended into a buffer after the units and are
+ * sorted and merged into units in batch once the buffer is full, then the closest adjacent units are merged by a
+ * min-heap of intervals until no more than {@link #maxHistogramUnitCnt} units are left.
  */
 public class EqualPopulationBinning extends AbstractBinning<Double> {
 
@@ -50,26 +53,37 @@ public class EqualPopulationBinning extends AbstractBinning<Double> {
      */
     public static final double EXTRA_SMALL_BIN_PERCENTAGE = 0.003d;
 
+    /**
+     * Initial capacity of histogram arrays, arrays are grown on demand to at most 2 * maxHistogramUnitCnt
+     */
+    private static final int INIT_CAPACITY = 16;
+
+    private static final long[][] NO_LONGS = new long[0][];
+
     /**
      * The maximum histogram unit count that could be hold
      */
     private int maxHistogramUnitCnt;
 
     /**
-     * Current histogram unit count in histogram
+     * Current histogram unit count in histogram, units are in [0, currentHistogramUnitCnt) of arrays
      */
     private int currentHistogramUnitCnt;
 
     /**
-     * The header and tail of histogram
+     * Units and buffered values count, buffered values are in [currentHistogramUnitCnt, size) of arrays
      */
-    private LinkNode<HistogramUnit> header, tail;
+    private int size;
 
     /**
-     * Use to cache frequency sum of HistogramUnit, to improve getDataBin time performance, otherwise there maybe
-     * timeout in reducer
+     * Values and frequencies of histogram units and buffered values
      */
-    private Map<LinkNode<HistogramUnit>, Double> sumCache = new HashMap<LinkNode<HistogramUnit>, Double>();
+    private double[] hvals, hcnts;
+
+    /**
+     * Scratch arrays reused in merging sorted units and buffer in every compression.
+     */
+    private final QuickSort.MergeBuffer mergeBuffer = new QuickSort.MergeBuffer();
 
     /**
      * Empty constructor : it is just for bin merging
@@ -115,8 +129,7 @@ public class EqualPopulationBinning extends AbstractBinning<Double> {
         this.maxHistogramUnitCnt = super.expectedBinningNum * HIST_SCALE;
         this.maxHistogramUnitCnt = (this.maxHistogramUnitCnt > 10000) ? 10000 : this.maxHistogramUnitCnt;
         this.currentHistogramUnitCnt = 0;
-        this.header = null;
-        this.tail = null;
+        this.size = 0;
     }
 
     /**
@@ -230,6 +243,8 @@ public class EqualPopulationBinning extends AbstractBinning<Double> {
      * @return list of data binning
      */
     private List<Double> getDataBin(int toBinningNum) {
+        compress();
+
         List<Double> binBorders = new ArrayList<Double>();
         binBorders.add(Double.NEGATIVE_INFINITY);
 
@@ -239,51 +254,56 @@ public class EqualPopulationBinning extends AbstractBinning<Double> {
         // binCount < ( total * (1/toBinningNum) * (3/100))
         mergeExtraSmallBins(totalCnt, toBinningNum);
 
-        if(this.currentHistogramUnitCnt <= toBinningNum) {
+        int unitCnt = this.currentHistogramUnitCnt;
+        if(unitCnt <= toBinningNum) {
             // if the count of histogram unit is less than expected bin number
             // return each histogram unit as a bin. The boundary will be middle value
             // of every two histogram unit values
-            convertHistogramUnitIntoBin(binBorders);
+            for(int i = 0; i < unitCnt - 1; i++) {
+                binBorders.add((this.hvals[i] + this.hvals[i + 1]) / 2);
+            }
             return binBorders;
         }
 
-        LinkNode<HistogramUnit> currStartPos = null;
-        // To improve time performance
-        sumCacheGen();
+        // frequency sum before each unit plus half of the unit, to improve time performance
+        double[] sumCache = new double[unitCnt];
+        double sum = 0d;
+        for(int i = 0; i < unitCnt; i++) {
+            sumCache[i] = sum + this.hcnts[i] / 2d;
+            sum += this.hcnts[i];
+        }
+
+        int currStartPos = -1;
         for(int j = 1; j < toBinningNum; j++) {
             double s = (j * totalCnt) / toBinningNum;
-            LinkNode<HistogramUnit> pos = locateHistogram(s, currStartPos);
-            if(pos == null || pos == currStartPos || pos.next() == null) {
+            int pos = locateHistogram(s, currStartPos, sumCache);
+            if(pos < 0 || pos == currStartPos || pos == unitCnt - 1) {
                 continue;
-            } else {
-                HistogramUnit chu = pos.data();
-                HistogramUnit nhu = pos.next().data();
-
-                // double d = s - sum(chu.getHval());
-                double d = s - sumCache.get(pos);
-                if(d < 0) {
-                    double u = (chu.getHval() + nhu.getHval()) / 2;
-                    binBorders.add(u);
-                    currStartPos = pos;
-                    continue;
-                }
+            }
 
-                double a = nhu.getHcnt() - chu.getHcnt();
-                double b = 2 * chu.getHcnt();
-                double c = -2 * d;
+            double cval = this.hvals[pos], ccnt = this.hcnts[pos];
+            double nval = this.hvals[pos + 1], ncnt = this.hcnts[pos + 1];
 
-                double z = 0.0;
-                if(Double.compare(a, 0) == 0) {
-                    z = -1 * c / b;
-                } else {
-                    z = (-1 * b + Math.sqrt(b * b - 4 * a * c)) / (2 * a);
-                }
+            double d = s - sumCache[pos];
+            if(d < 0) {
+                binBorders.add((cval + nval) / 2);
+                currStartPos = pos;
+                continue;
+            }
 
-                double u = chu.getHval() + (nhu.getHval() - chu.getHval()) * z;
-                binBorders.add(u);
+            double a = ncnt - ccnt;
+            double b = 2 * ccnt;
+            double c = -2 * d;
 
-                currStartPos = pos;
+            double z = 0.0;
+            if(Double.compare(a, 0) == 0) {
+                z = -1 * c / b;
+            } else {
+                z = (-1 * b + Math.sqrt(b * b - 4 * a * c)) / (2 * a);
             }
+
+            binBorders.add(cval + (nval - cval) * z);
+            currStartPos = pos;
         }
 
         return binBorders;
@@ -298,69 +318,45 @@ public class EqualPopulationBinning extends AbstractBinning<Double> {
      *            - the expected binning number
      */
     private void mergeExtraSmallBins(double totalCnt, int toBinningNum) {
-        if(this.header == null || this.header == this.tail) {
+        int unitCnt = this.currentHistogramUnitCnt;
+        if(unitCnt <= 1) {
             // if no node or just one node, do nothing
             return;
         }
 
         double minimumBinCnt = ((totalCnt / toBinningNum) * EXTRA_SMALL_BIN_PERCENTAGE);
 
-        // there are two and more nodes
-        LinkNode<HistogramUnit> tmp = this.header;
-        while(tmp != null) {
-            if(tmp.data().getHcnt() < minimumBinCnt) {
-                HistogramUnit chu = tmp.data();
-
-                if(tmp == this.header) {
-                    HistogramUnit nhu = tmp.next().data();
-                    // merge to next
-                    nhu.setHcnt(chu.getHcnt() + nhu.getHcnt());
-                    nhu.setHval((chu.getHval() * chu.getHcnt() + nhu.getHval() * nhu.getHcnt())
-                            / (chu.getHcnt() + nhu.getHcnt()));
-                    this.header = tmp.next();
-                    this.header.setPrev(null);
-                } else if(tmp == this.tail) {
-                    HistogramUnit phu = tmp.prev().data();
-                    phu.setHcnt(chu.getHcnt() + phu.getHcnt());
-                    phu.setHval((chu.getHval() * chu.getHcnt() + phu.getHval() * phu.getHcnt())
-                            / (chu.getHcnt() + phu.getHcnt()));
-                    this.tail = tmp.prev();
-                    this.tail.setNext(null);
-                } else {
-                    HistogramUnit phu = tmp.prev().data();
-                    HistogramUnit nhu = tmp.next().data();
-
-                    if(chu.getHval() - phu.getHval() < nhu.getHval() - chu.getHval()) {
-                        // closer to previous, so to merge to previous
-                        phu.setHcnt(chu.getHcnt() + phu.getHcnt());
-                        phu.setHval((chu.getHval() * chu.getHcnt() + phu.getHval() * phu.getHcnt())
-                                / (chu.getHcnt() + phu.getHcnt()));
-                    } else {
-                        // merge to next
-                        nhu.setHcnt(chu.getHcnt() + nhu.getHcnt());
-                        nhu.setHval((chu.getHval() * chu.getHcnt() + nhu.getHval() * nhu.getHcnt())
-                                / (chu.getHcnt() + nhu.getHcnt()));
-                    }
-
-                    // remove tmp node from link
-                    tmp.prev().setNext(tmp.next());
-                    tmp.next().setPrev(tmp.prev());
+        // kept units are compacted into [0, current)
+        int current = 0;
+        for(int i = 0; i < unitCnt; i++) {
+            double val = this.hvals[i], cnt = this.hcnts[i];
+            if(cnt < minimumBinCnt) {
+                boolean hasPrev = current > 0, hasNext = i + 1 < unitCnt;
+                if(hasPrev && (!hasNext || val - this.hvals[current - 1] < this.hvals[i + 1] - val)) {
+                    // tail or closer to previous, so to merge to previous
+                    mergeInto(current - 1, val, cnt);
+                    continue;
+                } else if(hasNext) {
+                    // header or closer to next, merge to next
+                    mergeInto(i + 1, val, cnt);
+                    continue;
                 }
             }
-
-            tmp = tmp.next();
+            this.hvals[current] = val;
+            this.hcnts[current] = cnt;
+            current += 1;
         }
+        this.currentHistogramUnitCnt = current;
+        this.size = current;
     }
 
-    private void convertHistogramUnitIntoBin(List<Double> binBorders) {
-        LinkNode<HistogramUnit> tmp = this.header;
-        while(tmp != this.tail) {
-            HistogramUnit chu = tmp.data();
-            HistogramUnit nhu = tmp.next().data();
-            binBorders.add((chu.getHval() + nhu.getHval()) / 2);
-
-            tmp = tmp.next();
-        }
+    /**
+     * Merge value with frequency into histogram unit at index, unit value is the weighted mean of both.
+     */
+    private void mergeInto(int index, double val, double cnt) {
+        double mergedCnt = this.hcnts[index] + cnt;
+        this.hvals[index] = (this.hvals[index] * this.hcnts[index] + val * cnt) / mergedCnt;
+        this.hcnts[index] = mergedCnt;
     }
 
     /**
@@ -370,13 +366,9 @@ public class EqualPopulationBinning extends AbstractBinning<Double> {
      */
     private double getTotalInHistogram() {
         double total = 0;
-
-        LinkNode<HistogramUnit> tmp = this.header;
-        while(tmp != null) {
-            total += tmp.data().getHcnt();
-            tmp = tmp.next();
+        for(int i = 0; i < this.currentHistogramUnitCnt; i++) {
+            total += this.hcnts[i];
         }
-
         return total;
     }
 
@@ -386,219 +378,214 @@ public class EqualPopulationBinning extends AbstractBinning<Double> {
      * @param s
      *            the s value
      * @param startPos
-     *            start pos
-     * @return next node
+     *            start pos, -1 means from the header
+     * @param sumCache
+     *            frequency sums at each unit
+     * @return unit index, -1 if not found
      */
-    private LinkNode<HistogramUnit> locateHistogram(double s, LinkNode<HistogramUnit> startPos) {
-        while(startPos != this.tail) {
-            if(startPos == null) {
-                startPos = this.header;
+    private int locateHistogram(double s, int startPos, double[] sumCache) {
+        int tail = this.currentHistogramUnitCnt - 1;
+        while(startPos != tail) {
+            if(startPos < 0) {
+                startPos = 0;
             }
 
-            if(startPos.next() == null) {
+            if(startPos == tail) {
                 return startPos;
             }
 
-            double sc = sumCache.get(startPos);
-            double sn = sumCache.get(startPos.next());
-
-            if(sc >= s || (sc < s && s <= sn)) {
+            if(sumCache[startPos] >= s || s <= sumCache[startPos + 1]) {
                 return startPos;
             }
 
-            startPos = startPos.next();
+            startPos += 1;
         }
 
-        return null;
+        return -1;
     }
 
     /**
-     * Generate sum the histogram's frequency at exact histogram pos
-     * To improve time performance
+     * Process the histogram with value and frequency, value is buffered and merged into histogram in batch.
+     * 
+     * @param dval
+     *            the d value
+     * @param frequency
+     *            the weight
      */
-    private void sumCacheGen() {
-        LinkNode<HistogramUnit> cur = this.header;
-        double sum = 0;
-        sumCache.clear();
-        while(cur != null) {
-            sumCache.put(cur, sum + cur.data().getHcnt() / 2d);
-            sum += cur.data().getHcnt();
-            cur = cur.next();
+    private void process(double dval, double frequency) {
+        if(this.hvals == null || this.size == this.hvals.length) {
+            if(this.hvals != null && this.hvals.length >= getBufferedCapacity()) {
+                compress();
+            } else {
+                grow();
+            }
         }
+        this.hvals[this.size] = dval;
+        this.hcnts[this.size] = frequency;
+        this.size += 1;
     }
 
-    /**
-     * Sum the histogram's frequency whose value less than or equal some value
-     * 
-     * @param hval
-     *            the h value
-     * @return current sum
-     */
-    @SuppressWarnings("unused")
-    private double sum(double hval) {
-        LinkNode<HistogramUnit> posHistogramUnit = null;
-
-        LinkNode<HistogramUnit> tmp = this.header;
-        while(tmp != this.tail) {
-            HistogramUnit chu = tmp.data();
-            HistogramUnit nhu = tmp.next().data();
+    private int getBufferedCapacity() {
+        return 2 * Math.max(1, this.maxHistogramUnitCnt);
+    }
 
-            if(chu.getHval() <= hval && hval < nhu.getHval()) {
-                posHistogramUnit = tmp;
-                break;
-            }
+    private void grow() {
+        int capacity = this.hvals == null ? INIT_CAPACITY : this.hvals.length * 2;
+        capacity = Math.min(Math.max(capacity, this.size + 1), Math.max(getBufferedCapacity(), this.size + 1));
+        double[] vals = new double[capacity];
+        double[] cnts = new double[capacity];
+        if(this.hvals != null) {
+            System.arraycopy(this.hvals, 0, vals, 0, this.size);
+            System.arraycopy(this.hcnts, 0, cnts, 0, this.size);
+        }
+        this.hvals = vals;
+        this.hcnts = cnts;
+    }
 
-            tmp = tmp.next();
+    /**
+     * Sort buffered values and merge them into histogram units, units with the same value are combined. Then merge
+     * the closest adjacent units until there are at most {@link #maxHistogramUnitCnt} units.
+     */
+    private void compress() {
+        if(this.size == this.currentHistogramUnitCnt) {
+            return;
         }
+        // units are sorted already, only sort buffer and then merge two sorted ranges
+        double[][] payloads = new double[][] { this.hcnts };
+        QuickSort.sort(this.hvals, this.currentHistogramUnitCnt, this.size - 1, false, payloads, NO_LONGS);
+        QuickSort.mergeSorted(this.hvals, 0, this.currentHistogramUnitCnt, this.size, payloads, NO_LONGS,
+                this.mergeBuffer);
 
-        if(posHistogramUnit != null) {
-            HistogramUnit chu = posHistogramUnit.data();
-            HistogramUnit nhu = posHistogramUnit.next().data();
-            double mb = chu.getHcnt()
-                    + (nhu.getHcnt() - chu.getHcnt()) * (hval - chu.getHval()) / (nhu.getHval() - chu.getHval());
-            double s = (chu.getHcnt() + mb) * (hval - chu.getHval()) / (nhu.getHval() - chu.getHval());
-            s = s / 2;
-
-            tmp = this.header;
-            while(tmp != posHistogramUnit) {
-                HistogramUnit hu = tmp.data();
-                s = s + hu.getHcnt();
-                tmp = tmp.next();
-            }
-
-            return s + chu.getHcnt() / 2d;
-        } else if(tmp == this.tail) {
-            double sum = 0.0;
-            tmp = this.header;
-            while(tmp != null) {
-                sum += tmp.data().getHcnt();
-                tmp = tmp.next();
+        int current = 0;
+        for(int i = 1; i < this.size; i++) {
+            if(Double.compare(this.hvals[current], this.hvals[i]) == 0) {
+                this.hcnts[current] += this.hcnts[i];
+            } else {
+                current += 1;
+                this.hvals[current] = this.hvals[i];
+                this.hcnts[current] = this.hcnts[i];
             }
-            return sum;
         }
+        this.size = current + 1;
 
-        return -1.0;
-    }
-
-    /**
-     * Process the histogram with value and frequency
-     * 
-     * @param dval
-     *            the d value
-     * @param frequency
-     *            the weight
-     */
-    private void process(double dval, double frequency) {
-        LinkNode<HistogramUnit> node = new LinkNode<HistogramUnit>(new HistogramUnit(dval, frequency));
-        if(this.tail == null && this.maxHistogramUnitCnt > 1) {
-            this.header = node;
-            this.tail = node;
-            this.currentHistogramUnitCnt = 1;
-        } else {
-            insertWithTrim(node);
+        int maxUnitCnt = Math.max(1, this.maxHistogramUnitCnt);
+        if(this.size > maxUnitCnt) {
+            trim(maxUnitCnt);
         }
+        this.currentHistogramUnitCnt = this.size;
     }
 
     /**
-     * Insert one @HistogramUnit node into the histogram.
-     * Meanwhile it will try to keep the histogram as most @maxHistogramUnitCnt
-     * So when inserting one node in, the method will try to find the place to insert as well as minimum interval
-     * 
-     * @param node
-     *            current node
+     * Merge adjacent units with minimum interval into the latter one until unit count is maxUnitCnt. Intervals are kept
+     * in a min-heap, a heap entry is stale if its left unit is removed or changed after the entry is pushed.
      */
-    private void insertWithTrim(LinkNode<HistogramUnit> node) {
-        LinkNode<HistogramUnit> insertOpsUnit = null;
-        LinkNode<HistogramUnit> minIntervalOpsUnit = null;
-        Double minInterval = Double.MAX_VALUE;
-
-        LinkNode<HistogramUnit> tmp = this.tail;
-        while(tmp != null) {
-            if(insertOpsUnit == null) {
-                int res = Double.compare(tmp.data().getHval(), node.data().getHval());
-                if(res > 0) {
-                    // do nothing
-                } else if(res == 0) {
-                    tmp.data().setHcnt(tmp.data().getHcnt() + node.data().getHcnt());
-                    return;
-                } else if(res < 0) {
-                    // find the right insert position to insert
-                    insertOpsUnit = tmp;
-
-                    double interval = node.data().getHval() - tmp.data().getHval();
-                    if(interval < minInterval) {
-                        minInterval = interval;
-                        minIntervalOpsUnit = tmp;
-                    }
-
-                    if(tmp.next() != null) {
-                        interval = tmp.next().data().getHval() - node.data().getHval();
-                        if(interval < minInterval) {
-                            minInterval = interval;
-                            minIntervalOpsUnit = node;
-                        }
-                    }
-                }
+    private void trim(int maxUnitCnt) {
+        int n = this.size;
+        int[] prev = new int[n];
+        int[] next = new int[n];
+        int[] version = new int[n];
+        boolean[] removed = new boolean[n];
+        // each merge pushes two more intervals
+        int heapCapacity = n - 1 + 2 * (n - maxUnitCnt);
+        double[] heapIntervals = new double[heapCapacity];
+        int[] heapUnits = new int[heapCapacity];
+        int[] heapVersions = new int[heapCapacity];
+        int heapSize = 0;
+
+        for(int i = 0; i < n; i++) {
+            prev[i] = i - 1;
+            next[i] = (i + 1 < n) ? i + 1 : -1;
+            if(i + 1 < n) {
+                heapSize = heapPush(heapIntervals, heapUnits, heapVersions, heapSize, this.hvals[i + 1]
+                        - this.hvals[i], i, 0);
             }
+        }
 
-            if(tmp.next() != null) {
-                LinkNode<HistogramUnit> next = tmp.next();
-                double interval = next.data().getHval() - tmp.data().getHval();
-
-                if(interval < minInterval) {
-                    minInterval = interval;
-                    minIntervalOpsUnit = tmp;
-                }
+        int unitCnt = n;
+        while(unitCnt > maxUnitCnt && heapSize > 0) {
+            int unit = heapUnits[0];
+            int unitVersion = heapVersions[0];
+            heapSize = heapPop(heapIntervals, heapUnits, heapVersions, heapSize);
+            if(removed[unit] || version[unit] != unitVersion || next[unit] < 0) {
+                continue;
             }
 
-            tmp = tmp.prev();
-        }
-
-        // insert node into linked list
-        if(insertOpsUnit == null) { // insert as the first node
-            if(this.header != null) {
-                this.header.setPrev(node);
+            // merge info into next unit and remove current unit
+            int nextUnit = next[unit];
+            int prevUnit = prev[unit];
+            mergeInto(nextUnit, this.hvals[unit], this.hcnts[unit]);
+            removed[unit] = true;
+            prev[nextUnit] = prevUnit;
+            version[nextUnit] += 1;
+            if(next[nextUnit] >= 0) {
+                heapSize = heapPush(heapIntervals, heapUnits, heapVersions, heapSize, this.hvals[next[nextUnit]]
+                        - this.hvals[nextUnit], nextUnit, version[nextUnit]);
             }
-            node.setNext(this.header);
-            this.header = node;
-            if(this.tail == null) {
-                this.tail = node;
+            if(prevUnit >= 0) {
+                next[prevUnit] = nextUnit;
+                version[prevUnit] += 1;
+                heapSize = heapPush(heapIntervals, heapUnits, heapVersions, heapSize, this.hvals[nextUnit]
+                        - this.hvals[prevUnit], prevUnit, version[prevUnit]);
             }
-        } else if(insertOpsUnit == this.tail) { // insert as the last node
-            node.setPrev(insertOpsUnit);
-            insertOpsUnit.setNext(node);
-            this.tail = node;
-        } else { // some intermediate node
-            node.setNext(insertOpsUnit.next());
-            node.setPrev(insertOpsUnit);
-            insertOpsUnit.next().setPrev(node);
-            insertOpsUnit.setNext(node);
+            unitCnt -= 1;
         }
 
-        // merge info into next node
-        if(this.currentHistogramUnitCnt == this.maxHistogramUnitCnt) {
-            LinkNode<HistogramUnit> nextNode = minIntervalOpsUnit.next();
-            HistogramUnit chu = minIntervalOpsUnit.data();
-            HistogramUnit nhu = nextNode.data();
-            nhu.setHval(
-                    (chu.getHval() * chu.getHcnt() + nhu.getHval() * nhu.getHcnt()) / (chu.getHcnt() + nhu.getHcnt()));
-            nhu.setHcnt(chu.getHcnt() + nhu.getHcnt());
-            removeCurrentNode(minIntervalOpsUnit, nextNode);
-        } else {
-            this.currentHistogramUnitCnt++;
+        int current = 0;
+        for(int i = 0; i < n; i++) {
+            if(!removed[i]) {
+                this.hvals[current] = this.hvals[i];
+                this.hcnts[current] = this.hcnts[i];
+                current += 1;
+            }
         }
+        this.size = current;
     }
 
-    private void removeCurrentNode(LinkNode<HistogramUnit> currNode, LinkNode<HistogramUnit> nextNode) {
-        // remove current node
-        if(currNode == this.header) {
-            nextNode.setPrev(null);
-            this.header = nextNode;
-        } else {
-            LinkNode<HistogramUnit> prev = currNode.prev();
-            prev.setNext(nextNode);
-            nextNode.setPrev(prev);
-        }
+    private static int heapPush(double[] intervals, int[] units, int[] versions, int heapSize, double interval,
+            int unit, int version) {
+        int i = heapSize;
+        while(i > 0) {
+            int parent = (i - 1) >>> 1;
+            if(intervals[parent] <= interval) {
+                break;
+            }
+            intervals[i] = intervals[parent];
+            units[i] = units[parent];
+            versions[i] = versions[parent];
+            i = parent;
+        }
+        intervals[i] = interval;
+        units[i] = unit;
+        versions[i] = version;
+        return heapSize + 1;
+    }
+
+    private static int heapPop(double[] intervals, int[] units, int[] versions, int heapSize) {
+        int last = heapSize - 1;
+        double interval = intervals[last];
+        int unit = units[last];
+        int version = versions[last];
+        int i = 0;
+        while(true) {
+            int child = 2 * i + 1;
+            if(child >= last) {
+                break;
+            }
+            if(child + 1 < last && intervals[child + 1] < intervals[child]) {
+                child += 1;
+            }
+            if(interval <= intervals[child]) {
+                break;
+            }
+            intervals[i] = intervals[child];
+            units[i] = units[child];
+            versions[i] = versions[child];
+            i = child;
+        }
+        intervals[i] = interval;
+        units[i] = unit;
+        versions[i] = version;
+        return last;
     }
 
     @Override
@@ -607,11 +594,25 @@ public class EqualPopulationBinning extends AbstractBinning<Double> {
 
         super.mergeBin(binning);
 
-        LinkNode<HistogramUnit> tmp = binning.header;
-        while(tmp != null) {
-            this.insertWithTrim(new LinkNode<HistogramUnit>(tmp.data()));
-            tmp = tmp.next();
+        // units of another are appended as buffer in bulk and merged once
+        binning.compress();
+        int newSize = this.size + binning.currentHistogramUnitCnt;
+        if(this.hvals == null || this.hvals.length < newSize) {
+            double[] vals = new double[Math.max(newSize, getBufferedCapacity())];
+            double[] cnts = new double[vals.length];
+            if(this.hvals != null) {
+                System.arraycopy(this.hvals, 0, vals, 0, this.size);
+                System.arraycopy(this.hcnts, 0, cnts, 0, this.size);
+            }
+            this.hvals = vals;
+            this.hcnts = cnts;
         }
+        if(binning.currentHistogramUnitCnt > 0) {
+            System.arraycopy(binning.hvals, 0, this.hvals, this.size, binning.currentHistogramUnitCnt);
+            System.arraycopy(binning.hcnts, 0, this.hcnts, this.size, binning.currentHistogramUnitCnt);
+        }
+        this.size = newSize;
+        compress();
     }
 
     public void stringToObj(String objValStr) {
@@ -623,113 +624,29 @@ public class EqualPopulationBinning extends AbstractBinning<Double> {
         if(objStrArr.length > 5 && StringUtils.isNotBlank(objStrArr[5])) {
             String[] histogramStrArr = objStrArr[5].split(Character.toString(SETLIST_SEPARATOR), -1);
             for(String histogramStr: histogramStrArr) {
-                HistogramUnit hu = HistogramUnit.stringToObj(histogramStr);
-                this.insertWithTrim(new LinkNode<HistogramUnit>(hu));
+                String[] fields = StringUtils.split(histogramStr, PAIR_SEPARATOR);
+                process(Double.parseDouble(fields[0]), Double.parseDouble(fields[1]));
             }
+            compress();
         } else {
             log.warn("Empty categorical bin - " + objValStr);
         }
     }
 
     public String objToString() {
-        List<String> histogramStrList = new ArrayList<String>();
+        compress();
 
-        if(this.header != null) {
-            LinkNode<HistogramUnit> tmp = this.header;
-            while(tmp != null) {
-                histogramStrList.add(tmp.data().objToString());
-                tmp = tmp.next();
+        StringBuilder histogramStr = new StringBuilder();
+        for(int i = 0; i < this.currentHistogramUnitCnt; i++) {
+            if(i > 0) {
+                histogramStr.append(SETLIST_SEPARATOR);
             }
+            histogramStr.append(Double.toString(this.hvals[i])).append(PAIR_SEPARATOR)
+                    .append(Double.toString(this.hcnts[i]));
         }
 
         return super.objToString() + Character.toString(FIELD_SEPARATOR) + Integer.toString(maxHistogramUnitCnt)
-                + Character.toString(FIELD_SEPARATOR) + StringUtils.join(histogramStrList, SETLIST_SEPARATOR);
-    }
-
-    /**
-     * HistogramUnit class is the unit for histogram
-     */
-    public static class HistogramUnit implements Comparable<HistogramUnit> {
-        private double hval;
-        private double hcnt;
-
-        public HistogramUnit(double hval, double hcnt) {
-            this.hval = hval;
-            this.hcnt = hcnt;
-        }
-
-        public double getHval() {
-            return hval;
-        }
-
-        public void setHval(double hval) {
-            this.hval = hval;
-        }
-
-        public double getHcnt() {
-            return hcnt;
-        }
-
-        public void setHcnt(double hcnt) {
-            this.hcnt = hcnt;
-        }
-
-        /*
-         * (non-Javadoc)
-         * 
-         * @see java.lang.Comparable#compareTo(java.lang.Object)
-         */
-        @Override
-        public int compareTo(HistogramUnit another) {
-            return Double.compare(hval, another.getHval());
-        }
-
-        /*
-         * (non-Javadoc)
-         * 
-         * @see java.lang.Object#hashCode()
-         */
-        @Override
-        public int hashCode() {
-            final int prime = 31;
-            int result = 1;
-            long temp;
-            temp = Double.doubleToLongBits(hval);
-            result = prime * result + (int) (temp ^ (temp >>> 32));
-            return result;
-        }
-
-        /*
-         * (non-Javadoc)
-         * 
-         * @see java.lang.Object#equals(java.lang.Object)
-         */
-        @Override
-        public boolean equals(Object obj) {
-            if(this == obj)
-                return true;
-            if(obj == null)
-                return false;
-            if(!(obj instanceof HistogramUnit))
-                return false;
-            HistogramUnit other = (HistogramUnit) obj;
-            return Double.compare(hval, other.hval) == 0;
-        }
-
-        @Override
-        public String toString() {
-            return "[" + hval + ", " + hcnt + "]";
-        }
-
-        public String objToString() {
-            return Double.toString(hval) + Character.toString(PAIR_SEPARATOR) + Double.toString(hcnt);
-        }
-
-        public static HistogramUnit stringToObj(String histogramStr) {
-            String[] fields = StringUtils.split(histogramStr, PAIR_SEPARATOR);
-            return new HistogramUnit(Double.parseDouble(fields[0]), Double.parseDouble(fields[1]));
-        }
-
+                + Character.toString(FIELD_SEPARATOR) + histogramStr.toString();
     }
 
 }
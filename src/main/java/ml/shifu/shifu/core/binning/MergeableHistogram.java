@@ -0,0 +1,365 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.binning;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import ml.shifu.shifu.container.obj.ModelStatsConf.BinningMethod;
+import ml.shifu.shifu.util.BinUtils;
+import ml.shifu.shifu.util.QuickSort;
+
+import org.apache.hadoop.io.Writable;
+
+/**
+ * {@link MergeableHistogram} is a bounded and mergeable quantile sketch for numerical columns. Each centroid keeps
+ * positive/negative count and weight, so bin boundaries of any {@link BinningMethod} and per-bin counts can be derived
+ * from the same sketch after all partial sketches are merged.
+ *
+ * <p>
+ * Centroids and incoming values are kept in primitive arrays. New values are appended into a buffer; once the buffer is
+ * full, buffer is sorted and merged into centroids, then adjacent centroids are compressed as long as merged count is
+ * not over total / maxSize. So each centroid holds at most 1/maxSize of all values (except one single heavy value),
+ * error of each bin boundary is bounded by that.
+ *
+ * <p>
+ * For multiple classification or linear target, all values are counted as positive to keep population.
+ */
+public class MergeableHistogram implements Writable {
+
+    private int maxSize;
+
+    /**
+     * Number of sorted and compressed centroids, centroids are in [0, centroidSize) of the arrays.
+     */
+    private int centroidSize;
+
+    /**
+     * Number of centroids plus buffered values.
+     */
+    private int size;
+
+    private double[] values;
+
+    private long[] countPos;
+
+    private long[] countNeg;
+
+    private double[] weightPos;
+
+    private double[] weightNeg;
+
+    /**
+     * Scratch arrays reused in merging sorted centroids and buffer in every compression.
+     */
+    private final QuickSort.MergeBuffer mergeBuffer = new QuickSort.MergeBuffer();
+
+    private double min = Double.POSITIVE_INFINITY;
+
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Default constructor for {@link Writable}, arrays are allocated in {@link #readFields(DataInput)}.
+     */
+    public MergeableHistogram() {
+    }
+
+    /**
+     * Constructor with expected max centroid size.
+     *
+     * @param maxSize
+     *            max centroid size, usually expected bin number * histogram scale factor
+     */
+    public MergeableHistogram(int maxSize) {
+        init(maxSize);
+    }
+
+    private void init(int maxSize) {
+        this.maxSize = Math.max(maxSize, 2);
+        // centroids can be up to 2 * maxSize + 1 after compression, then maxSize is left to buffer new values
+        int capacity = 3 * this.maxSize + 1;
+        this.values = new double[capacity];
+        this.countPos = new long[capacity];
+        this.countNeg = new long[capacity];
+        this.weightPos = new double[capacity];
+        this.weightNeg = new double[capacity];
+        this.centroidSize = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Add one valid numerical value.
+     *
+     * @param value
+     *            the value
+     * @param isPositive
+     *            if positive record
+     * @param weight
+     *            weight of the record
+     */
+    public void add(double value, boolean isPositive, double weight) {
+        if(isPositive) {
+            add(value, 1L, 0L, weight, 0d);
+        } else {
+            add(value, 0L, 1L, 0d, weight);
+        }
+    }
+
+    private void add(double value, long cntPos, long cntNeg, double wgtPos, double wgtNeg) {
+        if(this.size == this.values.length) {
+            compress();
+        }
+        this.values[this.size] = value;
+        this.countPos[this.size] = cntPos;
+        this.countNeg[this.size] = cntNeg;
+        this.weightPos[this.size] = wgtPos;
+        this.weightNeg[this.size] = wgtNeg;
+        this.size += 1;
+        if(value < this.min) {
+            this.min = value;
+        }
+        if(value > this.max) {
+            this.max = value;
+        }
+    }
+
+    /**
+     * Merge centroids of another histogram into this one.
+     *
+     * @param another
+     *            another partial histogram
+     */
+    public void merge(MergeableHistogram another) {
+        another.compress();
+        for(int i = 0; i < another.centroidSize; i++) {
+            add(another.values[i], another.countPos[i], another.countNeg[i], another.weightPos[i],
+                    another.weightNeg[i]);
+        }
+        this.min = Math.min(this.min, another.min);
+        this.max = Math.max(this.max, another.max);
+    }
+
+    /**
+     * Sort buffered values and merge them into centroids, then compress centroids.
+     */
+    public void compress() {
+        if(this.size == this.centroidSize) {
+            return;
+        }
+        // centroids are sorted already, only sort buffer and then merge two sorted ranges
+        double[][] doubles = new double[][] { this.weightPos, this.weightNeg };
+        long[][] longs = new long[][] { this.countPos, this.countNeg };
+        QuickSort.sort(this.values, this.centroidSize, this.size - 1, false, doubles, longs);
+        QuickSort.mergeSorted(this.values, 0, this.centroidSize, this.size, doubles, longs, this.mergeBuffer);
+
+        long total = 0L;
+        for(int i = 0; i < this.size; i++) {
+            total += this.countPos[i] + this.countNeg[i];
+        }
+        // two adjacent centroids after compression are over cap, so centroids are no more than 2 * maxSize + 1
+        double cap = Math.max(1d, total / (double) this.maxSize);
+
+        int current = 0;
+        for(int i = 1; i < this.size; i++) {
+            long currentCount = this.countPos[current] + this.countNeg[current];
+            long count = this.countPos[i] + this.countNeg[i];
+            if(Double.compare(this.values[current], this.values[i]) == 0 || currentCount + count <= cap) {
+                long merged = currentCount + count;
+                if(merged > 0L) {
+                    this.values[current] = (this.values[current] * currentCount + this.values[i] * count) / merged;
+                }
+                this.countPos[current] += this.countPos[i];
+                this.countNeg[current] += this.countNeg[i];
+                this.weightPos[current] += this.weightPos[i];
+                this.weightNeg[current] += this.weightNeg[i];
+            } else {
+                current += 1;
+                move(i, current);
+            }
+        }
+        this.centroidSize = current + 1;
+        this.size = this.centroidSize;
+    }
+
+    private void move(int from, int to) {
+        if(from != to) {
+            this.values[to] = this.values[from];
+            this.countPos[to] = this.countPos[from];
+            this.countNeg[to] = this.countNeg[from];
+            this.weightPos[to] = this.weightPos[from];
+            this.weightNeg[to] = this.weightNeg[from];
+        }
+    }
+
+    private double mass(int i, BinningMethod method) {
+        switch(method) {
+            case EqualPositive:
+                return this.countPos[i];
+            case EqualNegtive:
+                return this.countNeg[i];
+            case WeightEqualPositive:
+                return this.weightPos[i];
+            case WeightEqualNegative:
+                return this.weightNeg[i];
+            case WeightEqualTotal:
+                return this.weightPos[i] + this.weightNeg[i];
+            case EqualTotal:
+            default:
+                return this.countPos[i] + this.countNeg[i];
+        }
+    }
+
+    /**
+     * Compute bin boundaries, the same format as {@link EqualPopulationBinning} and {@link EqualIntervalBinning}: first
+     * boundary is negative infinity, each boundary is the left (inclusive) border of a bin.
+     *
+     * @param binNum
+     *            expected bin number
+     * @param method
+     *            binning method
+     * @return bin boundaries, empty list if no data
+     */
+    public List<Double> getBinBoundaries(int binNum, BinningMethod method) {
+        compress();
+        List<Double> boundaries = new ArrayList<Double>();
+        if(this.centroidSize == 0) {
+            return boundaries;
+        }
+        boundaries.add(Double.NEGATIVE_INFINITY);
+
+        if(method == BinningMethod.EqualInterval || method == BinningMethod.WeightEqualInterval) {
+            double delta = (this.max - this.min) * 0.0005;
+            double start = this.min - delta;
+            double interval = (this.max + delta - start) / binNum;
+            for(int i = 1; i < binNum; i++) {
+                double boundary = start + i * interval;
+                if(boundary > boundaries.get(boundaries.size() - 1)) {
+                    boundaries.add(boundary);
+                }
+            }
+            return boundaries;
+        }
+
+        double total = 0d;
+        for(int i = 0; i < this.centroidSize; i++) {
+            total += mass(i, method);
+        }
+        if(total <= 0d) {
+            // no positive or negative records in such method, fall back to total count
+            return getBinBoundaries(binNum, BinningMethod.EqualTotal);
+        }
+
+        double cumulative = 0d;
+        int j = 1;
+        for(int i = 0; i < this.centroidSize && j < binNum; i++) {
+            double before = cumulative;
+            cumulative += mass(i, method);
+            double target = j * total / binNum;
+            if(cumulative < target) {
+                continue;
+            }
+            // cut before or after current centroid, which one is closer to target
+            int cut = (target - before < cumulative - target) ? i : i + 1;
+            if(cut > 0 && cut < this.centroidSize) {
+                double boundary = (this.values[cut - 1] + this.values[cut]) / 2d;
+                if(boundary > boundaries.get(boundaries.size() - 1)) {
+                    boundaries.add(boundary);
+                }
+            }
+            // skip targets already passed by a heavy centroid
+            while(j < binNum && j * total / binNum <= cumulative) {
+                j += 1;
+            }
+        }
+        return boundaries;
+    }
+
+    /**
+     * Accumulate centroids into bins given boundaries. Arrays should be at least boundaries size.
+     */
+    public void fillBins(List<Double> boundaries, long[] binCountPos, long[] binCountNeg, double[] binWeightPos,
+            double[] binWeightNeg) {
+        compress();
+        for(int i = 0; i < this.centroidSize; i++) {
+            int binNum = BinUtils.getBinIndex(boundaries, this.values[i]);
+            binCountPos[binNum] += this.countPos[i];
+            binCountNeg[binNum] += this.countNeg[i];
+            binWeightPos[binNum] += this.weightPos[i];
+            binWeightNeg[binNum] += this.weightNeg[i];
+        }
+    }
+
+    /**
+     * @return centroid size after compression
+     */
+    public int getCentroidSize() {
+        compress();
+        return this.centroidSize;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        compress();
+        out.writeInt(this.maxSize);
+        out.writeDouble(this.min);
+        out.writeDouble(this.max);
+        out.writeInt(this.centroidSize);
+        for(int i = 0; i < this.centroidSize; i++) {
+            out.writeDouble(this.values[i]);
+            out.writeLong(this.countPos[i]);
+            out.writeLong(this.countNeg[i]);
+            out.writeDouble(this.weightPos[i]);
+            out.writeDouble(this.weightNeg[i]);
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        init(in.readInt());
+        this.min = in.readDouble();
+        this.max = in.readDouble();
+        int centroids = in.readInt();
+        for(int i = 0; i < centroids; i++) {
+            double value = in.readDouble();
+            long cntPos = in.readLong();
+            long cntNeg = in.readLong();
+            double wgtPos = in.readDouble();
+            double wgtNeg = in.readDouble();
+            if(this.size == this.values.length) {
+                compress();
+            }
+            this.values[this.size] = value;
+            this.countPos[this.size] = cntPos;
+            this.countNeg[this.size] = cntNeg;
+            this.weightPos[this.size] = wgtPos;
+            this.weightNeg[this.size] = wgtNeg;
+            this.size += 1;
+        }
+        this.centroidSize = this.size;
+    }
+
+}
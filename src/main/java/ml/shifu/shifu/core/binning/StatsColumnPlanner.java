@@ -0,0 +1,355 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.binning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.Set;
+
+import ml.shifu.shifu.container.obj.ColumnConfig;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * {@link StatsColumnPlanner} estimates stats cost of each column from sampled records and plans reducers of stats jobs
+ * by the estimated cost instead of by column count only.
+ *
+ * <p>
+ * Cost unit is one numerical column whose cost is fixed by histogram size. Cost of categorical column grows with its
+ * estimated cardinality, which is estimated by Chao1 estimator from sample frequencies, or by distinct ratio in sample
+ * if too many distinct values are seen to track.
+ *
+ * <p>
+ * Samples are taken from files spread over the whole data set and reservoir sampled in each file by
+ * {@link #reservoirSample(List, int, int, Random)}, so head records of the first file do not decide the plan.
+ *
+ * <p>
+ * Columns are assigned to reducers by weighted bin-packing (largest cost first to least loaded reducer).
+ */
+public class StatsColumnPlanner {
+
+    /**
+     * How many categories cost the same as one numerical column.
+     */
+    public static final double CATEGORY_COST_UNIT = 1000d;
+
+    /**
+     * Max distinct values tracked for one column in sampling.
+     */
+    public static final int MAX_TRACKED_DISTINCT = 2000;
+
+    /**
+     * Lines scanned in one file per line sampled from it.
+     */
+    public static final int SCAN_FACTOR = 10;
+
+    private final List<ColumnConfig> columnConfigList;
+
+    /**
+     * Missing values, checked on lower case values the same as stats mapper.
+     */
+    private final Set<String> missingValues;
+
+    /**
+     * Value frequencies of categorical columns in sample, null for numerical columns or if too many distinct values.
+     */
+    private final Map<String, Integer>[] frequencies;
+
+    /**
+     * Distinct ratio of non-missing values when tracked distinct values exceed {@link #MAX_TRACKED_DISTINCT}, 0 if not.
+     */
+    private final double[] saturatedRatios;
+
+    private final long[] nonMissingCounts;
+
+    private long sampleCount;
+
+    private long sampleBytes;
+
+    private long estimatedRecordCount = -1L;
+
+    @SuppressWarnings("unchecked")
+    public StatsColumnPlanner(List<ColumnConfig> columnConfigList, List<String> missingValues) {
+        this.columnConfigList = columnConfigList;
+        this.missingValues = new HashSet<String>();
+        if(missingValues != null) {
+            this.missingValues.addAll(missingValues);
+        }
+        int size = columnConfigList.size();
+        this.frequencies = new Map[size];
+        this.saturatedRatios = new double[size];
+        this.nonMissingCounts = new long[size];
+        for(int i = 0; i < size; i++) {
+            ColumnConfig config = columnConfigList.get(i);
+            if(config.isCategorical() || config.isHybrid()) {
+                this.frequencies[i] = new HashMap<String, Integer>();
+            }
+        }
+    }
+
+    /**
+     * Add one sampled record.
+     *
+     * @param fields
+     *            fields of the record
+     * @param recordBytes
+     *            bytes of the raw record, used to estimate total record count from data size
+     */
+    public void addSample(String[] fields, int recordBytes) {
+        if(fields.length != this.columnConfigList.size()) {
+            return;
+        }
+        this.sampleCount += 1L;
+        this.sampleBytes += recordBytes;
+        for(int i = 0; i < fields.length; i++) {
+            String value = fields[i];
+            if(value == null || this.missingValues.contains(value.toLowerCase())) {
+                continue;
+            }
+            this.nonMissingCounts[i] += 1L;
+            Map<String, Integer> frequency = this.frequencies[i];
+            if(frequency == null) {
+                continue;
+            }
+            Integer count = frequency.get(value);
+            if(count == null && frequency.size() >= MAX_TRACKED_DISTINCT) {
+                // stop tracking, distinct ratio is kept for estimation
+                this.saturatedRatios[i] = frequency.size() * 1d / this.nonMissingCounts[i];
+                this.frequencies[i] = null;
+            } else {
+                frequency.put(value, count == null ? 1 : count + 1);
+            }
+        }
+    }
+
+    /**
+     * Set estimated record count of the whole data set from data size.
+     *
+     * @param dataBytes
+     *            total bytes of the data set (uncompressed)
+     */
+    public void setDataSize(long dataBytes) {
+        if(this.sampleCount > 0L && this.sampleBytes > 0L) {
+            this.estimatedRecordCount = Math.max(this.sampleCount,
+                    (long) (dataBytes / (this.sampleBytes * 1d / this.sampleCount)));
+        }
+    }
+
+    public long getSampleCount() {
+        return this.sampleCount;
+    }
+
+    /**
+     * Reservoir sample lines of one file, at most maxScan lines are read to bound planning time on large files.
+     *
+     * @param scanners
+     *            scanners of one data file
+     * @param size
+     *            max lines sampled
+     * @param maxScan
+     *            max lines scanned
+     * @param random
+     *            random to pick lines
+     * @return sampled lines
+     */
+    public static List<String> reservoirSample(List<Scanner> scanners, int size, int maxScan, Random random) {
+        List<String> reservoir = new ArrayList<String>(size);
+        int seen = 0;
+        for(Scanner scanner: scanners) {
+            while(seen < maxScan && scanner.hasNextLine()) {
+                String line = scanner.nextLine();
+                if(seen < size) {
+                    reservoir.add(line);
+                } else {
+                    int index = random.nextInt(seen + 1);
+                    if(index < size) {
+                        reservoir.set(index, line);
+                    }
+                }
+                seen++;
+            }
+        }
+        return reservoir;
+    }
+
+    /**
+     * Estimate cardinality of one column in the whole data set.
+     *
+     * @param columnIndex
+     *            the column index
+     * @return estimated cardinality, 0 for numerical columns
+     */
+    public long estimateCardinality(int columnIndex) {
+        if(this.sampleCount == 0L) {
+            return 0L;
+        }
+        long recordCount = this.estimatedRecordCount > 0L ? this.estimatedRecordCount : this.sampleCount;
+        long totalNonMissing = (long) (recordCount * (this.nonMissingCounts[columnIndex] * 1d / this.sampleCount));
+        if(this.saturatedRatios[columnIndex] > 0d) {
+            return Math.max(MAX_TRACKED_DISTINCT, (long) (this.saturatedRatios[columnIndex] * totalNonMissing));
+        }
+
+        Map<String, Integer> frequency = this.frequencies[columnIndex];
+        if(frequency == null) {
+            return 0L;
+        }
+        long f1 = 0L, f2 = 0L;
+        for(Integer count: frequency.values()) {
+            if(count == 1) {
+                f1 += 1L;
+            } else if(count == 2) {
+                f2 += 1L;
+            }
+        }
+        // bias-corrected Chao1 estimator, bounded by non-missing record count
+        double chao1 = frequency.size() + f1 * (f1 - 1d) / (2d * (f2 + 1d));
+        return Math.max(frequency.size(), Math.min(totalNonMissing, (long) chao1));
+    }
+
+    /**
+     * @return estimated cost of all columns, one numerical column costs 1
+     */
+    public double[] getColumnCosts() {
+        double[] costs = new double[this.columnConfigList.size()];
+        for(int i = 0; i < costs.length; i++) {
+            ColumnConfig config = this.columnConfigList.get(i);
+            if(config.isCategorical() || config.isHybrid()) {
+                costs[i] = 1d + estimateCardinality(i) / CATEGORY_COST_UNIT;
+            } else {
+                costs[i] = 1d;
+            }
+        }
+        return costs;
+    }
+
+    /**
+     * Expand column costs to column ids of segment expansions, which are in the same order as stats job outputs.
+     *
+     * @param costs
+     *            cost of raw columns
+     * @param segmentSize
+     *            segment filter expression size
+     * @return costs of all column ids
+     */
+    public static double[] expandCosts(double[] costs, int segmentSize) {
+        double[] expanded = new double[costs.length * (segmentSize + 1)];
+        for(int i = 0; i < expanded.length; i++) {
+            expanded[i] = costs[i % costs.length];
+        }
+        return expanded;
+    }
+
+    public static double sum(double[] costs) {
+        double sum = 0d;
+        for(double cost: costs) {
+            sum += cost;
+        }
+        return sum;
+    }
+
+    /**
+     * Reducer number by total cost.
+     *
+     * @param costs
+     *            column costs
+     * @param costPerReducer
+     *            expected cost handled by one reducer
+     * @param maxReducers
+     *            max reducer number
+     * @return reducer number in [1, maxReducers]
+     */
+    public static int getReducerNum(double[] costs, double costPerReducer, int maxReducers) {
+        int reducers = (int) Math.ceil(sum(costs) / costPerReducer);
+        return Math.max(1, Math.min(maxReducers, reducers));
+    }
+
+    /**
+     * Assign columns to reducers by weighted bin-packing: columns are sorted by cost in descending order and each one is
+     * assigned to current least loaded reducer.
+     *
+     * @param costs
+     *            column costs
+     * @param reducerNum
+     *            reducer number
+     * @return reducer index of each column
+     */
+    public static int[] assignPartitions(final double[] costs, int reducerNum) {
+        Integer[] columns = new Integer[costs.length];
+        for(int i = 0; i < columns.length; i++) {
+            columns[i] = i;
+        }
+        Arrays.sort(columns, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                int result = Double.compare(costs[o2], costs[o1]);
+                return result != 0 ? result : o1.compareTo(o2);
+            }
+        });
+
+        final double[] loads = new double[reducerNum];
+        PriorityQueue<Integer> reducers = new PriorityQueue<Integer>(reducerNum, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                int result = Double.compare(loads[o1], loads[o2]);
+                return result != 0 ? result : o1.compareTo(o2);
+            }
+        });
+        for(int i = 0; i < reducerNum; i++) {
+            reducers.add(i);
+        }
+
+        int[] partitions = new int[costs.length];
+        for(Integer column: columns) {
+            Integer reducer = reducers.poll();
+            partitions[column] = reducer;
+            loads[reducer] += costs[column];
+            reducers.add(reducer);
+        }
+        return partitions;
+    }
+
+    public static String encodePartitions(int[] partitions) {
+        StringBuilder sb = new StringBuilder(partitions.length * 3);
+        for(int i = 0; i < partitions.length; i++) {
+            if(i > 0) {
+                sb.append(',');
+            }
+            sb.append(partitions[i]);
+        }
+        return sb.toString();
+    }
+
+    public static int[] decodePartitions(String str) {
+        if(StringUtils.isBlank(str)) {
+            return null;
+        }
+        String[] units = StringUtils.split(str, ',');
+        int[] partitions = new int[units.length];
+        for(int i = 0; i < units.length; i++) {
+            partitions[i] = Integer.parseInt(units[i].trim());
+        }
+        return partitions;
+    }
+
+}
@@ -67,6 +67,11 @@ import ml.shifu.shifu.util.MapReduceUtils;
  * 
  * <p>
  * 'median' can not be computed through such distributed solution.
+ * 
+ * <p>
+ * If {@link Constants#SHIFU_STATS_SINGLE_PASS} is enabled, no bin boundary list is needed. Numerical columns are
+ * collected into {@link MergeableHistogram} and categorical columns into {@link CategoricalCounter}, then bins are
+ * computed in reducer from merged sketches. By that, data is only scanned once in stats.
  */
 public class UpdateBinningInfoMapper extends Mapper<LongWritable, Text, IntWritable, BinningInfoWritable> {
 
@@ -123,9 +128,36 @@ public class UpdateBinningInfoMapper extends Mapper<LongWritable, Text, IntWrita
     private Map<Integer, Map<String, Integer>> categoricalBinMap;
 
     /**
-     * Using approximate method to estimate real frequent items and store into this map
+     * Column binning info indexed by column index (with expansion of segment expressions), the same objects as in
+     * {@link #columnBinningInfo} but array access is much faster than map lookup per value.
+     */
+    private BinningInfoWritable[] binningInfos;
+
+    /**
+     * Categorical value to bin index maps indexed by column index.
+     */
+    private Map<String, Integer>[] categoricalBinMaps;
+
+    /**
+     * Using approximate method to estimate real frequent items, indexed by column index
+     */
+    private CountAndFrequentItems[] countAndFrequentItems;
+
+    /**
+     * Reusable tokens of current record.
      */
-    private Map<Integer, CountAndFrequentItems> variableCountMap;
+    private String[] units;
+
+    /**
+     * Reusable segment expression results of current record.
+     */
+    private boolean[] filterResults;
+
+    /**
+     * Max length of missing or invalid values, longer values are not missing values and no need to lower case them for
+     * set lookup.
+     */
+    private int maxMissingValueLength;
 
     // cache tags in set for search
     private Set<String> posTags;
@@ -145,6 +177,27 @@ public class UpdateBinningInfoMapper extends Mapper<LongWritable, Text, IntWrita
     private List<DataPurifier> expressionDataPurifiers;
     private boolean isForExpressions = false;
 
+    /**
+     * In single-pass stats, no bin boundaries from distributed cache, numerical columns are collected in
+     * {@link MergeableHistogram} and categorical columns in {@link CategoricalCounter}, bins are computed in reducer.
+     */
+    private boolean isSinglePass = false;
+
+    /**
+     * Numerical sketch size in single-pass stats.
+     */
+    private int sketchSize;
+
+    /**
+     * Max category size in single-pass stats.
+     */
+    private int maxCateSize;
+
+    /**
+     * Categorical counters in single-pass stats, indexed by column index.
+     */
+    private CategoricalCounter[] categoricalCounters;
+
     /**
      * Load model config and column config files.
      */
@@ -193,17 +246,29 @@ public class UpdateBinningInfoMapper extends Mapper<LongWritable, Text, IntWrita
         String delimiter = context.getConfiguration().get(Constants.SHIFU_OUTPUT_DATA_DELIMITER);
         this.splitter = MapReduceUtils.generateShifuOutputSplitter(delimiter);
 
-        loadColumnBinningInfo();
+        this.isSinglePass = context.getConfiguration().getBoolean(Constants.SHIFU_STATS_SINGLE_PASS, false);
+        if(this.isSinglePass) {
+            int maxNumBin = this.modelConfig.getStats().getMaxNumBin() > 0 ? this.modelConfig.getStats()
+                    .getMaxNumBin() : 1024;
+            this.sketchSize = maxNumBin
+                    * context.getConfiguration().getInt(Constants.SHIFU_STATS_SKETCH_SCALE_FACTOR, 20);
+            this.maxCateSize = context.getConfiguration().getInt(Constants.SHIFU_MAX_CATEGORY_SIZE,
+                    Constants.MAX_CATEGORICAL_BINC_COUNT);
+        } else {
+            loadColumnBinningInfo();
+        }
+        initColumnArrays();
 
         this.outputKey = new IntWritable();
 
-        this.variableCountMap = new HashMap<Integer, CountAndFrequentItems>();
-
         this.posTags = new HashSet<String>(modelConfig.getPosTags());
         this.negTags = new HashSet<String>(modelConfig.getNegTags());
         this.tags = new HashSet<String>(modelConfig.getFlattenTags());
 
         this.missingOrInvalidValues = new HashSet<String>(this.modelConfig.getDataSet().getMissingOrInvalidValues());
+        for(String missingValue: this.missingOrInvalidValues) {
+            this.maxMissingValueLength = Math.max(this.maxMissingValueLength, missingValue.length());
+        }
 
         this.isThrowforWeightException = "true"
                 .equalsIgnoreCase(context.getConfiguration().get("shifu.weight.exception", "false"));
@@ -213,6 +278,36 @@ public class UpdateBinningInfoMapper extends Mapper<LongWritable, Text, IntWrita
                 && CommonUtils.getTargetColumnConfig(columnConfigList).isNumerical());
     }
 
+    /**
+     * Index per column statistics by arrays, size is column size * (segment expression size + 1).
+     */
+    @SuppressWarnings("unchecked")
+    private void initColumnArrays() {
+        int columnSize = this.columnConfigList.size();
+        int expressionSize = this.isForExpressions ? this.expressionDataPurifiers.size() : 0;
+        int size = columnSize * (expressionSize + 1);
+
+        this.binningInfos = new BinningInfoWritable[size];
+        for(Map.Entry<Integer, BinningInfoWritable> entry: this.columnBinningInfo.entrySet()) {
+            if(entry.getKey() < size) {
+                this.binningInfos[entry.getKey()] = entry.getValue();
+            }
+        }
+        this.categoricalBinMaps = new Map[size];
+        for(Map.Entry<Integer, Map<String, Integer>> entry: this.categoricalBinMap.entrySet()) {
+            if(entry.getKey() < size) {
+                this.categoricalBinMaps[entry.getKey()] = entry.getValue();
+            }
+        }
+        this.countAndFrequentItems = new CountAndFrequentItems[size];
+        if(this.isSinglePass) {
+            this.categoricalCounters = new CategoricalCounter[size];
+        }
+
+        this.units = new String[columnSize];
+        this.filterResults = new boolean[expressionSize];
+    }
+
     /**
      * Load and initialize column binning info object.
      */
@@ -344,6 +439,10 @@ public class UpdateBinningInfoMapper extends Mapper<LongWritable, Text, IntWrita
 
     /**
      * Mapper implementation includes: 1. Invalid data purifier 2. Column statistics update.
+     * 
+     * <p>
+     * Record is split into a reusable token array, each value is checked and parsed only once and then accumulated into
+     * primitive bin arrays of all segment expansions.
      */
     @Override
     protected void map(LongWritable key, Text value, Context context) throws IOException, InterruptedException {
@@ -360,14 +459,14 @@ public class UpdateBinningInfoMapper extends Mapper<LongWritable, Text, IntWrita
             return;
         }
 
-        String[] units = CommonUtils.split(valueStr, this.dataSetDelimiter);
+        int columnSize = this.columnConfigList.size();
         // tagColumnNum should be in units array, if not IndexOutofBoundException
-        if(units.length != this.columnConfigList.size()) {
+        if(CommonUtils.split(valueStr, this.dataSetDelimiter, this.units) != columnSize) {
             LOG.error("Data column length doesn't match with ColumnConfig size. Just skip.");
             return;
         }
 
-        String tag = CommonUtils.trimTag(units[this.tagColumnNum]);
+        String tag = CommonUtils.trimTag(this.units[this.tagColumnNum]);
 
         if(modelConfig.isRegression()) {
             if(tag == null || (!posTags.contains(tag) && !negTags.contains(tag))) {
@@ -381,9 +480,9 @@ public class UpdateBinningInfoMapper extends Mapper<LongWritable, Text, IntWrita
             }
         }
 
-        Double weight = 1.0;
+        double weight = 1.0d;
         try {
-            weight = (this.weightedColumnNum == -1 ? 1.0d : Double.valueOf(units[this.weightedColumnNum]));
+            weight = (this.weightedColumnNum == -1 ? 1.0d : Double.parseDouble(this.units[this.weightedColumnNum]));
             if(weight < 0) {
                 weightExceptions += 1;
                 context.getCounter(Constants.SHIFU_GROUP_COUNTER, "WEIGHT_EXCEPTION").increment(1L);
@@ -401,55 +500,66 @@ public class UpdateBinningInfoMapper extends Mapper<LongWritable, Text, IntWrita
             }
         }
 
-        List<Boolean> filterResults = null;
         if(this.isForExpressions) {
-            filterResults = new ArrayList<Boolean>();
             for(int j = 0; j < this.expressionDataPurifiers.size(); j++) {
-                DataPurifier dp = this.expressionDataPurifiers.get(j);
-                filterResults.add(dp.isFilter(valueStr));
+                Boolean filter = this.expressionDataPurifiers.get(j).isFilter(valueStr);
+                this.filterResults[j] = (filter != null && filter);
             }
         }
 
+        boolean isPositive = posTags.contains(tag);
+        boolean isNegative = negTags.contains(tag);
+
         // valid data process
-        for(int i = 0; i < units.length; i++) {
-            populateStats(units, tag, weight, i, i);
-            if(this.isForExpressions) {
-                for(int j = 0; j < this.expressionDataPurifiers.size(); j++) {
-                    Boolean filter = filterResults.get(j);
-                    if(filter != null && filter) {
-                        populateStats(units, tag, weight, i, (j + 1) * units.length + i);
-                    }
+        for(int i = 0; i < columnSize; i++) {
+            String unit = this.units[i];
+            boolean isMissingValue = isMissingValue(unit);
+            // parse once for all segment expansions and frequent items, NaN if not a number
+            double douVal = isMissingValue ? Double.NaN : BinUtils.parseNumber(unit);
+            populateStats(unit, isMissingValue, douVal, isPositive, isNegative, weight, i, i);
+            for(int j = 0; j < this.filterResults.length; j++) {
+                if(this.filterResults[j]) {
+                    populateStats(unit, isMissingValue, douVal, isPositive, isNegative, weight, i,
+                            (j + 1) * columnSize + i);
                 }
             }
         }
     }
 
-    private void populateStats(String[] units, String tag, Double weight, int columnIndex, int newCCIndex) {
+    /**
+     * Check missing or invalid values without lower case copy of long values which cannot be in missing value set.
+     */
+    private boolean isMissingValue(String unit) {
+        return unit == null
+                || (unit.length() <= this.maxMissingValueLength && this.missingOrInvalidValues.contains(unit
+                        .toLowerCase()));
+    }
+
+    private void populateStats(String unit, boolean isMissingValue, double douVal, boolean isPositive,
+            boolean isNegative, double weight, int columnIndex, int newCCIndex) {
         ColumnConfig columnConfig = this.columnConfigList.get(columnIndex);
 
-        CountAndFrequentItems countAndFrequentItems = this.variableCountMap.get(newCCIndex);
+        CountAndFrequentItems countAndFrequentItems = this.countAndFrequentItems[newCCIndex];
         if(countAndFrequentItems == null) {
             countAndFrequentItems = new CountAndFrequentItems();
-            this.variableCountMap.put(newCCIndex, countAndFrequentItems);
+            this.countAndFrequentItems[newCCIndex] = countAndFrequentItems;
         }
-        countAndFrequentItems.offer(this.missingOrInvalidValues, units[columnIndex]);
+        // 'NaN' is a valid number for Double.parseDouble, keep it in validNumCount as before
+        countAndFrequentItems.offer(unit, isMissingValue,
+                !Double.isNaN(douVal) || (!isMissingValue && BinUtils.isNaNLiteral(unit)));
 
-        boolean isMissingValue = false;
         boolean isInvalidValue = false;
 
-        BinningInfoWritable binningInfoWritable = this.columnBinningInfo.get(newCCIndex);
+        BinningInfoWritable binningInfoWritable = this.binningInfos[newCCIndex];
+        if(binningInfoWritable == null && this.isSinglePass) {
+            binningInfoWritable = newSketchBinningInfo(columnConfig, newCCIndex);
+        }
         if(binningInfoWritable == null) {
             return;
         }
         binningInfoWritable.setTotalCount(binningInfoWritable.getTotalCount() + 1L);
         if(columnConfig.isHybrid()) {
             int binNum = 0;
-            if(units[columnIndex] == null || missingOrInvalidValues.contains(units[columnIndex].toLowerCase())) {
-                isMissingValue = true;
-            }
-            String str = units[columnIndex];
-            double douVal = BinUtils.parseNumber(str);
-
             Double hybridThreshold = columnConfig.getHybridThreshold();
             if(hybridThreshold == null) {
                 hybridThreshold = Double.NEGATIVE_INFINITY;
@@ -463,7 +573,7 @@ public class UpdateBinningInfoMapper extends Mapper<LongWritable, Text, IntWrita
                 binNum = binningInfoWritable.getBinCategories().size() + binningInfoWritable.getBinBoundaries().size();
             } else if(isCategory) {
                 // get categorical bin number in category list
-                binNum = quickLocateCategoricalBin(this.categoricalBinMap.get(newCCIndex), str);
+                binNum = quickLocateCategoricalBin(this.categoricalBinMaps[newCCIndex], unit);
                 if(binNum < 0) {
                     isInvalidValue = true;
                 }
@@ -474,7 +584,7 @@ public class UpdateBinningInfoMapper extends Mapper<LongWritable, Text, IntWrita
                             + binningInfoWritable.getBinBoundaries().size();
                 } else {
                     // if real category value, binNum should + binBoundaries.size
-                    binNum += binningInfoWritable.getBinBoundaries().size();;
+                    binNum += binningInfoWritable.getBinBoundaries().size();
                 }
             } else if(isNumber) {
                 binNum = getBinNum(binningInfoWritable.getBinBoundaries(), douVal);
@@ -483,35 +593,27 @@ public class UpdateBinningInfoMapper extends Mapper<LongWritable, Text, IntWrita
                 }
 
                 // other stats are treated as numerical features
-                binningInfoWritable.setSum(binningInfoWritable.getSum() + douVal);
-                double squaredVal = douVal * douVal;
-                binningInfoWritable.setSquaredSum(binningInfoWritable.getSquaredSum() + squaredVal);
-                binningInfoWritable.setTripleSum(binningInfoWritable.getTripleSum() + squaredVal * douVal);
-                binningInfoWritable.setQuarticSum(binningInfoWritable.getQuarticSum() + squaredVal * squaredVal);
-
-                if(Double.compare(binningInfoWritable.getMax(), douVal) < 0) {
-                    binningInfoWritable.setMax(douVal);
-                }
-                if(Double.compare(binningInfoWritable.getMin(), douVal) > 0) {
-                    binningInfoWritable.setMin(douVal);
-                }
+                updateMoments(binningInfoWritable, douVal);
             }
-            if(posTags.contains(tag)) {
+            if(isPositive) {
                 binningInfoWritable.getBinCountPos()[binNum] += 1L;
                 binningInfoWritable.getBinWeightPos()[binNum] += weight;
-            } else if(negTags.contains(tag)) {
+            } else if(isNegative) {
                 binningInfoWritable.getBinCountNeg()[binNum] += 1L;
                 binningInfoWritable.getBinWeightNeg()[binNum] += weight;
             }
         } else if(columnConfig.isCategorical()) {
+            if(this.isSinglePass) {
+                populateCategoricalCounter(binningInfoWritable, this.categoricalCounters[newCCIndex], unit,
+                        isMissingValue, isPositive, isNegative, weight);
+                return;
+            }
+
             int lastBinIndex = binningInfoWritable.getBinCategories().size();
 
             int binNum = 0;
-            if(units[columnIndex] == null || missingOrInvalidValues.contains(units[columnIndex].toLowerCase())) {
-                isMissingValue = true;
-            } else {
-                String str = units[columnIndex];
-                binNum = quickLocateCategoricalBin(this.categoricalBinMap.get(newCCIndex), str);
+            if(!isMissingValue) {
+                binNum = quickLocateCategoricalBin(this.categoricalBinMaps[newCCIndex], unit);
                 if(binNum < 0) {
                     isInvalidValue = true;
                 }
@@ -523,10 +625,10 @@ public class UpdateBinningInfoMapper extends Mapper<LongWritable, Text, IntWrita
             }
 
             if(modelConfig.isRegression()) {
-                if(posTags.contains(tag)) {
+                if(isPositive) {
                     binningInfoWritable.getBinCountPos()[binNum] += 1L;
                     binningInfoWritable.getBinWeightPos()[binNum] += weight;
-                } else if(negTags.contains(tag)) {
+                } else if(isNegative) {
                     binningInfoWritable.getBinCountNeg()[binNum] += 1L;
                     binningInfoWritable.getBinWeightNeg()[binNum] += weight;
                 }
@@ -537,65 +639,115 @@ public class UpdateBinningInfoMapper extends Mapper<LongWritable, Text, IntWrita
             }
         } else if(columnConfig.isNumerical()) {
             int lastBinIndex = binningInfoWritable.getBinBoundaries().size();
-            double douVal = 0.0;
-            if(units[columnIndex] == null || units[columnIndex].length() == 0
-                    || missingOrInvalidValues.contains(units[columnIndex].toLowerCase())) {
+            if(unit.length() == 0) {
                 isMissingValue = true;
-            } else {
-                try {
-                    douVal = Double.parseDouble(units[columnIndex].trim());
-                } catch (Exception e) {
-                    isInvalidValue = true;
-                }
             }
 
-            // add logic the same as CalculateNewStatsUDF
-            if(Double.compare(douVal, modelConfig.getNumericalValueThreshold()) > 0) {
+            // add logic the same as CalculateNewStatsUDF, NaN is also invalid
+            if(Double.isNaN(douVal) || Double.compare(douVal, modelConfig.getNumericalValueThreshold()) > 0) {
                 isInvalidValue = true;
             }
 
             if(isInvalidValue || isMissingValue) {
                 binningInfoWritable.setMissingCount(binningInfoWritable.getMissingCount() + 1L);
                 if(modelConfig.isRegression()) {
-                    if(posTags.contains(tag)) {
+                    if(isPositive) {
                         binningInfoWritable.getBinCountPos()[lastBinIndex] += 1L;
                         binningInfoWritable.getBinWeightPos()[lastBinIndex] += weight;
-                    } else if(negTags.contains(tag)) {
+                    } else if(isNegative) {
                         binningInfoWritable.getBinCountNeg()[lastBinIndex] += 1L;
                         binningInfoWritable.getBinWeightNeg()[lastBinIndex] += weight;
                     }
                 }
+            } else if(binningInfoWritable.getHistogram() != null) {
+                // single-pass stats, bins are computed from merged histogram in reducer
+                binningInfoWritable.getHistogram().add(douVal, !modelConfig.isRegression() || isPositive, weight);
+                updateMoments(binningInfoWritable, douVal);
             } else {
                 // For invalid or missing values, no need update sum, squaredSum, max, min ...
-                int binNum = getBinNum(binningInfoWritable.getBinBoundaries(), units[columnIndex]);
+                int binNum = getBinNum(binningInfoWritable.getBinBoundaries(), douVal);
                 if(binNum == -1) {
                     throw new RuntimeException("binNum should not be -1 to this step.");
                 }
                 if(modelConfig.isRegression()) {
-                    if(posTags.contains(tag)) {
+                    if(isPositive) {
                         binningInfoWritable.getBinCountPos()[binNum] += 1L;
                         binningInfoWritable.getBinWeightPos()[binNum] += weight;
-                    } else if(negTags.contains(tag)) {
+                    } else if(isNegative) {
                         binningInfoWritable.getBinCountNeg()[binNum] += 1L;
                         binningInfoWritable.getBinWeightNeg()[binNum] += weight;
                     }
                 }
-                binningInfoWritable.setSum(binningInfoWritable.getSum() + douVal);
-                double squaredVal = douVal * douVal;
-                binningInfoWritable.setSquaredSum(binningInfoWritable.getSquaredSum() + squaredVal);
-                binningInfoWritable.setTripleSum(binningInfoWritable.getTripleSum() + squaredVal * douVal);
-                binningInfoWritable.setQuarticSum(binningInfoWritable.getQuarticSum() + squaredVal * squaredVal);
-
-                if(Double.compare(binningInfoWritable.getMax(), douVal) < 0) {
-                    binningInfoWritable.setMax(douVal);
-                }
-                if(Double.compare(binningInfoWritable.getMin(), douVal) > 0) {
-                    binningInfoWritable.setMin(douVal);
-                }
+                updateMoments(binningInfoWritable, douVal);
             }
         }
     }
 
+    private void updateMoments(BinningInfoWritable binningInfoWritable, double douVal) {
+        binningInfoWritable.setSum(binningInfoWritable.getSum() + douVal);
+        double squaredVal = douVal * douVal;
+        binningInfoWritable.setSquaredSum(binningInfoWritable.getSquaredSum() + squaredVal);
+        binningInfoWritable.setTripleSum(binningInfoWritable.getTripleSum() + squaredVal * douVal);
+        binningInfoWritable.setQuarticSum(binningInfoWritable.getQuarticSum() + squaredVal * squaredVal);
+
+        if(Double.compare(binningInfoWritable.getMax(), douVal) < 0) {
+            binningInfoWritable.setMax(douVal);
+        }
+        if(Double.compare(binningInfoWritable.getMin(), douVal) > 0) {
+            binningInfoWritable.setMin(douVal);
+        }
+    }
+
+    /**
+     * Create binning info for single-pass stats. Numerical binning info has no boundaries and only one missing bin
+     * until reducer computes bins from {@link MergeableHistogram}. Hybrid columns are not supported.
+     */
+    private BinningInfoWritable newSketchBinningInfo(ColumnConfig columnConfig, int newCCIndex) {
+        if(columnConfig.isHybrid()) {
+            return null;
+        }
+        BinningInfoWritable binningInfo = new BinningInfoWritable();
+        binningInfo.setColumnNum(newCCIndex);
+        if(columnConfig.isCategorical()) {
+            binningInfo.setNumeric(false);
+            binningInfo.setBinCategories(new ArrayList<String>());
+            this.categoricalCounters[newCCIndex] = new CategoricalCounter(this.maxCateSize);
+        } else {
+            binningInfo.setNumeric(true);
+            binningInfo.setBinBoundaries(new ArrayList<Double>());
+            binningInfo.setHistogram(new MergeableHistogram(this.sketchSize));
+        }
+        binningInfo.setBinCountPos(new long[1]);
+        binningInfo.setBinCountNeg(new long[1]);
+        binningInfo.setBinWeightPos(new double[1]);
+        binningInfo.setBinWeightNeg(new double[1]);
+        this.columnBinningInfo.put(newCCIndex, binningInfo);
+        this.binningInfos[newCCIndex] = binningInfo;
+        return binningInfo;
+    }
+
+    private void populateCategoricalCounter(BinningInfoWritable binningInfoWritable, CategoricalCounter counter,
+            String val, boolean isMissingValue, boolean isPositive, boolean isNegative, double weight) {
+        long cntPos = 0L, cntNeg = 0L;
+        double wgtPos = 0d, wgtNeg = 0d;
+        if(!modelConfig.isRegression() || isPositive) {
+            // for multiple classification, set bin count to BinCountPos and leave BinCountNeg empty
+            cntPos = 1L;
+            wgtPos = weight;
+        } else if(isNegative) {
+            cntNeg = 1L;
+            wgtNeg = weight;
+        }
+
+        if(isMissingValue) {
+            binningInfoWritable.setMissingCount(binningInfoWritable.getMissingCount() + 1L);
+            counter.addMissing(cntPos, cntNeg, wgtPos, wgtNeg);
+        } else {
+            // over max category size, the column is ignored in reducer and the record is not counted as missing
+            counter.add(val, cntPos, cntNeg, wgtPos, wgtNeg);
+        }
+    }
+
     public static int getBinNum(List<Double> binBoundaryList, String columnVal) {
         if(StringUtils.isBlank(columnVal)) {
             return -1;
@@ -624,10 +776,14 @@ public class UpdateBinningInfoMapper extends Mapper<LongWritable, Text, IntWrita
     @Override
     protected void cleanup(Context context) throws IOException, InterruptedException {
         LOG.debug("Column binning info: {}", this.columnBinningInfo);
-        LOG.debug("Column count info: {}", this.variableCountMap);
 
         for(Map.Entry<Integer, BinningInfoWritable> entry: this.columnBinningInfo.entrySet()) {
-            CountAndFrequentItems cfi = this.variableCountMap.get(entry.getKey());
+            int index = entry.getKey();
+            if(this.isSinglePass && this.categoricalCounters[index] != null) {
+                this.categoricalCounters[index].fill(entry.getValue());
+            }
+            CountAndFrequentItems cfi = index < this.countAndFrequentItems.length ? this.countAndFrequentItems[index]
+                    : null;
             if(cfi != null) {
                 entry.getValue().setCfiw(new CountAndFrequentItemsWritable(cfi.getCount(), cfi.getInvalidCount(),
                         cfi.getValidNumCount(), cfi.getHyper().getBytes(), cfi.getFrequentItems()));
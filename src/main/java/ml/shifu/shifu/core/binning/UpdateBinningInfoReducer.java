@@ -53,6 +53,9 @@ import com.clearspring.analytics.stream.cardinality.HyperLogLogPlus;
  * <p>
  * Only one reducer to make sure all info can be collected together. One reducer is not bottleneck as some times we only
  * have thousands of variables.
+ * 
+ * <p>
+ * In single-pass stats, bins are computed here from merged {@link MergeableHistogram} or {@link CategoricalCounter}.
  */
 public class UpdateBinningInfoReducer extends Reducer<IntWritable, BinningInfoWritable, NullWritable, Text> {
 
@@ -89,6 +92,16 @@ public class UpdateBinningInfoReducer extends Reducer<IntWritable, BinningInfoWr
      */
     private ModelConfig modelConfig;
 
+    /**
+     * If in single-pass stats, bins are computed from merged sketches.
+     */
+    private boolean isSinglePass;
+
+    /**
+     * Expected numerical bin number in single-pass stats.
+     */
+    private int maxNumBin;
+
     /**
      * Load all configurations for modelConfig and columnConfigList from source type.
      */
@@ -118,6 +131,10 @@ public class UpdateBinningInfoReducer extends Reducer<IntWritable, BinningInfoWr
         this.statsExcludeMissingValue = context.getConfiguration().getBoolean(Constants.SHIFU_STATS_EXLCUDE_MISSING,
                 true);
 
+        this.isSinglePass = context.getConfiguration().getBoolean(Constants.SHIFU_STATS_SINGLE_PASS, false);
+        this.maxNumBin = this.modelConfig.getStats().getMaxNumBin() > 0 ? this.modelConfig.getStats().getMaxNumBin()
+                : 1024;
+
         this.outputValue = new Text();
     }
 
@@ -152,6 +169,11 @@ public class UpdateBinningInfoReducer extends Reducer<IntWritable, BinningInfoWr
         Set<String> fis = new HashSet<String>();
         long totalCount = 0, invalidCount = 0, validNumCount = 0;
         int binSize = 0;
+        MergeableHistogram histogram = null;
+        CategoricalCounter categoricalCounter = null;
+        if(this.isSinglePass && columnConfig.isCategorical()) {
+            categoricalCounter = new CategoricalCounter(this.maxCateSize);
+        }
         for(BinningInfoWritable info: values) {
             if(info.isEmpty()) {
                 // mapper has no stats, skip it
@@ -173,7 +195,19 @@ public class UpdateBinningInfoReducer extends Reducer<IntWritable, BinningInfoWr
                 }
             }
 
-            if(columnConfig.isHybrid() && binBoundaryList == null && binCategories == null) {
+            if(info.getHistogram() != null) {
+                // single-pass stats, numerical sketches are merged and binned after all values are iterated
+                if(histogram == null) {
+                    histogram = info.getHistogram();
+                } else {
+                    histogram.merge(info.getHistogram());
+                }
+            }
+
+            if(categoricalCounter != null) {
+                // single-pass stats, categories are different in each mapper and merged by category value
+                categoricalCounter.merge(info);
+            } else if(columnConfig.isHybrid() && binBoundaryList == null && binCategories == null) {
                 binBoundaryList = info.getBinBoundaries();
                 binCategories = info.getBinCategories();
                 binSize = binBoundaryList.size() + binCategories.size();
@@ -216,7 +250,7 @@ public class UpdateBinningInfoReducer extends Reducer<IntWritable, BinningInfoWr
                 min = info.getMin();
             }
 
-            for(int i = 0; i < (binSize + 1); i++) {
+            for(int i = 0; categoricalCounter == null && i < (binSize + 1); i++) {
                 binCountPos[i] += info.getBinCountPos()[i];
                 binCountNeg[i] += info.getBinCountNeg()[i];
                 binWeightPos[i] += info.getBinWeightPos()[i];
@@ -226,6 +260,39 @@ public class UpdateBinningInfoReducer extends Reducer<IntWritable, BinningInfoWr
                 binCountTotal[i] += info.getBinCountNeg()[i];
             }
         }
+
+        if(histogram != null && binCountPos != null) {
+            // only missing bin is collected in mapper, bins are computed from merged histogram here
+            binBoundaryList = histogram.getBinBoundaries(this.maxNumBin, modelConfig.getBinningMethod());
+            binSize = binBoundaryList.size();
+            long[] missingBinCount = new long[] { binCountPos[0], binCountNeg[0] };
+            double[] missingBinWeight = new double[] { binWeightPos[0], binWeightNeg[0] };
+            binCountPos = new long[binSize + 1];
+            binCountNeg = new long[binSize + 1];
+            binWeightPos = new double[binSize + 1];
+            binWeightNeg = new double[binSize + 1];
+            binCountTotal = new long[binSize + 1];
+            histogram.fillBins(binBoundaryList, binCountPos, binCountNeg, binWeightPos, binWeightNeg);
+            binCountPos[binSize] = missingBinCount[0];
+            binCountNeg[binSize] = missingBinCount[1];
+            binWeightPos[binSize] = missingBinWeight[0];
+            binWeightNeg[binSize] = missingBinWeight[1];
+            for(int i = 0; i < binSize + 1; i++) {
+                binCountTotal[i] = binCountPos[i] + binCountNeg[i];
+            }
+            if(!modelConfig.isRegression()) {
+                // the same as two-pass stats, numerical bin counts are only for binary classification
+                Arrays.fill(binCountPos, 0L);
+                Arrays.fill(binWeightPos, 0d);
+            }
+        } else if(categoricalCounter != null) {
+            binCategories = categoricalCounter.getCategories();
+            binSize = binCategories.size();
+            binCountPos = categoricalCounter.getBinCountPos();
+            binCountNeg = categoricalCounter.getBinCountNeg();
+            binWeightPos = categoricalCounter.getBinWeightPos();
+            binWeightNeg = categoricalCounter.getBinWeightNeg();
+        }
         if(columnConfig.isNumerical()) {
             long p25Count = count / 4;
             long medianCount = p25Count * 2;
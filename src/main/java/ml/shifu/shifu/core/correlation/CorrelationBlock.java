@@ -0,0 +1,198 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.correlation;
+
+/**
+ * Column-major block of records used by {@link FastCorrelationMapper}. Values, squared values and valid masks of
+ * buffered columns are kept by column, invalid values are set to 0. When block is full, pair sums are accumulated tile
+ * by tile of the other column and each pair is reduced over block rows before added to {@link CorrelationWritable}.
+ */
+class CorrelationBlock {
+
+    /**
+     * Columns in one tile when accumulating pair sums, block columns of one tile are kept in cache.
+     */
+    private static final int TILE_SIZE = 32;
+
+    /**
+     * Columns whose pair statistics are computed, indexed by column index.
+     */
+    private final boolean[] isRowColumns;
+
+    /**
+     * Columns can be the other column in pairs, indexed by column index.
+     */
+    private final boolean[] isPairColumns;
+
+    /**
+     * First other column index of pairs, pair arrays in {@link CorrelationWritable} start from it.
+     */
+    private final int pairOffset;
+
+    private final int pairSize;
+
+    /**
+     * If compute all pairs (i, j), if false, only computes pairs (i, j) when i <= j
+     */
+    private final boolean isComputeAll;
+
+    /**
+     * Max rows in one block.
+     */
+    private final int blockSize;
+
+    /**
+     * Current rows in block.
+     */
+    private int rows;
+
+    /**
+     * Values in block by column, invalid values are set to 0.
+     */
+    private final double[][] values;
+
+    /**
+     * Squared values in block by column, invalid values are set to 0.
+     */
+    private final double[][] squares;
+
+    /**
+     * Valid masks in block by column, 1 for valid values and 0 for invalid values.
+     */
+    private final double[][] masks;
+
+    CorrelationBlock(boolean[] isRowColumns, boolean[] isPairColumns, int pairOffset, int pairSize, int blockSize,
+            boolean isComputeAll) {
+        this.isRowColumns = isRowColumns;
+        this.isPairColumns = isPairColumns;
+        this.pairOffset = pairOffset;
+        this.pairSize = pairSize;
+        this.blockSize = Math.max(1, blockSize);
+        this.isComputeAll = isComputeAll;
+
+        // only columns of current tile are buffered
+        int columnSize = isRowColumns.length;
+        this.values = new double[columnSize][];
+        this.squares = new double[columnSize][];
+        this.masks = new double[columnSize][];
+        for(int i = 0; i < columnSize; i++) {
+            if(isRowColumns[i] || isPairColumns[i]) {
+                this.values[i] = new double[this.blockSize];
+                this.squares[i] = new double[this.blockSize];
+                this.masks[i] = new double[this.blockSize];
+            }
+        }
+    }
+
+    /**
+     * @return if values of the column are buffered in block
+     */
+    boolean isBuffered(int column) {
+        return this.values[column] != null;
+    }
+
+    boolean isFull() {
+        return this.rows == this.blockSize;
+    }
+
+    boolean isEmpty() {
+        return this.rows == 0;
+    }
+
+    /**
+     * Add one record into block, {@link Double#MIN_VALUE} is invalid value.
+     */
+    void add(double[] dValues) {
+        int row = this.rows;
+        for(int i = 0; i < dValues.length; i++) {
+            if(this.values[i] == null) {
+                continue;
+            }
+            // only do pair stats on both valid values
+            if(dValues[i] != Double.MIN_VALUE) {
+                this.values[i][row] = dValues[i];
+                this.squares[i][row] = dValues[i] * dValues[i];
+                this.masks[i][row] = 1d;
+            } else {
+                this.values[i][row] = 0d;
+                this.squares[i][row] = 0d;
+                this.masks[i][row] = 0d;
+            }
+        }
+        this.rows += 1;
+    }
+
+    /**
+     * Accumulate pair sums of current block into correlations of row columns and clear the block. Pairs are visited
+     * tile by tile of the other column to keep block columns of the tile in cache.
+     * 
+     * @param correlations
+     *            {@link CorrelationWritable} indexed by column index, not null for row columns
+     */
+    void accumulate(CorrelationWritable[] correlations) {
+        int rows = this.rows;
+        int pairEnd = this.pairOffset + this.pairSize;
+        for(int tileStart = this.pairOffset; tileStart < pairEnd; tileStart += TILE_SIZE) {
+            int tileEnd = Math.min(pairEnd, tileStart + TILE_SIZE);
+            for(int i = 0; i < this.isRowColumns.length; i++) {
+                if(!this.isRowColumns[i]) {
+                    continue;
+                }
+                int start = this.isComputeAll ? tileStart : Math.max(tileStart, i);
+                if(start >= tileEnd) {
+                    continue;
+                }
+                CorrelationWritable cw = correlations[i];
+                double[] xySum = cw.getXySum();
+                double[] xxSum = cw.getXxSum();
+                double[] yySum = cw.getYySum();
+                double[] adjustCount = cw.getAdjustCount();
+                double[] adjustSumX = cw.getAdjustSumX();
+                double[] adjustSumY = cw.getAdjustSumY();
+
+                double[] xValues = this.values[i];
+                double[] xSquares = this.squares[i];
+                double[] xMasks = this.masks[i];
+                for(int j = start; j < tileEnd; j++) {
+                    if(!this.isPairColumns[j]) {
+                        continue;
+                    }
+                    double[] yValues = this.values[j];
+                    double[] ySquares = this.squares[j];
+                    double[] yMasks = this.masks[j];
+                    double xy = 0d, xx = 0d, yy = 0d, cnt = 0d, sumX = 0d, sumY = 0d;
+                    for(int r = 0; r < rows; r++) {
+                        xy += xValues[r] * yValues[r];
+                        xx += xSquares[r] * yMasks[r];
+                        yy += ySquares[r] * xMasks[r];
+                        cnt += xMasks[r] * yMasks[r];
+                        sumX += xValues[r] * yMasks[r];
+                        sumY += yValues[r] * xMasks[r];
+                    }
+                    int index = j - this.pairOffset;
+                    xySum[index] += xy;
+                    xxSum[index] += xx;
+                    yySum[index] += yy;
+                    adjustCount[index] += cnt;
+                    adjustSumX[index] += sumX;
+                    adjustSumY[index] += sumY;
+                }
+            }
+        }
+        this.rows = 0;
+    }
+
+}
@@ -102,7 +102,9 @@ public class CorrelationReducer extends Reducer<IntWritable, CorrelationWritable
             }
             
             if(finalCw == null) {
-                finalCw = initCw(cw.getAdjustCount().length);
+                // partial writables of tiled correlation are merged into full width one
+                finalCw = initCw(Math.max(this.columnConfigList.size(),
+                        cw.getPairOffset() + cw.getAdjustCount().length));
             }
             finalCw.setColumnIndex(cw.getColumnIndex());
             finalCw.combine(cw);
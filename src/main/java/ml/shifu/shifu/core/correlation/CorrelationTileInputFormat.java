@@ -0,0 +1,112 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.correlation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import ml.shifu.shifu.core.mr.input.CombineInputFormat;
+import ml.shifu.shifu.core.mr.input.CombineInputSplit;
+import ml.shifu.shifu.util.Constants;
+
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link CorrelationTileInputFormat} is used in tiled correlation. Columns are split into
+ * {@link Constants#SHIFU_CORRELATION_COLUMN_GROUPS} groups, each tile is the column pairs of two groups. Every input
+ * split is assigned to all tiles, so one mapper task only computes pair statistics of one tile and its memory and CPU
+ * are reduced by square of group number.
+ *
+ * <p>
+ * Tiles are ordered by row group and then by other group, only tiles with row group not larger than other group are
+ * computed if not compute all pairs.
+ *
+ * <p>
+ * The trade-off is input I/O: every tile reads the whole split again, so input is read G(G+1)/2 times (G * G times
+ * if compute all pairs) for G groups. Computing all tiles of a split in one pass would need the memory of the whole
+ * pair matrix again, which is what tiles avoid. Group number is bounded by {@link #MAX_COLUMN_GROUPS}.
+ */
+public class CorrelationTileInputFormat extends CombineInputFormat {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CorrelationTileInputFormat.class);
+
+    /**
+     * Max column groups, 8 groups read input 36 times and reduce pair memory of one mapper by 64 times.
+     */
+    public static final int MAX_COLUMN_GROUPS = 8;
+
+    @Override
+    public List<InputSplit> getSplits(JobContext job) throws IOException {
+        int groups = Math.min(MAX_COLUMN_GROUPS,
+                job.getConfiguration().getInt(Constants.SHIFU_CORRELATION_COLUMN_GROUPS, 1));
+        boolean isComputeAll = Boolean.valueOf(job.getConfiguration().get(Constants.SHIFU_CORRELATION_COMPUTE_ALL,
+                "false"));
+        int tiles = getTileNum(groups, isComputeAll);
+
+        List<InputSplit> splits = super.getSplits(job);
+        List<InputSplit> tileSplits = new ArrayList<InputSplit>(splits.size() * tiles);
+        for(InputSplit split: splits) {
+            for(int tile = 0; tile < tiles; tile++) {
+                tileSplits.add(new CorrelationTileSplit(((CombineInputSplit) split).getFileSplits(), tile));
+            }
+        }
+        LOG.info("Correlation tiles: {}, input splits: {}, input is read {} times.", tiles, tileSplits.size(), tiles);
+        return tileSplits;
+    }
+
+    /**
+     * @return tile number of column groups
+     */
+    public static int getTileNum(int groups, boolean isComputeAll) {
+        return isComputeAll ? groups * groups : groups * (groups + 1) / 2;
+    }
+
+    /**
+     * Row group and other group of one tile.
+     *
+     * @param tile
+     *            the tile index
+     * @param groups
+     *            the group number
+     * @param isComputeAll
+     *            if all pairs are computed
+     * @return array of row group and other group
+     */
+    public static int[] getTileGroups(int tile, int groups, boolean isComputeAll) {
+        int index = tile;
+        for(int rowGroup = 0; rowGroup < groups; rowGroup++) {
+            int otherGroups = isComputeAll ? groups : groups - rowGroup;
+            if(index < otherGroups) {
+                return new int[] { rowGroup, isComputeAll ? index : rowGroup + index };
+            }
+            index -= otherGroups;
+        }
+        throw new IllegalArgumentException("Tile " + tile + " is out of range with " + groups + " groups.");
+    }
+
+    /**
+     * @return first column index of the group, columns are split into groups evenly by column index
+     */
+    public static int getGroupStart(int group, int groups, int columnSize) {
+        int groupSize = (columnSize + groups - 1) / groups;
+        return Math.min(columnSize, group * groupSize);
+    }
+
+}
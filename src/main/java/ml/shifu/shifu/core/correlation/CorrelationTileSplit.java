@@ -0,0 +1,63 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.correlation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import ml.shifu.shifu.core.mr.input.CombineInputSplit;
+
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+/**
+ * {@link CorrelationTileSplit} is a {@link CombineInputSplit} with the tile of column pair matrix computed by the
+ * mapper task.
+ */
+public class CorrelationTileSplit extends CombineInputSplit {
+
+    private int tile;
+
+    public CorrelationTileSplit() {
+    }
+
+    public CorrelationTileSplit(FileSplit[] fileSplits, int tile) {
+        super(fileSplits);
+        this.tile = tile;
+    }
+
+    public int getTile() {
+        return tile;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        super.write(out);
+        out.writeInt(this.tile);
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        super.readFields(in);
+        this.tile = in.readInt();
+    }
+
+    @Override
+    public String toString() {
+        return "CorrelationTileSplit [tile=" + tile + ", " + super.toString() + "]";
+    }
+
+}
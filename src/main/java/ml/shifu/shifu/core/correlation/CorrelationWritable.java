@@ -31,6 +31,10 @@ import org.apache.hadoop.io.Writable;
  * Within pearson correlation, sum, sum of squared, count and sum of x*y are all computed and set it into this writable
  * instance.
  * 
+ * <p>
+ * In tiled correlation, pair arrays only cover other columns from {@link #getPairOffset()}, partial instances of
+ * different tiles are combined into full width instance in reducer.
+ * 
  * @author Zhang David (pengzhang@paypal.com)
  */
 public class CorrelationWritable implements Writable {
@@ -55,6 +59,11 @@ public class CorrelationWritable implements Writable {
 
     private double[] adjustSumY;
 
+    /**
+     * Index of other column of the first element in pair arrays, 0 if pair arrays cover all columns.
+     */
+    private int pairOffset;
+
     /**
      * @return the columnIndex
      */
@@ -205,6 +214,21 @@ public class CorrelationWritable implements Writable {
         this.adjustSumY = adjustSumY;
     }
 
+    /**
+     * @return the pairOffset
+     */
+    public int getPairOffset() {
+        return pairOffset;
+    }
+
+    /**
+     * @param pairOffset
+     *            the pairOffset to set
+     */
+    public void setPairOffset(int pairOffset) {
+        this.pairOffset = pairOffset;
+    }
+
     @Override
     public void write(DataOutput out) throws IOException {
         out.writeInt(this.columnIndex);
@@ -264,6 +288,7 @@ public class CorrelationWritable implements Writable {
                 out.writeDouble(doub);
             }
         }
+        out.writeInt(this.pairOffset);
     }
 
     @Override
@@ -308,6 +333,28 @@ public class CorrelationWritable implements Writable {
         for(int i = 0; i < length; i++) {
             this.adjustSumY[i] = in.readDouble();
         }
+        this.pairOffset = in.readInt();
+    }
+
+    /**
+     * Drop pairs before other column index start, which are not computed if not all pairs are computed. Shuffle size of
+     * pair arrays is then about half of the full width.
+     * 
+     * @param start
+     *            first other column index kept, not less than pair offset
+     */
+    public void trimPairs(int start) {
+        int from = start - this.pairOffset;
+        if(from <= 0) {
+            return;
+        }
+        this.xySum = Arrays.copyOfRange(this.xySum, from, this.xySum.length);
+        this.xxSum = Arrays.copyOfRange(this.xxSum, from, this.xxSum.length);
+        this.yySum = Arrays.copyOfRange(this.yySum, from, this.yySum.length);
+        this.adjustCount = Arrays.copyOfRange(this.adjustCount, from, this.adjustCount.length);
+        this.adjustSumX = Arrays.copyOfRange(this.adjustSumX, from, this.adjustSumX.length);
+        this.adjustSumY = Arrays.copyOfRange(this.adjustSumY, from, this.adjustSumY.length);
+        this.pairOffset = start;
     }
 
     public CorrelationWritable combine(CorrelationWritable from) {
@@ -315,28 +362,30 @@ public class CorrelationWritable implements Writable {
         this.sumSquare += from.sumSquare;
         this.count += from.count;
 
-        for(int i = 0; i < xySum.length; i++) {
-            this.xySum[i] += from.xySum[i];
+        // pair arrays of partial instance are added at its offset
+        int offset = from.pairOffset - this.pairOffset;
+        for(int i = 0; i < from.xySum.length; i++) {
+            this.xySum[offset + i] += from.xySum[i];
         }
 
-        for(int i = 0; i < xxSum.length; i++) {
-            this.xxSum[i] += from.xxSum[i];
+        for(int i = 0; i < from.xxSum.length; i++) {
+            this.xxSum[offset + i] += from.xxSum[i];
         }
 
-        for(int i = 0; i < yySum.length; i++) {
-            this.yySum[i] += from.yySum[i];
+        for(int i = 0; i < from.yySum.length; i++) {
+            this.yySum[offset + i] += from.yySum[i];
         }
 
-        for(int i = 0; i < adjustCount.length; i++) {
-            this.adjustCount[i] += from.adjustCount[i];
+        for(int i = 0; i < from.adjustCount.length; i++) {
+            this.adjustCount[offset + i] += from.adjustCount[i];
         }
 
-        for(int i = 0; i < adjustSumX.length; i++) {
-            this.adjustSumX[i] += from.adjustSumX[i];
+        for(int i = 0; i < from.adjustSumX.length; i++) {
+            this.adjustSumX[offset + i] += from.adjustSumX[i];
         }
 
-        for(int i = 0; i < adjustSumY.length; i++) {
-            this.adjustSumY[i] += from.adjustSumY[i];
+        for(int i = 0; i < from.adjustSumY.length; i++) {
+            this.adjustSumY[offset + i] += from.adjustSumY[i];
         }
         return this;
     }
@@ -362,7 +411,8 @@ public class CorrelationWritable implements Writable {
         return "CorrelationWritable [columnIndex=" + columnIndex + ", sum=" + sum + ", sumSquare=" + sumSquare
                 + ", count=" + count + ", xySum=" + Arrays.toString(xySum) + ", xxSum=" + Arrays.toString(xxSum)
                 + ", yySum=" + Arrays.toString(yySum) + ", adjustCount=" + Arrays.toString(adjustCount)
-                + ", adjustSumX=" + Arrays.toString(adjustSumX) + ", adjustSumY=" + Arrays.toString(adjustSumY) + "]";
+                + ", adjustSumX=" + Arrays.toString(adjustSumX) + ", adjustSumY=" + Arrays.toString(adjustSumY)
+                + ", pairOffset=" + pairOffset + "]";
     }
 
 }
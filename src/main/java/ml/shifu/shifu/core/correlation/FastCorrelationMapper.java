@@ -45,6 +45,21 @@ import ml.shifu.shifu.util.Constants;
  * <p>
  * Such {@link CorrelationWritable} is sent to reducer (only one) to merge and compute real pearson value.
  * 
+ * <p>
+ * Records are buffered into a column-major {@link CorrelationBlock} ({@link Constants#SHIFU_CORRELATION_BLOCK_SIZE}
+ * rows), values and valid masks of block are then accumulated to pair sums tile by tile. Pair sums are only updated
+ * once per block instead of once per record, which is the memory bound part with large column size.
+ * 
+ * <p>
+ * If input split is {@link CorrelationTileSplit}, only pairs in the tile are computed: row columns are in one column
+ * group and other columns are in another column group. Pair arrays of output {@link CorrelationWritable} only cover
+ * other column group and are merged in reducer.
+ * 
+ * <p>
+ * Output is still keyed by column, reducer and correlation csv dump read full width instance per column. If not all
+ * pairs are computed, pairs (i, j) with j &lt; i are all zero, pair arrays are trimmed to start from column i before
+ * output, so shuffle volume of pair arrays is about half of full width and tiles do not send empty pairs.
+ * 
  * @author Zhang David (pengzhang@paypal.com)
  */
 public class FastCorrelationMapper extends Mapper<LongWritable, Text, IntWritable, CorrelationWritable> {
@@ -98,6 +113,42 @@ public class FastCorrelationMapper extends Mapper<LongWritable, Text, IntWritabl
      */
     private Map<Integer, CorrelationWritable> correlationMap;
 
+    /**
+     * Columns whose pair statistics are computed, indexed by column index.
+     */
+    private boolean[] isRowColumns;
+
+    /**
+     * Columns can be the other column in pairs, indexed by column index.
+     */
+    private boolean[] isPairColumns;
+
+    /**
+     * First other column index of pairs, pair arrays in {@link CorrelationWritable} start from it.
+     */
+    private int pairOffset;
+
+    /**
+     * Pair arrays size in {@link CorrelationWritable}.
+     */
+    private int pairSize;
+
+    /**
+     * If count, sum and squared sum of row columns are computed in this task. In tiled correlation, only diagonal tile
+     * computes them to avoid duplicated counting in reducer.
+     */
+    private boolean isColumnStatsOwner = true;
+
+    /**
+     * {@link CorrelationWritable} of columns in {@link #isRowColumns}, indexed by column index.
+     */
+    private CorrelationWritable[] correlations;
+
+    /**
+     * Records buffered by column before pair sums are accumulated.
+     */
+    private CorrelationBlock block;
+
     // cache tags in set for search
     protected Set<String> posTagSet;
     protected Set<String> negTagSet;
@@ -137,6 +188,39 @@ public class FastCorrelationMapper extends Mapper<LongWritable, Text, IntWritabl
         this.outputKey = new IntWritable();
         this.correlationMap = new HashMap<Integer, CorrelationWritable>();
 
+        int columnSize = columnConfigList.size();
+        int rowStart = 0, rowEnd = columnSize, pairStart = 0, pairEnd = columnSize;
+        if(context.getInputSplit() instanceof CorrelationTileSplit) {
+            int groups = context.getConfiguration().getInt(Constants.SHIFU_CORRELATION_COLUMN_GROUPS, 1);
+            int tile = ((CorrelationTileSplit) context.getInputSplit()).getTile();
+            int[] tileGroups = CorrelationTileInputFormat.getTileGroups(tile, groups, this.isComputeAll);
+            rowStart = CorrelationTileInputFormat.getGroupStart(tileGroups[0], groups, columnSize);
+            rowEnd = CorrelationTileInputFormat.getGroupStart(tileGroups[0] + 1, groups, columnSize);
+            pairStart = CorrelationTileInputFormat.getGroupStart(tileGroups[1], groups, columnSize);
+            pairEnd = CorrelationTileInputFormat.getGroupStart(tileGroups[1] + 1, groups, columnSize);
+            this.isColumnStatsOwner = tileGroups[0] == tileGroups[1];
+            LOG.info("Compute correlation tile {} with columns [{}, {}) and other columns [{}, {}).", tile, rowStart,
+                    rowEnd, pairStart, pairEnd);
+        }
+        this.pairOffset = pairStart;
+        this.pairSize = pairEnd - pairStart;
+
+        this.isRowColumns = new boolean[columnSize];
+        this.isPairColumns = new boolean[columnSize];
+        for(int i = 0; i < columnSize; i++) {
+            ColumnConfig config = columnConfigList.get(i);
+            boolean isSkipped = config.getColumnFlag() == ColumnFlag.Meta
+                    || (hasCandidates && !ColumnFlag.Candidate.equals(config.getColumnFlag()));
+            this.isRowColumns[i] = !isSkipped && i >= rowStart && i < rowEnd;
+            this.isPairColumns[i] = (!isSkipped || config.getColumnFlag() == ColumnFlag.Target) && i >= pairStart
+                    && i < pairEnd;
+        }
+        this.correlations = new CorrelationWritable[columnSize];
+
+        int blockSize = context.getConfiguration().getInt(Constants.SHIFU_CORRELATION_BLOCK_SIZE, 128);
+        this.block = new CorrelationBlock(this.isRowColumns, this.isPairColumns, this.pairOffset, this.pairSize,
+                blockSize, this.isComputeAll);
+
         for(ColumnConfig config: columnConfigList) {
             if(config.isCategorical()) {
                 Map<String, Integer> map = new HashMap<String, Integer>();
@@ -196,90 +280,59 @@ public class FastCorrelationMapper extends Mapper<LongWritable, Text, IntWritabl
             LOG.info("Current records: {} in thread {}.", count, Thread.currentThread().getName());
         }
 
-        long startO = System.currentTimeMillis();
-        for(int i = 0; i < columnConfigList.size(); i++) {
+        addToBlock(dValues);
+        if(this.block.isFull()) {
             long start = System.currentTimeMillis();
-            ColumnConfig columnConfig = columnConfigList.get(i);
-            if(columnConfig.getColumnFlag() == ColumnFlag.Meta
-                    || (hasCandidates && !ColumnFlag.Candidate.equals(columnConfig.getColumnFlag()))) {
+            this.block.accumulate(this.correlations);
+            LOG.debug("running time of block is {}ms in thread {}", (System.currentTimeMillis() - start),
+                    Thread.currentThread().getName());
+        }
+    }
+
+    /**
+     * Add one record into block, per column sums are updated directly.
+     */
+    private void addToBlock(double[] dValues) {
+        this.block.add(dValues);
+        for(int i = 0; i < dValues.length; i++) {
+            if(!this.isRowColumns[i]) {
                 continue;
             }
-            CorrelationWritable cw = this.correlationMap.get(columnConfig.getColumnNum());
+            CorrelationWritable cw = this.correlations[i];
             if(cw == null) {
-                cw = new CorrelationWritable();
-                this.correlationMap.put(columnConfig.getColumnNum(), cw);
+                cw = newCorrelationWritable(i);
+            }
+            if(!this.isColumnStatsOwner) {
+                continue;
             }
-            cw.setColumnIndex(i);
             cw.setCount(cw.getCount() + 1d);
             cw.setSum(cw.getSum() + dValues[i]);
-            double squaredSum = dValues[i] * dValues[i];
-            cw.setSumSquare(cw.getSumSquare() + squaredSum);
-            double[] xySum = cw.getXySum();
-            if(xySum == null) {
-                xySum = new double[columnConfigList.size()];
-                cw.setXySum(xySum);
-            }
-            double[] xxSum = cw.getXxSum();
-            if(xxSum == null) {
-                xxSum = new double[columnConfigList.size()];
-                cw.setXxSum(xxSum);
-            }
-            double[] yySum = cw.getYySum();
-            if(yySum == null) {
-                yySum = new double[columnConfigList.size()];
-                cw.setYySum(yySum);
-            }
-
-            double[] adjustCount = cw.getAdjustCount();
-            if(adjustCount == null) {
-                adjustCount = new double[columnConfigList.size()];
-                cw.setAdjustCount(adjustCount);
-            }
-            double[] adjustSumX = cw.getAdjustSumX();
-            if(adjustSumX == null) {
-                adjustSumX = new double[columnConfigList.size()];
-                cw.setAdjustSumX(adjustSumX);
-            }
-            double[] adjustSumY = cw.getAdjustSumY();
-            if(adjustSumY == null) {
-                adjustSumY = new double[columnConfigList.size()];
-                cw.setAdjustSumY(adjustSumY);
-            }
-            if(i % 1000 == 0) {
-                LOG.debug("running time 1 is {}ms in thread {}", (System.currentTimeMillis() - start),
-                        Thread.currentThread().getName());
-            }
-            start = System.currentTimeMillis();
-            for(int j = (this.isComputeAll ? 0 : i); j < columnConfigList.size(); j++) {
-                ColumnConfig otherColumnConfig = columnConfigList.get(j);
-                if((otherColumnConfig.getColumnFlag() != ColumnFlag.Target)
-                        && ((otherColumnConfig.getColumnFlag() == ColumnFlag.Meta) || (hasCandidates
-                                && !ColumnFlag.Candidate.equals(otherColumnConfig.getColumnFlag())))) {
-                    continue;
-                }
-
-                // only do stats on both valid values
-                if(dValues[i] != Double.MIN_VALUE && dValues[j] != Double.MIN_VALUE) {
-                    xySum[j] += dValues[i] * dValues[j];
-                    xxSum[j] += squaredSum;
-                    yySum[j] += dValues[j] * dValues[j];
-                    adjustCount[j] += 1d;
-                    adjustSumX[j] += dValues[i];
-                    adjustSumY[j] += dValues[j];
-                }
-            }
-            if(i % 1000 == 0) {
-                LOG.debug("running time 2 is {}ms in thread {}", (System.currentTimeMillis() - start),
-                        Thread.currentThread().getName());
-            }
+            cw.setSumSquare(cw.getSumSquare() + dValues[i] * dValues[i]);
         }
-        LOG.debug("running time is {}ms in thread {}", (System.currentTimeMillis() - startO),
-                Thread.currentThread().getName());
+    }
+
+    private CorrelationWritable newCorrelationWritable(int columnIndex) {
+        CorrelationWritable cw = new CorrelationWritable();
+        cw.setColumnIndex(columnIndex);
+        cw.setPairOffset(this.pairOffset);
+        cw.setXySum(new double[this.pairSize]);
+        cw.setXxSum(new double[this.pairSize]);
+        cw.setYySum(new double[this.pairSize]);
+        cw.setAdjustCount(new double[this.pairSize]);
+        cw.setAdjustSumX(new double[this.pairSize]);
+        cw.setAdjustSumY(new double[this.pairSize]);
+        this.correlations[columnIndex] = cw;
+        this.correlationMap.put(columnConfigList.get(columnIndex).getColumnNum(), cw);
+        return cw;
     }
 
     private double[] getDoubleArrayByRawArray(String[] units) {
         double[] dValues = new double[columnConfigList.size()];
         for(int i = 0; i < columnConfigList.size(); i++) {
+            if(!this.block.isBuffered(i)) {
+                // not in current tile
+                continue;
+            }
             ColumnConfig columnConfig = columnConfigList.get(i);
             if(columnConfig.getColumnFlag() == ColumnFlag.Meta) {
                 // only meta columns not in correlation
@@ -354,7 +407,14 @@ public class FastCorrelationMapper extends Mapper<LongWritable, Text, IntWritabl
     @Override
     protected void cleanup(Context context) throws IOException, InterruptedException {
         LOG.info("Final records in such thread of mapper: {}.", count);
+        if(!this.block.isEmpty()) {
+            this.block.accumulate(this.correlations);
+        }
         for(Map.Entry<Integer, CorrelationWritable> entry: this.correlationMap.entrySet()) {
+            if(!this.isComputeAll) {
+                // only pairs (i, j) with j >= i are computed
+                entry.getValue().trimPairs(entry.getValue().getColumnIndex());
+            }
             outputKey.set(entry.getKey());
             context.write(outputKey, entry.getValue());
         }
@@ -65,6 +65,71 @@ public interface CommonConstants {
 
     public static final String SHIFU_NN_FEATURE_SUBSET = "shifu.nn.feature.subset";
 
+    /**
+     * Number of bagging NN models trained in one guagua job, 1 by default.
+     */
+    public static final String SHIFU_NN_BAGS = "shifu.nn.bags";
+
+    /**
+     * Comma separated model paths of bagging NN models trained in one guagua job.
+     */
+    public static final String SHIFU_NN_BAG_OUTPUTS = "shifu.nn.bag.outputs";
+
+    /**
+     * Comma separated binary model paths of bagging NN models trained in one guagua job.
+     */
+    public static final String SHIFU_NN_BAG_BINARY_OUTPUTS = "shifu.nn.bag.binary.outputs";
+
+    /**
+     * If bags trained in one NN guagua job are grid search trials, bag i is trained with hyper parameters of trial i
+     * on the same data without bagging sampling of each bag.
+     */
+    public static final String SHIFU_NN_BAG_GRID_SEARCH = "shifu.nn.bag.gridsearch";
+
+    /**
+     * Comma separated validation error paths of grid search trials trained in one NN guagua job.
+     */
+    public static final String SHIFU_NN_BAG_VAL_ERRORS = "shifu.nn.bag.val.errors";
+
+    /**
+     * Reduction factor of successive halving in grid search trials trained in one NN guagua job, only best 1/eta
+     * trials are kept at each rung. 3 by default, successive halving is disabled if it is not over 1.
+     */
+    public static final String SHIFU_GRIDSEARCH_HALVING_ETA = "shifu.gridsearch.halving.eta";
+
+    /**
+     * If input splits of guagua training are combined by estimated record count with data locality into an exact
+     * worker count, instead of combining by max combined split size. By default it is false.
+     */
+    public static final String SHIFU_TRAIN_SPLIT_BALANCED = "shifu.train.split.balanced";
+
+    /**
+     * Worker count of balanced training input splits, by default data size / max combined split size.
+     */
+    public static final String SHIFU_TRAIN_SPLIT_WORKERS = "shifu.train.split.workers";
+
+    /**
+     * Files sampled to estimate records per byte in balanced training input splits, 64 by default.
+     */
+    public static final String SHIFU_TRAIN_SPLIT_SAMPLE_FILES = "shifu.train.split.sample.files";
+
+    /**
+     * If aggregated worker results are scaled up to all workers when master goes on with part of workers (guagua min
+     * workers ratio), false by default.
+     */
+    public static final String SHIFU_TRAIN_QUORUM_REWEIGHT = "shifu.train.quorum.reweight";
+
+    /**
+     * Worker is a straggler if its average compute time is over such factor of the median of all workers, 1.5 by
+     * default.
+     */
+    public static final String SHIFU_TRAIN_STRAGGLER_FACTOR = "shifu.train.straggler.factor";
+
+    /**
+     * Iteration interval to log worker latency and stragglers in master, 10 by default.
+     */
+    public static final String SHIFU_TRAIN_STRAGGLER_REPORT_INTERVAL = "shifu.train.straggler.report.interval";
+
     public static final String SHIFU_TREE_CHECKPOINT_INTERVAL = "shifu.tree.checkpoint.interval";
 
     public static final String SHIFU_TRAIN_VAL_STEPS_RATIO = "shifu.train.val.steps.ratio";
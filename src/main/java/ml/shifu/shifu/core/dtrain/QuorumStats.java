@@ -0,0 +1,107 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dtrain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import ml.shifu.guagua.io.Bytable;
+import ml.shifu.guagua.io.Combinable;
+
+/**
+ * Worker side stats sent with each worker result, used by {@link QuorumTracker} in master to know how many workers
+ * are in results of one iteration and which worker is the slowest.
+ * 
+ * <p>
+ * If worker results are combined, worker count is summed and only the slowest worker is kept.
+ */
+public class QuorumStats implements Bytable, Combinable<QuorumStats> {
+
+    /**
+     * # of workers in this result.
+     */
+    private int workerCount = 1;
+
+    /**
+     * Container id of the slowest worker.
+     */
+    private String slowestWorker = "";
+
+    /**
+     * Compute time of the slowest worker in milliseconds.
+     */
+    private long slowestTime = 0L;
+
+    public void setWorker(String workerId, long computeTime) {
+        this.workerCount = 1;
+        this.slowestWorker = workerId == null ? "" : workerId;
+        this.slowestTime = computeTime;
+    }
+
+    /**
+     * @return the workerCount
+     */
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    /**
+     * @return the slowestWorker
+     */
+    public String getSlowestWorker() {
+        return slowestWorker;
+    }
+
+    /**
+     * @return the slowestTime
+     */
+    public long getSlowestTime() {
+        return slowestTime;
+    }
+
+    @Override
+    public QuorumStats combine(QuorumStats from) {
+        assert from != null;
+        this.workerCount += from.workerCount;
+        if(from.slowestTime > this.slowestTime) {
+            this.slowestWorker = from.slowestWorker;
+            this.slowestTime = from.slowestTime;
+        }
+        return this;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(this.workerCount);
+        out.writeUTF(this.slowestWorker);
+        out.writeLong(this.slowestTime);
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        this.workerCount = in.readInt();
+        this.slowestWorker = in.readUTF();
+        this.slowestTime = in.readLong();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("QuorumStats [workerCount=%s, slowestWorker=%s, slowestTime=%s]", this.workerCount,
+                this.slowestWorker, this.slowestTime);
+    }
+
+}
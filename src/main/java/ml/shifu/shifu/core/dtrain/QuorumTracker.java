@@ -0,0 +1,226 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dtrain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.Set;
+
+import ml.shifu.guagua.GuaguaConstants;
+import ml.shifu.guagua.util.NumberFormatUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Master side tracker of worker results in each iteration.
+ * 
+ * <p>
+ * With guagua min workers ratio and timeout, master goes on once part of workers report results, late results of
+ * stragglers are dropped by guagua. Sums like gradients and node stats are then only from part of data, so
+ * {@link #finish(int)} returns the scale from reported workers to all workers if reweight is enabled, to make aggregated
+ * results close to results of all workers. Train size of the aggregated results should be scaled by the same scale.
+ * 
+ * <p>
+ * Compute time of each worker is tracked by moving average and workers missed in iterations are counted, stragglers
+ * are logged every {@link #reportInterval} iterations. If worker results are combined, only the slowest worker of each
+ * combined result is known and missed workers are not counted.
+ */
+public class QuorumTracker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QuorumTracker.class);
+
+    /**
+     * Weight of current compute time in moving average.
+     */
+    private static final double LATENCY_ALPHA = 0.3d;
+
+    /**
+     * Worker is a straggler if it is missed in over such ratio of iterations.
+     */
+    private static final double MISSED_RATIO = 0.1d;
+
+    /**
+     * Total # of workers, 0 if not known.
+     */
+    private final int workers;
+
+    private final boolean isReweight;
+
+    private final double stragglerFactor;
+
+    private final int reportInterval;
+
+    /**
+     * Latency of all workers ever reported, by container id.
+     */
+    private final Map<String, WorkerLatency> latencies = new HashMap<String, WorkerLatency>();
+
+    /**
+     * Workers reported in current iteration.
+     */
+    private final Set<String> reported = new HashSet<String>();
+
+    private int reportedWorkers;
+
+    private int results;
+
+    private int iterations;
+
+    public QuorumTracker(Properties props) {
+        this(NumberFormatUtils.getInt(props.getProperty(GuaguaConstants.GUAGUA_WORKER_NUMBER), 0),
+                Boolean.TRUE.toString().equalsIgnoreCase(
+                        props.getProperty(CommonConstants.SHIFU_TRAIN_QUORUM_REWEIGHT)),
+                NumberFormatUtils.getDouble(props.getProperty(CommonConstants.SHIFU_TRAIN_STRAGGLER_FACTOR), 1.5d),
+                NumberFormatUtils.getInt(props.getProperty(CommonConstants.SHIFU_TRAIN_STRAGGLER_REPORT_INTERVAL),
+                        10));
+    }
+
+    QuorumTracker(int workers, boolean isReweight, double stragglerFactor, int reportInterval) {
+        this.workers = workers;
+        this.isReweight = isReweight;
+        this.stragglerFactor = stragglerFactor;
+        this.reportInterval = Math.max(1, reportInterval);
+    }
+
+    /**
+     * Add stats of one worker result in current iteration.
+     */
+    public void add(QuorumStats stats) {
+        if(stats == null) {
+            return;
+        }
+        this.results += 1;
+        this.reportedWorkers += stats.getWorkerCount();
+        String worker = stats.getSlowestWorker();
+        if(worker.length() == 0) {
+            return;
+        }
+        WorkerLatency latency = this.latencies.get(worker);
+        if(latency == null) {
+            latency = new WorkerLatency();
+            this.latencies.put(worker, latency);
+        }
+        latency.update(stats.getSlowestTime());
+        this.reported.add(worker);
+    }
+
+    /**
+     * Finish current iteration after all worker results are added.
+     * 
+     * @param iteration
+     *            current iteration
+     * @return scale of aggregated results from reported workers to all workers, 1 if all workers reported or reweight
+     *         is disabled
+     */
+    public double finish(int iteration) {
+        this.iterations += 1;
+        // missed workers are only known if results are not combined
+        if(this.results == this.reportedWorkers) {
+            for(Entry<String, WorkerLatency> entry: this.latencies.entrySet()) {
+                if(!this.reported.contains(entry.getKey())) {
+                    entry.getValue().missed += 1;
+                }
+            }
+        }
+
+        double scale = 1d;
+        if(this.reportedWorkers > 0 && this.reportedWorkers < this.workers) {
+            if(this.isReweight) {
+                scale = this.workers * 1d / this.reportedWorkers;
+            }
+            LOG.info("Iteration {} goes on with {} of {} workers, aggregated results are scaled by {}.", iteration,
+                    this.reportedWorkers, this.workers, scale);
+        }
+
+        if(this.iterations % this.reportInterval == 0) {
+            logLatency(iteration);
+        }
+
+        this.reported.clear();
+        this.reportedWorkers = 0;
+        this.results = 0;
+        return scale;
+    }
+
+    private void logLatency(int iteration) {
+        if(this.latencies.isEmpty()) {
+            return;
+        }
+        long median = getMedianLatency();
+        long max = 0L;
+        for(WorkerLatency latency: this.latencies.values()) {
+            max = Math.max(max, latency.getAverage());
+        }
+        LOG.info("Iteration {} worker average compute time: median {}ms, max {}ms.", iteration, median, max);
+        List<String> stragglers = getStragglers();
+        if(!stragglers.isEmpty()) {
+            LOG.warn("Iteration {} stragglers (container:averageMs:missedIterations): {}", iteration, stragglers);
+        }
+    }
+
+    private long getMedianLatency() {
+        List<Long> averages = new ArrayList<Long>(this.latencies.size());
+        for(WorkerLatency latency: this.latencies.values()) {
+            averages.add(latency.getAverage());
+        }
+        Collections.sort(averages);
+        return averages.get(averages.size() / 2);
+    }
+
+    /**
+     * Workers with average compute time over straggler factor of median, or missed in too many iterations.
+     */
+    List<String> getStragglers() {
+        List<String> stragglers = new ArrayList<String>();
+        if(this.latencies.isEmpty()) {
+            return stragglers;
+        }
+        long median = getMedianLatency();
+        for(Entry<String, WorkerLatency> entry: this.latencies.entrySet()) {
+            WorkerLatency latency = entry.getValue();
+            if(latency.getAverage() > median * this.stragglerFactor
+                    || latency.missed > this.iterations * MISSED_RATIO) {
+                stragglers.add(entry.getKey() + ":" + latency.getAverage() + ":" + latency.missed);
+            }
+        }
+        Collections.sort(stragglers);
+        return stragglers;
+    }
+
+    private static class WorkerLatency {
+
+        private double average = -1d;
+
+        private int missed;
+
+        void update(long computeTime) {
+            this.average = this.average < 0d ? computeTime : LATENCY_ALPHA * computeTime + (1d - LATENCY_ALPHA)
+                    * this.average;
+        }
+
+        long getAverage() {
+            return Math.round(Math.max(0d, this.average));
+        }
+    }
+
+}
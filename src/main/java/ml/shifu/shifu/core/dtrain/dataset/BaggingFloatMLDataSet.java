@@ -0,0 +1,133 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dtrain.dataset;
+
+import java.util.Iterator;
+
+/**
+ * Read-only view of one bag on a shared training data set. Records are read from the shared data set and significance
+ * is multiplied by bagging sample weight of the record in this bag, so several bagging models can be trained on the
+ * same loaded data without copying records.
+ * 
+ * <p>
+ * Sample weights of all bags are in one array, weight of record i in bag j is at {@code i * bags + j}.
+ */
+public class BaggingFloatMLDataSet implements FloatMLDataSet {
+
+    /**
+     * The shared data set.
+     */
+    private final FloatMLDataSet data;
+
+    /**
+     * Sample weights of all bags.
+     */
+    private final byte[] sampleWeights;
+
+    private final int bags;
+
+    private final int bag;
+
+    public BaggingFloatMLDataSet(FloatMLDataSet data, byte[] sampleWeights, int bags, int bag) {
+        if(sampleWeights.length < data.getRecordCount() * bags) {
+            throw new IllegalArgumentException("Sample weights are less than records of all bags.");
+        }
+        this.data = data;
+        this.sampleWeights = sampleWeights;
+        this.bags = bags;
+        this.bag = bag;
+    }
+
+    @Override
+    public int getIdealSize() {
+        return this.data.getIdealSize();
+    }
+
+    @Override
+    public int getInputSize() {
+        return this.data.getInputSize();
+    }
+
+    @Override
+    public boolean isSupervised() {
+        return this.data.isSupervised();
+    }
+
+    @Override
+    public long getRecordCount() {
+        return this.data.getRecordCount();
+    }
+
+    @Override
+    public void getRecord(long index, FloatMLDataPair pair) {
+        this.data.getRecord(index, pair);
+        pair.setSignificance(pair.getSignificance() * this.sampleWeights[(int) (index * this.bags + this.bag)]);
+    }
+
+    @Override
+    public FloatMLDataSet openAdditional() {
+        return this;
+    }
+
+    @Override
+    public void add(FloatMLData data) {
+        throw new UnsupportedOperationException("Bagging data set is read-only.");
+    }
+
+    @Override
+    public void add(FloatMLData inputData, FloatMLData idealData) {
+        throw new UnsupportedOperationException("Bagging data set is read-only.");
+    }
+
+    @Override
+    public void add(FloatMLDataPair inputData) {
+        throw new UnsupportedOperationException("Bagging data set is read-only.");
+    }
+
+    @Override
+    public void close() {
+        // shared data set is closed by its owner
+    }
+
+    @Override
+    public Iterator<FloatMLDataPair> iterator() {
+        return new Iterator<FloatMLDataPair>() {
+
+            private long current = 0L;
+
+            @Override
+            public boolean hasNext() {
+                return this.current < getRecordCount();
+            }
+
+            @Override
+            public FloatMLDataPair next() {
+                if(!hasNext()) {
+                    return null;
+                }
+                FloatMLDataPair pair = BasicFloatMLDataPair.createPair(getInputSize(), getIdealSize());
+                getRecord(this.current++, pair);
+                return pair;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Remove is not supported.");
+            }
+        };
+    }
+
+}
@@ -248,6 +248,8 @@ public class BasicFloatMLDataSet implements Serializable, FloatMLDataSet, Clonea
         if(pair.getIdealArray() != null) {
             pair.setIdealArray(source.getIdealArray());
         }
+        // significance is set like BufferedFloatMLDataSet, else the pair keeps significance of last read record
+        pair.setSignificance(source.getSignificance());
     }
 
     /**
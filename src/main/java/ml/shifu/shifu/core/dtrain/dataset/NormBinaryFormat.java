@@ -0,0 +1,238 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dtrain.dataset;
+
+import java.util.Properties;
+
+import ml.shifu.shifu.util.Constants;
+
+/**
+ * Layout and helpers of the binary normalized data format, an alternative to pipe-delimited text output of norm step.
+ *
+ * <p>
+ * A file starts with a header: 3 magic bytes 'SNB', 1 version byte and a 16-byte random sync marker. Then it is
+ * composed of blocks, each block is:
+ *
+ * <pre>
+ * sync marker (16 bytes) | record count (int) | compressed flag (byte) | raw payload size (int)
+ *          | stored payload size (int) | payload
+ * </pre>
+ *
+ * Payload is composed of type runs, each run is:
+ *
+ * <pre>
+ * record count (int) | field count (int) | field types (1 byte per field) | records
+ * </pre>
+ *
+ * Records of a run are stored one by one, fixed width for numeric types (fp16 as short, float32, float64, short, int
+ * and long) and (short length + UTF-8 bytes) for string type, length -1 means null. Field types are fixed in one run,
+ * writer starts a new run in current block once one record cannot be encoded by current run types.
+ *
+ * <p>
+ * Sync marker at the beginning of each block makes the file splittable: a reader of a split scans for the first marker
+ * after split start and reads all blocks starting before split end.
+ *
+ * <p>
+ * Part files are named with {@link #EXTENSION}, so format of norm output is known from the data itself and not from
+ * {@link Constants#SHIFU_NORM_OUTPUT_FORMAT} of later steps.
+ */
+public final class NormBinaryFormat {
+
+    /**
+     * Value of {@link Constants#SHIFU_NORM_OUTPUT_FORMAT} to enable binary format.
+     */
+    public static final String BINARY = "binary";
+
+    /**
+     * Value of {@link Constants#SHIFU_NORM_OUTPUT_FORMAT} for default delimited text format.
+     */
+    public static final String TEXT = "text";
+
+    /**
+     * File extension of binary norm output part files.
+     */
+    public static final String EXTENSION = ".snb";
+
+    public static final byte[] MAGIC = new byte[] { 'S', 'N', 'B' };
+
+    public static final byte VERSION = 2;
+
+    public static final int SYNC_SIZE = 16;
+
+    /**
+     * Default raw payload size of a block before it is flushed.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    /**
+     * Config key of raw payload block size in bytes.
+     */
+    public static final String BLOCK_SIZE = "shifu.norm.binary.block.size";
+
+    public static final byte TYPE_NULL = 0;
+
+    public static final byte TYPE_HALF = 1;
+
+    public static final byte TYPE_FLOAT = 2;
+
+    public static final byte TYPE_DOUBLE = 3;
+
+    public static final byte TYPE_SHORT = 4;
+
+    public static final byte TYPE_INT = 5;
+
+    public static final byte TYPE_LONG = 6;
+
+    public static final byte TYPE_STRING = 7;
+
+    private NormBinaryFormat() {
+    }
+
+    /**
+     * If binary format is configured in such properties.
+     *
+     * @param props
+     *            the properties like guagua context properties or shifu environment properties
+     * @return true if {@link Constants#SHIFU_NORM_OUTPUT_FORMAT} is set to {@link #BINARY}
+     */
+    public static boolean isBinary(Properties props) {
+        return isBinary(props.getProperty(Constants.SHIFU_NORM_OUTPUT_FORMAT, TEXT));
+    }
+
+    public static boolean isBinary(String format) {
+        return BINARY.equalsIgnoreCase(format == null ? null : format.trim());
+    }
+
+    /**
+     * If one part file is in binary format, by its file name.
+     *
+     * @param fileName
+     *            the part file name
+     * @return true if file name ends with {@link #EXTENSION}
+     */
+    public static boolean isBinaryFile(String fileName) {
+        return fileName.endsWith(EXTENSION);
+    }
+
+    /**
+     * Check if format of one input file of training matches format configured in training job, a text reader on
+     * binary data (or reverse) fails with garbage records instead of a clear error.
+     *
+     * @param path
+     *            the input file path
+     * @param isBinary
+     *            if binary format is configured in training job
+     * @throws IllegalStateException
+     *             if format of such file doesn't match
+     */
+    public static void checkFileFormat(String path, boolean isBinary) {
+        if(isBinaryFile(path) != isBinary) {
+            throw new IllegalStateException("Input file " + path + " is in " + (isBinary ? TEXT : BINARY)
+                    + " format but " + Constants.SHIFU_NORM_OUTPUT_FORMAT + " of training job is "
+                    + (isBinary ? BINARY : TEXT) + ", please re-run norm step.");
+        }
+    }
+
+    /**
+     * Infer block field type from the first value of a block.
+     *
+     * @param value
+     *            the field value
+     * @param isHalfPrecision
+     *            if float values are stored in fp16
+     * @return field type
+     */
+    public static byte typeOf(Object value, boolean isHalfPrecision) {
+        if(value == null) {
+            return TYPE_NULL;
+        }
+        if(value instanceof Float) {
+            return isHalfPrecision ? TYPE_HALF : TYPE_FLOAT;
+        }
+        if(value instanceof Double) {
+            return TYPE_DOUBLE;
+        }
+        if(value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            int intValue = ((Number) value).intValue();
+            return (intValue >= Short.MIN_VALUE && intValue <= Short.MAX_VALUE) ? TYPE_SHORT : TYPE_INT;
+        }
+        if(value instanceof Long) {
+            return TYPE_LONG;
+        }
+        return TYPE_STRING;
+    }
+
+    /**
+     * Check if one value can be encoded with field type of current block.
+     *
+     * @param type
+     *            the field type
+     * @param value
+     *            the field value
+     * @return true if encodable
+     */
+    public static boolean isCompatible(byte type, Object value) {
+        switch(type) {
+            case TYPE_NULL:
+                return value == null;
+            case TYPE_HALF:
+            case TYPE_FLOAT:
+                return value instanceof Float;
+            case TYPE_DOUBLE:
+                return value instanceof Double;
+            case TYPE_SHORT:
+                if(value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                    int intValue = ((Number) value).intValue();
+                    return intValue >= Short.MIN_VALUE && intValue <= Short.MAX_VALUE;
+                }
+                return false;
+            case TYPE_INT:
+                return value instanceof Integer || value instanceof Short || value instanceof Byte;
+            case TYPE_LONG:
+                return value instanceof Long;
+            case TYPE_STRING:
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Fixed width in bytes of field type, -1 for variable width string type.
+     *
+     * @param type
+     *            the field type
+     * @return width of the type
+     */
+    public static int widthOf(byte type) {
+        switch(type) {
+            case TYPE_NULL:
+                return 0;
+            case TYPE_HALF:
+            case TYPE_SHORT:
+                return 2;
+            case TYPE_FLOAT:
+            case TYPE_INT:
+                return 4;
+            case TYPE_DOUBLE:
+            case TYPE_LONG:
+                return 8;
+            case TYPE_STRING:
+            default:
+                return -1;
+        }
+    }
+
+}
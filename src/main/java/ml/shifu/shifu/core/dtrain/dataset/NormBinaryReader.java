@@ -0,0 +1,280 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dtrain.dataset;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+
+/**
+ * Reader of one split of a file in {@link NormBinaryFormat}. Each record is exposed as self-described bytes (field
+ * count followed by type and value of each field) which can be wrapped into a Text and parsed by {@link NormRecord}.
+ */
+public class NormBinaryReader implements Closeable {
+
+    private static final int HEADER_SIZE = NormBinaryFormat.MAGIC.length + 1 + NormBinaryFormat.SYNC_SIZE;
+
+    /**
+     * Bytes read at once when scanning for the first sync marker of a split.
+     */
+    private static final int SYNC_SCAN_BUFFER_SIZE = 64 * 1024;
+
+    private final FSDataInputStream in;
+
+    private final long end;
+
+    private final byte[] sync = new byte[NormBinaryFormat.SYNC_SIZE];
+
+    private final byte[] syncCheck = new byte[NormBinaryFormat.SYNC_SIZE];
+
+    private final Inflater inflater = new Inflater();
+
+    private byte[] stored = new byte[0];
+
+    private byte[] payload = new byte[0];
+
+    private int payloadPos;
+
+    private byte[] types;
+
+    /**
+     * Records left in current block.
+     */
+    private int recordsLeft;
+
+    /**
+     * Records left in current type run of the block.
+     */
+    private int runRecordsLeft;
+
+    private byte[] record = new byte[1024];
+
+    private int recordLength;
+
+    private long recordCount;
+
+    /**
+     * Constructor of a split reader.
+     *
+     * @param in
+     *            input stream of the file, will be closed in {@link #close()}
+     * @param start
+     *            split start offset
+     * @param length
+     *            split length
+     * @throws IOException
+     *             if not a valid binary norm file
+     */
+    public NormBinaryReader(FSDataInputStream in, long start, long length) throws IOException {
+        this.in = in;
+        this.end = start + length;
+
+        in.seek(0L);
+        byte[] magic = new byte[NormBinaryFormat.MAGIC.length];
+        in.readFully(magic);
+        if(!Arrays.equals(magic, NormBinaryFormat.MAGIC)) {
+            throw new IOException("Not a binary normalized data file, magic bytes don't match.");
+        }
+        byte version = in.readByte();
+        if(version != NormBinaryFormat.VERSION) {
+            throw new IOException("Unsupported binary normalized data version " + version + ".");
+        }
+        in.readFully(this.sync);
+
+        if(start > HEADER_SIZE) {
+            in.seek(start);
+            seekToSync();
+        }
+    }
+
+    /**
+     * Scan forward to the next sync marker and seek to its start, stream will be at end of file if no marker found.
+     * Bytes are scanned in buffer, last (marker size - 1) bytes are kept for the next read as one marker may cross
+     * two reads.
+     */
+    private void seekToSync() throws IOException {
+        byte[] buffer = new byte[SYNC_SCAN_BUFFER_SIZE];
+        long bufferStart = this.in.getPos();
+        int length = 0;
+        int read;
+        while((read = this.in.read(buffer, length, buffer.length - length)) > 0) {
+            length += read;
+            for(int i = 0; i <= length - NormBinaryFormat.SYNC_SIZE; i++) {
+                if(isSyncAt(buffer, i)) {
+                    this.in.seek(bufferStart + i);
+                    return;
+                }
+            }
+            int kept = Math.min(length, NormBinaryFormat.SYNC_SIZE - 1);
+            System.arraycopy(buffer, length - kept, buffer, 0, kept);
+            bufferStart += length - kept;
+            length = kept;
+        }
+    }
+
+    private boolean isSyncAt(byte[] buffer, int offset) {
+        for(int i = 0; i < NormBinaryFormat.SYNC_SIZE; i++) {
+            if(buffer[offset + i] != this.sync[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean nextBlock() throws IOException {
+        if(this.in.getPos() >= this.end) {
+            return false;
+        }
+        try {
+            this.in.readFully(this.syncCheck);
+        } catch (EOFException e) {
+            return false;
+        }
+        if(!Arrays.equals(this.sync, this.syncCheck)) {
+            throw new IOException("Corrupted binary normalized data, sync marker not found at " + this.in.getPos());
+        }
+
+        this.recordsLeft = this.in.readInt();
+        this.runRecordsLeft = 0;
+        boolean isCompressed = this.in.readByte() != 0;
+        int rawSize = this.in.readInt();
+        int storedSize = this.in.readInt();
+
+        if(this.payload.length < rawSize) {
+            this.payload = new byte[rawSize];
+        }
+        if(isCompressed) {
+            if(this.stored.length < storedSize) {
+                this.stored = new byte[storedSize];
+            }
+            this.in.readFully(this.stored, 0, storedSize);
+            this.inflater.reset();
+            this.inflater.setInput(this.stored, 0, storedSize);
+            try {
+                int inflated = 0;
+                while(inflated < rawSize && !this.inflater.finished()) {
+                    inflated += this.inflater.inflate(this.payload, inflated, rawSize - inflated);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupted compressed block in binary normalized data.", e);
+            }
+        } else {
+            this.in.readFully(this.payload, 0, rawSize);
+        }
+        this.payloadPos = 0;
+        return true;
+    }
+
+    /**
+     * Read header of next type run in current block payload.
+     */
+    private void nextRun() {
+        this.runRecordsLeft = readInt(this.payload, this.payloadPos);
+        int fieldCount = readInt(this.payload, this.payloadPos + 4);
+        this.payloadPos += 8;
+        if(this.types == null || this.types.length != fieldCount) {
+            this.types = new byte[fieldCount];
+        }
+        System.arraycopy(this.payload, this.payloadPos, this.types, 0, fieldCount);
+        this.payloadPos += fieldCount;
+    }
+
+    private static int readInt(byte[] bytes, int pos) {
+        return ((bytes[pos] & 0xFF) << 24) | ((bytes[pos + 1] & 0xFF) << 16) | ((bytes[pos + 2] & 0xFF) << 8)
+                | (bytes[pos + 3] & 0xFF);
+    }
+
+    /**
+     * Move to next record.
+     *
+     * @return false if no more records in current split
+     * @throws IOException
+     *             any io exception
+     */
+    public boolean nextRecord() throws IOException {
+        while(this.recordsLeft == 0) {
+            if(!nextBlock()) {
+                return false;
+            }
+        }
+        if(this.runRecordsLeft == 0) {
+            nextRun();
+        }
+
+        ensureRecordCapacity(4 + this.types.length);
+        int fieldCount = this.types.length;
+        this.record[0] = (byte) (fieldCount >>> 24);
+        this.record[1] = (byte) (fieldCount >>> 16);
+        this.record[2] = (byte) (fieldCount >>> 8);
+        this.record[3] = (byte) fieldCount;
+        this.recordLength = 4;
+        for(int i = 0; i < fieldCount; i++) {
+            byte type = this.types[i];
+            int width = NormBinaryFormat.widthOf(type);
+            if(width < 0) {
+                short len = (short) (((this.payload[this.payloadPos] & 0xFF) << 8)
+                        | (this.payload[this.payloadPos + 1] & 0xFF));
+                width = 2 + Math.max(len, 0);
+            }
+            ensureRecordCapacity(this.recordLength + 1 + width);
+            this.record[this.recordLength++] = type;
+            System.arraycopy(this.payload, this.payloadPos, this.record, this.recordLength, width);
+            this.recordLength += width;
+            this.payloadPos += width;
+        }
+
+        this.recordsLeft -= 1;
+        this.runRecordsLeft -= 1;
+        this.recordCount += 1;
+        return true;
+    }
+
+    private void ensureRecordCapacity(int capacity) {
+        if(this.record.length < capacity) {
+            this.record = Arrays.copyOf(this.record, Math.max(capacity, this.record.length * 2));
+        }
+    }
+
+    /**
+     * @return bytes of current record, only first {@link #getRecordLength()} bytes are valid.
+     */
+    public byte[] getRecordBytes() {
+        return this.record;
+    }
+
+    public int getRecordLength() {
+        return this.recordLength;
+    }
+
+    /**
+     * @return how many records are read
+     */
+    public long getRecordCount() {
+        return this.recordCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.inflater.end();
+        this.in.close();
+    }
+
+}
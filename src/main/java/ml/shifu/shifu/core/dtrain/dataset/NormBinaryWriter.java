@@ -0,0 +1,254 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dtrain.dataset;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+import ml.shifu.shifu.udf.NormalizeUDF;
+
+/**
+ * Writer of normalized records in {@link NormBinaryFormat}. Records are buffered into one block and flushed when block
+ * is full. If one record doesn't match field types of current type run, a new run is started in the same block.
+ */
+public class NormBinaryWriter implements Closeable {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final DataOutputStream out;
+
+    private final boolean isHalfPrecision;
+
+    private final boolean isCompress;
+
+    private final int blockSize;
+
+    private final byte[] sync;
+
+    private final ByteArrayOutputStream blockBytes;
+
+    private final DataOutputStream blockOut;
+
+    /**
+     * Records of current type run, appended to block with run header when run is closed.
+     */
+    private final ByteArrayOutputStream runBytes;
+
+    private final DataOutputStream runOut;
+
+    private Deflater deflater;
+
+    private byte[] deflateBuffer;
+
+    private byte[] types;
+
+    /**
+     * Records in current block including current run.
+     */
+    private int records;
+
+    /**
+     * Records in current type run.
+     */
+    private int runRecords;
+
+    public NormBinaryWriter(OutputStream out, boolean isHalfPrecision, boolean isCompress) throws IOException {
+        this(out, isHalfPrecision, isCompress, NormBinaryFormat.DEFAULT_BLOCK_SIZE);
+    }
+
+    public NormBinaryWriter(OutputStream out, boolean isHalfPrecision, boolean isCompress, int blockSize)
+            throws IOException {
+        this.out = (out instanceof DataOutputStream) ? (DataOutputStream) out : new DataOutputStream(out);
+        this.isHalfPrecision = isHalfPrecision;
+        this.isCompress = isCompress;
+        this.blockSize = blockSize;
+        this.blockBytes = new ByteArrayOutputStream(blockSize + 1024);
+        this.blockOut = new DataOutputStream(this.blockBytes);
+        this.runBytes = new ByteArrayOutputStream(blockSize + 1024);
+        this.runOut = new DataOutputStream(this.runBytes);
+
+        UUID uuid = UUID.randomUUID();
+        this.sync = ByteBuffer.allocate(NormBinaryFormat.SYNC_SIZE).putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits()).array();
+
+        this.out.write(NormBinaryFormat.MAGIC);
+        this.out.writeByte(NormBinaryFormat.VERSION);
+        this.out.write(this.sync);
+    }
+
+    /**
+     * Append one record, fields are Float, Double, Integer, Long, String or null as output of NormalizeUDF.
+     *
+     * @param fields
+     *            fields of the record
+     * @throws IOException
+     *             any io exception in writing
+     */
+    public void write(List<Object> fields) throws IOException {
+        if(this.runRecords > 0 && !isCompatible(fields)) {
+            closeRun();
+        }
+        if(this.runRecords == 0) {
+            this.types = new byte[fields.size()];
+            for(int i = 0; i < this.types.length; i++) {
+                this.types[i] = NormBinaryFormat.typeOf(fields.get(i), this.isHalfPrecision);
+            }
+        }
+
+        for(int i = 0; i < this.types.length; i++) {
+            writeValue(this.types[i], fields.get(i));
+        }
+        this.runRecords += 1;
+        this.records += 1;
+
+        if(this.blockBytes.size() + this.runBytes.size() >= this.blockSize) {
+            flushBlock();
+        }
+    }
+
+    /**
+     * Append current type run with its header into block.
+     */
+    private void closeRun() throws IOException {
+        if(this.runRecords == 0) {
+            return;
+        }
+        this.runOut.flush();
+        this.blockOut.writeInt(this.runRecords);
+        this.blockOut.writeInt(this.types.length);
+        this.blockOut.write(this.types);
+        this.runBytes.writeTo(this.blockOut);
+        this.runBytes.reset();
+        this.runRecords = 0;
+    }
+
+    private boolean isCompatible(List<Object> fields) {
+        if(fields.size() != this.types.length) {
+            return false;
+        }
+        for(int i = 0; i < this.types.length; i++) {
+            if(!NormBinaryFormat.isCompatible(this.types[i], fields.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeValue(byte type, Object value) throws IOException {
+        switch(type) {
+            case NormBinaryFormat.TYPE_NULL:
+                break;
+            case NormBinaryFormat.TYPE_HALF:
+                this.runOut.writeShort(NormalizeUDF.fromFloat(((Number) value).floatValue()));
+                break;
+            case NormBinaryFormat.TYPE_FLOAT:
+                this.runOut.writeFloat(((Number) value).floatValue());
+                break;
+            case NormBinaryFormat.TYPE_DOUBLE:
+                this.runOut.writeDouble(((Number) value).doubleValue());
+                break;
+            case NormBinaryFormat.TYPE_SHORT:
+                this.runOut.writeShort(((Number) value).intValue());
+                break;
+            case NormBinaryFormat.TYPE_INT:
+                this.runOut.writeInt(((Number) value).intValue());
+                break;
+            case NormBinaryFormat.TYPE_LONG:
+                this.runOut.writeLong(((Number) value).longValue());
+                break;
+            case NormBinaryFormat.TYPE_STRING:
+            default:
+                if(value == null) {
+                    this.runOut.writeShort(-1);
+                } else {
+                    byte[] bytes = value.toString().getBytes(UTF8);
+                    if(bytes.length > Short.MAX_VALUE) {
+                        throw new IOException("String field is too long to be stored in binary norm format: "
+                                + bytes.length + " bytes.");
+                    }
+                    this.runOut.writeShort(bytes.length);
+                    this.runOut.write(bytes);
+                }
+                break;
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if(this.records == 0) {
+            return;
+        }
+        closeRun();
+        this.blockOut.flush();
+        byte[] raw = this.blockBytes.toByteArray();
+
+        this.out.write(this.sync);
+        this.out.writeInt(this.records);
+        if(this.isCompress) {
+            if(this.deflater == null) {
+                this.deflater = new Deflater(Deflater.BEST_SPEED);
+            }
+            if(this.deflateBuffer == null || this.deflateBuffer.length < raw.length + 64) {
+                this.deflateBuffer = new byte[raw.length + raw.length / 10 + 64];
+            }
+            this.deflater.reset();
+            this.deflater.setInput(raw);
+            this.deflater.finish();
+            int stored = 0;
+            while(!this.deflater.finished()) {
+                if(stored == this.deflateBuffer.length) {
+                    byte[] newBuffer = new byte[this.deflateBuffer.length * 2];
+                    System.arraycopy(this.deflateBuffer, 0, newBuffer, 0, stored);
+                    this.deflateBuffer = newBuffer;
+                }
+                stored += this.deflater.deflate(this.deflateBuffer, stored, this.deflateBuffer.length - stored);
+            }
+            this.out.writeByte(1);
+            this.out.writeInt(raw.length);
+            this.out.writeInt(stored);
+            this.out.write(this.deflateBuffer, 0, stored);
+        } else {
+            this.out.writeByte(0);
+            this.out.writeInt(raw.length);
+            this.out.writeInt(raw.length);
+            this.out.write(raw);
+        }
+
+        this.blockBytes.reset();
+        this.records = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBlock();
+            this.out.flush();
+        } finally {
+            if(this.deflater != null) {
+                this.deflater.end();
+            }
+            this.out.close();
+        }
+    }
+
+}
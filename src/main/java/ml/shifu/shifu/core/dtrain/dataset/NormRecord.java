@@ -0,0 +1,260 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dtrain.dataset;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import ml.shifu.guagua.util.NumberFormatUtils;
+import ml.shifu.shifu.udf.NormalizeUDF;
+
+import org.apache.hadoop.io.Text;
+
+import com.google.common.base.Splitter;
+
+/**
+ * One normalized record shared by training workers, it hides if the record is a delimited text line or a binary
+ * record from {@link NormBinaryReader}. Instance is reused between records to avoid allocation in load.
+ *
+ * <p>
+ * Numeric values in binary records are read directly without any String parsing, while text tokens are parsed lazily
+ * when being accessed.
+ */
+public class NormRecord {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Splitter for text records, null if binary.
+     */
+    private final Splitter splitter;
+
+    private final boolean isBinary;
+
+    private int size;
+
+    private String[] tokens = new String[64];
+
+    private byte[] types = new byte[64];
+
+    private double[] values = new double[64];
+
+    /**
+     * Constructor for delimited text records.
+     *
+     * @param splitter
+     *            the splitter of norm output delimiter
+     */
+    public NormRecord(Splitter splitter) {
+        this.splitter = splitter;
+        this.isBinary = false;
+    }
+
+    /**
+     * Constructor for text or binary records.
+     *
+     * @param splitter
+     *            the splitter of norm output delimiter
+     * @param isBinary
+     *            if input records are in {@link NormBinaryFormat}
+     */
+    public NormRecord(Splitter splitter, boolean isBinary) {
+        this.splitter = splitter;
+        this.isBinary = isBinary;
+    }
+
+    /**
+     * Parse current record.
+     *
+     * @param value
+     *            text line or binary record bytes
+     */
+    public void parse(Text value) {
+        if(this.isBinary) {
+            parseBinary(value.getBytes(), value.getLength());
+        } else {
+            parseText(value.toString());
+        }
+    }
+
+    public void parseText(String line) {
+        this.size = 0;
+        for(String token: this.splitter.split(line)) {
+            ensureCapacity(this.size + 1);
+            this.tokens[this.size] = token;
+            this.types[this.size] = NormBinaryFormat.TYPE_STRING;
+            this.size += 1;
+        }
+    }
+
+    public void parseBinary(byte[] bytes, int length) {
+        int fieldCount = readInt(bytes, 0);
+        ensureCapacity(fieldCount);
+        int pos = 4;
+        for(int i = 0; i < fieldCount; i++) {
+            byte type = bytes[pos++];
+            this.types[i] = type;
+            this.tokens[i] = null;
+            switch(type) {
+                case NormBinaryFormat.TYPE_NULL:
+                    this.values[i] = Double.NaN;
+                    break;
+                case NormBinaryFormat.TYPE_HALF:
+                    this.values[i] = NormalizeUDF.toFloat(readShort(bytes, pos) & 0xFFFF);
+                    pos += 2;
+                    break;
+                case NormBinaryFormat.TYPE_FLOAT:
+                    this.values[i] = Float.intBitsToFloat(readInt(bytes, pos));
+                    pos += 4;
+                    break;
+                case NormBinaryFormat.TYPE_DOUBLE:
+                    this.values[i] = Double.longBitsToDouble(readLong(bytes, pos));
+                    pos += 8;
+                    break;
+                case NormBinaryFormat.TYPE_SHORT:
+                    this.values[i] = readShort(bytes, pos);
+                    pos += 2;
+                    break;
+                case NormBinaryFormat.TYPE_INT:
+                    this.values[i] = readInt(bytes, pos);
+                    pos += 4;
+                    break;
+                case NormBinaryFormat.TYPE_LONG:
+                    this.values[i] = readLong(bytes, pos);
+                    pos += 8;
+                    break;
+                case NormBinaryFormat.TYPE_STRING:
+                default:
+                    short len = readShort(bytes, pos);
+                    pos += 2;
+                    if(len >= 0) {
+                        this.tokens[i] = new String(bytes, pos, len, UTF8);
+                        pos += len;
+                    }
+                    this.values[i] = Double.NaN;
+                    break;
+            }
+        }
+        if(pos > length) {
+            throw new IllegalArgumentException("Corrupted binary normalized record, expect " + pos + " bytes but "
+                    + length + " bytes.");
+        }
+        this.size = fieldCount;
+    }
+
+    /**
+     * @return field size of current record
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * If field is null or empty string which is how null is written in text.
+     *
+     * @param index
+     *            field index
+     * @return true if empty
+     */
+    public boolean isEmpty(int index) {
+        byte type = this.types[index];
+        if(type == NormBinaryFormat.TYPE_NULL) {
+            return true;
+        }
+        return type == NormBinaryFormat.TYPE_STRING && (this.tokens[index] == null || this.tokens[index].isEmpty());
+    }
+
+    public float getFloat(int index, float defaultValue) {
+        byte type = this.types[index];
+        if(type == NormBinaryFormat.TYPE_STRING) {
+            String token = this.tokens[index];
+            // check empty to avoid bad performance in failed NumberFormatUtils.getFloat
+            return (token == null || token.isEmpty()) ? defaultValue : NumberFormatUtils.getFloat(token, defaultValue);
+        }
+        return type == NormBinaryFormat.TYPE_NULL ? defaultValue : (float) this.values[index];
+    }
+
+    public double getDouble(int index, double defaultValue) {
+        byte type = this.types[index];
+        if(type == NormBinaryFormat.TYPE_STRING) {
+            String token = this.tokens[index];
+            return (token == null || token.isEmpty()) ? defaultValue
+                    : NumberFormatUtils.getDouble(token, defaultValue);
+        }
+        return type == NormBinaryFormat.TYPE_NULL ? defaultValue : this.values[index];
+    }
+
+    /**
+     * String value of one field, formatted as in text output for binary numeric fields.
+     *
+     * @param index
+     *            field index
+     * @return string value, empty string for null
+     */
+    public String getString(int index) {
+        switch(this.types[index]) {
+            case NormBinaryFormat.TYPE_NULL:
+                return "";
+            case NormBinaryFormat.TYPE_HALF:
+            case NormBinaryFormat.TYPE_FLOAT:
+                return Float.toString((float) this.values[index]);
+            case NormBinaryFormat.TYPE_DOUBLE:
+                return Double.toString(this.values[index]);
+            case NormBinaryFormat.TYPE_SHORT:
+            case NormBinaryFormat.TYPE_INT:
+            case NormBinaryFormat.TYPE_LONG:
+                return Long.toString((long) this.values[index]);
+            case NormBinaryFormat.TYPE_STRING:
+            default:
+                return this.tokens[index] == null ? "" : this.tokens[index];
+        }
+    }
+
+    /**
+     * Hash code of one field used in fixed train/validation splitting. Fields are hashed as String in text output, so
+     * the same record gets the same hash code (and the same train/validation split) in text and binary format.
+     *
+     * @param index
+     *            field index
+     * @return hash code of the field
+     */
+    public int hashCode(int index) {
+        return getString(index).hashCode();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if(this.types.length < capacity) {
+            int newCapacity = Math.max(capacity, this.types.length * 2);
+            this.tokens = Arrays.copyOf(this.tokens, newCapacity);
+            this.types = Arrays.copyOf(this.types, newCapacity);
+            this.values = Arrays.copyOf(this.values, newCapacity);
+        }
+    }
+
+    private static short readShort(byte[] bytes, int pos) {
+        return (short) (((bytes[pos] & 0xFF) << 8) | (bytes[pos + 1] & 0xFF));
+    }
+
+    private static int readInt(byte[] bytes, int pos) {
+        return ((bytes[pos] & 0xFF) << 24) | ((bytes[pos + 1] & 0xFF) << 16) | ((bytes[pos + 2] & 0xFF) << 8)
+                | (bytes[pos + 3] & 0xFF);
+    }
+
+    private static long readLong(byte[] bytes, int pos) {
+        return ((long) readInt(bytes, pos) << 32) | (readInt(bytes, pos + 4) & 0xFFFFFFFFL);
+    }
+
+}
@@ -43,6 +43,7 @@ import ml.shifu.shifu.core.TreeModel;
 import ml.shifu.shifu.core.dtrain.CommonConstants;
 import ml.shifu.shifu.core.dtrain.DTrainUtils;
 import ml.shifu.shifu.core.dtrain.FeatureSubsetStrategy;
+import ml.shifu.shifu.core.dtrain.QuorumTracker;
 import ml.shifu.shifu.core.dtrain.dt.DTWorkerParams.NodeStats;
 import ml.shifu.shifu.core.dtrain.gs.GridSearch;
 import ml.shifu.shifu.fs.ShifuFileUtils;
@@ -173,6 +174,11 @@ public class DTMaster extends AbstractMasterComputable<DTMasterParams, DTWorkerP
      */
     private int workerNumber;
 
+    /**
+     * Tracks workers reported in each iteration and stragglers.
+     */
+    private QuorumTracker quorumTracker;
+
     /**
      * Input features numbers
      */
@@ -312,6 +318,20 @@ public class DTMaster extends AbstractMasterComputable<DTMasterParams, DTWorkerP
             validationError += params.getValidationError();
             weightedTrainCount += params.getTrainCount();
             weightedValidationCount += params.getValidationCount();
+            this.quorumTracker.add(params.getQuorumStats());
+        }
+
+        // if master goes on without stragglers, scale stats as if all workers are reported, then counts in stats are
+        // checked by min instances per node like stats of all workers
+        double scale = this.quorumTracker.finish(context.getCurrentIteration());
+        if(scale != 1d) {
+            for(NodeStats nodeStats: nodeStatsMap.values()) {
+                for(double[] statsArray: nodeStats.getFeatureStatistics().values()) {
+                    for(int i = 0; i < statsArray.length; i++) {
+                        statsArray[i] *= scale;
+                    }
+                }
+            }
         }
         for(Entry<Integer, NodeStats> entry: nodeStatsMap.entrySet()) {
             NodeStats nodeStats = entry.getValue();
@@ -911,6 +931,7 @@ public class DTMaster extends AbstractMasterComputable<DTMasterParams, DTWorkerP
 
         // worker number is used to estimate nodes per iteration for stats
         this.workerNumber = NumberFormatUtils.getInt(props.getProperty(GuaguaConstants.GUAGUA_WORKER_NUMBER), true);
+        this.quorumTracker = new QuorumTracker(props);
 
         // check if variables are set final selected
         int[] inputOutputIndex = DTrainUtils.getNumericAndCategoricalInputAndOutputCounts(this.columnConfigList);
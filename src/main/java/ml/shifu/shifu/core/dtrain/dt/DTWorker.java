@@ -45,7 +45,6 @@ import ml.shifu.guagua.hadoop.io.GuaguaWritableAdapter;
 import ml.shifu.guagua.io.Bytable;
 import ml.shifu.guagua.io.GuaguaFileSplit;
 import ml.shifu.guagua.util.MemoryLimitedList;
-import ml.shifu.guagua.util.NumberFormatUtils;
 import ml.shifu.guagua.worker.AbstractWorkerComputable;
 import ml.shifu.guagua.worker.WorkerContext;
 import ml.shifu.guagua.worker.WorkerContext.WorkerCompletionCallBack;
@@ -56,9 +55,12 @@ import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
 import ml.shifu.shifu.core.TreeModel;
 import ml.shifu.shifu.core.dtrain.CommonConstants;
 import ml.shifu.shifu.core.dtrain.DTrainUtils;
+import ml.shifu.shifu.core.dtrain.dataset.NormBinaryFormat;
+import ml.shifu.shifu.core.dtrain.dataset.NormRecord;
 import ml.shifu.shifu.core.dtrain.dt.DTWorkerParams.NodeStats;
 import ml.shifu.shifu.core.dtrain.gs.GridSearch;
 import ml.shifu.shifu.fs.ShifuFileUtils;
+import ml.shifu.shifu.guagua.GuaguaBinaryNormRecordReader;
 import ml.shifu.shifu.util.*;
 
 import org.apache.commons.lang.StringUtils;
@@ -218,6 +220,16 @@ public class DTWorker extends
      */
     private Splitter splitter;
 
+    /**
+     * Reusable record of current line, text or binary according to {@link #isBinaryNorm}.
+     */
+    private NormRecord normRecord;
+
+    /**
+     * If cleaned data is in binary format, see {@link NormBinaryFormat}.
+     */
+    private boolean isBinaryNorm;
+
     /**
      * Index map in which column index and data input array index for fast location.
      */
@@ -336,7 +348,12 @@ public class DTWorker extends
 
     @Override
     public void initRecordReader(GuaguaFileSplit fileSplit) throws IOException {
-        super.setRecordReader(new GuaguaLineRecordReader(fileSplit));
+        NormBinaryFormat.checkFileFormat(fileSplit.getPath(), this.isBinaryNorm);
+        if(this.isBinaryNorm) {
+            super.setRecordReader(new GuaguaBinaryNormRecordReader(fileSplit));
+        } else {
+            super.setRecordReader(new GuaguaLineRecordReader(fileSplit));
+        }
     }
 
     protected boolean isUpSampleEnabled() {
@@ -380,6 +397,8 @@ public class DTWorker extends
         // create Splitter
         String delimiter = context.getProps().getProperty(Constants.SHIFU_OUTPUT_DATA_DELIMITER);
         this.splitter = MapReduceUtils.generateShifuOutputSplitter(delimiter);
+        this.isBinaryNorm = NormBinaryFormat.isBinary(context.getProps());
+        this.normRecord = new NormRecord(this.splitter, this.isBinaryNorm);
 
         Integer kCrossValidation = this.modelConfig.getTrain().getNumKFold();
         if(kCrossValidation != null && kCrossValidation > 0) {
@@ -556,6 +575,16 @@ public class DTWorker extends
      */
     @Override
     public DTWorkerParams doCompute(WorkerContext<DTMasterParams, DTWorkerParams> context) {
+        long start = System.currentTimeMillis();
+        DTWorkerParams params = computeParams(context);
+        if(params != null) {
+            // compute time is sent to master to find stragglers
+            params.getQuorumStats().setWorker(context.getContainerId(), System.currentTimeMillis() - start);
+        }
+        return params;
+    }
+
+    private DTWorkerParams computeParams(WorkerContext<DTMasterParams, DTWorkerParams> context) {
         if(context.isFirstIteration()) {
             return new DTWorkerParams();
         }
@@ -1109,11 +1138,11 @@ public class DTWorker extends
         short[] inputs = new short[this.inputCount];
         float ideal = 0f;
         float significance = 1f;
-        // use guava Splitter to iterate only once
-        // use NNConstants.NN_DEFAULT_COLUMN_SEPARATOR to replace getModelConfig().getDataSetDelimiter(), super follows
-        // the function in akka mode.
-        int index = 0, inputIndex = 0;
-        for(String input: this.splitter.split(currentValue.getWritable().toString())) {
+        // parse text or binary record only once and access fields by index
+        this.normRecord.parse(currentValue.getWritable());
+        int recordSize = this.normRecord.size();
+        int inputIndex = 0;
+        for(int index = 0; index < recordSize; index++) {
             if(index == this.columnConfigList.size()) {
                 // do we need to check if not weighted directly set to 1f; if such logic non-weight at first, then
                 // weight, how to process???
@@ -1121,8 +1150,7 @@ public class DTWorker extends
                     significance = 1f;
                     break;
                 }
-                // check here to avoid bad performance in failed NumberFormatUtils.getFloat(input, 1f)
-                significance = input.length() == 0 ? 1f : NumberFormatUtils.getFloat(input, 1f);
+                significance = this.normRecord.getFloat(index, 1f);
                 // if invalid weight, set it to 1f and warning in log
                 if(Float.compare(significance, 0f) < 0) {
                     LOG.warn("The {} record in current worker weight {} is less than 0f, it is invalid, set it to 1.",
@@ -1134,14 +1162,14 @@ public class DTWorker extends
             } else {
                 ColumnConfig columnConfig = this.columnConfigList.get(index);
                 if(columnConfig != null && columnConfig.isTarget()) {
-                    ideal = getFloatValue(input);
+                    ideal = getFloatValue(index);
                 } else {
                     if(!isAfterVarSelect) {
                         // no variable selected, good candidate but not meta and not target chose
                         if(!columnConfig.isMeta() && !columnConfig.isTarget()
                                 && CommonUtils.isGoodCandidate(columnConfig, this.hasCandidates)) {
                             if(columnConfig.isNumerical()) {
-                                float floatValue = getFloatValue(input);
+                                float floatValue = getFloatValue(index);
                                 // cast is safe as we limit max bin to Short.MAX_VALUE
                                 short binIndex = (short) getBinIndex(floatValue, columnConfig.getBinBoundary());
                                 inputs[inputIndex] = binIndex;
@@ -1150,12 +1178,12 @@ public class DTWorker extends
                                 }
                             } else if(columnConfig.isCategorical()) {
                                 short shortValue = (short) (columnConfig.getBinCategory().size());
-                                if(input.length() == 0) {
+                                if(this.normRecord.isEmpty(index)) {
                                     // empty
                                     shortValue = (short) (columnConfig.getBinCategory().size());
                                 } else {
                                     Integer categoricalIndex = this.columnCategoryIndexMapping
-                                            .get(columnConfig.getColumnNum()).get(input);
+                                            .get(columnConfig.getColumnNum()).get(this.normRecord.getString(index));
                                     if(categoricalIndex == null) {
                                         shortValue = -1; // invalid category, set to -1 for last index
                                     } else {
@@ -1172,7 +1200,7 @@ public class DTWorker extends
                                     this.inputIndexMap.put(columnConfig.getColumnNum(), inputIndex);
                                 }
                             }
-                            hashcode = hashcode * 31 + input.hashCode();
+                            hashcode = hashcode * 31 + this.normRecord.hashCode(index);
                             inputIndex += 1;
                         }
                     } else {
@@ -1180,7 +1208,7 @@ public class DTWorker extends
                         if(columnConfig != null && !columnConfig.isMeta() && !columnConfig.isTarget()
                                 && columnConfig.isFinalSelect()) {
                             if(columnConfig.isNumerical()) {
-                                float floatValue = getFloatValue(input);
+                                float floatValue = getFloatValue(index);
                                 // cast is safe as we limit max bin to Short.MAX_VALUE
                                 short binIndex = (short) getBinIndex(floatValue, columnConfig.getBinBoundary());
                                 inputs[inputIndex] = binIndex;
@@ -1190,12 +1218,12 @@ public class DTWorker extends
                             } else if(columnConfig.isCategorical()) {
                                 // cast is safe as we limit max bin to Short.MAX_VALUE
                                 short shortValue = (short) (columnConfig.getBinCategory().size());
-                                if(input.length() == 0) {
+                                if(this.normRecord.isEmpty(index)) {
                                     // empty
                                     shortValue = (short) (columnConfig.getBinCategory().size());
                                 } else {
                                     Integer categoricalIndex = this.columnCategoryIndexMapping
-                                            .get(columnConfig.getColumnNum()).get(input);
+                                            .get(columnConfig.getColumnNum()).get(this.normRecord.getString(index));
                                     if(categoricalIndex == null) {
                                         shortValue = -1; // invalid category, set to -1 for last index
                                     } else {
@@ -1212,13 +1240,12 @@ public class DTWorker extends
                                     this.inputIndexMap.put(columnConfig.getColumnNum(), inputIndex);
                                 }
                             }
-                            hashcode = hashcode * 31 + input.hashCode();
+                            hashcode = hashcode * 31 + this.normRecord.hashCode(index);
                             inputIndex += 1;
                         }
                     }
                 }
             }
-            index += 1;
         }
 
         // output delimiter in norm can be set by user now and if user set a special one later changed, this exception
@@ -1296,9 +1323,8 @@ public class DTWorker extends
         }
     }
 
-    private float getFloatValue(String input) {
-        // check here to avoid bad performance in failed NumberFormatUtils.getFloat(input, 0f)
-        float floatValue = input.length() == 0 ? 0f : NumberFormatUtils.getFloat(input, 0f);
+    private float getFloatValue(int index) {
+        float floatValue = this.normRecord.getFloat(index, 0f);
         // no idea about why NaN in input data, we should process it as missing value TODO , according to norm type
         floatValue = (Float.isNaN(floatValue) || Double.isNaN(floatValue)) ? 0f : floatValue;
         return floatValue;
@@ -27,6 +27,7 @@ import java.util.Map.Entry;
 import ml.shifu.guagua.io.Bytable;
 import ml.shifu.guagua.io.Combinable;
 import ml.shifu.guagua.io.HaltBytable;
+import ml.shifu.shifu.core.dtrain.QuorumStats;
 
 /**
  * Worker result return to master.
@@ -68,6 +69,11 @@ public class DTWorkerParams extends HaltBytable implements Combinable<DTWorkerPa
      */
     private Map<Integer, NodeStats> nodeStatsMap;
 
+    /**
+     * Worker count and the slowest worker of worker results, used by master to track stragglers.
+     */
+    private QuorumStats quorumStats = new QuorumStats();
+
     public DTWorkerParams() {
     }
 
@@ -96,6 +102,7 @@ public class DTWorkerParams extends HaltBytable implements Combinable<DTWorkerPa
                 entry.getValue().write(out);
             }
         }
+        this.quorumStats.write(out);
     }
 
     @Override
@@ -114,6 +121,14 @@ public class DTWorkerParams extends HaltBytable implements Combinable<DTWorkerPa
                 this.nodeStatsMap.put(key, stats);
             }
         }
+        this.quorumStats.readFields(in);
+    }
+
+    /**
+     * @return the quorumStats
+     */
+    public QuorumStats getQuorumStats() {
+        return quorumStats;
     }
 
     /**
@@ -299,6 +314,7 @@ public class DTWorkerParams extends HaltBytable implements Combinable<DTWorkerPa
         this.trainError += that.trainError;
         this.validationCount += that.validationCount;
         this.validationError += that.validationError;
+        this.quorumStats.combine(that.quorumStats);
 
         if(this.nodeStatsMap != null && that.nodeStatsMap != null) {
             for(Entry<Integer, NodeStats> entry: this.nodeStatsMap.entrySet()) {
@@ -400,21 +400,8 @@ public class IndependentTreeModel {
                     predict += score * wgtList.get(j);
                 }
 
-                if(this.isGBTOldSigmoidConvert) {
-                    predict = convertToSigmoid(predict);
-                } else if(this.isGBTSigmoidConvert) {
-                    predict = convertToNewSigmoid(predict);
-                } else if(this.isGBTCutoffConvert) {
-                    predict = cutoffPredict(predict);
-                } else {
-                    // raw score, not to do sth. just to use raw predict score
-                    // here, only SIGMOID, RAW, CUTOFF are supported here since for HALF_CUTOFF and MAXMIN_SCALE are all
-                    // related with max and min score and has been processed in ConfusionMatrix, for HALF_CUTOFF or
-                    // MAXMIN_SCALE, just keep it as raw score here without doing anything
-                }
-
                 // sum all computing scores
-                finalPredict += predict;
+                finalPredict += convertGBTScore(predict);
             }
             // return average bagging score in
             return new double[] { finalPredict / bags };
@@ -444,6 +431,29 @@ public class IndependentTreeModel {
 
     }
 
+    /**
+     * Convert weighted sum of trees in one GBT bag by score convert strategy of this model.
+     * 
+     * @param predict
+     *            weighted sum of tree scores in one bag
+     * @return converted score of such bag
+     */
+    public double convertGBTScore(double predict) {
+        if(this.isGBTOldSigmoidConvert) {
+            return convertToSigmoid(predict);
+        } else if(this.isGBTSigmoidConvert) {
+            return convertToNewSigmoid(predict);
+        } else if(this.isGBTCutoffConvert) {
+            return cutoffPredict(predict);
+        } else {
+            // raw score, not to do sth. just to use raw predict score
+            // here, only SIGMOID, RAW, CUTOFF are supported here since for HALF_CUTOFF and MAXMIN_SCALE are all
+            // related with max and min score and has been processed in ConfusionMatrix, for HALF_CUTOFF or
+            // MAXMIN_SCALE, just keep it as raw score here without doing anything
+            return predict;
+        }
+    }
+
     /**
      * Given {@code dataMap} with format (columnName, value), compute score values of tree model.
      * 
@@ -515,55 +525,92 @@ public class IndependentTreeModel {
 
     private double predictNode(Node topNode, double[] data) {
         Node currNode = topNode;
+        Node nextNode;
         // go until leaf
-        while(currNode.getSplit() != null && !currNode.isRealLeaf()) {
-            Split split = currNode.getSplit();
-            double value = data[this.getColumnIndex(split.getColumnNum())];
-            if(split.getFeatureType() == Split.CONTINUOUS) {
-                // value is real numeric value and no need to transform to binLowestValue
-                if(value < split.getThreshold()) {
-                    currNode = currNode.getLeft();
-                } else {
-                    currNode = currNode.getRight();
-                }
-            } else if(split.getFeatureType() == Split.CATEGORICAL) {
-                short indexValue = -1;
-                int categoricalSize = this.getCategoricalSize(split.getColumnNum());
-                if(Double.compare(value, 0d) < 0 || Double.compare(value, categoricalSize) >= 0) {
-                    indexValue = (short) categoricalSize;
+        while((nextNode = nextNode(currNode, data)) != null) {
+            currNode = nextNode;
+        }
+        return getLeafScore(currNode);
+    }
+
+    /**
+     * Go one step in tree from current node by split of such node.
+     * 
+     * @param currNode
+     *            the current node
+     * @param data
+     *            - double data array (for numerical variable, it is double value, for categorical variable it is index)
+     * @return left or right child by split, or null if current node is leaf
+     */
+    public Node nextNode(Node currNode, double[] data) {
+        if(currNode.getSplit() == null || currNode.isRealLeaf()) {
+            return null;
+        }
+        Split split = currNode.getSplit();
+        double value = data[this.getColumnIndex(split.getColumnNum())];
+        if(split.getFeatureType() == Split.CONTINUOUS) {
+            // value is real numeric value and no need to transform to binLowestValue
+            if(value < split.getThreshold()) {
+                return currNode.getLeft();
+            } else {
+                return currNode.getRight();
+            }
+        } else if(split.getFeatureType() == Split.CATEGORICAL) {
+            short indexValue = -1;
+            int categoricalSize = this.getCategoricalSize(split.getColumnNum());
+            if(Double.compare(value, 0d) < 0 || Double.compare(value, categoricalSize) >= 0) {
+                indexValue = (short) categoricalSize;
+            } else {
+                // value is category index + 0.1d is to avoid 0.9999999 converted to 0, is there?
+                indexValue = (short) (value + 0.1d);
+            }
+            Set<Short> childCategories = split.getLeftOrRightCategories();
+            if(split.isLeft()) {
+                if(childCategories.contains(indexValue)) {
+                    return currNode.getLeft();
                 } else {
-                    // value is category index + 0.1d is to avoid 0.9999999 converted to 0, is there?
-                    indexValue = (short) (value + 0.1d);
+                    return currNode.getRight();
                 }
-                Set<Short> childCategories = split.getLeftOrRightCategories();
-                if(split.isLeft()) {
-                    if(childCategories.contains(indexValue)) {
-                        currNode = currNode.getLeft();
-                    } else {
-                        currNode = currNode.getRight();
-                    }
+            } else {
+                if(childCategories.contains(indexValue)) {
+                    return currNode.getRight();
                 } else {
-                    if(childCategories.contains(indexValue)) {
-                        currNode = currNode.getRight();
-                    } else {
-                        currNode = currNode.getLeft();
-                    }
+                    return currNode.getLeft();
                 }
             }
         }
+        // unknown feature type, stay in current node like before
+        return currNode;
+    }
 
+    /**
+     * @param leaf
+     *            the leaf node
+     * @return class value in classification or predict value in regression of leaf node
+     */
+    public double getLeafScore(Node leaf) {
         if(this.isClassification) {
-            return currNode.getPredict().getClassValue();
+            return leaf.getPredict().getClassValue();
         } else {
-            return currNode.getPredict().getPredict();
+            return leaf.getPredict().getPredict();
         }
     }
 
-    private int getColumnIndex(int columnNum) {
+    /**
+     * @param columnNum
+     *            the column number
+     * @return index of such column in data array of {@link #compute(double[])}
+     */
+    public int getColumnIndex(int columnNum) {
         return (this.isOptimizeMode ? columnNum : this.columnNumIndexMapping.get(columnNum));
     }
 
-    private int getCategoricalSize(int columnNum) {
+    /**
+     * @param columnNum
+     *            the categorical column number
+     * @return category size of such column, category index equal to size is the missing category
+     */
+    public int getCategoricalSize(int columnNum) {
         return (this.isOptimizeMode ? this.categoricalValueSize[columnNum] : categoricalColumnNameNames.get(columnNum)
                 .size());
     }
@@ -571,59 +618,73 @@ public class IndependentTreeModel {
     private double[] convertDataMapToDoubleArray(Map<String, Object> dataMap) {
         double[] data = new double[this.columnNumIndexMapping.size()];
         for(Entry<Integer, Integer> entry: this.columnNumIndexMapping.entrySet()) {
-            double value = 0d;
             Integer columnNum = entry.getKey();
-            String columnName = this.numNameMapping.get(columnNum);
-            Object obj = dataMap.get(columnName);
-            if(this.categoricalColumnNameNames.containsKey(columnNum)) {
-                // categorical column
-                double indexValue = -1d;
-                int categoricalSize = categoricalColumnNameNames.get(columnNum).size();
-                if(obj == null) {
-                    // no matter set it to null or not set it in dataMap, it will be treated as missing value, last one
-                    // is missing value category
-                    indexValue = categoricalSize;
-                } else {
-                    Map<String, Integer> categoryIndexMap = columnCategoryIndexMapping.get(columnNum);
-                    Integer intIndex = categoryIndexMap.get(obj.toString());
-                    if(intIndex == null || intIndex < 0 || intIndex >= categoricalSize) {
-                        // cannot find category, set it to missing bin (last one)
-                        intIndex = categoricalSize;
-                    }
-                    indexValue = intIndex;
+            double value = convertToDataValue(columnNum, dataMap.get(this.numNameMapping.get(columnNum)));
+            Integer index = entry.getValue();
+            if(index != null && index < data.length) {
+                data[index] = value;
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Convert raw value of one column to value in data array of {@link #compute(double[])}: category index for
+     * categorical column and double value for numerical column, missing or invalid values are converted to missing
+     * category or mean value.
+     * 
+     * @param columnNum
+     *            the column number
+     * @param obj
+     *            raw value of such column, null is missing value
+     * @return value in data array
+     */
+    public double convertToDataValue(Integer columnNum, Object obj) {
+        double value = 0d;
+        if(this.categoricalColumnNameNames.containsKey(columnNum)) {
+            // categorical column
+            double indexValue = -1d;
+            int categoricalSize = categoricalColumnNameNames.get(columnNum).size();
+            if(obj == null) {
+                // no matter set it to null or not set it in dataMap, it will be treated as missing value, last one
+                // is missing value category
+                indexValue = categoricalSize;
+            } else {
+                Map<String, Integer> categoryIndexMap = columnCategoryIndexMapping.get(columnNum);
+                Integer intIndex = categoryIndexMap.get(obj.toString());
+                if(intIndex == null || intIndex < 0 || intIndex >= categoricalSize) {
+                    // cannot find category, set it to missing bin (last one)
+                    intIndex = categoricalSize;
                 }
-                value = indexValue;
+                indexValue = intIndex;
+            }
+            value = indexValue;
+        } else {
+            // numerical column
+            if(obj == null || ((obj instanceof String) && ((String) obj).length() == 0)) {
+                // no matter set it to null or not set it in dataMap, it will be treated as missing value, last one
+                // is missing value category
+                value = this.numericalMeanMapping.get(columnNum) == null ? 0d : this.numericalMeanMapping
+                        .get(columnNum);
             } else {
-                // numerical column
-                if(obj == null || ((obj instanceof String) && ((String) obj).length() == 0)) {
-                    // no matter set it to null or not set it in dataMap, it will be treated as missing value, last one
-                    // is missing value category
-                    value = this.numericalMeanMapping.get(columnNum) == null ? 0d : this.numericalMeanMapping
-                            .get(columnNum);
+                if(obj instanceof Number) {
+                    value = ((Number) obj).doubleValue();
                 } else {
-                    if(obj instanceof Number) {
-                        value = ((Number) obj).doubleValue();
-                    } else {
-                        try {
-                            value = Double.parseDouble(obj.toString());
-                        } catch (NumberFormatException e) {
-                            // not valid double value for numerical feature, using default value
-                            value = this.numericalMeanMapping.get(columnNum) == null ? 0d : this.numericalMeanMapping
-                                    .get(columnNum);
-                        }
+                    try {
+                        value = Double.parseDouble(obj.toString());
+                    } catch (NumberFormatException e) {
+                        // not valid double value for numerical feature, using default value
+                        value = this.numericalMeanMapping.get(columnNum) == null ? 0d : this.numericalMeanMapping
+                                .get(columnNum);
                     }
                 }
-                if(Double.isNaN(value)) {
-                    value = this.numericalMeanMapping.get(columnNum) == null ? 0d : this.numericalMeanMapping
-                            .get(columnNum);
-                }
             }
-            Integer index = entry.getValue();
-            if(index != null && index < data.length) {
-                data[index] = value;
+            if(Double.isNaN(value)) {
+                value = this.numericalMeanMapping.get(columnNum) == null ? 0d : this.numericalMeanMapping
+                        .get(columnNum);
             }
         }
-        return data;
+        return value;
     }
 
     /**
@@ -17,6 +17,7 @@ package ml.shifu.shifu.core.dtrain.gs;
 
 import ml.shifu.shifu.container.meta.MetaFactory;
 import ml.shifu.shifu.container.meta.MetaItem;
+import ml.shifu.shifu.core.dtrain.DTrainUtils;
 import ml.shifu.shifu.core.processor.TrainModelProcessor;
 import ml.shifu.shifu.exception.ShifuErrorCode;
 import ml.shifu.shifu.exception.ShifuException;
@@ -261,6 +262,40 @@ public class GridSearch {
         return this.hyperParamCount > 0;
     }
 
+    /**
+     * Check if a parameter is the same in all hyper parameter composites.
+     * 
+     * @param name
+     *            parameter name
+     * @return true if values of the parameter are equal or not set in all composites
+     */
+    public boolean isSameParam(String name) {
+        for(int i = 1; i < this.flattenParams.size(); i++) {
+            Object first = this.flattenParams.get(0).get(name);
+            Object value = this.flattenParams.get(i).get(name);
+            if(first == null ? value != null : !first.equals(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if a numeric parameter is positive in any hyper parameter composite.
+     * 
+     * @param name
+     *            parameter name
+     * @return true if value of the parameter is over 0 in at least one composite
+     */
+    public boolean isPositiveParam(String name) {
+        for(Map<String, Object> params: this.flattenParams) {
+            if(DTrainUtils.getDouble(params, name, 0d) > 0d) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public boolean isGridSearchMode() {
         return this.hyperParamCount > 0;
     }
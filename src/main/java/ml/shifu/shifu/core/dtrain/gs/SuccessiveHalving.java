@@ -0,0 +1,140 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dtrain.gs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Successive halving of grid search trials trained together in one job.
+ * 
+ * <p>
+ * With n trials and reduction factor eta, there are s = ceil(log_eta(n)) rungs before the last epoch and rung k is at
+ * epoch {@code maxEpochs / eta^(s - k)}. At each rung only the best ceil(active / eta) active trials are kept to be
+ * trained, others are stopped. Such 48 trials with eta 3 are stopped to 16, 6, 2 and 1 trials at 1/81, 1/27, 1/9 and
+ * 1/3 of the epochs.
+ * 
+ * <p>
+ * Stopped trials are never restarted, their models are still the best ones before stopping.
+ */
+public class SuccessiveHalving {
+
+    /**
+     * Default reduction factor.
+     */
+    public static final int DEFAULT_ETA = 3;
+
+    private final int eta;
+
+    /**
+     * Epochs in which losing trials are stopped.
+     */
+    private final SortedSet<Integer> rungEpochs = new TreeSet<Integer>();
+
+    private boolean[] stopped;
+
+    /**
+     * @param trials
+     *            number of trials
+     * @param maxEpochs
+     *            epochs of trials which are not stopped
+     * @param eta
+     *            reduction factor, no trial is stopped if it is not over 1
+     */
+    public SuccessiveHalving(int trials, int maxEpochs, int eta) {
+        this.eta = eta;
+        this.stopped = new boolean[trials];
+        if(eta <= 1 || trials <= 1) {
+            return;
+        }
+        int rungs = 0;
+        for(long kept = 1L; kept < trials; kept *= eta) {
+            rungs += 1;
+        }
+        long factor = 1L;
+        for(int i = 0; i < rungs; i++) {
+            factor *= eta;
+            int epoch = (int) (maxEpochs / factor);
+            if(epoch > 0 && epoch < maxEpochs) {
+                this.rungEpochs.add(epoch);
+            }
+        }
+    }
+
+    public boolean isRung(int epoch) {
+        return this.rungEpochs.contains(epoch);
+    }
+
+    /**
+     * Stop losing active trials by current errors of all trials. Errors of stopped trials are ignored and NaN errors
+     * are the worst ones.
+     * 
+     * @param errors
+     *            errors of all trials
+     * @return indexes of trials stopped in this rung
+     */
+    public List<Integer> stopLosers(final double[] errors) {
+        List<Integer> actives = new ArrayList<Integer>();
+        for(int i = 0; i < this.stopped.length; i++) {
+            if(!this.stopped[i]) {
+                actives.add(i);
+            }
+        }
+        // stable sort, trials with the same error are kept by index
+        Collections.sort(actives, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Double.compare(errors[o1], errors[o2]);
+            }
+        });
+
+        int kept = Math.max(1, (actives.size() + this.eta - 1) / this.eta);
+        List<Integer> losers = new ArrayList<Integer>(actives.subList(Math.min(kept, actives.size()),
+                actives.size()));
+        for(Integer loser: losers) {
+            this.stopped[loser] = true;
+        }
+        Collections.sort(losers);
+        return losers;
+    }
+
+    public boolean isStopped(int trial) {
+        return this.stopped[trial];
+    }
+
+    public boolean[] getStopped() {
+        return Arrays.copyOf(this.stopped, this.stopped.length);
+    }
+
+    /**
+     * Recover stopped trials, for example from last master result after master fail-over.
+     */
+    public void setStopped(boolean[] stopped) {
+        if(stopped != null && stopped.length == this.stopped.length) {
+            this.stopped = Arrays.copyOf(stopped, stopped.length);
+        }
+    }
+
+    public SortedSet<Integer> getRungEpochs() {
+        return Collections.unmodifiableSortedSet(this.rungEpochs);
+    }
+
+}
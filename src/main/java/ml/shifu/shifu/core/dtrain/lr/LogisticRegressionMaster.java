@@ -35,6 +35,7 @@ import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
 import ml.shifu.shifu.core.LR;
 import ml.shifu.shifu.core.dtrain.CommonConstants;
 import ml.shifu.shifu.core.dtrain.DTrainUtils;
+import ml.shifu.shifu.core.dtrain.QuorumTracker;
 import ml.shifu.shifu.core.dtrain.RegulationLevel;
 import ml.shifu.shifu.core.dtrain.Weight;
 import ml.shifu.shifu.core.dtrain.earlystop.AbstractEarlyStopStrategy;
@@ -94,6 +95,11 @@ public class LogisticRegressionMaster extends
      */
     private Weight weightCalculator = null;
 
+    /**
+     * Tracks workers reported in each iteration and stragglers.
+     */
+    private QuorumTracker quorumTracker;
+
     /**
      * Model configuration loaded from configuration file.
      */
@@ -137,6 +143,7 @@ public class LogisticRegressionMaster extends
     @Override
     public void init(MasterContext<LogisticRegressionParams, LogisticRegressionParams> context) {
         loadConfigFiles(context.getProps());
+        this.quorumTracker = new QuorumTracker(context.getProps());
         int trainerId = Integer.valueOf(context.getProps().getProperty(CommonConstants.SHIFU_TRAINER_ID, "0"));
 
         GridSearch gs = new GridSearch(modelConfig.getTrain().getParams(), modelConfig.getTrain()
@@ -261,7 +268,17 @@ public class LogisticRegressionMaster extends
                     testError += param.getTestError();
                     trainSize += param.getTrainSize();
                     testSize += param.getTestSize();
+                    this.quorumTracker.add(param.getQuorumStats());
+                }
+            }
+
+            // if master goes on without stragglers, scale gradients and train size as if all workers are reported
+            double scale = this.quorumTracker.finish(context.getCurrentIteration());
+            if(scale != 1d) {
+                for(int i = 0; i < gradients.length; i++) {
+                    gradients[i] *= scale;
                 }
+                trainSize = Math.round(trainSize * scale);
             }
 
             if(this.weightCalculator == null) {
@@ -21,6 +21,7 @@ import java.io.IOException;
 
 import ml.shifu.guagua.io.Combinable;
 import ml.shifu.guagua.io.HaltBytable;
+import ml.shifu.shifu.core.dtrain.QuorumStats;
 
 /**
  * A model class to store logistic regression weight on first iteration by using {@link #parameters}, while in other
@@ -61,6 +62,11 @@ public class LogisticRegressionParams extends HaltBytable implements Combinable<
      */
     private long testSize;
 
+    /**
+     * Worker count and the slowest worker of worker results, used by master to track stragglers.
+     */
+    private QuorumStats quorumStats = new QuorumStats();
+
     public LogisticRegressionParams() {
     }
 
@@ -111,9 +117,17 @@ public class LogisticRegressionParams extends HaltBytable implements Combinable<
         for(int i = 0; i < this.parameters.length; i++) {
             this.parameters[i] += from.parameters[i];
         }
+        this.quorumStats.combine(from.quorumStats);
         return this;
     }
 
+    /**
+     * @return the quorumStats
+     */
+    public QuorumStats getQuorumStats() {
+        return quorumStats;
+    }
+
     @Override
     public void doWrite(DataOutput out) throws IOException {
         if(parameters == null) {
@@ -128,6 +142,7 @@ public class LogisticRegressionParams extends HaltBytable implements Combinable<
         out.writeDouble(this.testError);
         out.writeLong(this.trainSize);
         out.writeLong(this.testSize);
+        this.quorumStats.write(out);
     }
 
     @Override
@@ -141,6 +156,7 @@ public class LogisticRegressionParams extends HaltBytable implements Combinable<
         this.testError = in.readDouble();
         this.trainSize = in.readLong();
         this.testSize = in.readLong();
+        this.quorumStats.readFields(in);
     }
 
     /**
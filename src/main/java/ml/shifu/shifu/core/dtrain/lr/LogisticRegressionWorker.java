@@ -26,7 +26,6 @@ import java.util.Properties;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
-import com.google.common.collect.Lists;
 import ml.shifu.shifu.container.obj.ModelNormalizeConf;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.math3.distribution.PoissonDistribution;
@@ -44,7 +43,6 @@ import ml.shifu.guagua.hadoop.io.GuaguaWritableAdapter;
 import ml.shifu.guagua.io.Bytable;
 import ml.shifu.guagua.io.GuaguaFileSplit;
 import ml.shifu.guagua.util.BytableMemoryDiskList;
-import ml.shifu.guagua.util.NumberFormatUtils;
 import ml.shifu.guagua.worker.AbstractWorkerComputable;
 import ml.shifu.guagua.worker.WorkerContext;
 import ml.shifu.shifu.container.obj.ColumnConfig;
@@ -52,6 +50,9 @@ import ml.shifu.shifu.container.obj.ModelConfig;
 import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
 import ml.shifu.shifu.core.dtrain.CommonConstants;
 import ml.shifu.shifu.core.dtrain.DTrainUtils;
+import ml.shifu.shifu.core.dtrain.dataset.NormBinaryFormat;
+import ml.shifu.shifu.core.dtrain.dataset.NormRecord;
+import ml.shifu.shifu.guagua.GuaguaBinaryNormRecordReader;
 import ml.shifu.shifu.util.CommonUtils;
 import ml.shifu.shifu.util.Constants;
 import ml.shifu.shifu.util.MapReduceUtils;
@@ -141,6 +142,16 @@ public class LogisticRegressionWorker extends
      */
     private Splitter splitter;
 
+    /**
+     * If normalized data is in binary format, see {@link NormBinaryFormat}.
+     */
+    private boolean isBinaryNorm;
+
+    /**
+     * Reusable record of current line in normalized data.
+     */
+    private NormRecord normRecord;
+
     /**
      * PoissonDistribution which is used for poisson sampling for bagging with replacement.
      */
@@ -232,7 +243,12 @@ public class LogisticRegressionWorker extends
 
     @Override
     public void initRecordReader(GuaguaFileSplit fileSplit) throws IOException {
-        this.setRecordReader(new GuaguaLineRecordReader(fileSplit));
+        NormBinaryFormat.checkFileFormat(fileSplit.getPath(), this.isBinaryNorm);
+        if(this.isBinaryNorm) {
+            this.setRecordReader(new GuaguaBinaryNormRecordReader(fileSplit));
+        } else {
+            this.setRecordReader(new GuaguaLineRecordReader(fileSplit));
+        }
     }
 
     @Override
@@ -287,6 +303,8 @@ public class LogisticRegressionWorker extends
         // create Splitter
         String delimiter = context.getProps().getProperty(Constants.SHIFU_OUTPUT_DATA_DELIMITER);
         this.splitter = MapReduceUtils.generateShifuOutputSplitter(delimiter);
+        this.isBinaryNorm = NormBinaryFormat.isBinary(context.getProps());
+        this.normRecord = new NormRecord(this.splitter, this.isBinaryNorm);
 
         // cannot find a good place to close these two data set, using Shutdown hook
         Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
@@ -301,6 +319,17 @@ public class LogisticRegressionWorker extends
     @Override
     public LogisticRegressionParams doCompute(
             WorkerContext<LogisticRegressionParams, LogisticRegressionParams> context) {
+        long start = System.currentTimeMillis();
+        LogisticRegressionParams params = computeParams(context);
+        if(params != null) {
+            // compute time is sent to master to find stragglers
+            params.getQuorumStats().setWorker(context.getContainerId(), System.currentTimeMillis() - start);
+        }
+        return params;
+    }
+
+    private LogisticRegressionParams computeParams(
+            WorkerContext<LogisticRegressionParams, LogisticRegressionParams> context) {
         if(context.isFirstIteration()) {
             return new LogisticRegressionParams();
         } else {
@@ -424,7 +453,6 @@ public class LogisticRegressionWorker extends
         if((this.count) % 100000 == 0) {
             LOG.info("Read {} records.", this.count);
         }
-        String line = currentValue.getWritable().toString();
         float[] inputData = new float[inputNum];
         float[] outputData = new float[outputNum];
         int index = 0, inputIndex = 0, outputIndex = 0;
@@ -432,17 +460,16 @@ public class LogisticRegressionWorker extends
         double significance = CommonConstants.DEFAULT_SIGNIFICANCE_VALUE;
         boolean hasCandidates = CommonUtils.hasCandidateColumns(this.columnConfigList);
 
-        String[] fields = Lists.newArrayList(this.splitter.split(line)).toArray(new String[0]);
+        this.normRecord.parse(currentValue.getWritable());
+        int recordSize = this.normRecord.size();
         int pos = 0;
 
-        for (pos = 0; pos < fields.length; ) {
-            String unit = fields[pos];
-            // check here to avoid bad performance in failed NumberFormatUtils.getFloat(input, 0f)
-            float floatValue = unit.length() == 0 ? 0f : NumberFormatUtils.getFloat(unit, 0f);
+        for (pos = 0; pos < recordSize; ) {
+            float floatValue = this.normRecord.getFloat(pos, 0f);
             // no idea about why NaN in input data, we should process it as missing value TODO , according to norm type
             floatValue = (Float.isNaN(floatValue) || Double.isNaN(floatValue)) ? 0f : floatValue;
 
-            if(pos == fields.length - 1) {
+            if(pos == recordSize - 1) {
                 // do we need to check if not weighted directly set to 1f; if such logic non-weight at first, then
                 // weight, how to process???
                 if(StringUtils.isBlank(modelConfig.getWeightColumnName())) {
@@ -451,8 +478,7 @@ public class LogisticRegressionWorker extends
                     break;
                 }
 
-                // check here to avoid bad performance in failed NumberFormatUtils.getDouble(input, 1)
-                significance = unit.length() == 0 ? 1f : NumberFormatUtils.getDouble(unit, 1d);
+                significance = this.normRecord.getDouble(pos, 1d);
                 // if invalid weight, set it to 1f and warning in log
                 if(Double.compare(significance, 0d) < 0) {
                     LOG.warn("The {} record in current worker weight {} is less than 0f, it is invalid, set it to 1.",
@@ -480,9 +506,7 @@ public class LogisticRegressionWorker extends
                             if ( columnConfig.isNumerical()
                                     && modelConfig.getNormalizeType().equals(ModelNormalizeConf.NormType.ONEHOT) ) {
                                 for(int k = 0; k < columnConfig.getBinBoundary().size() + 1; k++) {
-                                    String tval = fields[pos];
-                                    // check here to avoid bad performance in failed NumberFormatUtils.getFloat(input, 0f)
-                                    float fval = tval.length() == 0 ? 0f : NumberFormatUtils.getFloat(tval, 0f);
+                                    float fval = this.normRecord.getFloat(pos, 0f);
                                     // no idea about why NaN in input data, we should process it as missing value TODO ,
                                     // according to norm type
                                     fval = (Float.isNaN(fval) || Double.isNaN(fval)) ? 0f : fval;
@@ -493,9 +517,7 @@ public class LogisticRegressionWorker extends
                                     && (modelConfig.getNormalizeType().equals(ModelNormalizeConf.NormType.ZSCALE_ONEHOT)
                                     || modelConfig.getNormalizeType().equals(ModelNormalizeConf.NormType.ONEHOT))) {
                                 for(int k = 0; k < columnConfig.getBinCategory().size() + 1; k++) {
-                                    String tval = fields[pos];
-                                    // check here to avoid bad performance in failed NumberFormatUtils.getFloat(input, 0f)
-                                    float fval = tval.length() == 0 ? 0f : NumberFormatUtils.getFloat(tval, 0f);
+                                    float fval = this.normRecord.getFloat(pos, 0f);
                                     // no idea about why NaN in input data, we should process it as missing value TODO ,
                                     // according to norm type
                                     fval = (Float.isNaN(fval) || Double.isNaN(fval)) ? 0f : fval;
@@ -530,11 +552,11 @@ public class LogisticRegressionWorker extends
             index += 1;
         }
 
-        if ( index != this.columnConfigList.size() || pos != fields.length - 1 ) {
+        if ( index != this.columnConfigList.size() || pos != recordSize - 1 ) {
             throw new RuntimeException("Wrong data indexing. ColumnConfig index = " + index
                     + ", while it should be " + columnConfigList.size() + ". "
                     + "Data Pos = " + pos
-                    + ", while it should be " + (fields.length - 1));
+                    + ", while it should be " + (recordSize - 1));
         }
 
         // output delimiter in norm can be set by user now and if user set a special one later changed, this exception
@@ -18,6 +18,7 @@ package ml.shifu.shifu.core.dtrain.nn;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -52,6 +53,7 @@ import ml.shifu.shifu.container.obj.ModelConfig;
 import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
 import ml.shifu.shifu.core.dtrain.CommonConstants;
 import ml.shifu.shifu.core.dtrain.DTrainUtils;
+import ml.shifu.shifu.core.dtrain.dataset.BaggingFloatMLDataSet;
 import ml.shifu.shifu.core.dtrain.dataset.BasicFloatMLData;
 import ml.shifu.shifu.core.dtrain.dataset.BasicFloatMLDataPair;
 import ml.shifu.shifu.core.dtrain.dataset.BasicFloatMLDataSet;
@@ -60,6 +62,8 @@ import ml.shifu.shifu.core.dtrain.dataset.FloatFlatNetwork;
 import ml.shifu.shifu.core.dtrain.dataset.FloatMLDataPair;
 import ml.shifu.shifu.core.dtrain.dataset.FloatMLDataSet;
 import ml.shifu.shifu.core.dtrain.dataset.MemoryDiskFloatMLDataSet;
+import ml.shifu.shifu.core.dtrain.dataset.NormBinaryFormat;
+import ml.shifu.shifu.core.dtrain.dataset.NormRecord;
 import ml.shifu.shifu.core.dtrain.gs.GridSearch;
 import ml.shifu.shifu.util.CommonUtils;
 import ml.shifu.shifu.util.Constants;
@@ -284,6 +288,16 @@ public abstract class AbstractNNWorker<VALUE extends Writable> extends
      */
     protected Splitter splitter;
 
+    /**
+     * If normalized data is in binary format, see {@link NormBinaryFormat}.
+     */
+    protected boolean isBinaryNorm;
+
+    /**
+     * Reusable record of current line in normalization data set
+     */
+    protected NormRecord normRecord;
+
     /**
      * The models is linear model or not
      */
@@ -294,6 +308,50 @@ public abstract class AbstractNNWorker<VALUE extends Writable> extends
      */
     protected boolean hasCandidates = false;
 
+    /**
+     * Number of bagging models trained together in this job, data is loaded once and each bag has its own sample
+     * weights of training records.
+     */
+    protected int bags = 1;
+
+    /**
+     * Bagging sample weights of training records if {@link #bags} is over 1, weight of record i in bag j is at
+     * {@code i * bags + j}.
+     */
+    private byte[] bagSampleWeights = new byte[0];
+
+    /**
+     * Count of training records with bagging sample weights, disk data set count may not be ready in loading.
+     */
+    private long bagSampledCount = 0L;
+
+    /**
+     * NN algorithm runners of each bag if {@link #bags} is over 1.
+     */
+    private ParallelGradient[] bagGradients;
+
+    /**
+     * Train size of each bag, sum of bagging sample weights of training records in the bag.
+     */
+    private long[] bagTrainSizes;
+
+    /**
+     * If bags are grid search trials, all bags are trained on the same data with their own params in
+     * {@link #bagParams}.
+     */
+    private boolean isGridSearchBags = false;
+
+    /**
+     * Model params of each bag, the same as {@link #validParams} except in grid search trials.
+     */
+    private List<Map<String, Object>> bagParams;
+
+    /**
+     * Start index of each bag in concatenated weights, bag sizes are different if network structures of grid search
+     * trials are different.
+     */
+    private int[] bagWeightOffsets;
+
     protected boolean isUpSampleEnabled() {
         // only enabled in regression
         return this.upSampleRng != null && (modelConfig.isRegression()
@@ -373,6 +431,17 @@ public abstract class AbstractNNWorker<VALUE extends Writable> extends
             LOG.info("Cross validation is enabled by kCrossValidation: {}.", kCrossValidation);
         }
 
+        this.bags = Math.max(1, Integer.parseInt(context.getProps().getProperty(CommonConstants.SHIFU_NN_BAGS, "1")));
+        LOG.info("Bags trained in worker: {}", this.bags);
+        if(this.bags > 1) {
+            this.isGridSearchBags = gs.hasHyperParam() && Boolean.TRUE.toString()
+                    .equalsIgnoreCase(context.getProps().getProperty(CommonConstants.SHIFU_NN_BAG_GRID_SEARCH));
+            this.bagParams = new ArrayList<Map<String, Object>>(this.bags);
+            for(int i = 0; i < this.bags; i++) {
+                this.bagParams.add(this.isGridSearchBags ? gs.getParams(i) : this.validParams);
+            }
+        }
+
         this.poissonSampler = Boolean.TRUE.toString()
                 .equalsIgnoreCase(context.getProps().getProperty(NNConstants.NN_POISON_SAMPLER));
         this.rng = new PoissonDistribution(1.0d);
@@ -510,6 +579,8 @@ public abstract class AbstractNNWorker<VALUE extends Writable> extends
         // create Splitter
         String delimiter = context.getProps().getProperty(Constants.SHIFU_OUTPUT_DATA_DELIMITER);
         this.splitter = MapReduceUtils.generateShifuOutputSplitter(delimiter);
+        this.isBinaryNorm = NormBinaryFormat.isBinary(context.getProps());
+        this.normRecord = new NormRecord(this.splitter, this.isBinaryNorm);
     }
 
     private boolean isOnDisk() {
@@ -519,6 +590,16 @@ public abstract class AbstractNNWorker<VALUE extends Writable> extends
 
     @Override
     public NNParams doCompute(WorkerContext<NNParams, NNParams> context) {
+        long start = System.currentTimeMillis();
+        NNParams params = computeParams(context);
+        if(params != null) {
+            // compute time is sent to master to find stragglers
+            params.getQuorumStats().setWorker(context.getContainerId(), System.currentTimeMillis() - start);
+        }
+        return params;
+    }
+
+    private NNParams computeParams(WorkerContext<NNParams, NNParams> context) {
         // For dry option, return empty result.
         // For first iteration, we don't do anything, just wait for master to update weights in next iteration. This
         // make sure all workers in the 1st iteration to get the same weights.
@@ -533,6 +614,10 @@ public abstract class AbstractNNWorker<VALUE extends Writable> extends
         }
         LOG.debug("Set current model with params {}", context.getLastMasterResult());
 
+        if(this.bags > 1) {
+            return doBagsCompute(context);
+        }
+
         // initialize gradients if null
         double[] weights = context.getLastMasterResult().getWeights();
         if(gradient == null) {
@@ -587,18 +672,148 @@ public abstract class AbstractNNWorker<VALUE extends Writable> extends
         return params;
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Compute gradients of all bags, weights from master are concatenated weights of all bags and the returned
+     * gradients are concatenated in the same order. All bags read the same loaded data by
+     * {@link BaggingFloatMLDataSet} views with bagging sample weights of each bag, or read the same training data
+     * directly if bags are grid search trials. Bags stopped by master are skipped with zero gradients.
+     */
+    private NNParams doBagsCompute(WorkerContext<NNParams, NNParams> context) {
+        NNParams lastMasterResult = context.getLastMasterResult();
+        double[] weights = lastMasterResult.getWeights();
+        if(this.bagGradients == null) {
+            this.bagGradients = new ParallelGradient[this.bags];
+            this.bagWeightOffsets = new int[this.bags + 1];
+            for(int i = 0; i < this.bags; i++) {
+                FloatMLDataSet bagTrainingData = this.isGridSearchBags ? this.trainingData
+                        : new BaggingFloatMLDataSet(this.trainingData, this.bagSampleWeights, this.bags, i);
+                this.bagGradients[i] = createGradient(bagTrainingData, this.validationData, null, this.isCrossOver,
+                        this.bagParams.get(i));
+                this.bagWeightOffsets[i + 1] = this.bagWeightOffsets[i]
+                        + this.bagGradients[i].getNetwork().getWeights().length;
+            }
+            if(this.bagWeightOffsets[this.bags] != weights.length) {
+                throw new IllegalStateException("Weights of all bags are " + this.bagWeightOffsets[this.bags]
+                        + " while master weights are " + weights.length);
+            }
+            this.bagTrainSizes = computeBagTrainSizes();
+            // register call back for shut down thread pools.
+            context.addCompletionCallBack(new WorkerCompletionCallBack<NNParams, NNParams>() {
+                @Override
+                public void callback(WorkerContext<NNParams, NNParams> context) {
+                    for(ParallelGradient bagGradient: AbstractNNWorker.this.bagGradients) {
+                        bagGradient.shutdown();
+                    }
+                }
+            });
+        }
+
+        Set<Integer> dropoutNodes = lastMasterResult.getDropoutNodes();
+        double[] gradients = new double[weights.length];
+        double[] bagTrainErrors = new double[this.bags];
+        double[] bagTestErrors = new double[this.bags];
+        double trainError = 0d, testError = 0d;
+        int activeBags = 0;
+        for(int i = 0; i < this.bags; i++) {
+            if(lastMasterResult.isBagStopped(i)) {
+                continue;
+            }
+            int from = this.bagWeightOffsets[i], to = this.bagWeightOffsets[i + 1];
+            ParallelGradient bagGradient = this.bagGradients[i];
+            if(this.isCrossOver) {
+                // each iteration reset seed
+                bagGradient.setSeed(System.currentTimeMillis());
+            }
+            bagGradient.getNetwork().setWeights(Arrays.copyOfRange(weights, from, to));
+            double[] bagGradientValues = null;
+            for(int j = 0; j < epochsPerIteration; j++) {
+                bagGradientValues = bagGradient.computeGradients(context.getCurrentIteration(), dropoutNodes);
+                if(this.epochsPerIteration > 1) {
+                    bagGradient.resetNetworkWeights();
+                }
+            }
+            System.arraycopy(bagGradientValues, 0, gradients, from, to - from);
+
+            bagTrainErrors[i] = bagGradient.getTrainError();
+            bagTestErrors[i] = this.validationData.getRecordCount() > 0 ? bagGradient.calculateError()
+                    : bagTrainErrors[i];
+            trainError += bagTrainErrors[i];
+            testError += bagTestErrors[i];
+            activeBags += 1;
+        }
+        if(activeBags > 0) {
+            trainError /= activeBags;
+            testError /= activeBags;
+        }
+        LOG.info("NNWorker compute iteration {} (bag train errors {} bag validation errors {})",
+                new Object[] { context.getCurrentIteration(), Arrays.toString(bagTrainErrors),
+                        (this.validationData.getRecordCount() > 0 ? Arrays.toString(bagTestErrors) : "N/A") });
+
+        NNParams params = new NNParams();
+        params.setTestError(testError);
+        params.setTrainError(trainError);
+        params.setBagTestErrors(bagTestErrors);
+        params.setBagTrainErrors(bagTrainErrors);
+        params.setBagTrainSizes(Arrays.copyOf(this.bagTrainSizes, this.bags));
+        params.setGradients(gradients);
+        // prevent null point;
+        params.setWeights(new double[0]);
+        params.setTrainSize(this.trainingData.getRecordCount());
+        params.setCount(count);
+        return params;
+    }
+
+    private long[] computeBagTrainSizes() {
+        long[] trainSizes = new long[this.bags];
+        long recordCount = this.trainingData.getRecordCount();
+        if(!isBagSampling()) {
+            // grid search trials are trained on the same records
+            Arrays.fill(trainSizes, recordCount);
+            return trainSizes;
+        }
+        for(long i = 0; i < recordCount; i++) {
+            int offset = (int) (i * this.bags);
+            for(int j = 0; j < this.bags; j++) {
+                trainSizes[j] += this.bagSampleWeights[offset + j];
+            }
+        }
+        return trainSizes;
+    }
+
     private void initGradient(FloatMLDataSet training, FloatMLDataSet testing, double[] weights, boolean isCrossOver) {
-        int numLayers = (Integer) this.validParams.get(CommonConstants.NUM_HIDDEN_LAYERS);
-        List<String> actFunc = (List<String>) this.validParams.get(CommonConstants.ACTIVATION_FUNC);
-        List<Integer> hiddenNodeList = (List<Integer>) this.validParams.get(CommonConstants.NUM_HIDDEN_NODES);
+        this.gradient = createGradient(training, testing, weights, isCrossOver, this.validParams);
+    }
+
+    /**
+     * Create NN algorithm runner with network structure and loss in params.
+     * 
+     * @param weights
+     *            weights from master, or null if weights are set later
+     */
+    @SuppressWarnings("unchecked")
+    private ParallelGradient createGradient(FloatMLDataSet training, FloatMLDataSet testing, double[] weights,
+            boolean isCrossOver, Map<String, Object> params) {
+        int numLayers = (Integer) params.get(CommonConstants.NUM_HIDDEN_LAYERS);
+        List<String> actFunc = (List<String>) params.get(CommonConstants.ACTIVATION_FUNC);
+        List<Integer> hiddenNodeList = (List<Integer>) params.get(CommonConstants.NUM_HIDDEN_NODES);
+
+        double netDropoutRate = this.dropoutRate;
+        String netLossStr = this.lossStr;
+        if(params != this.validParams) {
+            Object dropoutRateObj = params.get(CommonConstants.DROPOUT_RATE);
+            netDropoutRate = dropoutRateObj == null ? 0d : Double.valueOf(dropoutRateObj.toString());
+            Object lossObj = params.get("Loss");
+            netLossStr = lossObj != null ? lossObj.toString() : "squared";
+        }
 
-        String outputActivationFunc = (String) validParams.get(CommonConstants.OUTPUT_ACTIVATION_FUNC);
+        String outputActivationFunc = (String) params.get(CommonConstants.OUTPUT_ACTIVATION_FUNC);
         BasicNetwork network = DTrainUtils.generateNetwork(this.featureInputsCnt, this.outputNodeCount, numLayers,
-                actFunc, hiddenNodeList, false, this.dropoutRate, this.wgtInit,
+                actFunc, hiddenNodeList, false, netDropoutRate, this.wgtInit,
                 CommonUtils.isLinearTarget(modelConfig, columnConfigList), outputActivationFunc);
-        // use the weights from master
-        network.getFlat().setWeights(weights);
+        if(weights != null) {
+            // use the weights from master
+            network.getFlat().setWeights(weights);
+        }
 
         FlatNetwork flat = network.getFlat();
         // copy Propagation from encog, fix flat spot problem
@@ -609,9 +824,8 @@ public abstract class AbstractNNWorker<VALUE extends Writable> extends
         }
         LOG.info("Gradient computing thread count is {}.", modelConfig.getTrain().getWorkerThreadCount());
 
-        this.gradient = new ParallelGradient((FloatFlatNetwork) flat, training, testing, flatSpot,
-                new LinearErrorFunction(), isCrossOver, modelConfig.getTrain().getWorkerThreadCount(), this.lossStr,
-                this.batchs);
+        return new ParallelGradient((FloatFlatNetwork) flat, training, testing, flatSpot, new LinearErrorFunction(),
+                isCrossOver, modelConfig.getTrain().getWorkerThreadCount(), netLossStr, this.batchs);
     }
 
     private NNParams buildEmptyNNParams(WorkerContext<NNParams, NNParams> workerContext) {
@@ -620,6 +834,12 @@ public abstract class AbstractNNWorker<VALUE extends Writable> extends
         params.setGradients(new double[0]);
         params.setTestError(NNConstants.DRY_ERROR);
         params.setTrainError(NNConstants.DRY_ERROR);
+        if(this.bags > 1) {
+            double[] bagErrors = new double[this.bags];
+            Arrays.fill(bagErrors, NNConstants.DRY_ERROR);
+            params.setBagTrainErrors(bagErrors);
+            params.setBagTestErrors(Arrays.copyOf(bagErrors, this.bags));
+        }
         return params;
     }
 
@@ -665,27 +885,70 @@ public abstract class AbstractNNWorker<VALUE extends Writable> extends
         }
     }
 
+    /**
+     * Sample weights of the last record added into training data set for all bags, only used if {@link #bags} is over
+     * 1. Significance of the record is not changed and bagging weights are applied by {@link BaggingFloatMLDataSet}.
+     * 
+     * @param label
+     *            the label of the record
+     * @return sample weight of the record in first bag
+     */
+    protected float sampleBagWeights(float label) {
+        int offset = (int) (this.bagSampledCount * this.bags);
+        this.bagSampledCount += 1L;
+        if(offset + this.bags > this.bagSampleWeights.length) {
+            this.bagSampleWeights = Arrays.copyOf(this.bagSampleWeights,
+                    Math.max(offset + this.bags, this.bagSampleWeights.length * 2));
+        }
+        for(int i = 0; i < this.bags; i++) {
+            this.bagSampleWeights[offset + i] = (byte) Math.min(sampleWeights(label, i), Byte.MAX_VALUE);
+        }
+        return this.bagSampleWeights[offset];
+    }
+
     protected float sampleWeights(float label) {
+        return sampleWeights(label, 0);
+    }
+
+    /**
+     * @return if each bag has its own bagging sample weights by {@link #sampleBagWeights(float)}, grid search trials
+     *         are trained on the same sampled data
+     */
+    protected boolean isBagSampling() {
+        return this.bags > 1 && !this.isGridSearchBags;
+    }
+
+    /**
+     * Bagging sample weight of one record in one bag, each bag and each class if stratified sampling has its own random
+     * instance. If bagging sample seed is set, bag i uses seed + i.
+     */
+    protected float sampleWeights(float label, int bag) {
         float sampleWeights = 1f;
         // sample negative or kFoldCV, sample rate is 1d
         double sampleRate = (modelConfig.getTrain().getSampleNegOnly() || this.isKFoldCV) ? 1d
                 : modelConfig.getTrain().getBaggingSampleRate();
         int classValue = (int) (label + 0.01f);
+        // keys of random maps, same as class value if only one bag
+        int classKey = classValue * this.bags + bag;
         if(!modelConfig.isBaggingWithReplacement()) {
+            long sampleSeed = modelConfig.getTrain().getBaggingSampleSeed();
+            if(sampleSeed != CommonConstants.NOT_CONFIGURED_BAGGING_SEED) {
+                sampleSeed += bag;
+            }
             Random random = null;
             if(this.isStratifiedSampling) {
-                random = baggingRandomMap.get(classValue);
+                random = baggingRandomMap.get(classKey);
                 if(random == null) {
-                    random = DTrainUtils.generateRandomBySampleSeed(modelConfig.getTrain().getBaggingSampleSeed(),
+                    random = DTrainUtils.generateRandomBySampleSeed(sampleSeed,
                             CommonConstants.NOT_CONFIGURED_BAGGING_SEED);
-                    baggingRandomMap.put(classValue, random);
+                    baggingRandomMap.put(classKey, random);
                 }
             } else {
-                random = baggingRandomMap.get(0);
+                random = baggingRandomMap.get(bag);
                 if(random == null) {
-                    random = DTrainUtils.generateRandomBySampleSeed(modelConfig.getTrain().getBaggingSampleSeed(),
+                    random = DTrainUtils.generateRandomBySampleSeed(sampleSeed,
                             CommonConstants.NOT_CONFIGURED_BAGGING_SEED);
-                    baggingRandomMap.put(0, random);
+                    baggingRandomMap.put(bag, random);
                 }
             }
             if(random.nextDouble() <= sampleRate) {
@@ -697,17 +960,17 @@ public abstract class AbstractNNWorker<VALUE extends Writable> extends
             // bagging with replacement sampling in training data set, take PoissonDistribution for sampling with
             // replacement
             if(this.isStratifiedSampling) {
-                PoissonDistribution rng = this.baggingRngMap.get(classValue);
+                PoissonDistribution rng = this.baggingRngMap.get(classKey);
                 if(rng == null) {
                     rng = new PoissonDistribution(sampleRate);
-                    this.baggingRngMap.put(classValue, rng);
+                    this.baggingRngMap.put(classKey, rng);
                 }
                 sampleWeights = rng.sample();
             } else {
-                PoissonDistribution rng = this.baggingRngMap.get(0);
+                PoissonDistribution rng = this.baggingRngMap.get(bag);
                 if(rng == null) {
                     rng = new PoissonDistribution(sampleRate);
-                    this.baggingRngMap.put(0, rng);
+                    this.baggingRngMap.put(bag, rng);
                 }
                 sampleWeights = rng.sample();
             }
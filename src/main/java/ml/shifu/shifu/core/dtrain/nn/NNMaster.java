@@ -27,6 +27,8 @@ import java.util.Set;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.encog.ml.BasicML;
 import org.encog.neural.flat.FlatNetwork;
@@ -43,6 +45,7 @@ import ml.shifu.shifu.container.obj.ModelConfig;
 import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
 import ml.shifu.shifu.core.dtrain.CommonConstants;
 import ml.shifu.shifu.core.dtrain.DTrainUtils;
+import ml.shifu.shifu.core.dtrain.QuorumTracker;
 import ml.shifu.shifu.core.dtrain.RegulationLevel;
 import ml.shifu.shifu.core.dtrain.Weight;
 import ml.shifu.shifu.core.dtrain.dataset.BasicFloatNetwork;
@@ -68,6 +71,14 @@ import ml.shifu.shifu.util.NormalUtils;
  *
  * <p>
  * Make sure workers and master use the same initialization weights.
+ * 
+ * <p>
+ * If several bagging models are trained in one job, weights and gradients are concatenated by bags and each bag has
+ * its own {@link Weight} to update its weights.
+ * 
+ * <p>
+ * Grid search trials can also be trained as bags in one job, each trial has its own network structure and update
+ * params and losing trials are stopped early by {@link SuccessiveHalving}.
  */
 public class NNMaster extends AbstractMasterComputable<NNParams, NNParams> {
 
@@ -84,9 +95,46 @@ public class NNMaster extends AbstractMasterComputable<NNParams, NNParams> {
     private ModelConfig modelConfig;
 
     /**
-     * To calculate weights according to last weights and accumulated gradients
+     * To calculate weights according to last weights and accumulated gradients, one for each bag
+     */
+    private Weight[] weightCalculators = null;
+
+    /**
+     * Tracks workers reported in each iteration and stragglers.
+     */
+    private QuorumTracker quorumTracker;
+
+    /**
+     * Number of bagging models trained together in this job.
+     */
+    private int bags = 1;
+
+    /**
+     * Model params of each bag if {@link #bags} is over 1, different only if bags are grid search trials.
+     */
+    private List<Map<String, Object>> bagParams;
+
+    /**
+     * Start index of each bag in concatenated weights.
+     */
+    private int[] bagWeightOffsets;
+
+    /**
+     * Real learning rate of each bag.
+     */
+    private double[] bagLearningRates;
+
+    /**
+     * Last errors of each bag, errors of stopped bags are not changed any more.
+     */
+    private double[] lastBagTrainErrors;
+
+    private double[] lastBagTestErrors;
+
+    /**
+     * Successive halving to stop losing grid search trials, null if bags are not grid search trials.
      */
-    private Weight weightCalculator = null;
+    private SuccessiveHalving halving;
 
     /**
      * Column configuration loaded from configuration file.
@@ -230,6 +278,9 @@ public class NNMaster extends AbstractMasterComputable<NNParams, NNParams> {
 
         double totalTestError = 0;
         double totalTrainError = 0;
+        double[] totalBagTestErrors = new double[this.bags];
+        double[] totalBagTrainErrors = new double[this.bags];
+        long[] totalBagTrainSizes = new long[this.bags];
         int size = 0;
 
         // before accumulate, reset gradients and train size
@@ -240,7 +291,17 @@ public class NNMaster extends AbstractMasterComputable<NNParams, NNParams> {
         for(NNParams nn : context.getWorkerResults()) {
             totalTestError += nn.getTestError();
             totalTrainError += nn.getTrainError();
+            for(int i = 0; i < nn.getBagTestErrors().length && i < this.bags; i++) {
+                totalBagTestErrors[i] += nn.getBagTestErrors()[i];
+                totalBagTrainErrors[i] += nn.getBagTrainErrors()[i];
+            }
+            for(int i = 0; i < this.bags; i++) {
+                // each bag has its own sampled records
+                totalBagTrainSizes[i] += i < nn.getBagTrainSizes().length ? nn.getBagTrainSizes()[i]
+                        : nn.getTrainSize();
+            }
             this.globalNNParams.accumulateGradients(nn.getGradients());
+            this.quorumTracker.add(nn.getQuorumStats());
             this.globalNNParams.accumulateTrainSize(nn.getTrainSize());
             totalCount += nn.getCount();
             // original worker count before combinable
@@ -256,28 +317,73 @@ public class NNMaster extends AbstractMasterComputable<NNParams, NNParams> {
             throw new IllegalArgumentException("workers' results are empty.");
         }
 
+        // if master goes on without stragglers, scale gradients and train sizes as if all workers are reported
+        double scale = this.quorumTracker.finish(context.getCurrentIteration());
+        if(scale != 1d) {
+            double[] gradients = this.globalNNParams.getGradients();
+            for(int i = 0; i < gradients.length; i++) {
+                gradients[i] *= scale;
+            }
+            this.globalNNParams.setTrainSize(Math.round(this.globalNNParams.getTrainSize() * scale));
+            for(int i = 0; i < this.bags; i++) {
+                totalBagTrainSizes[i] = Math.round(totalBagTrainSizes[i] * scale);
+            }
+        }
+
         // initialize weightCalCulater.
-        if(this.weightCalculator == null) {
+        if(this.weightCalculators == null) {
             this.learningRate = this.rawLearningRate;
-            this.weightCalculator = new Weight(this.globalNNParams.getGradients().length,
-                    this.globalNNParams.getTrainSize(), learningRate, propagation, this.regularizedConstant,
-                    RegulationLevel.to(this.validParams.get(CommonConstants.REG_LEVEL_KEY)), this.propagation,
-                    this.momentum, this.learningDecay, this.adamBeta1, this.adamBeta2, this.fixedWeightIndexSet);
+            this.weightCalculators = new Weight[this.bags];
+            if(this.bags == 1) {
+                this.weightCalculators[0] = new Weight(this.globalNNParams.getGradients().length,
+                        this.globalNNParams.getTrainSize(), learningRate, propagation, this.regularizedConstant,
+                        RegulationLevel.to(this.validParams.get(CommonConstants.REG_LEVEL_KEY)), this.propagation,
+                        this.momentum, this.learningDecay, this.adamBeta1, this.adamBeta2, this.fixedWeightIndexSet);
+            } else {
+                for(int i = 0; i < this.bags; i++) {
+                    this.weightCalculators[i] = createBagWeight(i, totalBagTrainSizes[i]);
+                }
+            }
         } else {
             this.learningRate = this.learningRate * (1.0d - this.learningDecay);
             // without learningDecay Parameter using sqrt(iteration number) to decrease learning rate
             // this.learningRate = this.learningRate / Math.sqrt(context.getCurrentIteration() -1);
-            this.weightCalculator.setLearningRate(this.learningRate);
-            this.weightCalculator.setNumTrainSize(this.globalNNParams.getTrainSize());
+            if(this.bags == 1) {
+                this.weightCalculators[0].setLearningRate(this.learningRate);
+                this.weightCalculators[0].setNumTrainSize(this.globalNNParams.getTrainSize());
+            } else {
+                for(int i = 0; i < this.bags; i++) {
+                    this.bagLearningRates[i] = this.bagLearningRates[i]
+                            * (1.0d - getBagDouble(i, CommonConstants.LEARNING_DECAY, this.learningDecay, 0d));
+                    this.weightCalculators[i].setLearningRate(this.bagLearningRates[i]);
+                    this.weightCalculators[i].setNumTrainSize(totalBagTrainSizes[i]);
+                }
+            }
         }
 
         double[] oldWeights = Arrays.copyOf(this.globalNNParams.getWeights(), this.globalNNParams.getWeights().length);
 
         // use last weights and current gradients to calculate, current iteration - 1 to remove 1st iteration for worker
         // data reading
-        double[] weights = this.weightCalculator
-                .calculateWeights(this.globalNNParams.getWeights(), this.globalNNParams.getGradients(),
+        double[] weights;
+        if(this.bags == 1) {
+            weights = this.weightCalculators[0].calculateWeights(this.globalNNParams.getWeights(),
+                    this.globalNNParams.getGradients(), (context.getCurrentIteration() - 1));
+        } else {
+            weights = this.globalNNParams.getWeights();
+            for(int i = 0; i < this.bags; i++) {
+                if(this.halving != null && this.halving.isStopped(i)) {
+                    // weights of stopped trials are not changed
+                    continue;
+                }
+                int from = this.bagWeightOffsets[i], to = this.bagWeightOffsets[i + 1];
+                double[] bagWeights = this.weightCalculators[i].calculateWeights(
+                        Arrays.copyOfRange(weights, from, to),
+                        Arrays.copyOfRange(this.globalNNParams.getGradients(), from, to),
                         (context.getCurrentIteration() - 1));
+                System.arraycopy(bagWeights, 0, weights, from, to - from);
+            }
+        }
 
         if(LOG.isDebugEnabled()) {
             logSameWeights(oldWeights, weights);
@@ -299,10 +405,33 @@ public class NNMaster extends AbstractMasterComputable<NNParams, NNParams> {
         NNParams params = new NNParams();
         params.setTrainError(currentTrainError);
         params.setTestError(currentTestError);
+        if(this.bags > 1) {
+            for(int i = 0; i < this.bags; i++) {
+                if(this.halving != null && this.halving.isStopped(i)) {
+                    continue;
+                }
+                this.lastBagTestErrors[i] = totalBagTestErrors[i] / totalWorkerCount;
+                this.lastBagTrainErrors[i] = totalBagTrainErrors[i] / totalWorkerCount;
+            }
+            params.setBagTestErrors(Arrays.copyOf(this.lastBagTestErrors, this.bags));
+            params.setBagTrainErrors(Arrays.copyOf(this.lastBagTrainErrors, this.bags));
+            if(this.halving != null) {
+                int epoch = context.getCurrentIteration() - 1;
+                if(this.halving.isRung(epoch)) {
+                    // same error as NNOutput to pick the best weights
+                    List<Integer> losers = this.halving.stopLosers(
+                            this.modelConfig.getTrain().getValidSetRate() < 0.0000001d ? this.lastBagTrainErrors
+                                    : this.lastBagTestErrors);
+                    LOG.info("Grid search trials {} are stopped by successive halving at epoch {}.", losers, epoch);
+                }
+                params.setBagStopped(this.halving.getStopped());
+            }
+        }
         // prevent null point
         params.setGradients(new double[0]);
         params.setWeights(weights);
-        if(this.dropoutRate > 0d) {
+        // dropout nodes are picked by network of the first trial, not valid for other grid search trials
+        if(this.dropoutRate > 0d && this.halving == null) {
             params.setDropoutNodes(dropoutNodes());
         }
         LOG.debug("master result {} in iteration {}", params, context.getCurrentIteration());
@@ -361,6 +490,70 @@ public class NNMaster extends AbstractMasterComputable<NNParams, NNParams> {
         return params;
     }
 
+    /**
+     * Recover weights of all bags from the latest tmp models saved by {@link NNOutput}, each tmp model is put at its
+     * bag offset of concatenated weights. Bag model paths are not used as they keep the best weights, not the last
+     * ones. Bags without tmp model restart from random weights. Successive halving state is not in tmp models,
+     * stopped grid search trials are trained again and ranked at next rung.
+     */
+    private NNParams recoverBagParams(MasterContext<NNParams, NNParams> context) {
+        NNParams params = initWeights();
+        String tmpModelsFolder = context.getProps().getProperty(CommonConstants.SHIFU_TMP_MODELS_FOLDER);
+        if(StringUtils.isBlank(tmpModelsFolder)) {
+            throw new GuaguaRuntimeException("Tmp models folder is not set, cannot recover master of " + this.bags
+                    + " bags from checkpoint models.");
+        }
+        double[] weights = params.getWeights();
+        try {
+            FileSystem fs = ShifuFileUtils.getFileSystemBySourceType(this.modelConfig.getDataSet().getSource());
+            for(int i = 0; i < this.bags; i++) {
+                Path modelPath = getLatestTmpModel(fs, tmpModelsFolder, i);
+                BasicML basicML = modelPath == null ? null
+                        : ModelSpecLoaderUtils.loadModel(modelConfig, modelPath, fs);
+                BasicNetwork network = basicML == null ? null : ModelSpecLoaderUtils.getBasicNetwork(basicML);
+                int weightsLen = this.bagWeightOffsets[i + 1] - this.bagWeightOffsets[i];
+                if(network == null || network.getFlat().getWeights().length != weightsLen) {
+                    LOG.warn("No checkpoint model of bag {} in {}, bag {} is restarted from random weights.", i,
+                            tmpModelsFolder, i);
+                    continue;
+                }
+                System.arraycopy(network.getFlat().getWeights(), 0, weights, this.bagWeightOffsets[i], weightsLen);
+                LOG.info("Bag {} is recovered from checkpoint model {}.", i, modelPath);
+            }
+        } catch (IOException e) {
+            throw new GuaguaRuntimeException(e);
+        }
+        if(this.halving != null) {
+            LOG.warn("Successive halving state is not recovered, all {} grid search trials are trained until next "
+                    + "rung.", this.bags);
+        }
+        return params;
+    }
+
+    /**
+     * Tmp model of the bag with the largest iteration, tmp model names are like 'model{bag}-{iteration}.nn'.
+     */
+    private Path getLatestTmpModel(FileSystem fs, String tmpModelsFolder, int bag) throws IOException {
+        String prefix = "model" + bag + "-";
+        FileStatus[] fileStatuses = fs.globStatus(new Path(tmpModelsFolder, prefix + "*"));
+        if(fileStatuses == null) {
+            return null;
+        }
+        Path latest = null;
+        int latestIteration = -1;
+        for(FileStatus fileStatus: fileStatuses) {
+            String name = fileStatus.getPath().getName();
+            int dotIndex = name.indexOf('.', prefix.length());
+            int iteration = NumberFormatUtils.getInt(
+                    name.substring(prefix.length(), dotIndex < 0 ? name.length() : dotIndex), -1);
+            if(iteration > latestIteration) {
+                latestIteration = iteration;
+                latest = fileStatus.getPath();
+            }
+        }
+        return latest;
+    }
+
     @SuppressWarnings({ "unchecked" })
     private NNParams initWeights() {
         NNParams params = new NNParams();
@@ -388,11 +581,23 @@ public class NNMaster extends AbstractMasterComputable<NNParams, NNParams> {
 
         this.flatNetwork = (FloatFlatNetwork) network.getFlat();
 
+        double[] weights = network.getFlat().getWeights();
+        if(this.bags > 1) {
+            // each bag is initialized by its own random weights
+            double[] bagsWeights = new double[this.bagWeightOffsets[this.bags]];
+            for(int i = 0; i < this.bags; i++) {
+                double[] bagWeights = (i == 0 && this.bagParams.get(i) == this.validParams) ? weights
+                        : generateBagNetwork(i, true).getFlat().getWeights();
+                System.arraycopy(bagWeights, 0, bagsWeights, this.bagWeightOffsets[i], bagWeights.length);
+            }
+            weights = bagsWeights;
+        }
+
         params.setTrainError(0);
         params.setTestError(0);
         // prevent null point
         params.setGradients(new double[0]);
-        params.setWeights(network.getFlat().getWeights());
+        params.setWeights(weights);
         return params;
     }
 
@@ -400,6 +605,7 @@ public class NNMaster extends AbstractMasterComputable<NNParams, NNParams> {
     @Override
     public void init(MasterContext<NNParams, NNParams> context) {
         Properties props = context.getProps();
+        this.quorumTracker = new QuorumTracker(props);
         try {
             SourceType sourceType = SourceType
                     .valueOf(props.getProperty(CommonConstants.MODELSET_SOURCE_TYPE, SourceType.HDFS.toString()));
@@ -414,6 +620,8 @@ public class NNMaster extends AbstractMasterComputable<NNParams, NNParams> {
         }
 
         int trainerId = Integer.valueOf(context.getProps().getProperty(CommonConstants.SHIFU_TRAINER_ID, "0"));
+        this.bags = Math.max(1, Integer.parseInt(props.getProperty(CommonConstants.SHIFU_NN_BAGS, "1")));
+        LOG.info("Bags trained in master: {}", this.bags);
         GridSearch gs = new GridSearch(modelConfig.getTrain().getParams(),
                 modelConfig.getTrain().getGridConfigFileContent());
         validParams = this.modelConfig.getTrain().getParams();
@@ -421,6 +629,27 @@ public class NNMaster extends AbstractMasterComputable<NNParams, NNParams> {
             validParams = gs.getParams(trainerId);
             LOG.info("Start grid search master with params: {}", validParams);
         }
+        boolean isGridSearchBags = this.bags > 1 && gs.hasHyperParam()
+                && Boolean.TRUE.toString().equalsIgnoreCase(props.getProperty(CommonConstants.SHIFU_NN_BAG_GRID_SEARCH));
+        if(this.bags > 1) {
+            this.bagParams = new ArrayList<Map<String, Object>>(this.bags);
+            this.bagLearningRates = new double[this.bags];
+            this.lastBagTrainErrors = new double[this.bags];
+            this.lastBagTestErrors = new double[this.bags];
+            for(int i = 0; i < this.bags; i++) {
+                this.bagParams.add(isGridSearchBags ? gs.getParams(i) : validParams);
+                this.bagLearningRates[i] = Double
+                        .valueOf(this.bagParams.get(i).get(CommonConstants.LEARNING_RATE).toString());
+            }
+        }
+        if(isGridSearchBags) {
+            int eta = NumberFormatUtils.getInt(props.getProperty(CommonConstants.SHIFU_GRIDSEARCH_HALVING_ETA),
+                    SuccessiveHalving.DEFAULT_ETA);
+            // the first iteration is used for initial weights
+            this.halving = new SuccessiveHalving(this.bags, context.getTotalIteration() - 1, eta);
+            LOG.info("Train {} grid search trials in one job with successive halving at epochs {}.", this.bags,
+                    this.halving.getRungEpochs());
+        }
 
         Boolean enabledEarlyStop = DTrainUtils.getBoolean(validParams, CommonConstants.ENABLE_EARLY_STOP, Boolean.FALSE);
         if(enabledEarlyStop) {
@@ -479,6 +708,10 @@ public class NNMaster extends AbstractMasterComputable<NNParams, NNParams> {
 
         this.isContinuousEnabled = Boolean.TRUE.toString()
                 .equalsIgnoreCase(context.getProps().getProperty(CommonConstants.CONTINUOUS_TRAINING));
+        if(this.isContinuousEnabled && this.bags > 1) {
+            LOG.warn("Continuous training is not supported if {} bags are trained in one job.", this.bags);
+            this.isContinuousEnabled = false;
+        }
         Object rconstant = validParams.get(CommonConstants.REGULARIZED_CONSTANT);
         this.regularizedConstant = NumberFormatUtils.getDouble(rconstant == null ? "" : rconstant.toString(), 0d);
 
@@ -514,12 +747,28 @@ public class NNMaster extends AbstractMasterComputable<NNParams, NNParams> {
             }
         }
 
+        if(this.bags > 1) {
+            // network sizes of grid search trials may be different
+            this.bagWeightOffsets = new int[this.bags + 1];
+            for(int i = 0; i < this.bags; i++) {
+                this.bagWeightOffsets[i + 1] = this.bagWeightOffsets[i]
+                        + generateBagNetwork(i, false).getFlat().getWeights().length;
+            }
+        }
+
         // recover master states here is globalNNParams
         // not init but not first iteration, first recover from last master result set from guagua
         if(!context.isFirstIteration()) {
             NNParams params = context.getMasterResult();
             if(params != null && params.getWeights() != null) {
                 this.globalNNParams.setWeights(params.getWeights());
+                if(this.halving != null) {
+                    this.halving.setStopped(params.getBagStopped());
+                }
+            } else if(this.bags > 1) {
+                // else read from checkpoint models of all bags
+                params = recoverBagParams(context);
+                this.globalNNParams.setWeights(params.getWeights());
             } else {
                 // else read from checkpoint
                 params = initOrRecoverParams(context);
@@ -528,6 +777,61 @@ public class NNMaster extends AbstractMasterComputable<NNParams, NNParams> {
         }
     }
 
+    /**
+     * Network of one bag by its params, feature inputs and outputs are the same for all bags.
+     */
+    @SuppressWarnings("unchecked")
+    private BasicNetwork generateBagNetwork(int bag, boolean isRandomizeWeights) {
+        Map<String, Object> params = this.bagParams.get(bag);
+        boolean isLinearTarget = CommonUtils.isLinearTarget(modelConfig, columnConfigList);
+        int[] inputAndOutput = DTrainUtils.getInputOutputCandidateCounts(modelConfig.getNormalizeType(),
+                this.columnConfigList);
+        int featureInputsCnt = DTrainUtils.getFeatureInputsCnt(modelConfig, this.columnConfigList,
+                new HashSet<Integer>(this.subFeatures));
+        int classes = modelConfig.getTags().size();
+        int outputNodeCount = (isLinearTarget || modelConfig.isRegression()) ? inputAndOutput[1]
+                : (modelConfig.getTrain().isOneVsAll() ? inputAndOutput[1] : (classes == 2 ? 1 : classes));
+        int numLayers = (Integer) params.get(CommonConstants.NUM_HIDDEN_LAYERS);
+        List<String> actFunc = (List<String>) params.get(CommonConstants.ACTIVATION_FUNC);
+        List<Integer> hiddenNodeList = (List<Integer>) params.get(CommonConstants.NUM_HIDDEN_NODES);
+        String outputActivationFunc = (String) params.get(CommonConstants.OUTPUT_ACTIVATION_FUNC);
+        Object wgtInitObj = params.get(CommonConstants.WEIGHT_INITIALIZER);
+        return DTrainUtils.generateNetwork(featureInputsCnt, outputNodeCount, numLayers, actFunc, hiddenNodeList,
+                isRandomizeWeights, getBagDouble(bag, CommonConstants.DROPOUT_RATE, this.dropoutRate, 0d),
+                wgtInitObj == null ? "default" : wgtInitObj.toString(), isLinearTarget, outputActivationFunc);
+    }
+
+    /**
+     * Weight updater of one bag, bags which are not grid search trials use the same settings of master.
+     */
+    private Weight createBagWeight(int bag, long trainSize) {
+        int weightsLen = this.bagWeightOffsets[bag + 1] - this.bagWeightOffsets[bag];
+        Map<String, Object> params = this.bagParams.get(bag);
+        if(params == this.validParams) {
+            return new Weight(weightsLen, trainSize, this.bagLearningRates[bag], this.propagation,
+                    this.regularizedConstant, RegulationLevel.to(params.get(CommonConstants.REG_LEVEL_KEY)),
+                    this.propagation, this.momentum, this.learningDecay, this.adamBeta1, this.adamBeta2,
+                    this.fixedWeightIndexSet);
+        }
+        Object pObject = params.get(CommonConstants.PROPAGATION);
+        String bagPropagation = pObject == null ? "Q" : (String) pObject;
+        return new Weight(weightsLen, trainSize, this.bagLearningRates[bag], bagPropagation,
+                getBagDouble(bag, CommonConstants.REGULARIZED_CONSTANT, this.regularizedConstant, 0d),
+                RegulationLevel.to(params.get(CommonConstants.REG_LEVEL_KEY)), bagPropagation,
+                getBagDouble(bag, "Momentum", this.momentum, 0.5d),
+                getBagDouble(bag, CommonConstants.LEARNING_DECAY, this.learningDecay, 0d),
+                getBagDouble(bag, "AdamBeta1", this.adamBeta1, 0.9d),
+                getBagDouble(bag, "AdamBeta2", this.adamBeta2, 0.999d), null);
+    }
+
+    /**
+     * Double param of one bag, master setting is used if bag params are the master params.
+     */
+    private double getBagDouble(int bag, String key, double masterValue, double defaultValue) {
+        Map<String, Object> params = this.bagParams.get(bag);
+        return params == this.validParams ? masterValue : DTrainUtils.getDouble(params, key, defaultValue);
+    }
+
     private HashSet<Integer> dropoutNodes() {
         Random random = new Random(System.currentTimeMillis());
 
@@ -54,6 +54,12 @@ import ml.shifu.shifu.util.Constants;
 
 /**
  * {@link NNOutput} is used to write the model output to file system.
+ * 
+ * <p>
+ * If several bagging models are trained in one job, best weights are kept for each bag by its own validation error
+ * and each bag is written to its own model path in {@link CommonConstants#SHIFU_NN_BAG_OUTPUTS}. If bags are grid
+ * search trials, validation errors of trials not stopped by master are written to
+ * {@link CommonConstants#SHIFU_NN_BAG_VAL_ERRORS}.
  */
 public class NNOutput extends BasicMasterInterceptor<NNParams, NNParams> {
 
@@ -149,6 +155,41 @@ public class NNOutput extends BasicMasterInterceptor<NNParams, NNParams> {
      */
     private int minimumEpochs = -1;
 
+    /**
+     * Number of bagging models trained together in this job.
+     */
+    private int bags = 1;
+
+    /**
+     * The minimum test error of each bag if {@link #bags} is over 1.
+     */
+    private double[] minBagTestErrors;
+
+    /**
+     * Model paths of each bag if {@link #bags} is over 1.
+     */
+    private Path[] bagOutputs;
+
+    /**
+     * Binary model paths of each bag if {@link #bags} is over 1.
+     */
+    private Path[] bagBinaryOutputs;
+
+    /**
+     * Validation error paths of each bag if bags are grid search trials, else null.
+     */
+    private Path[] bagValErrOutputs;
+
+    /**
+     * Network of each bag if {@link #bags} is over 1, networks of grid search trials may be different.
+     */
+    private BasicNetwork[] bagNetworks;
+
+    /**
+     * Start index of each bag in concatenated weights.
+     */
+    private int[] bagWeightOffsets;
+
     @Override
     public void preApplication(MasterContext<NNParams, NNParams> context) {
         init(context);
@@ -170,6 +211,8 @@ public class NNOutput extends BasicMasterInterceptor<NNParams, NNParams> {
 
         if ( context.getCurrentIteration() < minimumEpochs ) {
             this.optimizedWeights = context.getMasterResult().getWeights();
+        } else if(this.bags > 1) {
+            updateBagOptimizedWeights(context);
         } else {
             double currentError = ((modelConfig.getTrain().getValidSetRate() < EPSILON) ? context.getMasterResult()
                     .getTrainError() : context.getMasterResult().getTestError());
@@ -204,7 +247,11 @@ public class NNOutput extends BasicMasterInterceptor<NNParams, NNParams> {
                     // There is issue here if saving the same model in this thread and another thread in
                     // postApplication, sometimes this conflict will cause model writing failed.
                     if(!isHalt && currentIteration != totalIteration) {
-                        writeModelWeightsToFileSystem(optimizedWeights, out, false);
+                        if(bags > 1) {
+                            writeBagModelWeightsToFileSystem(optimizedWeights, false);
+                        } else {
+                            writeModelWeightsToFileSystem(optimizedWeights, out, false);
+                        }
                     }
                 }
             }, "saveTmpNNToHDFS thread");
@@ -215,6 +262,29 @@ public class NNOutput extends BasicMasterInterceptor<NNParams, NNParams> {
         updateProgressLog(context);
     }
 
+    /**
+     * Update best weights of each bag by its own error, best weights of all bags are kept in
+     * {@link #optimizedWeights} in the same order of master weights.
+     */
+    private void updateBagOptimizedWeights(final MasterContext<NNParams, NNParams> context) {
+        double[] weights = context.getMasterResult().getWeights();
+        double[] bagErrors = ((modelConfig.getTrain().getValidSetRate() < EPSILON) ? context.getMasterResult()
+                .getBagTrainErrors() : context.getMasterResult().getBagTestErrors());
+        if(this.optimizedWeights == null || this.optimizedWeights == weights) {
+            // weights of master result are updated in place in next iteration
+            this.optimizedWeights = Arrays.copyOf(weights, weights.length);
+        }
+        for(int i = 0; i < this.bags && i < bagErrors.length; i++) {
+            if(bagErrors[i] < this.minBagTestErrors[i]) {
+                this.minBagTestErrors[i] = bagErrors[i];
+                System.arraycopy(weights, this.bagWeightOffsets[i], this.optimizedWeights, this.bagWeightOffsets[i],
+                        this.bagWeightOffsets[i + 1] - this.bagWeightOffsets[i]);
+                LOG.info("change minTestError of bag {} to {}, and update best weights at {}-th epoch.", i,
+                        bagErrors[i], context.getCurrentIteration());
+            }
+        }
+    }
+
     @SuppressWarnings("deprecation")
     private void updateProgressLog(final MasterContext<NNParams, NNParams> context) {
         int currentIteration = context.getCurrentIteration();
@@ -222,10 +292,28 @@ public class NNOutput extends BasicMasterInterceptor<NNParams, NNParams> {
             // first iteration is used for training preparation
             return;
         }
-        String progress = new StringBuilder(200).append("    Trainer ").append(this.trainerId).append(" Epoch #")
-                .append(currentIteration - 1).append(" Training Error:")
-                .append(String.format("%.10f", context.getMasterResult().getTrainError())).append(" Validation Error:")
-                .append(String.format("%.10f", context.getMasterResult().getTestError())).append("\n").toString();
+        String progress;
+        if(this.bags > 1) {
+            StringBuilder progressBuilder = new StringBuilder(200 * this.bags);
+            NNParams result = context.getMasterResult();
+            for(int i = 0; i < this.bags && i < result.getBagTrainErrors().length; i++) {
+                if(result.isBagStopped(i)) {
+                    continue;
+                }
+                progressBuilder.append("    Trainer ").append(i).append(" Epoch #").append(currentIteration - 1)
+                        .append(" Training Error:").append(String.format("%.10f", result.getBagTrainErrors()[i]))
+                        .append(" Validation Error:").append(String.format("%.10f", result.getBagTestErrors()[i]))
+                        .append("\n");
+            }
+            progress = progressBuilder.toString();
+        } else {
+            progress = new StringBuilder(200).append("    Trainer ").append(this.trainerId).append(" Epoch #")
+                    .append(currentIteration - 1).append(" Training Error:")
+                    .append(String.format("%.10f", context.getMasterResult().getTrainError()))
+                    .append(" Validation Error:")
+                    .append(String.format("%.10f", context.getMasterResult().getTestError())).append("\n")
+                    .toString();
+        }
         try {
             LOG.debug("Writing progress results to {} {}", context.getCurrentIteration(), progress.toString());
             this.progressOutput.write(progress.getBytes("UTF-8"));
@@ -249,10 +337,22 @@ public class NNOutput extends BasicMasterInterceptor<NNParams, NNParams> {
             Path out = new Path(context.getProps().getProperty(CommonConstants.GUAGUA_OUTPUT));
             // TODO do we need to check IOException and retry again to make sure such important model is saved
             // successfully.
-            writeModelWeightsToFileSystem(optimizedWeights, out, true);
+            if(this.bags > 1) {
+                writeBagModelWeightsToFileSystem(optimizedWeights, true);
+            } else {
+                writeModelWeightsToFileSystem(optimizedWeights, out, true);
+            }
         }
 
-        if(this.gridSearch.hasHyperParam() || this.isKFoldCV) {
+        if(this.bagValErrOutputs != null) {
+            NNParams result = context.getMasterResult();
+            for(int i = 0; i < this.bags && i < result.getBagTestErrors().length; i++) {
+                // stopped trials are not selected as the best one
+                if(!result.isBagStopped(i)) {
+                    writeValErrorToFileSystem(result.getBagTestErrors()[i], this.bagValErrOutputs[i]);
+                }
+            }
+        } else if(this.gridSearch.hasHyperParam() || this.isKFoldCV) {
             Path valErrOutput = new Path(context.getProps().getProperty(CommonConstants.GS_VALIDATION_ERROR));
             writeValErrorToFileSystem(context.getMasterResult().getTestError(), valErrOutput);
         }
@@ -275,6 +375,16 @@ public class NNOutput extends BasicMasterInterceptor<NNParams, NNParams> {
      * Save tmp nn model to HDFS.
      */
     private void saveTmpNNToHDFS(int iteration, double[] weights) {
+        if(this.bags > 1) {
+            // trainer id of each bag is the bag index
+            for(int i = 0; i < this.bags; i++) {
+                Path out = new Path(DTrainUtils.getTmpModelName(this.tmpModelsFolder, String.valueOf(i), iteration,
+                        modelConfig.getTrain().getAlgorithm().toLowerCase()));
+                writeEncogModelToFileSystem(this.bagNetworks[i],
+                        Arrays.copyOfRange(weights, this.bagWeightOffsets[i], this.bagWeightOffsets[i + 1]), out);
+            }
+            return;
+        }
         Path out = new Path(DTrainUtils.getTmpModelName(this.tmpModelsFolder, this.trainerId, iteration,
                 modelConfig.getTrain().getAlgorithm().toLowerCase()));
         writeModelWeightsToFileSystem(weights, out, false);
@@ -316,6 +426,28 @@ public class NNOutput extends BasicMasterInterceptor<NNParams, NNParams> {
 
             this.bModel = new Path(context.getProps().getProperty(Constants.SHIFU_NN_BINARY_MODEL_PATH));
 
+            this.bags = Math.max(1,
+                    Integer.parseInt(context.getProps().getProperty(CommonConstants.SHIFU_NN_BAGS, "1")));
+            if(this.bags > 1) {
+                this.minBagTestErrors = new double[this.bags];
+                Arrays.fill(this.minBagTestErrors, Double.MAX_VALUE);
+                this.bagOutputs = toPaths(context.getProps().getProperty(CommonConstants.SHIFU_NN_BAG_OUTPUTS));
+                this.bagBinaryOutputs = toPaths(
+                        context.getProps().getProperty(CommonConstants.SHIFU_NN_BAG_BINARY_OUTPUTS));
+                if(this.bagOutputs.length != this.bags || this.bagBinaryOutputs.length != this.bags) {
+                    throw new IllegalArgumentException("Model paths are not set for all " + this.bags + " bags.");
+                }
+                if(gridSearch.hasHyperParam() && Boolean.TRUE.toString().equalsIgnoreCase(
+                        context.getProps().getProperty(CommonConstants.SHIFU_NN_BAG_GRID_SEARCH))) {
+                    this.bagValErrOutputs = toPaths(
+                            context.getProps().getProperty(CommonConstants.SHIFU_NN_BAG_VAL_ERRORS));
+                    if(this.bagValErrOutputs.length != this.bags) {
+                        throw new IllegalArgumentException(
+                                "Validation error paths are not set for all " + this.bags + " trials.");
+                    }
+                }
+            }
+
             initNetwork(context);
         }
 
@@ -388,25 +520,69 @@ public class NNOutput extends BasicMasterInterceptor<NNParams, NNParams> {
                 CommonUtils.isLinearTarget(modelConfig, columnConfigList), outputActivationFunc);
         ((BasicFloatNetwork) this.network).setFeatureSet(this.subFeatures);
 
+        if(this.bags > 1) {
+            this.bagNetworks = new BasicNetwork[this.bags];
+            this.bagWeightOffsets = new int[this.bags + 1];
+            for(int i = 0; i < this.bags; i++) {
+                if(this.bagValErrOutputs == null) {
+                    // bagging models have the same structure
+                    this.bagNetworks[i] = this.network;
+                } else {
+                    Map<String, Object> params = this.gridSearch.getParams(i);
+                    Object dropoutRateObj = params.get(CommonConstants.DROPOUT_RATE);
+                    Object wgtInitObj = params.get(CommonConstants.WEIGHT_INITIALIZER);
+                    this.bagNetworks[i] = DTrainUtils.generateNetwork(featureInputsCnt, outputNodeCount,
+                            (Integer) params.get(CommonConstants.NUM_HIDDEN_LAYERS),
+                            (List<String>) params.get(CommonConstants.ACTIVATION_FUNC),
+                            (List<Integer>) params.get(CommonConstants.NUM_HIDDEN_NODES), false,
+                            dropoutRateObj == null ? 0d : Double.valueOf(dropoutRateObj.toString()),
+                            wgtInitObj == null ? "default" : wgtInitObj.toString(), isLinearTarget,
+                            (String) params.get(CommonConstants.OUTPUT_ACTIVATION_FUNC));
+                    ((BasicFloatNetwork) this.bagNetworks[i]).setFeatureSet(this.subFeatures);
+                }
+                this.bagWeightOffsets[i + 1] = this.bagWeightOffsets[i]
+                        + this.bagNetworks[i].getFlat().getWeights().length;
+            }
+        }
+
         // register here to save models
         PersistorRegistry.getInstance().add(new PersistBasicFloatNetwork());
     }
 
+    private static Path[] toPaths(String commaPaths) {
+        String[] splits = StringUtils.isBlank(commaPaths) ? new String[0] : commaPaths.split(",");
+        Path[] paths = new Path[splits.length];
+        for(int i = 0; i < splits.length; i++) {
+            paths[i] = new Path(splits[i]);
+        }
+        return paths;
+    }
+
+    private void writeBagModelWeightsToFileSystem(double[] weights, boolean isLast) {
+        for(int i = 0; i < this.bags; i++) {
+            double[] bagWeights = Arrays.copyOfRange(weights, this.bagWeightOffsets[i], this.bagWeightOffsets[i + 1]);
+            if(isLast) {
+                writeBinaryModelWeightsToFileSystem(this.bagNetworks[i], bagWeights, this.bagBinaryOutputs[i]);
+            }
+            writeEncogModelToFileSystem(this.bagNetworks[i], bagWeights, this.bagOutputs[i]);
+        }
+    }
+
     private void writeModelWeightsToFileSystem(double[] weights, Path out, boolean isLast) {
         if(isLast) {
-            writeBinaryModelWeightsToFileSystem(weights, this.bModel);
+            writeBinaryModelWeightsToFileSystem(this.network, weights, this.bModel);
         }
-        writeEncogModelToFileSystem(weights, out);
+        writeEncogModelToFileSystem(this.network, weights, out);
     }
 
-    private void writeEncogModelToFileSystem(double[] weights, Path out) {
+    private void writeEncogModelToFileSystem(BasicNetwork network, double[] weights, Path out) {
         FSDataOutputStream fos = null;
         try {
             fos = FileSystem.get(new Configuration()).create(out);
             LOG.info("Writing results to {}", out);
-            this.network.getFlat().setWeights(weights);
+            network.getFlat().setWeights(weights);
             if(out != null) {
-                EncogDirectoryPersistence.saveObject(fos, this.network);
+                EncogDirectoryPersistence.saveObject(fos, network);
             }
         } catch (IOException e) {
             LOG.error("Error in writing output.", e);
@@ -415,11 +591,11 @@ public class NNOutput extends BasicMasterInterceptor<NNParams, NNParams> {
         }
     }
 
-    private void writeBinaryModelWeightsToFileSystem(double[] weights, Path out) {
+    private void writeBinaryModelWeightsToFileSystem(BasicNetwork network, double[] weights, Path out) {
         LOG.info("Writing NN models to {}.", out);
-        this.network.getFlat().setWeights(weights);
+        network.getFlat().setWeights(weights);
 
-        BasicML basicML = this.network;
+        BasicML basicML = network;
         try {
             BinaryNNSerializer.save(modelConfig, columnConfigList, Arrays.asList(basicML),
                     FileSystem.get(new Configuration()), out);
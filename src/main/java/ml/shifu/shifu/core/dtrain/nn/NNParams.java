@@ -24,6 +24,7 @@ import java.util.Set;
 import ml.shifu.guagua.io.Combinable;
 import ml.shifu.guagua.io.HaltBytable;
 import ml.shifu.shifu.core.dtrain.DTrainUtils;
+import ml.shifu.shifu.core.dtrain.QuorumStats;
 
 /**
  * NNParams are used to save NN model info which can also be stored into ZooKeeper.
@@ -34,6 +35,11 @@ import ml.shifu.shifu.core.dtrain.DTrainUtils;
  * <p>
  * {@link #gradients} is used to accumulate all workers' gradients together in master and then use the accumulated
  * gradients to update weights.
+ * 
+ * <p>
+ * If several bagging models are trained in one job, {@link #weights} and {@link #gradients} are the concatenation of
+ * all bags and errors of each bag are in {@link #bagTrainErrors} and {@link #bagTestErrors}, train sizes of each bag
+ * are in {@link #bagTrainSizes}. Bags stopped early by master are marked in {@link #bagStopped}.
  */
 public class NNParams extends HaltBytable implements Combinable<NNParams> {
 
@@ -72,6 +78,33 @@ public class NNParams extends HaltBytable implements Combinable<NNParams> {
      */
     private int wrCount = 1;
 
+    /**
+     * Train errors of each bag if more than one bag is trained in one job, else empty.
+     */
+    private double[] bagTrainErrors = new double[0];
+
+    /**
+     * Test errors of each bag if more than one bag is trained in one job, else empty.
+     */
+    private double[] bagTestErrors = new double[0];
+
+    /**
+     * Train sizes of each bag if more than one bag is trained in one job, else empty. Each bag has its own sampled
+     * records, train size of a bag is the sum of its bagging sample weights.
+     */
+    private long[] bagTrainSizes = new long[0];
+
+    /**
+     * Bags stopped by master and not trained any more, only set in master result of grid search trials trained in one
+     * job, else empty.
+     */
+    private boolean[] bagStopped = new boolean[0];
+
+    /**
+     * Worker count and the slowest worker of worker results, used by master to track stragglers.
+     */
+    private QuorumStats quorumStats = new QuorumStats();
+
     /** 
      * Dropout Node indices, generated by master, need to sync on every worker
      */
@@ -170,6 +203,34 @@ public class NNParams extends HaltBytable implements Combinable<NNParams> {
 
         out.writeLong(count);
         out.writeInt(this.wrCount);
+
+        writeDoubleArray(out, this.bagTrainErrors);
+        writeDoubleArray(out, this.bagTestErrors);
+        out.writeInt(this.bagTrainSizes.length);
+        for(long bagTrainSize: this.bagTrainSizes) {
+            out.writeLong(bagTrainSize);
+        }
+
+        out.writeInt(this.bagStopped.length);
+        for(boolean stopped: this.bagStopped) {
+            out.writeBoolean(stopped);
+        }
+        this.quorumStats.write(out);
+    }
+
+    private static void writeDoubleArray(DataOutput out, double[] values) throws IOException {
+        out.writeInt(values.length);
+        for(double value: values) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static double[] readDoubleArray(DataInput in) throws IOException {
+        double[] values = new double[in.readInt()];
+        for(int i = 0; i < values.length; i++) {
+            values[i] = in.readDouble();
+        }
+        return values;
     }
 
     @Override
@@ -194,6 +255,19 @@ public class NNParams extends HaltBytable implements Combinable<NNParams> {
 
         this.count = in.readLong();
         this.wrCount = in.readInt();
+
+        this.bagTrainErrors = readDoubleArray(in);
+        this.bagTestErrors = readDoubleArray(in);
+        this.bagTrainSizes = new long[in.readInt()];
+        for(int i = 0; i < this.bagTrainSizes.length; i++) {
+            this.bagTrainSizes[i] = in.readLong();
+        }
+
+        this.bagStopped = new boolean[in.readInt()];
+        for(int i = 0; i < this.bagStopped.length; i++) {
+            this.bagStopped[i] = in.readBoolean();
+        }
+        this.quorumStats.readFields(in);
     }
 
     /**
@@ -227,10 +301,25 @@ public class NNParams extends HaltBytable implements Combinable<NNParams> {
         for(int i = 0; i < this.gradients.length; i++) {
             this.gradients[i] += from.gradients[i];
         }
+        for(int i = 0; i < this.bagTrainErrors.length; i++) {
+            this.bagTrainErrors[i] += from.bagTrainErrors[i];
+            this.bagTestErrors[i] += from.bagTestErrors[i];
+        }
+        for(int i = 0; i < this.bagTrainSizes.length; i++) {
+            this.bagTrainSizes[i] += from.bagTrainSizes[i];
+        }
         this.setWrCount(this.getWrCount() + from.getWrCount());
+        this.quorumStats.combine(from.quorumStats);
         return this;
     }
 
+    /**
+     * @return the quorumStats
+     */
+    public QuorumStats getQuorumStats() {
+        return quorumStats;
+    }
+
     /**
      * @return the wrCount
      */
@@ -246,6 +335,45 @@ public class NNParams extends HaltBytable implements Combinable<NNParams> {
         this.wrCount = wrCount;
     }
 
+    public double[] getBagTrainErrors() {
+        return bagTrainErrors;
+    }
+
+    public void setBagTrainErrors(double[] bagTrainErrors) {
+        this.bagTrainErrors = bagTrainErrors;
+    }
+
+    public double[] getBagTestErrors() {
+        return bagTestErrors;
+    }
+
+    public void setBagTestErrors(double[] bagTestErrors) {
+        this.bagTestErrors = bagTestErrors;
+    }
+
+    public long[] getBagTrainSizes() {
+        return bagTrainSizes;
+    }
+
+    public void setBagTrainSizes(long[] bagTrainSizes) {
+        this.bagTrainSizes = bagTrainSizes;
+    }
+
+    public boolean[] getBagStopped() {
+        return bagStopped;
+    }
+
+    public void setBagStopped(boolean[] bagStopped) {
+        this.bagStopped = bagStopped;
+    }
+
+    /**
+     * @return if the bag is stopped by master
+     */
+    public boolean isBagStopped(int bag) {
+        return bag < this.bagStopped.length && this.bagStopped[bag];
+    }
+
     public Set<Integer> getDropoutNodes() {
         return dropoutNodes;
     }
@@ -237,14 +237,18 @@ public class NNParquetWorker extends AbstractNNWorker<Tuple> {
 
         // do bagging sampling only for training data
         if(isInTraining) {
-            float subsampleWeights = sampleWeights(pair.getIdealArray()[0]);
+            // if bags are sampled, each bag has its own sample weights and selected counts are of the first bag
+            float subsampleWeights = isBagSampling() ? sampleBagWeights(pair.getIdealArray()[0])
+                    : sampleWeights(pair.getIdealArray()[0]);
             if(isPositive(pair.getIdealArray()[0])) {
                 this.positiveSelectedTrainCount += subsampleWeights * 1L;
             } else {
                 this.negativeSelectedTrainCount += subsampleWeights * 1L;
             }
-            // set weights to significance, if 0, significance will be 0, that is bagging sampling
-            pair.setSignificance(pair.getSignificance() * subsampleWeights);
+            if(!isBagSampling()) {
+                // set weights to significance, if 0, significance will be 0, that is bagging sampling
+                pair.setSignificance(pair.getSignificance() * subsampleWeights);
+            }
         } else {
             // for validation data, according bagging sampling logic, we may need to sampling validation data set, while
             // validation data set are only used to compute validation error, not to do real sampling is ok.
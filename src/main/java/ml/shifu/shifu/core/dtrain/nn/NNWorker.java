@@ -23,19 +23,19 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
 
-import com.google.common.collect.Lists;
-
 import ml.shifu.guagua.ComputableMonitor;
 import ml.shifu.guagua.hadoop.io.GuaguaLineRecordReader;
 import ml.shifu.guagua.hadoop.io.GuaguaWritableAdapter;
 import ml.shifu.guagua.io.GuaguaFileSplit;
-import ml.shifu.guagua.util.NumberFormatUtils;
 import ml.shifu.guagua.worker.WorkerContext;
 import ml.shifu.shifu.container.obj.ColumnConfig;
 import ml.shifu.shifu.container.obj.ModelNormalizeConf;
 import ml.shifu.shifu.core.dtrain.dataset.BasicFloatMLData;
 import ml.shifu.shifu.core.dtrain.dataset.BasicFloatMLDataPair;
 import ml.shifu.shifu.core.dtrain.dataset.FloatMLDataPair;
+import ml.shifu.shifu.core.dtrain.dataset.NormBinaryFormat;
+import ml.shifu.shifu.core.dtrain.dataset.NormRecord;
+import ml.shifu.shifu.guagua.GuaguaBinaryNormRecordReader;
 import ml.shifu.shifu.util.Constants;
 
 /**
@@ -47,7 +47,7 @@ import ml.shifu.shifu.util.Constants;
  * multi-core implementation.
  * 
  * <p>
- * {@link NNWorker} is to load data with text format.
+ * {@link NNWorker} is to load data with text format or binary format produced by norm step.
  */
 @ComputableMonitor(timeUnit = TimeUnit.SECONDS, duration = 3600)
 public class NNWorker extends AbstractNNWorker<Text> {
@@ -72,23 +72,20 @@ public class NNWorker extends AbstractNNWorker<Text> {
 
         long hashcode = 0;
         float significance = 1f;
-        // use guava Splitter to iterate only once
-        // use NNConstants.NN_DEFAULT_COLUMN_SEPARATOR to replace getModelConfig().getDataSetDelimiter(), super follows
-        // the function in akka mode.
+        // parse text or binary record only once and access fields by position
         int index = 0, inputsIndex = 0, outputIndex = 0;
 
-        String[] fields = Lists.newArrayList(this.splitter.split(currentValue.getWritable().toString()))
-                .toArray(new String[0]);
+        NormRecord record = super.normRecord;
+        record.parse(currentValue.getWritable());
+        int recordSize = record.size();
         int pos = 0;
 
-        for(pos = 0; pos < fields.length;) {
-            String input = fields[pos];
-            // check here to avoid bad performance in failed NumberFormatUtils.getFloat(input, 0f)
-            float floatValue = input.length() == 0 ? 0f : NumberFormatUtils.getFloat(input, 0f);
+        for(pos = 0; pos < recordSize;) {
+            float floatValue = record.getFloat(pos, 0f);
             // no idea about why NaN in input data, we should process it as missing value TODO , according to norm type
             floatValue = (Float.isNaN(floatValue) || Double.isNaN(floatValue)) ? 0f : floatValue;
 
-            if(pos == fields.length - 1) {
+            if(pos == recordSize - 1) {
                 // do we need to check if not weighted directly set to 1f; if such logic non-weight at first, then
                 // weight, how to process???
                 if(StringUtils.isBlank(modelConfig.getWeightColumnName())) {
@@ -97,8 +94,7 @@ public class NNWorker extends AbstractNNWorker<Text> {
                     break;
                 }
 
-                // check here to avoid bad performance in failed NumberFormatUtils.getFloat(input, 1f)
-                significance = input.length() == 0 ? 1f : NumberFormatUtils.getFloat(input, 1f);
+                significance = record.getFloat(pos, 1f);
                 // if invalid weight, set it to 1f and warning in log
                 if(Float.compare(significance, 0f) < 0) {
                     LOG.warn("The {} record in current worker weight {} is less than 0f, it is invalid, set it to 1.",
@@ -140,9 +136,7 @@ public class NNWorker extends AbstractNNWorker<Text> {
                         } else if ( columnConfig != null && columnConfig.isNumerical()
                                 && modelConfig.getNormalizeType().equals(ModelNormalizeConf.NormType.ONEHOT) ) {
                             for(int k = 0; k < columnConfig.getBinBoundary().size() + 1; k++) {
-                                String tval = fields[pos];
-                                // check here to avoid bad performance in failed NumberFormatUtils.getFloat(input, 0f)
-                                float fval = tval.length() == 0 ? 0f : NumberFormatUtils.getFloat(tval, 0f);
+                                float fval = record.getFloat(pos, 0f);
                                 // no idea about why NaN in input data, we should process it as missing value TODO ,
                                 // according to norm type
                                 fval = (Float.isNaN(fval) || Double.isNaN(fval)) ? 0f : fval;
@@ -153,9 +147,7 @@ public class NNWorker extends AbstractNNWorker<Text> {
                                 && (modelConfig.getNormalizeType().equals(ModelNormalizeConf.NormType.ZSCALE_ONEHOT)
                                         || modelConfig.getNormalizeType().equals(ModelNormalizeConf.NormType.ONEHOT))) {
                             for(int k = 0; k < columnConfig.getBinCategory().size() + 1; k++) {
-                                String tval = fields[pos];
-                                // check here to avoid bad performance in failed NumberFormatUtils.getFloat(input, 0f)
-                                float fval = tval.length() == 0 ? 0f : NumberFormatUtils.getFloat(tval, 0f);
+                                float fval = record.getFloat(pos, 0f);
                                 // no idea about why NaN in input data, we should process it as missing value TODO ,
                                 // according to norm type
                                 fval = (Float.isNaN(fval) || Double.isNaN(fval)) ? 0f : fval;
@@ -188,11 +180,11 @@ public class NNWorker extends AbstractNNWorker<Text> {
             index += 1;
         }
 
-        if ( index != this.columnConfigList.size() || pos != fields.length - 1 ) {
+        if ( index != this.columnConfigList.size() || pos != recordSize - 1 ) {
             throw new RuntimeException("Wrong data indexing. ColumnConfig index = " + index
                     + ", while it should be " + columnConfigList.size() + ". "
                     + "Data Pos = " + pos
-                    + ", while it should be " + (fields.length - 1));
+                    + ", while it should be " + (recordSize - 1));
         }
 
         // output delimiter in norm can be set by user now and if user set a special one later changed, this exception
@@ -253,14 +245,18 @@ public class NNWorker extends AbstractNNWorker<Text> {
 
         // do bagging sampling only for training data
         if(isInTraining) {
-            float subsampleWeights = sampleWeights(pair.getIdealArray()[0]);
+            // if bags are sampled, each bag has its own sample weights and selected counts are of the first bag
+            float subsampleWeights = isBagSampling() ? sampleBagWeights(pair.getIdealArray()[0])
+                    : sampleWeights(pair.getIdealArray()[0]);
             if(isPositive(pair.getIdealArray()[0])) {
                 this.positiveSelectedTrainCount += subsampleWeights * 1L;
             } else {
                 this.negativeSelectedTrainCount += subsampleWeights * 1L;
             }
-            // set weights to significance, if 0, significance will be 0, that is bagging sampling
-            pair.setSignificance(pair.getSignificance() * subsampleWeights);
+            if(!isBagSampling()) {
+                // set weights to significance, if 0, significance will be 0, that is bagging sampling
+                pair.setSignificance(pair.getSignificance() * subsampleWeights);
+            }
         } else {
             // for validation data, according bagging sampling logic, we may need to sampling validation data set, while
             // validation data set are only used to compute validation error, not to do real sampling is ok.
@@ -275,7 +271,12 @@ public class NNWorker extends AbstractNNWorker<Text> {
      */
     @Override
     public void initRecordReader(GuaguaFileSplit fileSplit) throws IOException {
-        super.setRecordReader(new GuaguaLineRecordReader(fileSplit));
+        NormBinaryFormat.checkFileFormat(fileSplit.getPath(), super.isBinaryNorm);
+        if(super.isBinaryNorm) {
+            super.setRecordReader(new GuaguaBinaryNormRecordReader(fileSplit));
+        } else {
+            super.setRecordReader(new GuaguaLineRecordReader(fileSplit));
+        }
     }
 
 }
@@ -22,6 +22,7 @@ import ml.shifu.shifu.container.obj.ModelConfig;
 import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
 import ml.shifu.shifu.core.dtrain.CommonConstants;
 import ml.shifu.shifu.core.dtrain.DTrainUtils;
+import ml.shifu.shifu.core.dtrain.QuorumTracker;
 import ml.shifu.shifu.core.dtrain.wdl.optimization.GradientDescent;
 import ml.shifu.shifu.core.dtrain.wdl.optimization.Optimizer;
 import ml.shifu.shifu.fs.ShifuFileUtils;
@@ -111,10 +112,16 @@ public class WDLMaster extends AbstractMasterComputable<WDLParams, WDLParams> {
      */
     private Optimizer optimizer;
 
+    /**
+     * Tracks workers reported in each iteration and stragglers.
+     */
+    private QuorumTracker quorumTracker;
+
     @SuppressWarnings({ "unchecked", "unused" })
     @Override
     public void init(MasterContext<WDLParams, WDLParams> context) {
         Properties props = context.getProps();
+        this.quorumTracker = new QuorumTracker(props);
         try {
             SourceType sourceType = SourceType
                     .valueOf(props.getProperty(CommonConstants.MODELSET_SOURCE_TYPE, SourceType.HDFS.toString()));
@@ -171,8 +178,15 @@ public class WDLMaster extends AbstractMasterComputable<WDLParams, WDLParams> {
         // aggregate all worker gradients to one gradient object.
         WDLParams aggregation = aggregateWorkerGradients(context);
 
+        // if master goes on without stragglers, scale learning rate of gradient descent in this iteration which is the
+        // same as scaling gradients as if all workers are reported
+        double scale = this.quorumTracker.finish(context.getCurrentIteration());
+        double learningRate = this.optimizer.getLearningRate();
+        this.optimizer.setLearningRate(learningRate * scale);
+
         // apply optimizer
         this.wnd.update(aggregation.getWnd(), optimizer);
+        this.optimizer.setLearningRate(learningRate);
 
         // construct master result which contains WideAndDeep current model weights
         WDLParams params = new WDLParams();
@@ -188,6 +202,8 @@ public class WDLMaster extends AbstractMasterComputable<WDLParams, WDLParams> {
     private WDLParams aggregateWorkerGradients(MasterContext<WDLParams, WDLParams> context) {
         WDLParams aggregation = null;
         for(WDLParams params: context.getWorkerResults()) {
+            // add before combining, combined stats only keep the slowest worker
+            this.quorumTracker.add(params.getQuorumStats());
             if(aggregation == null) {
                 aggregation = params;
             } else {
@@ -17,6 +17,7 @@ package ml.shifu.shifu.core.dtrain.wdl;
 
 import ml.shifu.guagua.io.Combinable;
 import ml.shifu.guagua.io.HaltBytable;
+import ml.shifu.shifu.core.dtrain.QuorumStats;
 
 import java.io.DataInput;
 import java.io.DataOutput;
@@ -66,6 +67,11 @@ public class WDLParams extends HaltBytable implements Combinable<WDLParams> {
 
     private WideAndDeep wnd;
 
+    /**
+     * Worker count and the slowest worker of worker results, used by master to track stragglers.
+     */
+    private QuorumStats quorumStats = new QuorumStats();
+
     // TODO: add wide. dnn, embedding weights/gradients here
 
     public void update(WideAndDeep wnd) {
@@ -154,9 +160,17 @@ public class WDLParams extends HaltBytable implements Combinable<WDLParams> {
         this.validationCount += from.validationCount;
         this.validationError += from.validationError;
         this.wnd = this.wnd.combine(from.getWnd());
+        this.quorumStats.combine(from.quorumStats);
         return this;
     }
 
+    /**
+     * @return the quorumStats
+     */
+    public QuorumStats getQuorumStats() {
+        return quorumStats;
+    }
+
     @Override
     public void doWrite(DataOutput out) throws IOException {
         if(this.wnd == null) {
@@ -172,6 +186,7 @@ public class WDLParams extends HaltBytable implements Combinable<WDLParams> {
         out.writeDouble(this.trainError);
         out.writeDouble(this.validationError);
         out.writeInt(this.serializationType.getValue());
+        this.quorumStats.write(out);
     }
 
     @Override
@@ -188,6 +203,7 @@ public class WDLParams extends HaltBytable implements Combinable<WDLParams> {
         this.trainError = in.readDouble();
         this.validationError = in.readDouble();
         this.serializationType = SerializationType.getSerializationType(in.readInt());
+        this.quorumStats.readFields(in);
     }
 
     /**
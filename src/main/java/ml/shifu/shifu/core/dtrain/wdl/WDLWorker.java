@@ -677,6 +677,16 @@ public class WDLWorker extends
 
     @Override
     public WDLParams doCompute(WorkerContext<WDLParams, WDLParams> context) {
+        long start = System.currentTimeMillis();
+        WDLParams params = computeParams(context);
+        if(params != null) {
+            // compute time is sent to master to find stragglers
+            params.getQuorumStats().setWorker(context.getContainerId(), System.currentTimeMillis() - start);
+        }
+        return params;
+    }
+
+    private WDLParams computeParams(WorkerContext<WDLParams, WDLParams> context) {
         if(context.isFirstIteration()) {
             // return empty which has been ignored in master first iteration, worker needs sync with master at first.
             return new WDLParams();
@@ -20,6 +20,7 @@ import ml.shifu.shifu.container.obj.ModelConfig;
 import ml.shifu.shifu.core.dvarsel.VarSelWorkerResult;
 
 import java.util.List;
+import java.util.Properties;
 
 /**
  * Created on 11/24/2014.
@@ -33,6 +34,13 @@ public abstract class AbstractMasterConductor {
         this.columnConfigList = columnConfigList;
     }
 
+    /**
+     * Init conductor by job properties, called once after conductor is created.
+     */
+    public void init(Properties props) {
+        // no properties needed by default
+    }
+
     public abstract int getEstimateIterationCnt();
     public abstract boolean isToStop();
 
@@ -91,6 +91,7 @@ public class VarSelMaster implements MasterComputable<VarSelMasterResult, VarSel
             this.masterConductor = (AbstractMasterConductor) Class.forName(conductorClsName)
                     .getDeclaredConstructor(ModelConfig.class, List.class)
                     .newInstance(this.modelConfig, this.columnConfigList);
+            this.masterConductor.init(props);
 
         } catch (IOException e) {
             throw new RuntimeException("Fail to load ModelConfig or List<ColumnConfig>", e);
@@ -31,6 +31,18 @@ public class VarSelWorkerResult extends HaltBytable {
 
     private List<CandidatePerf> seedPerfList = new ArrayList<CandidatePerf>(0);
 
+    /**
+     * Records used to compute perf list, only set in recursive sensitivity selection in which perf id is column id and
+     * perf error is sum of square score diffs of all records.
+     */
+    private long recordCount = 0L;
+
+    /**
+     * Sum of score diffs of each perf in the order of perf list, only set in recursive sensitivity selection to compute
+     * mean and variance of sensitivity.
+     */
+    private double[] scoreDiffSums = new double[0];
+
     public VarSelWorkerResult() {
     // default constructor, for serialization
 }
@@ -46,6 +58,11 @@ public class VarSelWorkerResult extends HaltBytable {
             out.writeInt(seedPerf.getId());
             out.writeDouble(seedPerf.getVerror());
         }
+        out.writeLong(this.recordCount);
+        out.writeInt(this.scoreDiffSums.length);
+        for(double sum: this.scoreDiffSums) {
+            out.writeDouble(sum);
+        }
     }
 
     @Override
@@ -58,12 +75,33 @@ public class VarSelWorkerResult extends HaltBytable {
             double verror = in.readDouble();
             this.seedPerfList.add(new CandidatePerf(id, verror));
         }
+        this.recordCount = in.readLong();
+        this.scoreDiffSums = new double[in.readInt()];
+        for(int i = 0; i < this.scoreDiffSums.length; i++) {
+            this.scoreDiffSums[i] = in.readDouble();
+        }
     }
 
     public List<CandidatePerf> getSeedPerfList() {
         return this.seedPerfList;
     }
 
+    public long getRecordCount() {
+        return this.recordCount;
+    }
+
+    public void setRecordCount(long recordCount) {
+        this.recordCount = recordCount;
+    }
+
+    public double[] getScoreDiffSums() {
+        return this.scoreDiffSums;
+    }
+
+    public void setScoreDiffSums(double[] scoreDiffSums) {
+        this.scoreDiffSums = scoreDiffSums;
+    }
+
     @Override
     public String toString() {
         return "VarSelWorkerResult{" +
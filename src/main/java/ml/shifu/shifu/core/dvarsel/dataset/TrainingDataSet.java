@@ -19,6 +19,7 @@ import org.encog.ml.data.MLDataPair;
 import org.encog.ml.data.MLDataSet;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
@@ -60,6 +61,72 @@ public class TrainingDataSet {
         }
     }
 
+    /**
+     * Split records into training and testing data randomly like
+     * {@link #generateValidateData(Set, double, MLDataSet, MLDataSet)}, but training and testing data are
+     * {@link TrainingDataSetView}s of working columns and no record is copied.
+     * 
+     * @param workingColumnIdSet
+     *            working column ids
+     * @param validationRate
+     *            rate of testing records
+     * @return training data and testing data
+     */
+    public MLDataSet[] generateValidateDataViews(Set<Integer> workingColumnIdSet, double validationRate) {
+        int[] columnPositions = getColumnPositions(workingColumnIdSet);
+
+        int[] trainingIndexes = new int[trainingRecords.size()];
+        int[] testingIndexes = new int[trainingRecords.size()];
+        int trainingSize = 0, testingSize = 0;
+        // own random for each call, views can be generated by multiple threads without contention in shared random
+        Random random = new Random(rd.nextLong());
+        for(int i = 0; i < trainingRecords.size(); i++) {
+            double seed = random.nextDouble();
+            if(seed > validationRate) {
+                trainingIndexes[trainingSize++] = i;
+            } else {
+                testingIndexes[testingSize++] = i;
+            }
+        }
+
+        return new MLDataSet[] {
+                new TrainingDataSetView(trainingRecords, Arrays.copyOf(trainingIndexes, trainingSize),
+                        columnPositions, getIdealSize()),
+                new TrainingDataSetView(trainingRecords, Arrays.copyOf(testingIndexes, testingSize),
+                        columnPositions, getIdealSize()) };
+    }
+
+    /**
+     * View of all records with working columns, inputs are in order of data column id list.
+     * 
+     * @param workingColumnIdSet
+     *            working column ids
+     * @return view of all records
+     */
+    public MLDataSet getDataView(Set<Integer> workingColumnIdSet) {
+        int[] recordIndexes = new int[trainingRecords.size()];
+        for(int i = 0; i < recordIndexes.length; i++) {
+            recordIndexes[i] = i;
+        }
+        return new TrainingDataSetView(trainingRecords, recordIndexes, getColumnPositions(workingColumnIdSet),
+                getIdealSize());
+    }
+
+    private int[] getColumnPositions(Set<Integer> workingColumnIdSet) {
+        int[] columnPositions = new int[workingColumnIdSet.size()];
+        int pos = 0;
+        for(int i = 0; i < dataColumnIdList.size(); i++) {
+            if(workingColumnIdSet.contains(dataColumnIdList.get(i))) {
+                columnPositions[pos++] = i;
+            }
+        }
+        return columnPositions;
+    }
+
+    private int getIdealSize() {
+        return trainingRecords.isEmpty() ? 0 : trainingRecords.get(0).getIdeal().length;
+    }
+
     public List<Integer> getDataColumnIdList() {
         return this.dataColumnIdList;
     }
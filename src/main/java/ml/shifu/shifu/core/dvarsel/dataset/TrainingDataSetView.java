@@ -0,0 +1,144 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dvarsel.dataset;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.encog.ml.data.MLData;
+import org.encog.ml.data.MLDataPair;
+import org.encog.ml.data.MLDataSet;
+import org.encog.ml.data.basic.BasicMLDataPair;
+
+/**
+ * Read only {@link MLDataSet} view of some records and working columns in {@link TrainingDataSet}.
+ * 
+ * <p>
+ * Records are not copied, input values of working columns are copied into the given pair in
+ * {@link #getRecord(long, MLDataPair)}. Views of different candidates share records of the same
+ * {@link TrainingDataSet} and can be read by multiple threads at the same time.
+ */
+public class TrainingDataSetView implements MLDataSet {
+
+    private final List<TrainingRecord> trainingRecords;
+
+    /**
+     * Indexes of records in this view.
+     */
+    private final int[] recordIndexes;
+
+    /**
+     * Positions of working columns in inputs of {@link TrainingRecord}.
+     */
+    private final int[] columnPositions;
+
+    private final int idealSize;
+
+    public TrainingDataSetView(List<TrainingRecord> trainingRecords, int[] recordIndexes, int[] columnPositions,
+            int idealSize) {
+        this.trainingRecords = trainingRecords;
+        this.recordIndexes = recordIndexes;
+        this.columnPositions = columnPositions;
+        this.idealSize = idealSize;
+    }
+
+    @Override
+    public Iterator<MLDataPair> iterator() {
+        return new Iterator<MLDataPair>() {
+
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.index < TrainingDataSetView.this.recordIndexes.length;
+            }
+
+            @Override
+            public MLDataPair next() {
+                MLDataPair pair = BasicMLDataPair.createPair(getInputSize(), getIdealSize());
+                getRecord(this.index++, pair);
+                return pair;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public int getIdealSize() {
+        return this.idealSize;
+    }
+
+    @Override
+    public int getInputSize() {
+        return this.columnPositions.length;
+    }
+
+    @Override
+    public boolean isSupervised() {
+        return true;
+    }
+
+    @Override
+    public long getRecordCount() {
+        return this.recordIndexes.length;
+    }
+
+    @Override
+    public void getRecord(long index, MLDataPair pair) {
+        TrainingRecord record = this.trainingRecords.get(this.recordIndexes[(int) index]);
+        double[] inputs = record.getInputs();
+        double[] pairInputs = pair.getInputArray();
+        for(int i = 0; i < this.columnPositions.length; i++) {
+            pairInputs[i] = inputs[this.columnPositions[i]];
+        }
+        if(pair.getIdealArray() != null) {
+            System.arraycopy(record.getIdeal(), 0, pair.getIdealArray(), 0, this.idealSize);
+        }
+    }
+
+    /**
+     * View has no state in reading, the same instance can be used by other threads.
+     */
+    @Override
+    public MLDataSet openAdditional() {
+        return this;
+    }
+
+    @Override
+    public void add(MLData data) {
+        throw new UnsupportedOperationException("Training data set view is read only.");
+    }
+
+    @Override
+    public void add(MLData inputData, MLData idealData) {
+        throw new UnsupportedOperationException("Training data set view is read only.");
+    }
+
+    @Override
+    public void add(MLDataPair inputData) {
+        throw new UnsupportedOperationException("Training data set view is read only.");
+    }
+
+    @Override
+    public void close() {
+        // nothing to close, records are owned by TrainingDataSet
+    }
+
+}
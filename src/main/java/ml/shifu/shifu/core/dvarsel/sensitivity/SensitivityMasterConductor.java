@@ -0,0 +1,228 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dvarsel.sensitivity;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import ml.shifu.shifu.container.obj.ColumnConfig;
+import ml.shifu.shifu.container.obj.ModelConfig;
+import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
+import ml.shifu.shifu.core.dvarsel.AbstractMasterConductor;
+import ml.shifu.shifu.core.dvarsel.CandidatePerf;
+import ml.shifu.shifu.core.dvarsel.CandidateSeed;
+import ml.shifu.shifu.core.dvarsel.VarSelWorkerResult;
+import ml.shifu.shifu.fs.ShifuFileUtils;
+import ml.shifu.shifu.util.CommonUtils;
+import ml.shifu.shifu.util.Constants;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Master conductor of recursive sensitivity variable selection in one guagua job.
+ * 
+ * <p>
+ * In each round, the working columns are sent to workers as the only seed. Workers return sum of square sensitivity of
+ * each working column, columns are sorted by RMS of sensitivity and columns with smallest RMS are dropped like
+ * {@link ml.shifu.shifu.core.varselect.VarSelectReducer}: filterNum columns are kept if it is set, else
+ * (1 - filterOutRatio) of working columns are kept. Force selected columns are never dropped.
+ *
+ * <p>
+ * If {@link Constants#VAR_SEL_SE_HISTORY_OUTPUT} is set, 'se' report and kept column ids of each round are written in
+ * a sub folder named by round index, in the same formats as SE reducer output and final column ids.
+ */
+public class SensitivityMasterConductor extends AbstractMasterConductor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SensitivityMasterConductor.class);
+
+    private List<Integer> workingColumnIds;
+
+    private Set<Integer> forceSelectColumnIds;
+
+    private int recursiveCnt = 1;
+
+    private int round = 0;
+
+    private String historyOutput;
+
+    public SensitivityMasterConductor(ModelConfig modelConfig, List<ColumnConfig> columnConfigList) {
+        super(modelConfig, columnConfigList);
+
+        this.workingColumnIds = new ArrayList<Integer>();
+        this.forceSelectColumnIds = new HashSet<Integer>();
+        boolean hasCandidates = CommonUtils.hasCandidateColumns(columnConfigList);
+        for(ColumnConfig columnConfig: columnConfigList) {
+            if(CommonUtils.isGoodCandidate(columnConfig, hasCandidates)) {
+                this.workingColumnIds.add(columnConfig.getColumnNum());
+                if(columnConfig.isForceSelect()) {
+                    this.forceSelectColumnIds.add(columnConfig.getColumnNum());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void init(Properties props) {
+        this.recursiveCnt = Integer.parseInt(props.getProperty(Constants.VAR_SEL_RECURSIVE_CNT, "1"));
+        this.historyOutput = props.getProperty(Constants.VAR_SEL_SE_HISTORY_OUTPUT);
+    }
+
+    @Override
+    public int getEstimateIterationCnt() {
+        return Math.max(0, this.recursiveCnt - this.round);
+    }
+
+    @Override
+    public boolean isToStop() {
+        return this.round >= this.recursiveCnt;
+    }
+
+    @Override
+    public List<CandidateSeed> getNextWorkingSet() {
+        List<CandidateSeed> seedList = new ArrayList<CandidateSeed>(1);
+        seedList.add(new CandidateSeed(this.round, new ArrayList<Integer>(this.workingColumnIds)));
+        return seedList;
+    }
+
+    @Override
+    public void consumeWorkerResults(Iterable<VarSelWorkerResult> workerResults) {
+        final Map<Integer, Double> sumSquares = new HashMap<Integer, Double>();
+        Map<Integer, Double> sums = new HashMap<Integer, Double>();
+        long recordCount = 0L;
+        for(VarSelWorkerResult workerResult: workerResults) {
+            recordCount += workerResult.getRecordCount();
+            List<CandidatePerf> perfList = workerResult.getSeedPerfList();
+            double[] scoreDiffSums = workerResult.getScoreDiffSums();
+            for(int i = 0; i < perfList.size(); i++) {
+                CandidatePerf perf = perfList.get(i);
+                sumSquares.put(perf.getId(), getValue(sumSquares, perf.getId()) + perf.getVerror());
+                if(i < scoreDiffSums.length) {
+                    sums.put(perf.getId(), getValue(sums, perf.getId()) + scoreDiffSums[i]);
+                }
+            }
+        }
+        if(recordCount == 0L) {
+            // workers are loading data and no working set is computed
+            return;
+        }
+
+        this.round += 1;
+        List<Integer> sortedColumnIds = new ArrayList<Integer>(this.workingColumnIds);
+        Collections.sort(sortedColumnIds, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer c1, Integer c2) {
+                return Double.compare(getValue(sumSquares, c2), getValue(sumSquares, c1));
+            }
+        });
+
+        Integer filterNum = this.modelConfig.getVarSelectFilterNum();
+        int keepCnt = (filterNum == null ? 0 : filterNum);
+        if(keepCnt <= 0) {
+            Float filterOutRatio = this.modelConfig.getVarSelect().getFilterOutRatio();
+            keepCnt = (int) (sortedColumnIds.size() * (1.0f
+                    - (filterOutRatio == null ? Constants.SHIFU_DEFAULT_VARSELECT_FILTEROUT_RATIO : filterOutRatio)));
+        }
+
+        List<Integer> keptColumnIds = new ArrayList<Integer>(keepCnt);
+        for(Integer columnId: sortedColumnIds) {
+            if(this.forceSelectColumnIds.contains(columnId)) {
+                keptColumnIds.add(columnId);
+            }
+        }
+        for(Integer columnId: sortedColumnIds) {
+            if(keptColumnIds.size() >= keepCnt) {
+                break;
+            }
+            if(!this.forceSelectColumnIds.contains(columnId)) {
+                keptColumnIds.add(columnId);
+            }
+        }
+
+        for(Integer columnId: sortedColumnIds) {
+            LOG.info("Round {}: column {} with sensitivity rms {}{}.", this.round, columnId,
+                    Math.sqrt(getValue(sumSquares, columnId) / recordCount),
+                    keptColumnIds.contains(columnId) ? "" : " is dropped");
+        }
+        // keep the original column order in working set
+        List<Integer> nextColumnIds = new ArrayList<Integer>(keptColumnIds.size());
+        for(Integer columnId: this.workingColumnIds) {
+            if(keptColumnIds.contains(columnId)) {
+                nextColumnIds.add(columnId);
+            }
+        }
+        LOG.info("Round {} keeps {} of {} columns.", this.round, nextColumnIds.size(), this.workingColumnIds.size());
+        this.workingColumnIds = nextColumnIds;
+
+        if(this.historyOutput != null) {
+            writeHistory(sortedColumnIds, sums, sumSquares, recordCount);
+        }
+    }
+
+    /**
+     * Write 'se' report of all working columns in order of sensitivity and kept column ids of current round, round
+     * index starts from 0 like 'se.x' files of MR path.
+     */
+    private void writeHistory(List<Integer> sortedColumnIds, Map<Integer, Double> sums,
+            Map<Integer, Double> sumSquares, long recordCount) {
+        Path roundPath = new Path(this.historyOutput, Integer.toString(this.round - 1));
+        BufferedWriter writer = null;
+        try {
+            writer = ShifuFileUtils.getWriter(new Path(roundPath, Constants.SHIFU_VARSELECT_SE_OUTPUT_NAME)
+                    .toString(), SourceType.HDFS);
+            for(Integer columnId: sortedColumnIds) {
+                double mean = getValue(sums, columnId) / recordCount;
+                double meanSquare = getValue(sumSquares, columnId) / recordCount;
+                ColumnConfig columnConfig = CommonUtils.getColumnConfig(this.columnConfigList, columnId);
+                writer.write(columnId + "\t" + columnConfig.getColumnName() + "\t" + mean + "\t"
+                        + Math.sqrt(meanSquare) + "\t" + (meanSquare - mean * mean));
+                writer.newLine();
+            }
+            IOUtils.closeQuietly(writer);
+
+            writer = ShifuFileUtils.getWriter(new Path(roundPath, "VarSels").toString(), SourceType.HDFS);
+            writer.write(String.format("%s|%s", Integer.toString(this.workingColumnIds.size()),
+                    this.workingColumnIds.toString()));
+            writer.newLine();
+        } catch (IOException e) {
+            LOG.warn("Fail to write history of round " + this.round + " in " + roundPath, e);
+        } finally {
+            IOUtils.closeQuietly(writer);
+        }
+    }
+
+    private static double getValue(Map<Integer, Double> values, Integer columnId) {
+        Double value = values.get(columnId);
+        return value == null ? 0d : value;
+    }
+
+    @Override
+    public CandidateSeed voteBestSeed() {
+        return new CandidateSeed(this.round, this.workingColumnIds);
+    }
+
+}
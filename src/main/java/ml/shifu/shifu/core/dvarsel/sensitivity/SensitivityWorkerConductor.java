@@ -0,0 +1,135 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dvarsel.sensitivity;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import ml.shifu.shifu.container.obj.ColumnConfig;
+import ml.shifu.shifu.container.obj.ModelConfig;
+import ml.shifu.shifu.core.alg.NNTrainer;
+import ml.shifu.shifu.core.dvarsel.AbstractWorkerConductor;
+import ml.shifu.shifu.core.dvarsel.CandidatePerf;
+import ml.shifu.shifu.core.dvarsel.CandidateSeed;
+import ml.shifu.shifu.core.dvarsel.VarSelMasterResult;
+import ml.shifu.shifu.core.dvarsel.VarSelWorkerResult;
+import ml.shifu.shifu.core.varselect.NNSensitivityEvaluator;
+import ml.shifu.shifu.util.Constants;
+
+import org.encog.ml.data.MLDataPair;
+import org.encog.ml.data.MLDataSet;
+import org.encog.ml.data.basic.BasicMLDataPair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Worker conductor of recursive sensitivity variable selection in one guagua job.
+ * 
+ * <p>
+ * Normalized data is loaded once into {@link ml.shifu.shifu.core.dvarsel.dataset.TrainingDataSet} and kept in memory
+ * in all rounds, dropped columns are only masked by views of working columns. In each round a NN model is trained on
+ * the worker data of working columns and sum of square sensitivity of each working column is computed by
+ * {@link NNSensitivityEvaluator} with the same definition as {@link ml.shifu.shifu.core.varselect.VarSelectMapper}:
+ * score diff with the column removed for SE and diff to the target for ST.
+ *
+ * <p>
+ * Models of workers are not synced, each worker trains its own model on its own part of data while the MR path scores
+ * all records with one model trained on all data. Sensitivity summed by master is an approximation of the MR path, so
+ * in-memory selection is only enabled by {@link Constants#SHIFU_VARSEL_SE_IN_MEMORY}.
+ */
+public class SensitivityWorkerConductor extends AbstractWorkerConductor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SensitivityWorkerConductor.class);
+
+    private CandidateSeed workingSeed;
+
+    public SensitivityWorkerConductor(ModelConfig modelConfig, List<ColumnConfig> columnConfigList) {
+        super(modelConfig, columnConfigList);
+    }
+
+    @Override
+    public void consumeMasterResult(VarSelMasterResult masterResult) {
+        List<CandidateSeed> seedList = masterResult.getSeedList();
+        this.workingSeed = (seedList == null || seedList.isEmpty()) ? null : seedList.get(0);
+    }
+
+    @Override
+    public VarSelWorkerResult generateVarSelResult() {
+        if(this.workingSeed == null) {
+            return getDefaultWorkerResult();
+        }
+        Set<Integer> workingColumnIdSet = new HashSet<Integer>(this.workingSeed.getColumnIdList());
+
+        MLDataSet[] validateData = this.trainingDataSet.generateValidateDataViews(workingColumnIdSet,
+                this.modelConfig.getValidSetRate());
+        NNTrainer trainer = new NNTrainer(this.modelConfig, 1, false);
+        trainer.setTrainSet(validateData[0]);
+        trainer.setValidSet(validateData[1]);
+        trainer.disableModelPersistence();
+        trainer.disableLogging();
+        try {
+            trainer.train();
+        } catch (IOException e) {
+            // model is not persisted, ignore it like validation conductor
+            LOG.warn("Error in training model of working columns.", e);
+        }
+
+        // inputs of data view are in the order of data column list
+        List<Integer> columnIds = new ArrayList<Integer>(workingColumnIdSet.size());
+        for(Integer columnId: this.trainingDataSet.getDataColumnIdList()) {
+            if(workingColumnIdSet.contains(columnId)) {
+                columnIds.add(columnId);
+            }
+        }
+
+        boolean isST = Constants.FILTER_BY_ST.equalsIgnoreCase(this.modelConfig.getVarSelectFilterBy());
+        NNSensitivityEvaluator evaluator = new NNSensitivityEvaluator(trainer.getNetwork().getFlat());
+        MLDataSet dataView = this.trainingDataSet.getDataView(workingColumnIdSet);
+        MLDataPair pair = BasicMLDataPair.createPair(dataView.getInputSize(), dataView.getIdealSize());
+        double[] scores = new double[columnIds.size()];
+        double[] sums = new double[columnIds.size()];
+        double[] sumSquares = new double[columnIds.size()];
+        long recordCount = dataView.getRecordCount();
+        for(long i = 0; i < recordCount; i++) {
+            dataView.getRecord(i, pair);
+            double score = evaluator.compute(pair.getInputArray(), scores);
+            double expected = isST ? pair.getIdealArray()[0] : score;
+            for(int j = 0; j < scores.length; j++) {
+                double diff = expected - scores[j];
+                sums[j] += diff;
+                sumSquares[j] += diff * diff;
+            }
+        }
+
+        List<CandidatePerf> perfList = new ArrayList<CandidatePerf>(columnIds.size());
+        for(int j = 0; j < columnIds.size(); j++) {
+            perfList.add(new CandidatePerf(columnIds.get(j), sumSquares[j]));
+        }
+        VarSelWorkerResult workerResult = new VarSelWorkerResult(perfList);
+        workerResult.setRecordCount(recordCount);
+        workerResult.setScoreDiffSums(sums);
+        return workerResult;
+    }
+
+    @Override
+    public VarSelWorkerResult getDefaultWorkerResult() {
+        return new VarSelWorkerResult(new ArrayList<CandidatePerf>());
+    }
+
+}
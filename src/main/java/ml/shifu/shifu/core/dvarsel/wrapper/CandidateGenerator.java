@@ -33,6 +33,10 @@ public class CandidateGenerator {
     private static final Logger LOG = LoggerFactory.getLogger(CandidateGenerator.class);
 
     public static final String WORKER_SAMPLE_RATE = "worker_sample_rate";
+    /**
+     * Optional, candidates validated at the same time in one worker, default is number of processors.
+     */
+    public static final String WORKER_THREAD_COUNT = "worker_thread_count";
     public static final String POPULATION_MULTIPLY_CNT = "population_multiply_cnt";
     public static final String POPULATION_LIVE_SIZE = "population_live_size";
     public static final String EXPECT_VARIABLE_CNT = "expect_variable_cnt";
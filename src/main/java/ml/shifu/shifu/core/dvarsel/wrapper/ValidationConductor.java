@@ -20,7 +20,6 @@ import ml.shifu.shifu.container.obj.ModelConfig;
 import ml.shifu.shifu.core.alg.NNTrainer;
 import ml.shifu.shifu.core.dvarsel.dataset.TrainingDataSet;
 import org.encog.ml.data.MLDataSet;
-import org.encog.ml.data.basic.BasicMLDataSet;
 
 import java.io.IOException;
 import java.util.List;
@@ -36,6 +35,7 @@ public class ValidationConductor {
     private List<ColumnConfig> columnConfigList;
     private Set<Integer>  workingColumnSet;
     private TrainingDataSet trainingDataSet;
+    private int trainerThreadCount = 0;
 
     public ValidationConductor(ModelConfig modelConfig,
                                List<ColumnConfig> columnConfigList,
@@ -47,20 +47,25 @@ public class ValidationConductor {
         this.trainingDataSet = trainingDataSet;
     }
 
-    public double runValidate() {
-        //1. prepare training data
-        MLDataSet trainingData = new BasicMLDataSet();
-        MLDataSet testingData = new BasicMLDataSet();
+    /**
+     * Set threads of NN training, 0 is to use all processors. Set to 1 if candidates are validated concurrently.
+     */
+    public void setTrainerThreadCount(int trainerThreadCount) {
+        this.trainerThreadCount = trainerThreadCount;
+    }
 
-        this.trainingDataSet.generateValidateData(this.workingColumnSet,
-                this.modelConfig.getValidSetRate(),
-                trainingData,
-                testingData);
+    public double runValidate() {
+        //1. prepare training data, views of working columns without copying records
+        MLDataSet[] validateData = this.trainingDataSet.generateValidateDataViews(this.workingColumnSet,
+                this.modelConfig.getValidSetRate());
+        MLDataSet trainingData = validateData[0];
+        MLDataSet testingData = validateData[1];
 
         //2. build NNTrainer
         NNTrainer trainer = new NNTrainer(this.modelConfig, 1, false);
         trainer.setTrainSet(trainingData);
         trainer.setValidSet(testingData);
+        trainer.setThreadCount(this.trainerThreadCount);
         trainer.disableModelPersistence();
         trainer.disableLogging();
 
@@ -26,6 +26,11 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Created on 11/24/2014.
@@ -37,10 +42,21 @@ public class WrapperWorkerConductor extends AbstractWorkerConductor {
     private List<CandidateSeed> seedList;
     private double workerSampleRate;
 
+    /**
+     * Candidates validated at the same time in this worker, each candidate is trained by one thread if more than one
+     * candidate is validated at the same time.
+     */
+    private int threadCount;
+
     public WrapperWorkerConductor(ModelConfig modelConfig, List<ColumnConfig> columnConfigList) {
         super(modelConfig, columnConfigList);
         this.workerSampleRate = (Double) modelConfig.getVarSelect().getParams()
                 .get(CandidateGenerator.WORKER_SAMPLE_RATE);
+        Object threadCountObj = modelConfig.getVarSelect().getParams().get(CandidateGenerator.WORKER_THREAD_COUNT);
+        this.threadCount = (threadCountObj instanceof Number) ? ((Number) threadCountObj).intValue() : 0;
+        if ( this.threadCount <= 0 ) {
+            this.threadCount = Runtime.getRuntime().availableProcessors();
+        }
     }
 
     @Override
@@ -50,24 +66,62 @@ public class WrapperWorkerConductor extends AbstractWorkerConductor {
 
     @Override
     public VarSelWorkerResult generateVarSelResult() {
-        List<CandidatePerf> perfList = new ArrayList<CandidatePerf>();
-
+        List<CandidateSeed> sampledSeeds = new ArrayList<CandidateSeed>();
         for( CandidateSeed seed : seedList ) {
             if ( rd.nextDouble() < this.workerSampleRate ) {
-                LOG.info("Start to test seed id = {} ", seed.getId());
-                ValidationConductor validationConductor = new ValidationConductor(
-                        modelConfig, columnConfigList,
-                        new HashSet<Integer>(seed.getColumnIdList()), trainingDataSet);
-                double validateError = validationConductor.runValidate();
-                perfList.add(new CandidatePerf(seed.getId(), validateError));
-
-                LOG.info("The validation error is {} for {}", validateError, seed.getColumnIdList());
+                sampledSeeds.add(seed);
+            }
+        }
+
+        List<CandidatePerf> perfList = new ArrayList<CandidatePerf>();
+        int threads = Math.min(this.threadCount, sampledSeeds.size());
+        if ( threads <= 1 ) {
+            for( CandidateSeed seed : sampledSeeds ) {
+                perfList.add(validate(seed, 0));
             }
+            return new VarSelWorkerResult(perfList);
+        }
+
+        // candidates are validated concurrently on views of the shared training data set
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<CandidatePerf>> futures = new ArrayList<Future<CandidatePerf>>(sampledSeeds.size());
+            for( final CandidateSeed seed : sampledSeeds ) {
+                futures.add(executor.submit(new Callable<CandidatePerf>() {
+                    @Override
+                    public CandidatePerf call() {
+                        return validate(seed, 1);
+                    }
+                }));
+            }
+            // keep the order of seeds in results
+            for( Future<CandidatePerf> future : futures ) {
+                perfList.add(future.get());
+            }
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted in validating candidates.", e);
+        } catch ( ExecutionException e ) {
+            throw new RuntimeException("Fail to validate candidates.", e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
 
         return new VarSelWorkerResult(perfList);
     }
 
+    private CandidatePerf validate(CandidateSeed seed, int trainerThreadCount) {
+        LOG.info("Start to test seed id = {} ", seed.getId());
+        ValidationConductor validationConductor = new ValidationConductor(
+                modelConfig, columnConfigList,
+                new HashSet<Integer>(seed.getColumnIdList()), trainingDataSet);
+        validationConductor.setTrainerThreadCount(trainerThreadCount);
+        double validateError = validationConductor.runValidate();
+
+        LOG.info("The validation error is {} for {}", validateError, seed.getColumnIdList());
+        return new CandidatePerf(seed.getId(), validateError);
+    }
+
     @Override
     public VarSelWorkerResult getDefaultWorkerResult() {
         return new VarSelWorkerResult(new ArrayList<CandidatePerf>());
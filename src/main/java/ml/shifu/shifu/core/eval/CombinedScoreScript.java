@@ -0,0 +1,126 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.eval;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import ml.shifu.shifu.util.Constants;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Pig script to score eval sets on the same raw data in one job. Raw data is loaded once and each eval set has its own
+ * filter, score UDF, counter group and score output, the per eval set section of 'EvalScoreCombined.pig' is repeated
+ * for each eval set.
+ */
+public final class CombinedScoreScript {
+
+    /**
+     * Script template path in shifu home or shifu jar.
+     */
+    public static final String TEMPLATE = "scripts/EvalScoreCombined.pig";
+
+    private static final String SECTION_BEGIN = "--@begin";
+
+    private static final String SECTION_END = "--@end";
+
+    private static final String SORT_PREFIX = "--@sort ";
+
+    private static final String INDEX = "{i}";
+
+    private CombinedScoreScript() {
+    }
+
+    /**
+     * Counters of each eval set are in its own group to get score status of each eval set from one job.
+     * 
+     * @param index
+     *            index of eval set in the job
+     * @return counter group of eval set
+     */
+    public static String getCounterGroup(int index) {
+        return Constants.SHIFU_GROUP_COUNTER + "_" + index;
+    }
+
+    /**
+     * Read script template from local file, or from classpath if no such file.
+     * 
+     * @param path
+     *            template path
+     * @return template content
+     * @throws IOException
+     *             if template cannot be read
+     */
+    public static String load(String path) throws IOException {
+        InputStream is = null;
+        try {
+            if(new File(path).isFile()) {
+                is = new FileInputStream(path);
+            } else {
+                is = CombinedScoreScript.class.getClassLoader().getResourceAsStream(path);
+                if(is == null) {
+                    throw new FileNotFoundException("Pig script " + path + " is not found.");
+                }
+            }
+            return IOUtils.toString(is, Constants.DEFAULT_CHARSET);
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
+
+    /**
+     * Expand per eval set section of template.
+     * 
+     * @param template
+     *            script template
+     * @param evalSetSize
+     *            number of eval sets
+     * @param isSort
+     *            if scores of each eval set are sorted
+     * @return pig script
+     */
+    public static String expand(String template, int evalSetSize, boolean isSort) {
+        // markers are whole lines, not quoted in comments
+        int begin = template.indexOf('\n' + SECTION_BEGIN);
+        int end = template.indexOf('\n' + SECTION_END, begin + 1);
+        if(begin < 0 || end < 0) {
+            throw new IllegalArgumentException("No eval set section in pig script template.");
+        }
+        String section = template.substring(template.indexOf('\n', begin + 1) + 1, end + 1);
+        StringBuilder script = new StringBuilder(template.substring(0, begin + 1));
+        for(int i = 0; i < evalSetSize; i++) {
+            for(String line: section.split("\n")) {
+                if(line.startsWith(SORT_PREFIX)) {
+                    if(!isSort) {
+                        continue;
+                    }
+                    line = line.substring(SORT_PREFIX.length());
+                }
+                script.append(line.replace(INDEX, Integer.toString(i))).append('\n');
+            }
+        }
+        int next = template.indexOf('\n', end + 1);
+        if(next >= 0) {
+            script.append(template.substring(next + 1));
+        }
+        return script.toString();
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.eval;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.jar.JarFile;
+
+import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
+import ml.shifu.shifu.fs.ShifuFileUtils;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.pig.impl.util.JarManager;
+
+/**
+ * Fingerprint of all inputs of one eval pig output, like model files, config files, eval data files and score
+ * settings. The fingerprint is saved with job status in a hidden file of the output folder after job is done. In the
+ * next run, if fingerprint is not changed, the output can be reused and the pig job is skipped.
+ *
+ * <p>
+ * Config files are fingerprinted by content, model and data files by path, length and modification time, so large eval
+ * data is never read to compute the fingerprint. Pig script content and shifu jar version are added too, so outputs
+ * of an older shifu release or an older script are not reused.
+ */
+public class EvalFingerprint {
+
+    /**
+     * Hidden file in output folder, hidden files are ignored by pig and by all shifu output readers.
+     */
+    public static final String FINGERPRINT_FILE = ".shifu_eval_fingerprint";
+
+    private static final String FINGERPRINT_KEY = "shifu.eval.fingerprint";
+
+    private final StringBuilder content = new StringBuilder(512);
+
+    public EvalFingerprint add(String name, Object value) {
+        this.content.append(name).append('=').append(value).append('\n');
+        return this;
+    }
+
+    /**
+     * Add files by path, length and modification time, path can be a folder or a glob pattern and folders are listed
+     * recursively with hidden files skipped.
+     */
+    public EvalFingerprint addFiles(String name, String path, SourceType sourceType) throws IOException {
+        if(StringUtils.isBlank(path)) {
+            return add(name, "");
+        }
+        List<FileStatus> fileStatusList = ShifuFileUtils.getFileStatus(path, sourceType);
+        Collections.sort(fileStatusList, new Comparator<FileStatus>() {
+            @Override
+            public int compare(FileStatus f1, FileStatus f2) {
+                return f1.getPath().compareTo(f2.getPath());
+            }
+        });
+        add(name, fileStatusList.size());
+        for(FileStatus fileStatus: fileStatusList) {
+            add(name, fileStatus.getPath() + ":" + fileStatus.getLen() + ":" + fileStatus.getModificationTime());
+        }
+        return this;
+    }
+
+    /**
+     * Add file by md5 of its content, only for small files like configs.
+     */
+    public EvalFingerprint addFileContent(String name, String path, SourceType sourceType) throws IOException {
+        InputStream is = null;
+        try {
+            is = ShifuFileUtils.getInputStream(new Path(path), sourceType);
+            return add(name, DigestUtils.md5Hex(is));
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
+
+    /**
+     * Add pig script by md5 of its content, script is read from local file or from classpath like pig executor.
+     */
+    public EvalFingerprint addScript(String name, String path) throws IOException {
+        return add(name, DigestUtils.md5Hex(CombinedScoreScript.load(path)));
+    }
+
+    /**
+     * Add version of shifu jar in its manifest, with jar length and modification time as snapshot jars of the same
+     * version may be rebuilt.
+     */
+    public EvalFingerprint addShifuVersion() throws IOException {
+        String jarPath = JarManager.findContainingJar(EvalFingerprint.class);
+        if(jarPath == null) {
+            // classes folder in development, version is unknown
+            return add("shifuVersion", "");
+        }
+        File jar = new File(jarPath);
+        JarFile jarFile = new JarFile(jar);
+        try {
+            String version = jarFile.getManifest() == null ? ""
+                    : jarFile.getManifest().getMainAttributes().getValue("version");
+            return add("shifuVersion", version + ":" + jar.length() + ":" + jar.lastModified());
+        } finally {
+            jarFile.close();
+        }
+    }
+
+    public String digest() {
+        return DigestUtils.md5Hex(this.content.toString());
+    }
+
+    /**
+     * Load job status saved in output folder by {@link #save(String, SourceType, Properties)}.
+     *
+     * @param outputPath
+     *            the pig output folder
+     * @param sourceType
+     *            source type of output
+     * @return saved job status, or null if output has no part files or fingerprint is changed
+     * @throws IOException
+     *             any io exception in reading fingerprint file
+     */
+    public Properties load(String outputPath, SourceType sourceType) throws IOException {
+        String fingerprintPath = new Path(outputPath, FINGERPRINT_FILE).toString();
+        if(!ShifuFileUtils.isFileExists(fingerprintPath, sourceType)
+                || ShifuFileUtils.getFilePartCount(outputPath, sourceType) == 0) {
+            return null;
+        }
+
+        Properties status = new Properties();
+        BufferedReader reader = null;
+        try {
+            reader = ShifuFileUtils.getReader(fingerprintPath, sourceType);
+            status.load(reader);
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+        return digest().equals(status.getProperty(FINGERPRINT_KEY)) ? status : null;
+    }
+
+    /**
+     * Save job status with current fingerprint into output folder.
+     *
+     * @param outputPath
+     *            the pig output folder
+     * @param sourceType
+     *            source type of output
+     * @param status
+     *            job status to be reused if output is reused
+     * @throws IOException
+     *             any io exception in writing fingerprint file
+     */
+    public void save(String outputPath, SourceType sourceType, Properties status) throws IOException {
+        Properties props = new Properties();
+        props.putAll(status);
+        props.setProperty(FINGERPRINT_KEY, digest());
+        BufferedWriter writer = null;
+        try {
+            writer = ShifuFileUtils.getWriter(new Path(outputPath, FINGERPRINT_FILE).toString(), sourceType);
+            props.store(writer, null);
+        } finally {
+            IOUtils.closeQuietly(writer);
+        }
+    }
+
+}
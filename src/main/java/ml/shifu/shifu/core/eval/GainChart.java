@@ -17,6 +17,7 @@ package ml.shifu.shifu.core.eval;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.text.DecimalFormat;
 import java.util.List;
 
@@ -30,12 +31,41 @@ import ml.shifu.shifu.fs.ShifuFileUtils;
 /**
  * Generate gainchart with html format and csv format
  * 
+ * <p>
+ * Chart points and csv rows are written to the file writer one by one with no intermediate strings. Number formats are
+ * per instance since {@link DecimalFormat} is not thread safe, one {@link GainChart} instance per thread can be used
+ * to generate files of different eval sets concurrently.
+ * 
  * @author Zhang David (pengzhang@paypal.com)
  */
 public class GainChart {
 
+    /**
+     * Shared csv number format, not thread safe, only kept for compatibility.
+     */
     public static final DecimalFormat DF = new DecimalFormat("#.####");
 
+    private static final String[] DATA_KEYS = new String[] { "{y: ", ", x: ", ", wgt_opt: ", ", precision: ",
+            ", opt: ", ", score: " };
+
+    private static final String[] PRROC_DATA_KEYS = new String[] { "{y: ", ", x: ", ", precision:", ", recall: ",
+            ", fpr: ", ", opt: ", ", score: " };
+
+    private static final String[] SCORE_DATA_KEYS = new String[] { "{y: ", ", x: ", ", score_cnt: ", ", score: " };
+
+    private static final String CSV_HEADER = "ActionRate,WeightedActionRate,Recall,WeightedRecall,Precision,"
+            + "WeightedPrecision,FPR,WeightedFPR,BinLowestScore\n";
+
+    /**
+     * Number format of chart points, same as {@link GainChartTemplate#DF}.
+     */
+    private final DecimalFormat chartFormat = new DecimalFormat("#.##");
+
+    /**
+     * Number format of csv files, same as {@link #DF}.
+     */
+    private final DecimalFormat csvFormat = new DecimalFormat("#.####");
+
     public void generateHtml(EvalConfig evalConfig, ModelConfig modelConfig, String fileName, PerformanceResult result)
             throws IOException {
         BufferedWriter writer = null;
@@ -68,13 +98,9 @@ public class GainChart {
             writer.write("  var data_0 = [\n");
             for(int i = 0; i < result.weightedGains.size(); i++) {
                 PerformanceObject po = result.weightedGains.get(i);
-                writer.write(String.format(GainChartTemplate.DATA_FORMAT,
-                        GainChartTemplate.DF.format(po.weightedRecall * 100),
-                        GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                        GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                        GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                        GainChartTemplate.DF.format(po.actionRate * 100),
-                        GainChartTemplate.DF.format(po.binLowestScore)));
+                writePoint(writer, DATA_KEYS, po.weightedRecall * 100, po.weightedActionRate * 100,
+                        po.weightedActionRate * 100, po.weightedPrecision * 100, po.actionRate * 100,
+                        po.binLowestScore);
                 if(i != result.weightedGains.size() - 1) {
                     writer.write(",");
                 }
@@ -85,12 +111,8 @@ public class GainChart {
             writer.write("  var data_1 = [\n");
             for(int i = 0; i < result.weightedGains.size(); i++) {
                 PerformanceObject po = result.weightedGains.get(i);
-                writer.write(String.format(GainChartTemplate.DATA_FORMAT, GainChartTemplate.DF.format(po.recall * 100),
-                        GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                        GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                        GainChartTemplate.DF.format(po.precision * 100),
-                        GainChartTemplate.DF.format(po.actionRate * 100),
-                        GainChartTemplate.DF.format(po.binLowestScore)));
+                writePoint(writer, DATA_KEYS, po.recall * 100, po.weightedActionRate * 100, po.weightedActionRate * 100,
+                        po.precision * 100, po.actionRate * 100, po.binLowestScore);
                 if(i != result.weightedGains.size() - 1) {
                     writer.write(",");
                 }
@@ -101,13 +123,8 @@ public class GainChart {
             writer.write("  var data_2 = [\n");
             for(int i = 0; i < result.gains.size(); i++) {
                 PerformanceObject po = result.gains.get(i);
-                writer.write(String.format(GainChartTemplate.DATA_FORMAT,
-                        GainChartTemplate.DF.format(po.weightedRecall * 100),
-                        GainChartTemplate.DF.format(po.actionRate * 100),
-                        GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                        GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                        GainChartTemplate.DF.format(po.actionRate * 100),
-                        GainChartTemplate.DF.format(po.binLowestScore)));
+                writePoint(writer, DATA_KEYS, po.weightedRecall * 100, po.actionRate * 100, po.weightedActionRate * 100,
+                        po.weightedPrecision * 100, po.actionRate * 100, po.binLowestScore);
                 if(i != result.gains.size() - 1) {
                     writer.write(",");
                 }
@@ -118,12 +135,8 @@ public class GainChart {
             writer.write("  var data_3 = [\n");
             for(int i = 0; i < result.gains.size(); i++) {
                 PerformanceObject po = result.gains.get(i);
-                writer.write(String.format(GainChartTemplate.DATA_FORMAT, GainChartTemplate.DF.format(po.recall * 100),
-                        GainChartTemplate.DF.format(po.actionRate * 100),
-                        GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                        GainChartTemplate.DF.format(po.precision * 100),
-                        GainChartTemplate.DF.format(po.actionRate * 100),
-                        GainChartTemplate.DF.format(po.binLowestScore)));
+                writePoint(writer, DATA_KEYS, po.recall * 100, po.actionRate * 100, po.weightedActionRate * 100,
+                        po.precision * 100, po.actionRate * 100, po.binLowestScore);
                 if(i != result.gains.size() - 1) {
                     writer.write(",");
                 }
@@ -134,13 +147,8 @@ public class GainChart {
             writer.write("  var data_4 = [\n");
             for(int i = 0; i < result.modelScoreList.size(); i++) {
                 PerformanceObject po = result.modelScoreList.get(i);
-                writer.write(String.format(GainChartTemplate.DATA_FORMAT,
-                        GainChartTemplate.DF.format(po.weightedRecall * 100),
-                        GainChartTemplate.DF.format(po.binLowestScore),
-                        GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                        GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                        GainChartTemplate.DF.format(po.actionRate * 100),
-                        GainChartTemplate.DF.format(po.binLowestScore)));
+                writePoint(writer, DATA_KEYS, po.weightedRecall * 100, po.binLowestScore, po.weightedActionRate * 100,
+                        po.weightedPrecision * 100, po.actionRate * 100, po.binLowestScore);
                 if(i != result.modelScoreList.size() - 1) {
                     writer.write(",");
                 }
@@ -151,12 +159,8 @@ public class GainChart {
             writer.write("  var data_5 = [\n");
             for(int i = 0; i < result.modelScoreList.size(); i++) {
                 PerformanceObject po = result.modelScoreList.get(i);
-                writer.write(String.format(GainChartTemplate.DATA_FORMAT, GainChartTemplate.DF.format(po.recall * 100),
-                        GainChartTemplate.DF.format(po.binLowestScore),
-                        GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                        GainChartTemplate.DF.format(po.precision * 100),
-                        GainChartTemplate.DF.format(po.actionRate * 100),
-                        GainChartTemplate.DF.format(po.binLowestScore)));
+                writePoint(writer, DATA_KEYS, po.recall * 100, po.binLowestScore, po.weightedActionRate * 100,
+                        po.precision * 100, po.actionRate * 100, po.binLowestScore);
                 if(i != result.modelScoreList.size() - 1) {
                     writer.write(",");
                 }
@@ -167,9 +171,8 @@ public class GainChart {
             writer.write("  var data_6 = [\n");
             for(int i = 0; i < result.modelScoreList.size(); i++) {
                 PerformanceObject po = result.modelScoreList.get(i);
-                writer.write(String.format(GainChartTemplate.SCORE_DATA_FORMAT,
-                        GainChartTemplate.DF.format(po.scoreCount), GainChartTemplate.DF.format(po.binLowestScore),
-                        GainChartTemplate.DF.format(po.scoreCount), GainChartTemplate.DF.format(po.binLowestScore)));
+                writePoint(writer, SCORE_DATA_KEYS, po.scoreCount, po.binLowestScore, po.scoreCount,
+                        po.binLowestScore);
                 if(i != result.modelScoreList.size() - 1) {
                     writer.write(",");
                 }
@@ -276,14 +279,9 @@ public class GainChart {
 
             for(int i = 0; i < result.weightedPr.size(); i++) {
                 PerformanceObject po = result.weightedPr.get(i);
-                writer.write(String.format(GainChartTemplate.PRROC_DATA_FORMAT,
-                        GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                        GainChartTemplate.DF.format(po.weightedRecall * 100),
-                        GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                        GainChartTemplate.DF.format(po.weightedRecall * 100),
-                        GainChartTemplate.DF.format(po.weightedFpr * 100),
-                        GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                        GainChartTemplate.DF.format(po.binLowestScore)));
+                writePoint(writer, PRROC_DATA_KEYS, po.weightedPrecision * 100, po.weightedRecall * 100,
+                        po.weightedPrecision * 100, po.weightedRecall * 100, po.weightedFpr * 100,
+                        po.weightedActionRate * 100, po.binLowestScore);
                 if(i != result.weightedPr.size() - 1) {
                     writer.write(",");
                 }
@@ -294,14 +292,8 @@ public class GainChart {
             writer.write("  var data_1 = [\n");
             for(int i = 0; i < result.weightedPr.size(); i++) {
                 PerformanceObject po = result.weightedPr.get(i);
-                writer.write(String.format(GainChartTemplate.PRROC_DATA_FORMAT,
-                        GainChartTemplate.DF.format(po.precision * 100),
-                        GainChartTemplate.DF.format(po.weightedRecall * 100),
-                        GainChartTemplate.DF.format(po.precision * 100),
-                        GainChartTemplate.DF.format(po.weightedRecall * 100),
-                        GainChartTemplate.DF.format(po.weightedFpr * 100),
-                        GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                        GainChartTemplate.DF.format(po.binLowestScore)));
+                writePoint(writer, PRROC_DATA_KEYS, po.precision * 100, po.weightedRecall * 100, po.precision * 100,
+                        po.weightedRecall * 100, po.weightedFpr * 100, po.weightedActionRate * 100, po.binLowestScore);
                 if(i != result.weightedPr.size() - 1) {
                     writer.write(",");
                 }
@@ -312,13 +304,9 @@ public class GainChart {
             writer.write("  var data_2 = [\n");
             for(int i = 0; i < result.pr.size(); i++) {
                 PerformanceObject po = result.pr.get(i);
-                writer.write(String.format(GainChartTemplate.PRROC_DATA_FORMAT,
-                        GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                        GainChartTemplate.DF.format(po.recall * 100),
-                        GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                        GainChartTemplate.DF.format(po.recall * 100), GainChartTemplate.DF.format(po.fpr * 100),
-                        GainChartTemplate.DF.format(po.actionRate * 100),
-                        GainChartTemplate.DF.format(po.binLowestScore)));
+                writePoint(writer, PRROC_DATA_KEYS, po.weightedPrecision * 100, po.recall * 100,
+                        po.weightedPrecision * 100, po.recall * 100, po.fpr * 100, po.actionRate * 100,
+                        po.binLowestScore);
                 if(i != result.pr.size() - 1) {
                     writer.write(",");
                 }
@@ -329,11 +317,8 @@ public class GainChart {
             writer.write("  var data_3 = [\n");
             for(int i = 0; i < result.pr.size(); i++) {
                 PerformanceObject po = result.pr.get(i);
-                writer.write(String.format(GainChartTemplate.PRROC_DATA_FORMAT,
-                        GainChartTemplate.DF.format(po.precision * 100), GainChartTemplate.DF.format(po.recall * 100),
-                        GainChartTemplate.DF.format(po.precision * 100), GainChartTemplate.DF.format(po.recall * 100),
-                        GainChartTemplate.DF.format(po.fpr * 100), GainChartTemplate.DF.format(po.actionRate * 100),
-                        GainChartTemplate.DF.format(po.binLowestScore)));
+                writePoint(writer, PRROC_DATA_KEYS, po.precision * 100, po.recall * 100, po.precision * 100,
+                        po.recall * 100, po.fpr * 100, po.actionRate * 100, po.binLowestScore);
                 if(i != result.pr.size() - 1) {
                     writer.write(",");
                 }
@@ -344,14 +329,9 @@ public class GainChart {
             writer.write("  var data_4 = [\n");
             for(int i = 0; i < result.weightedRoc.size(); i++) {
                 PerformanceObject po = result.weightedRoc.get(i);
-                writer.write(String.format(GainChartTemplate.PRROC_DATA_FORMAT,
-                        GainChartTemplate.DF.format(po.weightedRecall * 100),
-                        GainChartTemplate.DF.format(po.weightedFpr * 100),
-                        GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                        GainChartTemplate.DF.format(po.weightedRecall * 100),
-                        GainChartTemplate.DF.format(po.weightedFpr * 100),
-                        GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                        GainChartTemplate.DF.format(po.binLowestScore)));
+                writePoint(writer, PRROC_DATA_KEYS, po.weightedRecall * 100, po.weightedFpr * 100,
+                        po.weightedPrecision * 100, po.weightedRecall * 100, po.weightedFpr * 100,
+                        po.weightedActionRate * 100, po.binLowestScore);
                 if(i != result.weightedRoc.size() - 1) {
                     writer.write(",");
                 }
@@ -362,14 +342,8 @@ public class GainChart {
             writer.write("  var data_5 = [\n");
             for(int i = 0; i < result.weightedRoc.size(); i++) {
                 PerformanceObject po = result.weightedRoc.get(i);
-                writer.write(String.format(GainChartTemplate.PRROC_DATA_FORMAT,
-                        GainChartTemplate.DF.format(po.recall * 100),
-                        GainChartTemplate.DF.format(po.weightedFpr * 100),
-                        GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                        GainChartTemplate.DF.format(po.recall * 100),
-                        GainChartTemplate.DF.format(po.weightedFpr * 100),
-                        GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                        GainChartTemplate.DF.format(po.binLowestScore)));
+                writePoint(writer, PRROC_DATA_KEYS, po.recall * 100, po.weightedFpr * 100, po.weightedPrecision * 100,
+                        po.recall * 100, po.weightedFpr * 100, po.weightedActionRate * 100, po.binLowestScore);
                 if(i != result.weightedRoc.size() - 1) {
                     writer.write(",");
                 }
@@ -380,12 +354,8 @@ public class GainChart {
             writer.write("  var data_6 = [\n");
             for(int i = 0; i < result.roc.size(); i++) {
                 PerformanceObject po = result.roc.get(i);
-                writer.write(String.format(GainChartTemplate.PRROC_DATA_FORMAT,
-                        GainChartTemplate.DF.format(po.weightedRecall * 100),
-                        GainChartTemplate.DF.format(po.fpr * 100), GainChartTemplate.DF.format(po.precision * 100),
-                        GainChartTemplate.DF.format(po.weightedRecall * 100),
-                        GainChartTemplate.DF.format(po.fpr * 100), GainChartTemplate.DF.format(po.actionRate * 100),
-                        GainChartTemplate.DF.format(po.binLowestScore)));
+                writePoint(writer, PRROC_DATA_KEYS, po.weightedRecall * 100, po.fpr * 100, po.precision * 100,
+                        po.weightedRecall * 100, po.fpr * 100, po.actionRate * 100, po.binLowestScore);
                 if(i != result.roc.size() - 1) {
                     writer.write(",");
                 }
@@ -396,11 +366,8 @@ public class GainChart {
             writer.write("  var data_7 = [\n");
             for(int i = 0; i < result.roc.size(); i++) {
                 PerformanceObject po = result.roc.get(i);
-                writer.write(String.format(GainChartTemplate.PRROC_DATA_FORMAT,
-                        GainChartTemplate.DF.format(po.recall * 100), GainChartTemplate.DF.format(po.fpr * 100),
-                        GainChartTemplate.DF.format(po.precision * 100), GainChartTemplate.DF.format(po.recall * 100),
-                        GainChartTemplate.DF.format(po.fpr * 100), GainChartTemplate.DF.format(po.actionRate * 100),
-                        GainChartTemplate.DF.format(po.binLowestScore)));
+                writePoint(writer, PRROC_DATA_KEYS, po.recall * 100, po.fpr * 100, po.precision * 100, po.recall * 100,
+                        po.fpr * 100, po.actionRate * 100, po.binLowestScore);
                 if(i != result.roc.size() - 1) {
                     writer.write(",");
                 }
@@ -516,13 +483,9 @@ public class GainChart {
                 writer.write("  var data_" + j + " = [\n");
                 for(int i = 0; i < result.weightedGains.size(); i++) {
                     PerformanceObject po = result.weightedGains.get(i);
-                    writer.write(String.format(GainChartTemplate.DATA_FORMAT,
-                            GainChartTemplate.DF.format(po.weightedRecall * 100),
-                            GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                            GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                            GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                            GainChartTemplate.DF.format(po.actionRate * 100),
-                            GainChartTemplate.DF.format(po.binLowestScore)));
+                    writePoint(writer, DATA_KEYS, po.weightedRecall * 100, po.weightedActionRate * 100,
+                            po.weightedActionRate * 100, po.weightedPrecision * 100, po.actionRate * 100,
+                            po.binLowestScore);
                     if(i != result.weightedGains.size() - 1) {
                         writer.write(",");
                     }
@@ -536,13 +499,8 @@ public class GainChart {
                 writer.write("  var data_" + (results.size() + j) + " = [\n");
                 for(int i = 0; i < result.weightedGains.size(); i++) {
                     PerformanceObject po = result.weightedGains.get(i);
-                    writer.write(String.format(GainChartTemplate.DATA_FORMAT,
-                            GainChartTemplate.DF.format(po.recall * 100),
-                            GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                            GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                            GainChartTemplate.DF.format(po.precision * 100),
-                            GainChartTemplate.DF.format(po.actionRate * 100),
-                            GainChartTemplate.DF.format(po.binLowestScore)));
+                    writePoint(writer, DATA_KEYS, po.recall * 100, po.weightedActionRate * 100,
+                            po.weightedActionRate * 100, po.precision * 100, po.actionRate * 100, po.binLowestScore);
                     if(i != result.weightedGains.size() - 1) {
                         writer.write(",");
                     }
@@ -556,13 +514,9 @@ public class GainChart {
                 writer.write("  var data_" + (2 * results.size() + j) + " = [\n");
                 for(int i = 0; i < result.gains.size(); i++) {
                     PerformanceObject po = result.gains.get(i);
-                    writer.write(String.format(GainChartTemplate.DATA_FORMAT,
-                            GainChartTemplate.DF.format(po.weightedRecall * 100),
-                            GainChartTemplate.DF.format(po.actionRate * 100),
-                            GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                            GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                            GainChartTemplate.DF.format(po.actionRate * 100),
-                            GainChartTemplate.DF.format(po.binLowestScore)));
+                    writePoint(writer, DATA_KEYS, po.weightedRecall * 100, po.actionRate * 100,
+                            po.weightedActionRate * 100, po.weightedPrecision * 100, po.actionRate * 100,
+                            po.binLowestScore);
                     if(i != result.gains.size() - 1) {
                         writer.write(",");
                     }
@@ -576,13 +530,8 @@ public class GainChart {
                 writer.write("  var data_" + (3 * results.size() + j) + " = [\n");
                 for(int i = 0; i < result.gains.size(); i++) {
                     PerformanceObject po = result.gains.get(i);
-                    writer.write(String.format(GainChartTemplate.DATA_FORMAT,
-                            GainChartTemplate.DF.format(po.recall * 100),
-                            GainChartTemplate.DF.format(po.actionRate * 100),
-                            GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                            GainChartTemplate.DF.format(po.precision * 100),
-                            GainChartTemplate.DF.format(po.actionRate * 100),
-                            GainChartTemplate.DF.format(po.binLowestScore)));
+                    writePoint(writer, DATA_KEYS, po.recall * 100, po.actionRate * 100, po.weightedActionRate * 100,
+                            po.precision * 100, po.actionRate * 100, po.binLowestScore);
                     if(i != result.gains.size() - 1) {
                         writer.write(",");
                     }
@@ -596,13 +545,9 @@ public class GainChart {
                 writer.write("  var data_" + (4 * results.size() + j) + " = [\n");
                 for(int i = 0; i < result.modelScoreList.size(); i++) {
                     PerformanceObject po = result.modelScoreList.get(i);
-                    writer.write(String.format(GainChartTemplate.DATA_FORMAT,
-                            GainChartTemplate.DF.format(po.weightedRecall * 100),
-                            GainChartTemplate.DF.format(po.binLowestScore),
-                            GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                            GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                            GainChartTemplate.DF.format(po.actionRate * 100),
-                            GainChartTemplate.DF.format(po.binLowestScore)));
+                    writePoint(writer, DATA_KEYS, po.weightedRecall * 100, po.binLowestScore,
+                            po.weightedActionRate * 100, po.weightedPrecision * 100, po.actionRate * 100,
+                            po.binLowestScore);
                     if(i != result.modelScoreList.size() - 1) {
                         writer.write(",");
                     }
@@ -616,13 +561,8 @@ public class GainChart {
                 writer.write("  var data_" + (5 * results.size() + j) + " = [\n");
                 for(int i = 0; i < result.modelScoreList.size(); i++) {
                     PerformanceObject po = result.modelScoreList.get(i);
-                    writer.write(String.format(GainChartTemplate.DATA_FORMAT,
-                            GainChartTemplate.DF.format(po.recall * 100),
-                            GainChartTemplate.DF.format(po.binLowestScore),
-                            GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                            GainChartTemplate.DF.format(po.precision * 100),
-                            GainChartTemplate.DF.format(po.actionRate * 100),
-                            GainChartTemplate.DF.format(po.binLowestScore)));
+                    writePoint(writer, DATA_KEYS, po.recall * 100, po.binLowestScore, po.weightedActionRate * 100,
+                            po.precision * 100, po.actionRate * 100, po.binLowestScore);
                     if(i != result.modelScoreList.size() - 1) {
                         writer.write(",");
                     }
@@ -636,9 +576,8 @@ public class GainChart {
                 writer.write("  var data_" + (6 * results.size() + j) + " = [\n");
                 for(int i = 0; i < result.modelScoreList.size(); i++) {
                     PerformanceObject po = result.modelScoreList.get(i);
-                    writer.write(String.format(GainChartTemplate.SCORE_DATA_FORMAT,
-                            GainChartTemplate.DF.format(po.scoreCount), GainChartTemplate.DF.format(po.binLowestScore),
-                            GainChartTemplate.DF.format(po.scoreCount), GainChartTemplate.DF.format(po.binLowestScore)));
+                    writePoint(writer, SCORE_DATA_KEYS, po.scoreCount, po.binLowestScore, po.scoreCount,
+                            po.binLowestScore);
                     if(i != result.modelScoreList.size() - 1) {
                         writer.write(",");
                     }
@@ -847,14 +786,9 @@ public class GainChart {
                 writer.write("  var data_" + j + " = [\n");
                 for(int i = 0; i < result.weightedPr.size(); i++) {
                     PerformanceObject po = result.weightedPr.get(i);
-                    writer.write(String.format(GainChartTemplate.PRROC_DATA_FORMAT,
-                            GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                            GainChartTemplate.DF.format(po.weightedRecall * 100),
-                            GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                            GainChartTemplate.DF.format(po.weightedRecall * 100),
-                            GainChartTemplate.DF.format(po.weightedFpr * 100),
-                            GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                            GainChartTemplate.DF.format(po.binLowestScore)));
+                    writePoint(writer, PRROC_DATA_KEYS, po.weightedPrecision * 100, po.weightedRecall * 100,
+                            po.weightedPrecision * 100, po.weightedRecall * 100, po.weightedFpr * 100,
+                            po.weightedActionRate * 100, po.binLowestScore);
                     if(i != result.weightedPr.size() - 1) {
                         writer.write(",");
                     }
@@ -868,14 +802,9 @@ public class GainChart {
                 writer.write("  var data_" + (results.size() + j) + " = [\n");
                 for(int i = 0; i < result.weightedPr.size(); i++) {
                     PerformanceObject po = result.weightedPr.get(i);
-                    writer.write(String.format(GainChartTemplate.PRROC_DATA_FORMAT,
-                            GainChartTemplate.DF.format(po.precision * 100),
-                            GainChartTemplate.DF.format(po.weightedRecall * 100),
-                            GainChartTemplate.DF.format(po.precision * 100),
-                            GainChartTemplate.DF.format(po.weightedRecall * 100),
-                            GainChartTemplate.DF.format(po.weightedFpr * 100),
-                            GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                            GainChartTemplate.DF.format(po.binLowestScore)));
+                    writePoint(writer, PRROC_DATA_KEYS, po.precision * 100, po.weightedRecall * 100, po.precision * 100,
+                            po.weightedRecall * 100, po.weightedFpr * 100, po.weightedActionRate * 100,
+                            po.binLowestScore);
                     if(i != result.weightedPr.size() - 1) {
                         writer.write(",");
                     }
@@ -889,13 +818,9 @@ public class GainChart {
                 writer.write("  var data_" + (2 * results.size() + j) + " = [\n");
                 for(int i = 0; i < result.pr.size(); i++) {
                     PerformanceObject po = result.pr.get(i);
-                    writer.write(String.format(GainChartTemplate.PRROC_DATA_FORMAT,
-                            GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                            GainChartTemplate.DF.format(po.recall * 100),
-                            GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                            GainChartTemplate.DF.format(po.recall * 100), GainChartTemplate.DF.format(po.fpr * 100),
-                            GainChartTemplate.DF.format(po.actionRate * 100),
-                            GainChartTemplate.DF.format(po.binLowestScore)));
+                    writePoint(writer, PRROC_DATA_KEYS, po.weightedPrecision * 100, po.recall * 100,
+                            po.weightedPrecision * 100, po.recall * 100, po.fpr * 100, po.actionRate * 100,
+                            po.binLowestScore);
                     if(i != result.pr.size() - 1) {
                         writer.write(",");
                     }
@@ -909,13 +834,8 @@ public class GainChart {
                 writer.write("  var data_" + (3 * results.size() + j) + " = [\n");
                 for(int i = 0; i < result.pr.size(); i++) {
                     PerformanceObject po = result.pr.get(i);
-                    writer.write(String.format(GainChartTemplate.PRROC_DATA_FORMAT,
-                            GainChartTemplate.DF.format(po.precision * 100),
-                            GainChartTemplate.DF.format(po.recall * 100),
-                            GainChartTemplate.DF.format(po.precision * 100),
-                            GainChartTemplate.DF.format(po.recall * 100), GainChartTemplate.DF.format(po.fpr * 100),
-                            GainChartTemplate.DF.format(po.actionRate * 100),
-                            GainChartTemplate.DF.format(po.binLowestScore)));
+                    writePoint(writer, PRROC_DATA_KEYS, po.precision * 100, po.recall * 100, po.precision * 100,
+                            po.recall * 100, po.fpr * 100, po.actionRate * 100, po.binLowestScore);
                     if(i != result.pr.size() - 1) {
                         writer.write(",");
                     }
@@ -929,14 +849,9 @@ public class GainChart {
                 writer.write("  var data_" + (4 * results.size() + j) + " = [\n");
                 for(int i = 0; i < result.weightedRoc.size(); i++) {
                     PerformanceObject po = result.weightedRoc.get(i);
-                    writer.write(String.format(GainChartTemplate.PRROC_DATA_FORMAT,
-                            GainChartTemplate.DF.format(po.weightedRecall * 100),
-                            GainChartTemplate.DF.format(po.weightedFpr * 100),
-                            GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                            GainChartTemplate.DF.format(po.weightedRecall * 100),
-                            GainChartTemplate.DF.format(po.weightedFpr * 100),
-                            GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                            GainChartTemplate.DF.format(po.binLowestScore)));
+                    writePoint(writer, PRROC_DATA_KEYS, po.weightedRecall * 100, po.weightedFpr * 100,
+                            po.weightedPrecision * 100, po.weightedRecall * 100, po.weightedFpr * 100,
+                            po.weightedActionRate * 100, po.binLowestScore);
                     if(i != result.weightedRoc.size() - 1) {
                         writer.write(",");
                     }
@@ -950,14 +865,9 @@ public class GainChart {
                 writer.write("  var data_" + (5 * results.size() + j) + " = [\n");
                 for(int i = 0; i < result.weightedRoc.size(); i++) {
                     PerformanceObject po = result.weightedRoc.get(i);
-                    writer.write(String.format(GainChartTemplate.PRROC_DATA_FORMAT,
-                            GainChartTemplate.DF.format(po.recall * 100),
-                            GainChartTemplate.DF.format(po.weightedFpr * 100),
-                            GainChartTemplate.DF.format(po.weightedPrecision * 100),
-                            GainChartTemplate.DF.format(po.recall * 100),
-                            GainChartTemplate.DF.format(po.weightedFpr * 100),
-                            GainChartTemplate.DF.format(po.weightedActionRate * 100),
-                            GainChartTemplate.DF.format(po.binLowestScore)));
+                    writePoint(writer, PRROC_DATA_KEYS, po.recall * 100, po.weightedFpr * 100,
+                            po.weightedPrecision * 100, po.recall * 100, po.weightedFpr * 100,
+                            po.weightedActionRate * 100, po.binLowestScore);
                     if(i != result.weightedRoc.size() - 1) {
                         writer.write(",");
                     }
@@ -971,13 +881,8 @@ public class GainChart {
                 writer.write("  var data_" + (6 * results.size() + j) + " = [\n");
                 for(int i = 0; i < result.roc.size(); i++) {
                     PerformanceObject po = result.roc.get(i);
-                    writer.write(String.format(GainChartTemplate.PRROC_DATA_FORMAT,
-                            GainChartTemplate.DF.format(po.weightedRecall * 100),
-                            GainChartTemplate.DF.format(po.fpr * 100), GainChartTemplate.DF.format(po.precision * 100),
-                            GainChartTemplate.DF.format(po.weightedRecall * 100),
-                            GainChartTemplate.DF.format(po.fpr * 100),
-                            GainChartTemplate.DF.format(po.actionRate * 100),
-                            GainChartTemplate.DF.format(po.binLowestScore)));
+                    writePoint(writer, PRROC_DATA_KEYS, po.weightedRecall * 100, po.fpr * 100, po.precision * 100,
+                            po.weightedRecall * 100, po.fpr * 100, po.actionRate * 100, po.binLowestScore);
                     if(i != result.roc.size() - 1) {
                         writer.write(",");
                     }
@@ -991,12 +896,8 @@ public class GainChart {
                 writer.write("  var data_" + (7 * results.size() + j) + " = [\n");
                 for(int i = 0; i < result.roc.size(); i++) {
                     PerformanceObject po = result.roc.get(i);
-                    writer.write(String.format(GainChartTemplate.PRROC_DATA_FORMAT,
-                            GainChartTemplate.DF.format(po.recall * 100), GainChartTemplate.DF.format(po.fpr * 100),
-                            GainChartTemplate.DF.format(po.precision * 100),
-                            GainChartTemplate.DF.format(po.recall * 100), GainChartTemplate.DF.format(po.fpr * 100),
-                            GainChartTemplate.DF.format(po.actionRate * 100),
-                            GainChartTemplate.DF.format(po.binLowestScore)));
+                    writePoint(writer, PRROC_DATA_KEYS, po.recall * 100, po.fpr * 100, po.precision * 100,
+                            po.recall * 100, po.fpr * 100, po.actionRate * 100, po.binLowestScore);
                     if(i != result.roc.size() - 1) {
                         writer.write(",");
                     }
@@ -1207,14 +1108,19 @@ public class GainChart {
         BufferedWriter writer = null;
         try {
             writer = ShifuFileUtils.getWriter(fileName, SourceType.LOCAL);
-            writer.write("ActionRate,WeightedActionRate,Recall,WeightedRecall,Precision,WeightedPrecision,FPR,WeightedFPR,BinLowestScore\n");
-            String formatString = "%s,%s,%s,%s,%s,%s,%s,%s,%s\n";
+            writer.write(CSV_HEADER);
 
             for(PerformanceObject po: performanceList) {
-                writer.write(String.format(formatString, DF.format(po.actionRate), DF.format(po.weightedActionRate),
-                        DF.format(po.recall), DF.format(po.weightedRecall), DF.format(po.precision),
-                        DF.format(po.weightedPrecision), DF.format(po.fpr), DF.format(po.weightedFpr),
-                        po.binLowestScore));
+                writeCsvValue(writer, po.actionRate);
+                writeCsvValue(writer, po.weightedActionRate);
+                writeCsvValue(writer, po.recall);
+                writeCsvValue(writer, po.weightedRecall);
+                writeCsvValue(writer, po.precision);
+                writeCsvValue(writer, po.weightedPrecision);
+                writeCsvValue(writer, po.fpr);
+                writeCsvValue(writer, po.weightedFpr);
+                writer.write(Double.toString(po.binLowestScore));
+                writer.write('\n');
             }
         } finally {
             if(writer != null) {
@@ -1223,4 +1129,20 @@ public class GainChart {
         }
     }
 
+    private void writeCsvValue(Writer writer, double value) throws IOException {
+        writer.write(this.csvFormat.format(value));
+        writer.write(',');
+    }
+
+    /**
+     * Write one chart point like '{y: 1.2, x: 3.4, ...}' with keys in order, values are formatted by chart format.
+     */
+    private void writePoint(Writer writer, String[] keys, double... values) throws IOException {
+        for(int i = 0; i < keys.length; i++) {
+            writer.write(keys[i]);
+            writer.write(this.chartFormat.format(values[i]));
+        }
+        writer.write('}');
+    }
+
 }
@@ -0,0 +1,254 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.eval;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.regex.Pattern;
+
+import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
+import ml.shifu.shifu.fs.ShifuFileUtils;
+import ml.shifu.shifu.util.QuickSort;
+
+/**
+ * Weighted positive and negative counts of eval scores by score bucket. Buckets are scores rounded to some
+ * significant digits, so buckets are ordered as scores and performance of a score column can be computed by walking
+ * buckets from the highest score without sorting all scores.
+ *
+ * <p>
+ * Histogram files are outputs of 'EvalScoreHist.pig' with fields: column index, bucket, positive count, negative
+ * count, weighted positive count, weighted negative count, min score and max score of the bucket.
+ */
+public class ScoreHistogram {
+
+    private int size;
+
+    private double[] minScores = new double[16];
+
+    private double[] maxScores = new double[16];
+
+    private long[] posCounts = new long[16];
+
+    private long[] negCounts = new long[16];
+
+    private double[] posWeights = new double[16];
+
+    private double[] negWeights = new double[16];
+
+    private boolean isSorted = true;
+
+    /**
+     * Round score to significant digits as its bucket, rounding keeps order of scores.
+     *
+     * @param score
+     *            the score
+     * @param digits
+     *            significant digits to keep
+     * @return bucket of the score
+     */
+    public static double toBucket(double score, int digits) {
+        if(score == 0d || Double.isNaN(score) || Double.isInfinite(score)) {
+            return score;
+        }
+        int exponent = (int) Math.floor(Math.log10(Math.abs(score)));
+        double factor = Math.pow(10d, digits - 1 - exponent);
+        return Math.round(score * factor) / factor;
+    }
+
+    /**
+     * Add one bucket into histogram.
+     */
+    public void add(double minScore, double maxScore, long posCount, long negCount, double posWeight,
+            double negWeight) {
+        if(this.size == this.minScores.length) {
+            grow();
+        }
+        if(this.size > 0 && minScore > this.minScores[this.size - 1]) {
+            this.isSorted = false;
+        }
+        this.minScores[this.size] = minScore;
+        this.maxScores[this.size] = maxScore;
+        this.posCounts[this.size] = posCount;
+        this.negCounts[this.size] = negCount;
+        this.posWeights[this.size] = posWeight;
+        this.negWeights[this.size] = negWeight;
+        this.size += 1;
+    }
+
+    private void grow() {
+        int capacity = this.minScores.length * 2;
+        this.minScores = copyOf(this.minScores, capacity);
+        this.maxScores = copyOf(this.maxScores, capacity);
+        this.posCounts = copyOf(this.posCounts, capacity);
+        this.negCounts = copyOf(this.negCounts, capacity);
+        this.posWeights = copyOf(this.posWeights, capacity);
+        this.negWeights = copyOf(this.negWeights, capacity);
+    }
+
+    private static double[] copyOf(double[] array, int capacity) {
+        double[] newArray = new double[capacity];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+
+    private static long[] copyOf(long[] array, int capacity) {
+        long[] newArray = new long[capacity];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+
+    /**
+     * Sort buckets by score in descending order, the order performance is computed.
+     */
+    public void sortDesc() {
+        if(!this.isSorted) {
+            QuickSort.sort(this.minScores, 0, this.size - 1, true,
+                    new double[][] { this.maxScores, this.posWeights, this.negWeights },
+                    new long[][] { this.posCounts, this.negCounts });
+            this.isSorted = true;
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public double getMinScore(int i) {
+        return this.minScores[i];
+    }
+
+    public long getPosCount(int i) {
+        return this.posCounts[i];
+    }
+
+    public long getNegCount(int i) {
+        return this.negCounts[i];
+    }
+
+    public double getPosWeight(int i) {
+        return this.posWeights[i];
+    }
+
+    public double getNegWeight(int i) {
+        return this.negWeights[i];
+    }
+
+    /**
+     * @return max score of all buckets
+     */
+    public double getMaxScore() {
+        double max = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < this.size; i++) {
+            max = Math.max(max, this.maxScores[i]);
+        }
+        return max;
+    }
+
+    /**
+     * @return min score of all buckets
+     */
+    public double getMinScore() {
+        double min = Double.POSITIVE_INFINITY;
+        for(int i = 0; i < this.size; i++) {
+            min = Math.min(min, this.minScores[i]);
+        }
+        return min;
+    }
+
+    public long getTotalPosCount() {
+        long total = 0L;
+        for(int i = 0; i < this.size; i++) {
+            total += this.posCounts[i];
+        }
+        return total;
+    }
+
+    public long getTotalNegCount() {
+        long total = 0L;
+        for(int i = 0; i < this.size; i++) {
+            total += this.negCounts[i];
+        }
+        return total;
+    }
+
+    public double getTotalPosWeight() {
+        double total = 0d;
+        for(int i = 0; i < this.size; i++) {
+            total += this.posWeights[i];
+        }
+        return total;
+    }
+
+    public double getTotalNegWeight() {
+        double total = 0d;
+        for(int i = 0; i < this.size; i++) {
+            total += this.negWeights[i];
+        }
+        return total;
+    }
+
+    /**
+     * Load score histograms of all score columns, key is column index in histogram files.
+     *
+     * @param path
+     *            the histogram output path
+     * @param sourceType
+     *            the source type of path
+     * @param delimiter
+     *            the field delimiter in histogram files
+     * @return histograms sorted by score in descending order
+     * @throws IOException
+     *             any exception in reading histogram files
+     */
+    public static Map<Integer, ScoreHistogram> load(String path, SourceType sourceType, String delimiter)
+            throws IOException {
+        Map<Integer, ScoreHistogram> histograms = new HashMap<Integer, ScoreHistogram>();
+        List<Scanner> scanners = ShifuFileUtils.getDataScanners(path, sourceType);
+        try {
+            for(Scanner scanner: scanners) {
+                while(scanner.hasNextLine()) {
+                    String line = scanner.nextLine();
+                    if(line.length() == 0) {
+                        continue;
+                    }
+                    String[] fields = line.split(Pattern.quote(delimiter), -1);
+                    Integer columnIndex = Integer.valueOf(fields[0]);
+                    ScoreHistogram histogram = histograms.get(columnIndex);
+                    if(histogram == null) {
+                        histogram = new ScoreHistogram();
+                        histograms.put(columnIndex, histogram);
+                    }
+                    histogram.add(Double.parseDouble(fields[6]), Double.parseDouble(fields[7]),
+                            Long.parseLong(fields[2]), Long.parseLong(fields[3]), Double.parseDouble(fields[4]),
+                            Double.parseDouble(fields[5]));
+                }
+            }
+        } finally {
+            for(Scanner scanner: scanners) {
+                scanner.close();
+            }
+        }
+
+        for(ScoreHistogram histogram: histograms.values()) {
+            histogram.sortDesc();
+        }
+        return histograms;
+    }
+
+}
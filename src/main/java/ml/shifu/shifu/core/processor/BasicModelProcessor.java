@@ -24,6 +24,7 @@ import ml.shifu.shifu.container.obj.ModelConfig;
 import ml.shifu.shifu.container.obj.ModelNormalizeConf.NormType;
 import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
 import ml.shifu.shifu.core.dtrain.CommonConstants;
+import ml.shifu.shifu.core.dtrain.dataset.NormBinaryFormat;
 import ml.shifu.shifu.core.shuffle.MapReduceShuffle;
 import ml.shifu.shifu.core.validator.ModelInspector;
 import ml.shifu.shifu.core.validator.ModelInspector.ModelStep;
@@ -42,6 +43,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -581,6 +583,76 @@ public class BasicModelProcessor {
         this.otherConfigs = otherConfigs;
     }
 
+    /**
+     * If normalized and cleaned data are stored in binary format, see {@link NormBinaryFormat}.
+     * 
+     * @return true if {@link Constants#SHIFU_NORM_OUTPUT_FORMAT} is 'binary'
+     */
+    protected boolean isBinaryNormOutput() {
+        return NormBinaryFormat.isBinary(Environment.getProperties());
+    }
+
+    /**
+     * If normalized or cleaned data in such path is stored in binary format. Format is decided by part file names
+     * ({@link NormBinaryFormat#EXTENSION}) written by norm step, not by current
+     * {@link Constants#SHIFU_NORM_OUTPUT_FORMAT} which may be changed after norm step.
+     * 
+     * @param dataPath
+     *            normalized or cleaned data path
+     * @return true if part files are in binary format
+     * @throws IOException
+     *             any io exception in listing part files
+     * @throws IllegalStateException
+     *             if binary and text part files are both in such path
+     */
+    protected boolean isBinaryNormData(String dataPath) throws IOException {
+        SourceType sourceType = modelConfig.getDataSet().getSource();
+        if(!ShifuFileUtils.isFileExists(dataPath, sourceType)) {
+            return false;
+        }
+        FileStatus[] parts = ShifuFileUtils.getFilePartStatus(dataPath, sourceType);
+        int binaryParts = 0;
+        for(FileStatus part: parts) {
+            if(NormBinaryFormat.isBinaryFile(part.getPath().getName())) {
+                binaryParts += 1;
+            }
+        }
+        if(binaryParts > 0 && binaryParts < parts.length) {
+            throw new IllegalStateException("Data in " + dataPath
+                    + " has both binary and text part files, please re-run norm step.");
+        }
+        return binaryParts > 0;
+    }
+
+    /**
+     * Fail fast if normalized or cleaned data is in binary format which can only be read by distributed NN/LR/tree
+     * model training.
+     * 
+     * @param dataPath
+     *            normalized or cleaned data path
+     * @param step
+     *            the step reading such data, used in error message
+     * @throws IOException
+     *             any io exception in listing part files
+     */
+    protected void checkTextNormData(String dataPath, String step) throws IOException {
+        if(isBinaryNormData(dataPath)) {
+            throw new IllegalArgumentException("Data in " + dataPath + " is in binary format which can only be read "
+                    + "by distributed NN/LR/tree model training, " + step + " needs text format. Please set "
+                    + Constants.SHIFU_NORM_OUTPUT_FORMAT + "=" + NormBinaryFormat.TEXT + " and re-run norm step.");
+        }
+    }
+
+    /**
+     * @return if normalized text data is randomized into {@link Constants#SHIFU_NORM_SHUFFLE_BUCKETS} bucket files of
+     *         each norm task, then no shuffle job is needed
+     */
+    protected boolean isNormBucketed() {
+        Integer buckets = Environment.getInt(Constants.SHIFU_NORM_SHUFFLE_BUCKETS);
+        return buckets != null && buckets > 1 && !isBinaryNormOutput() && !Boolean.TRUE.toString()
+                .equalsIgnoreCase(Environment.getProperty(Constants.SHIFU_OUTPUT_DATA_CSV, Boolean.FALSE.toString()));
+    }
+
     protected void runDataClean(boolean isToShuffle) throws IOException {
         SourceType sourceType = modelConfig.getDataSet().getSource();
         String cleanedDataPath = this.pathFinder.getCleanedDataPath();
@@ -598,7 +670,8 @@ public class BasicModelProcessor {
                 Environment.getProperty(Constants.SHIFU_OUTPUT_DATA_CSV, Boolean.FALSE.toString()))));
 
         try {
-            String normPigPath = pathFinder.getScriptPath("scripts/Normalize.pig");
+            String normPigPath = pathFinder.getScriptPath(isBinaryNormOutput() ? "scripts/NormalizeBinary.pig"
+                    : "scripts/Normalize.pig");
             paramsMap.put(Constants.IS_COMPRESS, "true");
             paramsMap.put(Constants.IS_NORM_FOR_CLEAN, "true");
             paramsMap.put(Constants.PATH_NORMALIZED_DATA, pathFinder.getCleanedDataPath());
@@ -620,7 +693,9 @@ public class BasicModelProcessor {
             throw new RuntimeException(e);
         }
 
-        if(isToShuffle) {
+        if(isToShuffle && isNormBucketed()) {
+            LOG.info("Cleaned data is randomized into buckets, shuffle job is skipped.");
+        } else if(isToShuffle && !isBinaryNormOutput()) {
             MapReduceShuffle shuffler = new MapReduceShuffle(this.modelConfig);
             try {
                 shuffler.run(pathFinder.getCleanedDataPath());
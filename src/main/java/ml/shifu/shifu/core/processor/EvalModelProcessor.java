@@ -21,8 +21,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Random;
 import java.util.Scanner;
 import java.util.Set;
@@ -50,7 +52,10 @@ import ml.shifu.shifu.core.PerformanceEvaluator;
 import ml.shifu.shifu.core.Scorer;
 import ml.shifu.shifu.core.dtrain.CommonConstants;
 import ml.shifu.shifu.core.dtrain.dt.IndependentTreeModel;
+import ml.shifu.shifu.core.eval.CombinedScoreScript;
+import ml.shifu.shifu.core.eval.EvalFingerprint;
 import ml.shifu.shifu.core.eval.GainChart;
+import ml.shifu.shifu.core.eval.ScoreHistogram;
 import ml.shifu.shifu.core.model.ModelSpec;
 import ml.shifu.shifu.core.validator.ModelInspector.ModelStep;
 import ml.shifu.shifu.exception.ShifuErrorCode;
@@ -252,6 +257,11 @@ public class EvalModelProcessor extends BasicModelProcessor implements Processor
         // do it only once
         syncDataToHdfs(evalSetList);
 
+        if(modelConfig.isMapReduceRunMode() && Environment.getBoolean(Constants.SHIFU_EVAL_COMBINED_SCORE, false)) {
+            // eval sets on the same raw data are scored in one pig job, left ones are scored one by one as before
+            evalSetList = runDistCombinedScore(evalSetList);
+        }
+
         if(Environment.getBoolean(Constants.SHIFU_EVAL_PARALLEL, true) && modelConfig.isMapReduceRunMode()
                 && evalSetList.size() > 1) {
             // run in parallel
@@ -317,6 +327,160 @@ public class EvalModelProcessor extends BasicModelProcessor implements Processor
         }
     }
 
+    /**
+     * Group eval sets by raw data input, eval sets in the same group are scored in one pig job: raw data is loaded
+     * once, each eval set's filter and models are applied in the same mapper and scores are stored into each eval
+     * set's score path.
+     * 
+     * @param evalSetList
+     *            eval config list
+     * @return eval sets not scored, since no other changed eval set shares raw data with them or score output of them
+     *         can be reused
+     * @throws IOException
+     *             any io exception
+     */
+    private List<EvalConfig> runDistCombinedScore(List<EvalConfig> evalSetList) throws IOException {
+        boolean isNoSortScore = modelConfig.isClassification() || isNoSort();
+        List<EvalConfig> leftEvalSets = new ArrayList<EvalConfig>();
+        Map<String, List<EvalConfig>> groups = new LinkedHashMap<String, List<EvalConfig>>();
+        Map<String, EvalFingerprint> fingerprints = new HashMap<String, EvalFingerprint>();
+        for(EvalConfig evalConfig: evalSetList) {
+            EvalFingerprint fingerprint = newScoreFingerprint(evalConfig, isNoSortScore,
+                    CombinedScoreScript.TEMPLATE);
+            if(loadScoreStatus(fingerprint, pathFinder.getEvalScorePath(evalConfig),
+                    evalConfig.getDataSet().getSource()) != null) {
+                // left to be reused in scoring one by one
+                leftEvalSets.add(evalConfig);
+                continue;
+            }
+            fingerprints.put(evalConfig.getName(), fingerprint);
+            String key = getRawDataKey(evalConfig);
+            List<EvalConfig> group = groups.get(key);
+            if(group == null) {
+                group = new ArrayList<EvalConfig>();
+                groups.put(key, group);
+            }
+            group.add(evalConfig);
+        }
+
+        for(List<EvalConfig> group: groups.values()) {
+            if(group.size() == 1) {
+                leftEvalSets.add(group.get(0));
+            } else {
+                runDistCombinedScoreGroup(group, fingerprints, isNoSortScore);
+            }
+        }
+        return leftEvalSets;
+    }
+
+    private String getRawDataKey(EvalConfig evalConfig) {
+        return evalConfig.getDataSet().getSource() + "|" + evalConfig.getDataSet().getDataPath() + "|"
+                + evalConfig.getDataSet().getDataDelimiter() + "|" + evalConfig.getDataSet().getHeaderPath() + "|"
+                + evalConfig.getDataSet().getHeaderDelimiter();
+    }
+
+    private void runDistCombinedScoreGroup(List<EvalConfig> group, Map<String, EvalFingerprint> fingerprints,
+            boolean isNoSortScore) throws IOException {
+        EvalConfig firstEvalConfig = group.get(0);
+        SourceType sourceType = firstEvalConfig.getDataSet().getSource();
+        List<String> names = new ArrayList<String>();
+        for(EvalConfig evalConfig: group) {
+            names.add(evalConfig.getName());
+        }
+        LOG.info("Eval sets {} share the same raw data, they are scored in one pig job.", names);
+
+        Map<String, String> paramsMap = new HashMap<String, String>();
+        paramsMap.put(Constants.SOURCE_TYPE, sourceType.toString());
+        paramsMap.put("pathEvalRawData", firstEvalConfig.getDataSet().getDataPath());
+        paramsMap.put("delimiter", CommonUtils.escapePigString(firstEvalConfig.getDataSet().getDataDelimiter()));
+        paramsMap.put("scale",
+                Environment.getProperty(Constants.SHIFU_SCORE_SCALE, Integer.toString(Scorer.DEFAULT_SCORE_SCALE)));
+        // the same reducer size as 'EvalScore.pig' and 'Eval.pig'
+        paramsMap.put("bytes_per_reducer", isNoSortScore ? "536870912" : "134217728");
+        for(int i = 0; i < group.size(); i++) {
+            EvalConfig evalConfig = group.get(i);
+            ShifuFileUtils.deleteFile(pathFinder.getEvalNormalizedPath(evalConfig), sourceType);
+            ShifuFileUtils.deleteFile(pathFinder.getEvalScorePath(evalConfig), sourceType);
+            ShifuFileUtils.deleteFile(pathFinder.getEvalPerformancePath(evalConfig), sourceType);
+            paramsMap.put("eval_set_name_" + i, evalConfig.getName());
+            paramsMap.put("pathEvalScore_" + i, pathFinder.getEvalScorePath(evalConfig));
+            paramsMap.put("columnIndex_" + i, evalConfig.getPerformanceScoreSelector().trim());
+            paramsMap.put("counter_group_" + i, CombinedScoreScript.getCounterGroup(i));
+        }
+
+        String expressionsAsString = super.modelConfig.getSegmentFilterExpressionsAsString();
+        Environment.getProperties().put("shifu.segment.expressions", expressionsAsString);
+
+        Map<String, String> confMap = new HashMap<String, String>();
+        String maxMinScoreFolder = ShifuFileUtils.getFileSystemBySourceType(sourceType).makeQualified(new Path(
+                "tmp" + File.separator + "maxmin_score_" + System.currentTimeMillis() + "_" + RANDOM.nextLong()))
+                .toString();
+        confMap.put(Constants.SHIFU_EVAL_MAXMIN_SCORE_OUTPUT, maxMinScoreFolder);
+
+        File script = File.createTempFile("EvalScoreCombined", ".pig");
+        try {
+            String template = CombinedScoreScript.load(pathFinder.getScriptPath(CombinedScoreScript.TEMPLATE));
+            FileUtils.writeStringToFile(script, CombinedScoreScript.expand(template, group.size(), !isNoSortScore),
+                    Constants.DEFAULT_CHARSET);
+            PigExecutor.getExecutor().submitJob(modelConfig, script.getAbsolutePath(), paramsMap, sourceType,
+                    confMap, super.pathFinder);
+
+            // each eval set has its own counter group and max/min score folder
+            for(int i = 0; i < group.size(); i++) {
+                EvalConfig evalConfig = group.get(i);
+                String counterGroup = CombinedScoreScript.getCounterGroup(i);
+                ScoreStatus scoreStatus = readScoreStatus(counterGroup, sourceType,
+                        maxMinScoreFolder + File.separator + counterGroup);
+                if(scoreStatus != null) {
+                    LOG.info("Eval {} has {} valid eval records.", evalConfig.getName(), scoreStatus.evalRecords);
+                    saveScoreStatus(fingerprints.get(evalConfig.getName()), pathFinder.getEvalScorePath(evalConfig),
+                            sourceType, scoreStatus);
+                }
+            }
+        } catch (IOException e) {
+            throw new ShifuException(ShifuErrorCode.ERROR_RUNNING_PIG_JOB, e);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        } finally {
+            FileUtils.deleteQuietly(script);
+            ShifuFileUtils.deleteFile(maxMinScoreFolder, sourceType);
+        }
+    }
+
+    /**
+     * Score status from counters of last pig run, the first job with valid records in counter group is used.
+     */
+    @SuppressWarnings("deprecation")
+    private ScoreStatus readScoreStatus(String counterGroup, SourceType sourceType, String maxMinScoreFolder)
+            throws IOException {
+        Iterator<JobStats> iter = PigStats.get().getJobGraph().iterator();
+        while(iter.hasNext()) {
+            JobStats jobStats = iter.next();
+            long evalRecords = jobStats.getHadoopCounters().getGroup(counterGroup)
+                    .getCounter(Constants.COUNTER_RECORDS);
+            if(evalRecords == 0L) {
+                continue;
+            }
+            long pigPosTags = jobStats.getHadoopCounters().getGroup(counterGroup).getCounter(Constants.COUNTER_POSTAGS);
+            long pigNegTags = jobStats.getHadoopCounters().getGroup(counterGroup).getCounter(Constants.COUNTER_NEGTAGS);
+            double pigPosWeightTags = jobStats.getHadoopCounters().getGroup(counterGroup)
+                    .getCounter(Constants.COUNTER_WPOSTAGS) / (Constants.EVAL_COUNTER_WEIGHT_SCALE * 1.0d);
+            double pigNegWeightTags = jobStats.getHadoopCounters().getGroup(counterGroup)
+                    .getCounter(Constants.COUNTER_WNEGTAGS) / (Constants.EVAL_COUNTER_WEIGHT_SCALE * 1.0d);
+
+            double maxScore = Integer.MIN_VALUE;
+            double minScore = Integer.MAX_VALUE;
+            if(modelConfig.isRegression()) {
+                double[] maxMinScores = locateMaxMinScoreFromFile(sourceType, maxMinScoreFolder);
+                maxScore = maxMinScores[0];
+                minScore = maxMinScores[1];
+            }
+            return new ScoreStatus(pigPosTags, pigNegTags, pigPosWeightTags, pigNegWeightTags, maxScore, minScore,
+                    evalRecords);
+        }
+        return null;
+    }
+
     /**
      * Run score only
      * 
@@ -395,11 +559,41 @@ public class EvalModelProcessor extends BasicModelProcessor implements Processor
      * @throws IOException
      *             any io exception
      */
-    @SuppressWarnings("deprecation")
     private ScoreStatus runDistScore(EvalConfig evalConfig) throws IOException {
-        // clean up output directories
+        return runDistScore(evalConfig, null);
+    }
+
+    /**
+     * run pig mode scoring
+     * 
+     * @param evalConfig
+     *            the name for evaluation
+     * @param scoreMetaColumns
+     *            if not null, score histograms of model score and such meta score columns are generated together
+     *            without sorting scores
+     * @throws IOException
+     *             any io exception
+     */
+    @SuppressWarnings("deprecation")
+    private ScoreStatus runDistScore(EvalConfig evalConfig, List<String> scoreMetaColumns) throws IOException {
         SourceType sourceType = evalConfig.getDataSet().getSource();
+        boolean isNoSortScore = modelConfig.isClassification() || (isNoSort() && EvalStep.SCORE.equals(this.evalStep));
+
+        // histogram output is not reused, it is small and computed together with score
+        EvalFingerprint fingerprint = null;
+        if(scoreMetaColumns == null) {
+            fingerprint = newScoreFingerprint(evalConfig, isNoSortScore,
+                    isNoSortScore ? "scripts/EvalScore.pig" : "scripts/Eval.pig");
+            ScoreStatus scoreStatus = loadScoreStatus(fingerprint, pathFinder.getEvalScorePath(evalConfig),
+                    sourceType);
+            if(scoreStatus != null) {
+                LOG.info("Models, configs and data of eval {} are not changed, reuse score output in {}.",
+                        evalConfig.getName(), pathFinder.getEvalScorePath(evalConfig));
+                return scoreStatus;
+            }
+        }
 
+        // clean up output directories
         ShifuFileUtils.deleteFile(pathFinder.getEvalNormalizedPath(evalConfig), sourceType);
         ShifuFileUtils.deleteFile(pathFinder.getEvalScorePath(evalConfig), sourceType);
         ShifuFileUtils.deleteFile(pathFinder.getEvalPerformancePath(evalConfig), sourceType);
@@ -429,8 +623,19 @@ public class EvalModelProcessor extends BasicModelProcessor implements Processor
                 "tmp" + File.separator + "maxmin_score_" + System.currentTimeMillis() + "_" + RANDOM.nextLong()))
                 .toString();
         confMap.put(Constants.SHIFU_EVAL_MAXMIN_SCORE_OUTPUT, maxMinScoreFolder);
-        if(modelConfig.isClassification() || (isNoSort() && EvalStep.SCORE.equals(this.evalStep))) {
+        if(isNoSortScore) {
             pigScript = "scripts/EvalScore.pig";
+        } else if(scoreMetaColumns != null) {
+            pigScript = "scripts/EvalScoreHist.pig";
+            ShifuFileUtils.deleteFile(pathFinder.getEvalScoreHistogramPath(evalConfig), sourceType);
+            paramsMap.put("pathEvalScoreHistogram", pathFinder.getEvalScoreHistogramPath(evalConfig));
+            paramsMap.put("histogram_digits",
+                    Integer.toString(Environment.getInt(Constants.SHIFU_EVAL_SCORE_HISTOGRAM_DIGITS, 5)));
+            // column index in histogram output is the index in this list
+            List<String> histogramColumns = new ArrayList<String>();
+            histogramColumns.add("shifu::" + evalConfig.getPerformanceScoreSelector().trim());
+            histogramColumns.addAll(scoreMetaColumns);
+            paramsMap.put("histogramColumns", StringUtils.join(histogramColumns, ", "));
         }
         try {
             PigExecutor.getExecutor().submitJob(modelConfig, pathFinder.getScriptPath(pigScript), paramsMap,
@@ -483,8 +688,10 @@ public class EvalModelProcessor extends BasicModelProcessor implements Processor
                 ShifuFileUtils.deleteFile(maxMinScoreFolder, sourceType);
             }
             // only one pig job with such counters, return
-            return new ScoreStatus(pigPosTags, pigNegTags, pigPosWeightTags, pigNegWeightTags, maxScore, minScore,
-                    evalRecords);
+            ScoreStatus scoreStatus = new ScoreStatus(pigPosTags, pigNegTags, pigPosWeightTags, pigNegWeightTags,
+                    maxScore, minScore, evalRecords);
+            saveScoreStatus(fingerprint, pathFinder.getEvalScorePath(evalConfig), sourceType, scoreStatus);
+            return scoreStatus;
         }
         return null;
     }
@@ -899,6 +1106,11 @@ public class EvalModelProcessor extends BasicModelProcessor implements Processor
      *             when any exception in delete the old tmp files
      */
     private void runDistEval(EvalConfig evalConfig) throws IOException {
+        if(modelConfig.isRegression() && Environment.getBoolean(Constants.SHIFU_EVAL_SCORE_HISTOGRAM, false)) {
+            runDistHistogramEval(evalConfig);
+            return;
+        }
+
         ScoreStatus ss = runDistScore(evalConfig);
 
         List<String> scoreMetaColumns = evalConfig.getScoreMetaColumns(modelConfig);
@@ -934,79 +1146,141 @@ public class EvalModelProcessor extends BasicModelProcessor implements Processor
             prList.add(championModelPerformance);
         }
 
-        synchronized(this) {
-            GainChart gc = new GainChart();
-            boolean hasWeight = StringUtils.isNotBlank(evalConfig.getDataSet().getWeightColumnName());
-
-            // 3. Compute gain chart and other eval performance files only in local.
-            String htmlGainChart = pathFinder.getEvalFilePath(evalConfig.getName(),
-                    evalConfig.getName() + "_gainchart.html", SourceType.LOCAL);
-            LOG.info("Gain chart is generated in {}.", htmlGainChart);
-            gc.generateHtml(evalConfig, modelConfig, htmlGainChart, prList, names);
+        generatePerformanceFiles(evalConfig, prList, names);
+    }
 
-            String hrmlPrRoc = pathFinder.getEvalFilePath(evalConfig.getName(), evalConfig.getName() + "_prroc.html",
-                    SourceType.LOCAL);
-            LOG.info("PR & ROC chart is generated in {}.", hrmlPrRoc);
-            gc.generateHtml4PrAndRoc(evalConfig, modelConfig, hrmlPrRoc, prList, names);
-
-            for(int i = 0; i < names.size(); i++) {
-                String name = names.get(i);
-                PerformanceResult pr = prList.get(i);
-                String unitGainChartCsv = pathFinder.getEvalFilePath(evalConfig.getName(),
-                        name + "_unit_wise_gainchart.csv", SourceType.LOCAL);
-                LOG.info("Unit-wise gain chart data is generated in {} for eval {} and name {}.", unitGainChartCsv,
-                        evalConfig.getName(), name);
-                gc.generateCsv(evalConfig, modelConfig, unitGainChartCsv, pr.gains);
-                if(hasWeight) {
-                    String weightedGainChartCsv = pathFinder.getEvalFilePath(evalConfig.getName(),
-                            name + "_weighted_gainchart.csv", SourceType.LOCAL);
-                    LOG.info("Weighted gain chart data is generated in {} for eval {} and name {}.",
-                            weightedGainChartCsv, evalConfig.getName(), name);
-                    gc.generateCsv(evalConfig, modelConfig, weightedGainChartCsv, pr.weightedGains);
+    /**
+     * Run distributed evaluation with performance computed from score histograms, no score sorting job and no
+     * single-node pass over all scores are needed.
+     * 
+     * @param evalConfig
+     *            the evaluation instance
+     * @throws IOException
+     *             when any exception in running pig job or reading histograms
+     */
+    private void runDistHistogramEval(EvalConfig evalConfig) throws IOException {
+        List<String> scoreMetaColumns = new ArrayList<String>();
+        List<String> allScoreMetaColumns = evalConfig.getScoreMetaColumns(modelConfig);
+        if(allScoreMetaColumns != null) {
+            for(String metaScoreColumn: allScoreMetaColumns) {
+                if(StringUtils.isNotBlank(metaScoreColumn)) {
+                    scoreMetaColumns.add(metaScoreColumn);
                 }
+            }
+        }
 
-                String prCsvFile = pathFinder.getEvalFilePath(evalConfig.getName(), name + "_unit_wise_pr.csv",
-                        SourceType.LOCAL);
-                LOG.info("Unit-wise pr data is generated in {} for eval {} and name {}.", prCsvFile,
-                        evalConfig.getName(), name);
-                gc.generateCsv(evalConfig, modelConfig, prCsvFile, pr.pr);
-
-                if(hasWeight) {
-                    String weightedPrCsvFile = pathFinder.getEvalFilePath(evalConfig.getName(),
-                            name + "_weighted_pr.csv", SourceType.LOCAL);
-                    LOG.info("Weighted pr data is generated in {} for eval {} and name {}.", weightedPrCsvFile,
-                            evalConfig.getName(), name);
-                    gc.generateCsv(evalConfig, modelConfig, weightedPrCsvFile, pr.weightedPr);
-                }
+        runDistScore(evalConfig, scoreMetaColumns);
 
-                String rocCsvFile = pathFinder.getEvalFilePath(evalConfig.getName(), name + "_unit_wise_roc.csv",
-                        SourceType.LOCAL);
-                LOG.info("Unit-wise roc data is generated in {} for eval {} and name {}.", rocCsvFile,
+        Map<Integer, ScoreHistogram> histograms = ScoreHistogram.load(
+                pathFinder.getEvalScoreHistogramPath(evalConfig), evalConfig.getDataSet().getSource(), "|");
+        ConfusionMatrix worker = new ConfusionMatrix(modelConfig, columnConfigList, evalConfig, this);
+        if(scoreMetaColumns.isEmpty()) {
+            worker.computeConfusionMatrixAndPerformance(histograms.get(0),
+                    pathFinder.getEvalPerformancePath(evalConfig, evalConfig.getDataSet().getSource()), true, true,
+                    isGBTNotConvertToProb(evalConfig));
+            return;
+        }
+
+        List<PerformanceResult> prList = new ArrayList<PerformanceResult>();
+        prList.add(worker.computeConfusionMatrixAndPerformance(histograms.get(0),
+                pathFinder.getEvalPerformancePath(evalConfig), false, false, isGBTNotConvertToProb(evalConfig)));
+
+        List<String> names = new ArrayList<String>();
+        names.add(modelConfig.getBasic().getName() + "-" + evalConfig.getName());
+        for(int i = 0; i < scoreMetaColumns.size(); i++) {
+            String metaScoreColumn = scoreMetaColumns.get(i);
+            names.add(metaScoreColumn);
+            prList.add(worker.computeConfusionMatrixAndPerformance(histograms.get(i + 1),
+                    pathFinder.getEvalMetaPerformancePath(evalConfig, metaScoreColumn), false, false, true));
+        }
+
+        generatePerformanceFiles(evalConfig, prList, names);
+    }
+
+    private void generatePerformanceFiles(EvalConfig evalConfig, List<PerformanceResult> prList, List<String> names)
+            throws IOException {
+        // eval sets are run in their own threads, each one writes its own files with its own chart instance
+        GainChart gc = new GainChart();
+        boolean hasWeight = StringUtils.isNotBlank(evalConfig.getDataSet().getWeightColumnName());
+
+        // 3. Compute gain chart and other eval performance files only in local.
+        String htmlGainChart = pathFinder.getEvalFilePath(evalConfig.getName(),
+                evalConfig.getName() + "_gainchart.html", SourceType.LOCAL);
+        LOG.info("Gain chart is generated in {}.", htmlGainChart);
+        gc.generateHtml(evalConfig, modelConfig, htmlGainChart, prList, names);
+
+        String hrmlPrRoc = pathFinder.getEvalFilePath(evalConfig.getName(), evalConfig.getName() + "_prroc.html",
+                SourceType.LOCAL);
+        LOG.info("PR & ROC chart is generated in {}.", hrmlPrRoc);
+        gc.generateHtml4PrAndRoc(evalConfig, modelConfig, hrmlPrRoc, prList, names);
+
+        for(int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            PerformanceResult pr = prList.get(i);
+            String unitGainChartCsv = pathFinder.getEvalFilePath(evalConfig.getName(),
+                    name + "_unit_wise_gainchart.csv", SourceType.LOCAL);
+            LOG.info("Unit-wise gain chart data is generated in {} for eval {} and name {}.", unitGainChartCsv,
+                    evalConfig.getName(), name);
+            gc.generateCsv(evalConfig, modelConfig, unitGainChartCsv, pr.gains);
+            if(hasWeight) {
+                String weightedGainChartCsv = pathFinder.getEvalFilePath(evalConfig.getName(),
+                        name + "_weighted_gainchart.csv", SourceType.LOCAL);
+                LOG.info("Weighted gain chart data is generated in {} for eval {} and name {}.",
+                        weightedGainChartCsv, evalConfig.getName(), name);
+                gc.generateCsv(evalConfig, modelConfig, weightedGainChartCsv, pr.weightedGains);
+            }
+
+            String prCsvFile = pathFinder.getEvalFilePath(evalConfig.getName(), name + "_unit_wise_pr.csv",
+                    SourceType.LOCAL);
+            LOG.info("Unit-wise pr data is generated in {} for eval {} and name {}.", prCsvFile,
+                    evalConfig.getName(), name);
+            gc.generateCsv(evalConfig, modelConfig, prCsvFile, pr.pr);
+
+            if(hasWeight) {
+                String weightedPrCsvFile = pathFinder.getEvalFilePath(evalConfig.getName(),
+                        name + "_weighted_pr.csv", SourceType.LOCAL);
+                LOG.info("Weighted pr data is generated in {} for eval {} and name {}.", weightedPrCsvFile,
                         evalConfig.getName(), name);
-                gc.generateCsv(evalConfig, modelConfig, rocCsvFile, pr.roc);
-
-                if(hasWeight) {
-                    String weightedRocCsvFile = pathFinder.getEvalFilePath(evalConfig.getName(),
-                            name + "_weighted_roc.csv", SourceType.LOCAL);
-                    LOG.info("Weighted roc data is generated in {} for eval {} and name {}.", weightedRocCsvFile,
-                            evalConfig.getName(), name);
-                    gc.generateCsv(evalConfig, modelConfig, weightedRocCsvFile, pr.weightedRoc);
-                }
+                gc.generateCsv(evalConfig, modelConfig, weightedPrCsvFile, pr.weightedPr);
+            }
 
-                String modelScoreGainChartCsv = pathFinder.getEvalFilePath(evalConfig.getName(),
-                        name + "_modelscore_gainchart.csv", SourceType.LOCAL);
-                LOG.info("Model score gain chart data is generated in {} for eval {} and name {}.",
-                        modelScoreGainChartCsv, evalConfig.getName(), name);
-                gc.generateCsv(evalConfig, modelConfig, modelScoreGainChartCsv, pr.modelScoreList);
+            String rocCsvFile = pathFinder.getEvalFilePath(evalConfig.getName(), name + "_unit_wise_roc.csv",
+                    SourceType.LOCAL);
+            LOG.info("Unit-wise roc data is generated in {} for eval {} and name {}.", rocCsvFile,
+                    evalConfig.getName(), name);
+            gc.generateCsv(evalConfig, modelConfig, rocCsvFile, pr.roc);
+
+            if(hasWeight) {
+                String weightedRocCsvFile = pathFinder.getEvalFilePath(evalConfig.getName(),
+                        name + "_weighted_roc.csv", SourceType.LOCAL);
+                LOG.info("Weighted roc data is generated in {} for eval {} and name {}.", weightedRocCsvFile,
+                        evalConfig.getName(), name);
+                gc.generateCsv(evalConfig, modelConfig, weightedRocCsvFile, pr.weightedRoc);
             }
-            LOG.info("Performance Evaluation is done for {}.", evalConfig.getName());
+
+            String modelScoreGainChartCsv = pathFinder.getEvalFilePath(evalConfig.getName(),
+                    name + "_modelscore_gainchart.csv", SourceType.LOCAL);
+            LOG.info("Model score gain chart data is generated in {} for eval {} and name {}.",
+                    modelScoreGainChartCsv, evalConfig.getName(), name);
+            gc.generateCsv(evalConfig, modelConfig, modelScoreGainChartCsv, pr.modelScoreList);
         }
+        LOG.info("Performance Evaluation is done for {}.", evalConfig.getName());
     }
 
     @SuppressWarnings("deprecation")
     private ScoreStatus runDistMetaScore(EvalConfig evalConfig, String metaScore) throws IOException {
         SourceType sourceType = evalConfig.getDataSet().getSource();
 
+        // sorted meta scores only depend on eval data and filters, not models
+        EvalFingerprint fingerprint = newMetaScoreFingerprint(evalConfig, metaScore, "scripts/EvalScoreMetaSort.pig");
+        ScoreStatus scoreStatus = loadScoreStatus(fingerprint, pathFinder.getEvalMetaScorePath(evalConfig, metaScore),
+                sourceType);
+        if(scoreStatus != null) {
+            LOG.info("Data of eval {} is not changed, reuse sorted meta score {} in {}.", evalConfig.getName(),
+                    metaScore, pathFinder.getEvalMetaScorePath(evalConfig, metaScore));
+            return scoreStatus;
+        }
+
         // clean up output directories
         ShifuFileUtils.deleteFile(pathFinder.getEvalMetaScorePath(evalConfig, metaScore), sourceType);
 
@@ -1075,12 +1349,108 @@ public class EvalModelProcessor extends BasicModelProcessor implements Processor
             // Get score status from Counter to avoid re-computing such metrics
             LOG.info("Eval records is {}; and bad meta score is {}.", evalRecords, badMetaScores);
 
-            return new ScoreStatus(pigPosTags, pigNegTags, pigPosWeightTags, pigNegWeightTags, maxScore, minScore,
-                    evalRecords);
+            scoreStatus = new ScoreStatus(pigPosTags, pigNegTags, pigPosWeightTags, pigNegWeightTags, maxScore,
+                    minScore, evalRecords);
+            saveScoreStatus(fingerprint, pathFinder.getEvalMetaScorePath(evalConfig, metaScore), sourceType,
+                    scoreStatus);
+            return scoreStatus;
         }
         return null;
     }
 
+    /**
+     * Fingerprint of eval score output: models, model and column configs, eval data and score settings. Score meta
+     * columns only change score output columns, not scores, they are only part of fingerprint in score step.
+     * 
+     * @param evalConfig
+     *            the evaluation instance
+     * @param isNoSortScore
+     *            if scores are not sorted
+     * @param pigScript
+     *            pig script to compute score output
+     * @return the fingerprint, or null if incremental eval is disabled or fingerprint cannot be computed
+     */
+    private EvalFingerprint newScoreFingerprint(EvalConfig evalConfig, boolean isNoSortScore, String pigScript) {
+        if(!Environment.getBoolean(Constants.SHIFU_EVAL_INCREMENTAL, false)) {
+            return null;
+        }
+        SourceType sourceType = evalConfig.getDataSet().getSource();
+        String modelsPath = StringUtils.isBlank(evalConfig.getModelsPath()) ? pathFinder.getModelsPath(sourceType)
+                : evalConfig.getModelsPath();
+        try {
+            EvalFingerprint fingerprint = newDataFingerprint(evalConfig, pigScript);
+            fingerprint.add("sorted", !isNoSortScore)
+                    .add("scoreSelector", evalConfig.getPerformanceScoreSelector())
+                    .add("scale",
+                            Environment.getProperty(Constants.SHIFU_SCORE_SCALE,
+                                    Integer.toString(Scorer.DEFAULT_SCORE_SCALE)))
+                    .add("segments", modelConfig.getSegmentFilterExpressionsAsString())
+                    .addFileContent("columnConfig", pathFinder.getColumnConfigPath(sourceType), sourceType)
+                    .addFiles("models", modelsPath, sourceType);
+            if(EvalStep.SCORE.equals(this.evalStep)) {
+                fingerprint.add("metaColumns", evalConfig.getAllMetaColumns(modelConfig));
+            }
+            return fingerprint;
+        } catch (IOException e) {
+            LOG.warn("Fail to compute fingerprint of eval " + evalConfig.getName() + ", score output is not reused.",
+                    e);
+            return null;
+        }
+    }
+
+    private EvalFingerprint newMetaScoreFingerprint(EvalConfig evalConfig, String metaScore, String pigScript) {
+        if(!Environment.getBoolean(Constants.SHIFU_EVAL_INCREMENTAL, false)) {
+            return null;
+        }
+        try {
+            return newDataFingerprint(evalConfig, pigScript).add("metaScore", metaScore);
+        } catch (IOException e) {
+            LOG.warn("Fail to compute fingerprint of eval " + evalConfig.getName() + ", meta score output is not "
+                    + "reused.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Fingerprint of filtered eval data, model config has data path, data filters, target and weight settings. The same
+     * data and configs give different outputs with another pig script or shifu jar.
+     */
+    private EvalFingerprint newDataFingerprint(EvalConfig evalConfig, String pigScript) throws IOException {
+        SourceType sourceType = evalConfig.getDataSet().getSource();
+        return new EvalFingerprint().add("evalSet", evalConfig.getName()).addShifuVersion()
+                .addScript("pigScript", pathFinder.getScriptPath(pigScript))
+                .addFileContent("modelConfig", pathFinder.getModelConfigPath(sourceType), sourceType)
+                .addFiles("header", evalConfig.getDataSet().getHeaderPath(), sourceType)
+                .addFiles("data", evalConfig.getDataSet().getDataPath(), sourceType);
+    }
+
+    private ScoreStatus loadScoreStatus(EvalFingerprint fingerprint, String outputPath, SourceType sourceType)
+            throws IOException {
+        if(fingerprint == null) {
+            return null;
+        }
+        Properties status = fingerprint.load(outputPath, sourceType);
+        if(status == null) {
+            return null;
+        }
+        ScoreStatus scoreStatus = ScoreStatus.fromProperties(status);
+        this.evalRecords = scoreStatus.evalRecords;
+        return scoreStatus;
+    }
+
+    private void saveScoreStatus(EvalFingerprint fingerprint, String outputPath, SourceType sourceType,
+            ScoreStatus scoreStatus) {
+        if(fingerprint == null) {
+            return;
+        }
+        try {
+            fingerprint.save(outputPath, sourceType, scoreStatus.toProperties());
+        } catch (IOException e) {
+            // output is just not reused in next run
+            LOG.warn("Fail to save fingerprint in " + outputPath, e);
+        }
+    }
+
     /**
      * Use akka to run model evaluation
      * 
@@ -1263,6 +1633,26 @@ public class EvalModelProcessor extends BasicModelProcessor implements Processor
             this.minScore = minScore;
             this.evalRecords = evalRecords;
         }
+
+        public Properties toProperties() {
+            Properties props = new Properties();
+            props.setProperty("pigPosTags", Long.toString(this.pigPosTags));
+            props.setProperty("pigNegTags", Long.toString(this.pigNegTags));
+            props.setProperty("pigPosWeightTags", Double.toString(this.pigPosWeightTags));
+            props.setProperty("pigNegWeightTags", Double.toString(this.pigNegWeightTags));
+            props.setProperty("maxScore", Double.toString(this.maxScore));
+            props.setProperty("minScore", Double.toString(this.minScore));
+            props.setProperty("evalRecords", Long.toString(this.evalRecords));
+            return props;
+        }
+
+        public static ScoreStatus fromProperties(Properties props) {
+            return new ScoreStatus(Long.parseLong(props.getProperty("pigPosTags")), Long.parseLong(props
+                    .getProperty("pigNegTags")), Double.parseDouble(props.getProperty("pigPosWeightTags")),
+                    Double.parseDouble(props.getProperty("pigNegWeightTags")), Double.parseDouble(props
+                            .getProperty("maxScore")), Double.parseDouble(props.getProperty("minScore")),
+                    Long.parseLong(props.getProperty("evalRecords")));
+        }
     }
 
 }
@@ -360,11 +360,15 @@ public class InitModelProcessor extends BasicModelProcessor implements Processor
                     .getValue();
             long filterOut = job.getCounters().findCounter(Constants.SHIFU_GROUP_COUNTER, "FILTER_OUT_COUNT")
                     .getValue();
+            // records after all columns are stable are not checked by tag
+            long skippedCount = job.getCounters()
+                    .findCounter(Constants.SHIFU_GROUP_COUNTER, "AUTOTYPE_SKIPPED_COUNT").getValue();
 
-            log.info("Total valid records {}, invalid tag records {}, filter out records {}", totalValidCount,
-                    invalidTagCount, filterOut);
+            log.info("Total valid records {}, invalid tag records {}, filter out records {}, skipped records {}",
+                    totalValidCount, invalidTagCount, filterOut, skippedCount);
 
-            if(totalValidCount > 0L && invalidTagCount * 1d / totalValidCount >= 0.8d) {
+            long checkedCount = totalValidCount - skippedCount;
+            if(checkedCount > 0L && invalidTagCount * 1d / checkedCount >= 0.8d) {
                 log.error("Too many invalid tags, please check you configuration on positive tags and negative tags.");
             }
 
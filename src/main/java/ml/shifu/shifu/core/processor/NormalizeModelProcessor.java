@@ -82,7 +82,13 @@ public class NormalizeModelProcessor extends BasicModelProcessor implements Proc
                         log.warn("warn: exception in auto check shuffle size, can be ignored as no big impact", e);
                     }
 
-                    if(this.isToShuffleData) {
+                    if(this.isToShuffleData && isBinaryNormOutput()) {
+                        log.warn("Shuffle is skipped as normalized data is in binary format.");
+                    } else if(this.isToShuffleData && isNormBucketed()
+                            && !modelConfig.getNormalize().getIsParquet()) {
+                        log.info("Shuffle job is skipped as normalized data is randomized into {} buckets per task.",
+                                Environment.getInt(Constants.SHIFU_NORM_SHUFFLE_BUCKETS));
+                    } else if(this.isToShuffleData) {
                         // shuffling normalized data, to make data random
                         MapReduceShuffle shuffler = new MapReduceShuffle(this.modelConfig);
                         shuffler.run(this.pathFinder.getNormalizedDataPath());
@@ -210,7 +216,13 @@ public class NormalizeModelProcessor extends BasicModelProcessor implements Proc
                     // this condition is for comment, no matter post train enabled or not, only norm results will be
                     // stored since new post train solution no need to prepare data
                 }
-                normPigPath = pathFinder.getScriptPath("scripts/Normalize.pig");
+                if(isBinaryNormOutput()) {
+                    log.info("Normalized data is stored in binary format which can only be read by distributed "
+                            + "NN/LR/tree model training.");
+                    normPigPath = pathFinder.getScriptPath("scripts/NormalizeBinary.pig");
+                } else {
+                    normPigPath = pathFinder.getScriptPath("scripts/Normalize.pig");
+                }
             }
             paramsMap.put(Constants.IS_COMPRESS, "true");
             paramsMap.put(Constants.IS_NORM_FOR_CLEAN, "false");
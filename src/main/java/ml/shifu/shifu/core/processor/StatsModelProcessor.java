@@ -75,6 +75,7 @@ import ml.shifu.shifu.core.binning.obj.NumericalBinInfo;
 import ml.shifu.shifu.core.correlation.CorrelationMapper;
 import ml.shifu.shifu.core.correlation.CorrelationMultithreadedMapper;
 import ml.shifu.shifu.core.correlation.CorrelationReducer;
+import ml.shifu.shifu.core.correlation.CorrelationTileInputFormat;
 import ml.shifu.shifu.core.correlation.CorrelationWritable;
 import ml.shifu.shifu.core.correlation.FastCorrelationMapper;
 import ml.shifu.shifu.core.correlation.FastCorrelationMultithreadedMapper;
@@ -382,7 +383,13 @@ public class StatsModelProcessor extends BasicModelProcessor implements Processo
         job.setMapOutputKeyClass(IntWritable.class);
         job.setMapOutputValueClass(CorrelationWritable.class);
 
-        job.setInputFormatClass(CombineInputFormat.class);
+        if(isFastCorrelation && getCorrelationColumnGroups() > 1) {
+            // column pair matrix is split into tiles computed in different mapper tasks
+            job.getConfiguration().setInt(Constants.SHIFU_CORRELATION_COLUMN_GROUPS, getCorrelationColumnGroups());
+            job.setInputFormatClass(CorrelationTileInputFormat.class);
+        } else {
+            job.setInputFormatClass(CombineInputFormat.class);
+        }
         FileInputFormat.setInputPaths(job, ShifuFileUtils.getFileSystemBySourceType(source)
                 .makeQualified(new Path(super.modelConfig.getDataSetRawPath())));
 
@@ -420,7 +427,14 @@ public class StatsModelProcessor extends BasicModelProcessor implements Processo
         int youngMemory = 1024;
         int columnSize = this.columnConfigList.size();
         if(isFastCorrelation) {
-            memoryInContainer += (1L * columnSize * columnSize * 8 * 6 * threads) / (1024 * 1024);
+            // in tiled correlation, one task only computes pairs of two column groups
+            int groups = getCorrelationColumnGroups();
+            int groupSize = (columnSize + groups - 1) / groups;
+            int tileColumns = groups > 1 ? groupSize * 2 : columnSize;
+            memoryInContainer += (1L * groupSize * groupSize * 8 * 6 * threads) / (1024 * 1024);
+            // value, squared value and mask blocks buffered in each thread
+            int blockSize = Environment.getInt(Constants.SHIFU_CORRELATION_BLOCK_SIZE, 128);
+            memoryInContainer += (1L * tileColumns * blockSize * 8 * 3 * threads) / (1024 * 1024);
             if(columnSize > 4000) {
                 memoryInContainer += 3072;
                 youngMemory = 2500;
@@ -457,6 +471,17 @@ public class StatsModelProcessor extends BasicModelProcessor implements Processo
                 + "m -server -XX:MaxPermSize=128M -XX:PermSize=64M -XX:+UseParallelGC -XX:+UseParallelOldGC -XX:ParallelGCThreads=8 -verbose:gc -XX:+PrintGCDetails -XX:+PrintGCTimeStamps ");
     }
 
+    private int getCorrelationColumnGroups() {
+        int groups = Environment.getInt(Constants.SHIFU_CORRELATION_COLUMN_GROUPS, 1);
+        if(groups > CorrelationTileInputFormat.MAX_COLUMN_GROUPS) {
+            // each tile reads whole input again, bound read amplification
+            log.warn("Correlation column groups {} is over max {}, use max groups.", groups,
+                    CorrelationTileInputFormat.MAX_COLUMN_GROUPS);
+            groups = CorrelationTileInputFormat.MAX_COLUMN_GROUPS;
+        }
+        return groups <= 0 ? 1 : Math.min(groups, this.columnConfigList.size());
+    }
+
     private int parseThreadNum() {
         int threads = 6;
         try {
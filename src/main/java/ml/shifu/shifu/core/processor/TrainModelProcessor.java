@@ -39,6 +39,7 @@ import ml.shifu.shifu.core.dtrain.CommonConstants;
 import ml.shifu.shifu.core.dtrain.DTrainUtils;
 import ml.shifu.shifu.core.dtrain.FeatureSubsetStrategy;
 import ml.shifu.shifu.core.dtrain.dataset.BasicFloatNetwork;
+import ml.shifu.shifu.core.dtrain.dataset.NormBinaryFormat;
 import ml.shifu.shifu.core.dtrain.dt.*;
 import ml.shifu.shifu.core.dtrain.gs.GridSearch;
 import ml.shifu.shifu.core.dtrain.lr.*;
@@ -108,6 +109,14 @@ public class TrainModelProcessor extends BasicModelProcessor implements Processo
 
     private static final int VAR_SELECT_TRAINING_DECAY_EPOCHES_THRESHOLD = 400;
 
+    /**
+     * Params which must be the same in grid search trials trained in one job, others like network structure, learning
+     * rate and propagation can be different in each trial.
+     */
+    private static final String[] SHARED_GRID_SEARCH_PARAMS = new String[] { CommonConstants.MINI_BATCH,
+            "FeatureSubsetStrategy", CommonConstants.ENABLE_EARLY_STOP, CommonConstants.VALIDATION_TOLERANCE,
+            CommonConstants.FIXED_LAYERS, CommonConstants.FIXED_BIAS };
+
     public static final String SHIFU_DEFAULT_DTRAIN_PARALLEL = "true";
 
     private boolean isDryTrain, isDebug;
@@ -227,6 +236,7 @@ public class TrainModelProcessor extends BasicModelProcessor implements Processo
     }
 
     private void runTensorflowLocalTrain() throws IOException {
+        checkTextNormData(pathFinder.getNormalizedDataPath(), "local tensorflow training");
         List<Scanner> scanners = null;
         TensorflowTrainer trainer = new TensorflowTrainer(modelConfig, columnConfigList);
         LOG.info("Normalized data for training {}.", pathFinder.getNormalizedDataPath());
@@ -286,6 +296,7 @@ public class TrainModelProcessor extends BasicModelProcessor implements Processo
             }
         } else {
             LOG.info("Normalized Data: " + pathFinder.getNormalizedDataPath());
+            checkTextNormData(pathFinder.getNormalizedDataPath(), "local training");
             try {
                 scanners = ShifuFileUtils.getDataScanners(pathFinder.getNormalizedDataPath(),
                         modelConfig.getDataSet().getSource());
@@ -325,6 +336,11 @@ public class TrainModelProcessor extends BasicModelProcessor implements Processo
 
     private void validateDistributedTrain() throws IOException {
         String alg = super.getModelConfig().getTrain().getAlgorithm();
+        if(Constants.TENSORFLOW.equalsIgnoreCase(alg) || Constants.TF_ALG_NAME.equalsIgnoreCase(alg)
+                || Constants.WDL.equalsIgnoreCase(alg)) {
+            // only NN/LR/tree model workers can read binary norm data
+            checkTextNormData(super.getPathFinder().getNormalizedDataPath(), alg + " training");
+        }
         if(Constants.TENSORFLOW.equalsIgnoreCase(alg)) {
             // we do not train tensorflow in dist mode currently
             return;
@@ -780,12 +796,26 @@ public class TrainModelProcessor extends BasicModelProcessor implements Processo
             parallelGroups = baggingNum % parallelNum == 0 ? baggingNum / parallelNum : baggingNum / parallelNum + 1;
         }
 
+        boolean isMultiBag = isMultiBagTrain(alg, baggingNum, gs, isKFoldCV);
+        boolean isSharedGridSearch = isSharedGridSearch(alg, gs, isKFoldCV);
+        if(isMultiBag) {
+            // all bags are trained in the first job
+            parallelGroups = 1;
+            LOG.info("All {} bags are trained in one guagua job.", baggingNum);
+        } else if(isSharedGridSearch) {
+            // all grid search trials are trained in the first job
+            parallelGroups = 1;
+            LOG.info("All {} grid search trials are trained in one guagua job.", baggingNum);
+        }
+
         LOG.info("Distributed trainning with baggingNum: {}", baggingNum);
         List<String> progressLogList = new ArrayList<String>(baggingNum);
         boolean isOneJobNotContinuous = false;
         for(int j = 0; j < parallelGroups; j++) {
             int currBags = baggingNum;
-            if(gs.hasHyperParam()) {
+            if(isMultiBag || isSharedGridSearch) {
+                currBags = 1;
+            } else if(gs.hasHyperParam()) {
                 if(j == parallelGroups - 1) {
                     currBags = gs.getFlattenParams().size() % parallelNum == 0 ? parallelNum
                             : gs.getFlattenParams().size() % parallelNum;
@@ -801,7 +831,10 @@ public class TrainModelProcessor extends BasicModelProcessor implements Processo
             }
             for(int k = 0; k < currBags; k++) {
                 int i = j * parallelNum + k;
-                if(gs.hasHyperParam()) {
+                if(isSharedGridSearch) {
+                    LOG.info("Start grid search job of {} trials with params: {}", baggingNum,
+                            gs.getFlattenParams());
+                } else if(gs.hasHyperParam()) {
                     LOG.info("Start the {}th grid search job with params: {}", i, gs.getParams(i));
                 } else if(isKFoldCV) {
                     LOG.info("Start the {}th k-fold cross validation job with params.", i);
@@ -905,7 +938,36 @@ public class TrainModelProcessor extends BasicModelProcessor implements Processo
                 localArgs.add(String.format(CommonConstants.MAPREDUCE_PARAM_FORMAT,
                         Constants.SHIFU_NN_BINARY_MODEL_PATH, bModelPath.toString()));
 
-                if(gs.hasHyperParam() || isKFoldCV) {
+                if(isMultiBag || isSharedGridSearch) {
+                    List<String> bagModelPaths = new ArrayList<String>(baggingNum);
+                    List<String> bagBinaryModelPaths = new ArrayList<String>(baggingNum);
+                    for(int bag = 0; bag < baggingNum; bag++) {
+                        bagModelPaths.add(fileSystem.makeQualified(
+                                new Path(super.getPathFinder().getModelsPath(sourceType), getModelName(bag)))
+                                .toString());
+                        bagBinaryModelPaths.add(fileSystem.makeQualified(new Path(
+                                super.getPathFinder().getNNBinaryModelsPath(sourceType), getModelName(bag)))
+                                .toString());
+                    }
+                    localArgs.add(String.format(CommonConstants.MAPREDUCE_PARAM_FORMAT, CommonConstants.SHIFU_NN_BAGS,
+                            String.valueOf(baggingNum)));
+                    localArgs.add(String.format(CommonConstants.MAPREDUCE_PARAM_FORMAT,
+                            CommonConstants.SHIFU_NN_BAG_OUTPUTS, StringUtils.join(bagModelPaths, ',')));
+                    localArgs.add(String.format(CommonConstants.MAPREDUCE_PARAM_FORMAT,
+                            CommonConstants.SHIFU_NN_BAG_BINARY_OUTPUTS, StringUtils.join(bagBinaryModelPaths, ',')));
+                }
+
+                if(isSharedGridSearch) {
+                    List<String> valErrPaths = new ArrayList<String>(baggingNum);
+                    for(int trial = 0; trial < baggingNum; trial++) {
+                        valErrPaths.add(fileSystem.makeQualified(new Path(
+                                super.getPathFinder().getValErrorPath(sourceType), "val_error_" + trial)).toString());
+                    }
+                    localArgs.add(String.format(CommonConstants.MAPREDUCE_PARAM_FORMAT,
+                            CommonConstants.SHIFU_NN_BAG_GRID_SEARCH, Boolean.TRUE.toString()));
+                    localArgs.add(String.format(CommonConstants.MAPREDUCE_PARAM_FORMAT,
+                            CommonConstants.SHIFU_NN_BAG_VAL_ERRORS, StringUtils.join(valErrPaths, ',')));
+                } else if(gs.hasHyperParam() || isKFoldCV) {
                     // k-fold cv need val error
                     Path valErrPath = fileSystem.makeQualified(
                             new Path(super.getPathFinder().getValErrorPath(sourceType), "val_error_" + i));
@@ -1028,6 +1090,78 @@ public class TrainModelProcessor extends BasicModelProcessor implements Processo
         return status;
     }
 
+    /**
+     * Check if all NN bags can be trained in one guagua job. Workers of such job load data once and train all bags
+     * with different bagging sample weights, so it is only enabled if all bags have the same data, features and
+     * targets.
+     */
+    private boolean isMultiBagTrain(String alg, int baggingNum, GridSearch gs, boolean isKFoldCV) {
+        if(!Boolean.TRUE.toString().equalsIgnoreCase(Environment.getProperty(Constants.SHIFU_DTRAIN_MULTIBAG))
+                || !NNConstants.NN_ALG_NAME.equalsIgnoreCase(alg) || baggingNum <= 1) {
+            return false;
+        }
+        if(gs.hasHyperParam() || isKFoldCV || this.isForVarSelect) {
+            LOG.warn("Multiple bags in one job is not supported in grid search, k-fold or var select training.");
+            return false;
+        }
+        if(modelConfig.isClassification() && modelConfig.getTrain().isOneVsAll()) {
+            LOG.warn("Multiple bags in one job is not supported in one-vs-all classification.");
+            return false;
+        }
+        if(Boolean.TRUE.equals(modelConfig.getTrain().getIsContinuous()) || modelConfig.isFixInitialInput()) {
+            LOG.warn("Multiple bags in one job is not supported in continuous training or fixInitialInput mode.");
+            return false;
+        }
+        Object fssObj = modelConfig.getTrain().getParams().get("FeatureSubsetStrategy");
+        if(fssObj != null && !FeatureSubsetStrategy.ALL.toString().equalsIgnoreCase(fssObj.toString())) {
+            LOG.warn("Multiple bags in one job is only supported if all features are used in each bag.");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check if all NN grid search trials can be trained in one guagua job. Workers of such job load data once and
+     * train all trials on the same data, so it is only enabled if trials have the same features and data settings.
+     */
+    private boolean isSharedGridSearch(String alg, GridSearch gs, boolean isKFoldCV) {
+        if(!Boolean.TRUE.toString()
+                .equalsIgnoreCase(Environment.getProperty(Constants.SHIFU_DTRAIN_SHARED_GRIDSEARCH))
+                || !NNConstants.NN_ALG_NAME.equalsIgnoreCase(alg) || !gs.hasHyperParam()
+                || gs.getFlattenParams().size() <= 1) {
+            return false;
+        }
+        if(isKFoldCV || this.isForVarSelect) {
+            LOG.warn("Grid search trials in one job is not supported in k-fold or var select training.");
+            return false;
+        }
+        if(modelConfig.isClassification() && modelConfig.getTrain().isOneVsAll()) {
+            LOG.warn("Grid search trials in one job is not supported in one-vs-all classification.");
+            return false;
+        }
+        if(modelConfig.isFixInitialInput()) {
+            LOG.warn("Grid search trials in one job is not supported in fixInitialInput mode.");
+            return false;
+        }
+        for(String name: SHARED_GRID_SEARCH_PARAMS) {
+            if(!gs.isSameParam(name)) {
+                LOG.warn("Grid search trials in one job is only supported if {} is the same in all trials.", name);
+                return false;
+            }
+        }
+        Object fssObj = gs.getParams(0).get("FeatureSubsetStrategy");
+        if(fssObj != null && !FeatureSubsetStrategy.ALL.toString().equalsIgnoreCase(fssObj.toString())) {
+            LOG.warn("Grid search trials in one job is only supported if all features are used in each trial.");
+            return false;
+        }
+        if(gs.isPositiveParam(CommonConstants.DROPOUT_RATE)) {
+            // master only selects dropout nodes of one network, not of each trial
+            LOG.warn("Grid search trials in one job is not supported if dropout is enabled in any trial.");
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Rollup feature importance file to keep latest one and old ones.
      */
@@ -1469,6 +1603,11 @@ public class TrainModelProcessor extends BasicModelProcessor implements Processo
                 args.add(String.format(CommonConstants.MAPREDUCE_PARAM_FORMAT, key.toString(), value.toString()));
             }
         });
+
+        // norm output format is from training data, shifuconfig may be changed after norm step; it overrides the one
+        // injected above
+        args.add(String.format(CommonConstants.MAPREDUCE_PARAM_FORMAT, Constants.SHIFU_NORM_OUTPUT_FORMAT,
+                isBinaryNormData(getTrainDataPath()) ? NormBinaryFormat.BINARY : NormBinaryFormat.TEXT));
     }
 
     private void prepareWDLParams(List<String> args, SourceType sourceType) {
@@ -1584,6 +1723,15 @@ public class TrainModelProcessor extends BasicModelProcessor implements Processo
             args.add(String.format(CommonConstants.MAPREDUCE_PARAM_FORMAT,
                     GuaguaConstants.GUAGUA_SPLIT_MAX_COMBINED_SPLIT_SIZE, Environment
                             .getProperty(GuaguaConstants.GUAGUA_SPLIT_MAX_COMBINED_SPLIT_SIZE, maxCombineSize + "")));
+            if(Boolean.TRUE.toString().equalsIgnoreCase(
+                    Environment.getProperty(CommonConstants.SHIFU_TRAIN_SPLIT_BALANCED, Boolean.FALSE.toString()))) {
+                long combineSize = Long.parseLong(Environment
+                        .getProperty(GuaguaConstants.GUAGUA_SPLIT_MAX_COMBINED_SPLIT_SIZE, maxCombineSize + ""));
+                int workers = computeBalancedWorkers(combineSize);
+                LOG.info("Input splits are balanced by estimated record count into {} workers.", workers);
+                args.add(String.format(CommonConstants.MAPREDUCE_PARAM_FORMAT,
+                        CommonConstants.SHIFU_TRAIN_SPLIT_WORKERS, workers));
+            }
         }
         // special tuning parameters for shifu, 0.97 means each iteation master wait for 97% workers and then can go to
         // next iteration.
@@ -1593,16 +1741,31 @@ public class TrainModelProcessor extends BasicModelProcessor implements Processo
                 2 * 1000L));
     }
 
-    private long computeDynamicCombineSize() throws IOException {
-        // how many part-m-*.gz file in for gzip file, norm depends on how many gzip files
-        String dataPath = null;
+    /**
+     * Worker count of balanced input splits, set by user or data size / combine size.
+     */
+    private int computeBalancedWorkers(long combineSize) throws IOException {
+        Integer workers = Environment.getInt(CommonConstants.SHIFU_TRAIN_SPLIT_WORKERS);
+        if(workers != null && workers > 0) {
+            return workers;
+        }
+        long actualFileSize = ShifuFileUtils.getFileOrDirectorySize(getTrainDataPath(), SourceType.HDFS);
+        return (int) Math.max(1L, (actualFileSize + combineSize - 1) / Math.max(1L, combineSize));
+    }
+
+    private String getTrainDataPath() throws IOException {
         if(CommonUtils.isTreeModel(super.modelConfig.getAlgorithm())) {
-            dataPath = ShifuFileUtils.getFileSystemBySourceType(modelConfig.getDataSet().getSource())
+            return ShifuFileUtils.getFileSystemBySourceType(modelConfig.getDataSet().getSource())
                     .makeQualified(new Path(super.getPathFinder().getCleanedDataPath())).toString();
         } else {
-            dataPath = ShifuFileUtils.getFileSystemBySourceType(modelConfig.getDataSet().getSource())
+            return ShifuFileUtils.getFileSystemBySourceType(modelConfig.getDataSet().getSource())
                     .makeQualified(new Path(super.getPathFinder().getNormalizedDataPath())).toString();
         }
+    }
+
+    private long computeDynamicCombineSize() throws IOException {
+        // how many part-m-*.gz file in for gzip file, norm depends on how many gzip files
+        String dataPath = getTrainDataPath();
 
         int filePartCnt = ShifuFileUtils.getFilePartCount(dataPath, SourceType.HDFS);
         long actualFileSize = ShifuFileUtils.getFileOrDirectorySize(dataPath, SourceType.HDFS);
@@ -32,6 +32,8 @@ import ml.shifu.shifu.core.VariableSelector;
 import ml.shifu.shifu.core.dtrain.CommonConstants;
 import ml.shifu.shifu.core.dtrain.nn.NNConstants;
 import ml.shifu.shifu.core.dvarsel.*;
+import ml.shifu.shifu.core.dvarsel.sensitivity.SensitivityMasterConductor;
+import ml.shifu.shifu.core.dvarsel.sensitivity.SensitivityWorkerConductor;
 import ml.shifu.shifu.core.dvarsel.wrapper.CandidateGenerator;
 import ml.shifu.shifu.core.dvarsel.wrapper.WrapperMasterConductor;
 import ml.shifu.shifu.core.dvarsel.wrapper.WrapperWorkerConductor;
@@ -41,6 +43,7 @@ import ml.shifu.shifu.core.mr.input.CombineInputFormat;
 import ml.shifu.shifu.core.validator.ModelInspector.ModelStep;
 import ml.shifu.shifu.core.varselect.ColumnInfo;
 import ml.shifu.shifu.core.varselect.ColumnStatistics;
+import ml.shifu.shifu.core.varselect.NNSensitivityEvaluator;
 import ml.shifu.shifu.core.varselect.VarSelectMapper;
 import ml.shifu.shifu.core.varselect.VarSelectReducer;
 import ml.shifu.shifu.exception.ShifuErrorCode;
@@ -194,15 +197,21 @@ public class VarSelectModelProcessor extends BasicModelProcessor implements Proc
                     } else if(filterBy.equalsIgnoreCase(Constants.FILTER_BY_SE)
                             || filterBy.equalsIgnoreCase(Constants.FILTER_BY_ST)) {
                         if(!Constants.NN.equalsIgnoreCase(modelConfig.getAlgorithm())
-                                && !Constants.LR.equalsIgnoreCase(modelConfig.getAlgorithm())) {
-                            throw new IllegalArgumentException(
-                                    "Filter by SE/ST only works well in NN/LR. Please check your modelconfig::train.");
+                                && !Constants.LR.equalsIgnoreCase(modelConfig.getAlgorithm())
+                                && !CommonUtils.isTreeModel(modelConfig.getAlgorithm())) {
+                            throw new IllegalArgumentException("Filter by SE/ST only works well in NN/LR/GBT/RF. "
+                                    + "Please check your modelconfig::train.");
                         }
                         int recursiveCnt = getRecursiveCnt();
                         int i = 0;
                         // create varsel directory and write original copy of ColumnConfig.json
                         ShifuFileUtils.createDirIfNotExists(pathFinder.getVarSelDir(), SourceType.LOCAL);
                         super.saveColumnConfigList(pathFinder.getVarSelColumnConfig(i), this.columnConfigList);
+                        if(Constants.NN.equalsIgnoreCase(modelConfig.getAlgorithm())
+                                && Environment.getBoolean(Constants.SHIFU_VARSEL_SE_IN_MEMORY, Boolean.FALSE)) {
+                            inMemorySEVariablesSelection(recursiveCnt);
+                            recursiveCnt = 0;
+                        }
                         while((i++) < recursiveCnt) {
                             String trainLogFile = TRAIN_LOG_PREFIX + "-" + (i - 1) + ".log";
                             distributedSEWrapper(trainLogFile);
@@ -402,6 +411,66 @@ public class VarSelectModelProcessor extends BasicModelProcessor implements Proc
 
     private void votedVariablesSelection() throws ClassNotFoundException, IOException, InterruptedException {
         log.info("Start voted variables selection ");
+        long start = System.currentTimeMillis();
+
+        int iterationCnt = (Integer) this.modelConfig.getVarSelect().getParams()
+                .get(CandidateGenerator.POPULATION_MULTIPLY_CNT) + 1;
+        runVarSelGuaguaJob(iterationCnt,
+                Environment.getProperty(Environment.VAR_SEL_MASTER_CONDUCTOR, WrapperMasterConductor.class.getName()),
+                Environment.getProperty(Environment.VAR_SEL_WORKER_CONDUCTOR, WrapperWorkerConductor.class.getName()),
+                new ArrayList<String>());
+
+        log.info("Voted variables selection finished in {}ms.", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Recursive sensitivity variable selection in one guagua job, workers load and normalize data once and keep it in
+     * memory, in each round only working columns are changed. Each worker trains a NN model on its data with working
+     * columns and computes sensitivity of each working column, master drops columns with smallest sensitivity like
+     * {@link VarSelectReducer}.
+     */
+    private void inMemorySEVariablesSelection(int recursiveCnt) throws ClassNotFoundException, IOException,
+            InterruptedException {
+        log.info("Start in-memory recursive sensitivity variables selection with {} rounds.", recursiveCnt);
+        log.warn("Each worker trains its own model in in-memory sensitivity selection, sensitivity is approximate "
+                + "compared with selection by MR jobs.");
+        long start = System.currentTimeMillis();
+
+        SourceType sourceType = modelConfig.getDataSet().getSource();
+        Path historyPath = ShifuFileUtils.getFileSystemBySourceType(sourceType)
+                .makeQualified(new Path(getPathFinder().getVarSelsPath(sourceType), "SEHistory"));
+        ShifuFileUtils.deleteFile(historyPath.toString(), sourceType);
+
+        List<String> args = new ArrayList<String>();
+        args.add(String.format(CommonConstants.MAPREDUCE_PARAM_FORMAT,
+                ml.shifu.shifu.util.Constants.VAR_SEL_RECURSIVE_CNT, recursiveCnt));
+        args.add(String.format(CommonConstants.MAPREDUCE_PARAM_FORMAT,
+                ml.shifu.shifu.util.Constants.VAR_SEL_SE_HISTORY_OUTPUT, historyPath.toString()));
+        // the first iteration is used for data loading
+        runVarSelGuaguaJob(recursiveCnt + 1, SensitivityMasterConductor.class.getName(),
+                SensitivityWorkerConductor.class.getName(), args);
+
+        // se.x and ColumnConfig.json.x of each round like recursive selection by MR jobs
+        for(int i = 0; i < recursiveCnt; i++) {
+            Path roundPath = new Path(historyPath, Integer.toString(i));
+            String varSelMSEHistPath = pathFinder.getVarSelMSEHistPath(i);
+            ShifuFileUtils.createFileIfNotExists(varSelMSEHistPath, SourceType.LOCAL);
+            ShifuFileUtils.copyToLocal(new SourceFile(roundPath.toString(), sourceType),
+                    Constants.SHIFU_VARSELECT_SE_OUTPUT_NAME, varSelMSEHistPath);
+            if(ShifuFileUtils.isFileExists(new Path(roundPath, "VarSels"), sourceType)) {
+                persistColumnIds(new Path(roundPath, "VarSels"));
+            }
+            super.saveColumnConfigList(pathFinder.getVarSelColumnConfig(i + 1), this.columnConfigList);
+        }
+        // history of a round is skipped if fail to write, final selection is always from job output
+        persistColumnIds(getVotedSelectionPath(sourceType));
+
+        log.info("In-memory recursive sensitivity variables selection finished in {}ms.",
+                System.currentTimeMillis() - start);
+    }
+
+    private void runVarSelGuaguaJob(int iterationCnt, String masterConductor, String workerConductor,
+            List<String> extraArgs) throws ClassNotFoundException, IOException, InterruptedException {
         // sync data back to hdfs
         super.syncDataToHdfs(modelConfig.getDataSet().getSource());
 
@@ -410,14 +479,13 @@ public class VarSelectModelProcessor extends BasicModelProcessor implements Proc
 
         final List<String> args = new ArrayList<String>();
         // prepare parameter
-        prepareVarSelParams(args, sourceType);
+        prepareVarSelParams(args, sourceType, iterationCnt, masterConductor, workerConductor);
+        args.addAll(extraArgs);
 
         Path columnIdsPath = getVotedSelectionPath(sourceType);
         args.add(String.format(CommonConstants.MAPREDUCE_PARAM_FORMAT,
                 ml.shifu.shifu.util.Constants.VAR_SEL_COLUMN_IDS_OUPUT, columnIdsPath.toString()));
 
-        long start = System.currentTimeMillis();
-
         GuaguaMapReduceClient guaguaClient = new GuaguaMapReduceClient();
 
         String hdpVersion = HDPUtils.getHdpVersionForHDP224();
@@ -431,8 +499,6 @@ public class VarSelectModelProcessor extends BasicModelProcessor implements Proc
         }
         guaguaClient.createJob(args.toArray(new String[0])).waitForCompletion(true);
 
-        log.info("Voted variables selection finished in {}ms.", System.currentTimeMillis() - start);
-
         persistColumnIds(columnIdsPath);
         super.syncDataToHdfs(sourceType);
     }
@@ -485,7 +551,8 @@ public class VarSelectModelProcessor extends BasicModelProcessor implements Proc
     }
 
     @SuppressWarnings("unused")
-    private void prepareVarSelParams(final List<String> args, final SourceType sourceType) {
+    private void prepareVarSelParams(final List<String> args, final SourceType sourceType, int iterationCnt,
+            String masterConductor, String workerConductor) {
         args.add("-libjars");
 
         args.add(addRuntimeJars());
@@ -525,8 +592,6 @@ public class VarSelectModelProcessor extends BasicModelProcessor implements Proc
             }
         }
 
-        int iterationCnt = (Integer) this.modelConfig.getVarSelect().getParams()
-                .get(CandidateGenerator.POPULATION_MULTIPLY_CNT) + 1;
         args.add(Integer.toString(iterationCnt));
 
         args.add("-mr");
@@ -537,12 +602,10 @@ public class VarSelectModelProcessor extends BasicModelProcessor implements Proc
 
         // setting conductor
         args.add(String.format(CommonConstants.MAPREDUCE_PARAM_FORMAT,
-                ml.shifu.shifu.util.Constants.VAR_SEL_MASTER_CONDUCTOR,
-                Environment.getProperty(Environment.VAR_SEL_MASTER_CONDUCTOR, WrapperMasterConductor.class.getName())));
+                ml.shifu.shifu.util.Constants.VAR_SEL_MASTER_CONDUCTOR, masterConductor));
 
         args.add(String.format(CommonConstants.MAPREDUCE_PARAM_FORMAT,
-                ml.shifu.shifu.util.Constants.VAR_SEL_WORKER_CONDUCTOR,
-                Environment.getProperty(Environment.VAR_SEL_MASTER_CONDUCTOR, WrapperWorkerConductor.class.getName())));
+                ml.shifu.shifu.util.Constants.VAR_SEL_WORKER_CONDUCTOR, workerConductor));
 
         // setting queue
         args.add(String.format(CommonConstants.MAPREDUCE_PARAM_FORMAT, NNConstants.MAPRED_JOB_QUEUE_NAME, Environment
@@ -700,8 +763,13 @@ public class VarSelectModelProcessor extends BasicModelProcessor implements Proc
         job.setMapOutputKeyClass(LongWritable.class);
         job.setMapOutputValueClass(ColumnInfo.class);
         job.setInputFormatClass(CombineInputFormat.class);
-        FileInputFormat.setInputPaths(job, ShifuFileUtils.getFileSystemBySourceType(source)
-                .makeQualified(new Path(super.getPathFinder().getNormalizedDataPath())));
+        // tree models are trained on cleaned data, others on normalized data
+        String dataPath = CommonUtils.isTreeModel(this.modelConfig.getAlgorithm()) ? super.getPathFinder()
+                .getCleanedDataPath() : super.getPathFinder().getNormalizedDataPath();
+        // VarSelectMapper parses text lines
+        checkTextNormData(dataPath, "sensitivity variable selection");
+        FileInputFormat.setInputPaths(job,
+                ShifuFileUtils.getFileSystemBySourceType(source).makeQualified(new Path(dataPath)));
 
         job.setReducerClass(VarSelectReducer.class);
         // Only one reducer, no need set combiner because of distinct keys in map outputs.
@@ -751,6 +819,8 @@ public class VarSelectModelProcessor extends BasicModelProcessor implements Proc
         conf.set("mapred.reduce.slowstart.completed.maps",
                 Environment.getProperty("mapred.reduce.slowstart.completed.maps", "0.9"));
         conf.set(Constants.SHIFU_VARSELECT_FILTEROUT_TYPE, modelConfig.getVarSelectFilterBy());
+        conf.setInt(Constants.SHIFU_VARSEL_SE_BLOCK_SIZE,
+                Environment.getInt(Constants.SHIFU_VARSEL_SE_BLOCK_SIZE, NNSensitivityEvaluator.DEFAULT_BLOCK_SIZE));
 
         Float filterOutRatio = this.modelConfig.getVarSelect().getFilterOutRatio();
         if(filterOutRatio == null) {
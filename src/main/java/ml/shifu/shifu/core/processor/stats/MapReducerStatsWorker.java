@@ -28,6 +28,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Scanner;
 
 import com.google.common.collect.Lists;
@@ -69,6 +70,8 @@ import ml.shifu.shifu.container.obj.ColumnType;
 import ml.shifu.shifu.container.obj.ModelConfig;
 import ml.shifu.shifu.container.obj.RawSourceData;
 import ml.shifu.shifu.core.binning.BinningInfoWritable;
+import ml.shifu.shifu.core.binning.ColumnPartitioner;
+import ml.shifu.shifu.core.binning.StatsColumnPlanner;
 import ml.shifu.shifu.core.binning.UpdateBinningInfoMapper;
 import ml.shifu.shifu.core.binning.UpdateBinningInfoReducer;
 import ml.shifu.shifu.core.dtrain.CommonConstants;
@@ -95,6 +98,11 @@ public class MapReducerStatsWorker extends AbstractStatsExecutor {
     private static Logger log = LoggerFactory.getLogger(MapReducerStatsWorker.class);
     protected PathFinder pathFinder = null;
 
+    /**
+     * Estimated stats cost of each column, null if not estimated.
+     */
+    private double[] columnCosts;
+
     public MapReducerStatsWorker(BasicModelProcessor processor, ModelConfig modelConfig,
             List<ColumnConfig> columnConfigList) {
         super(processor, modelConfig, columnConfigList);
@@ -108,26 +116,17 @@ public class MapReducerStatsWorker extends AbstractStatsExecutor {
         ShifuFileUtils.deleteFile(pathFinder.getPreTrainingStatsPath(), modelConfig.getDataSet().getSource());
         Map<String, String> paramsMap = new HashMap<String, String>();
         paramsMap.put("delimiter", CommonUtils.escapePigString(modelConfig.getDataSetDelimiter()));
-        int columnParallel = 0;
-        if(columnConfigList.size() <= 100) {
-            columnParallel = columnConfigList.size() * 2;
-        }  else if ( columnConfigList.size() <= 500 ) {
-            columnParallel = columnConfigList.size();
-        } else if(columnConfigList.size() <= 1000) {
-            // 1000 => 200 reducers
-            columnParallel = columnConfigList.size() / 2;
-        } else if(columnConfigList.size() > 1000 && columnConfigList.size() <= 2000) {
-            // 2000 => 320 reducers
-            columnParallel = columnConfigList.size() / 4;
-        } else if(columnConfigList.size() > 2000 && columnConfigList.size() <= 3000) {
-            // 3000 => 420 reducers
-            columnParallel = columnConfigList.size() / 6;
-        } else if(columnConfigList.size() > 3000 && columnConfigList.size() <= 4000) {
-            // 4000 => 500
-            columnParallel = columnConfigList.size() / 8;
+        this.columnCosts = estimateColumnCosts();
+        int columnParallel;
+        if(this.columnCosts == null) {
+            columnParallel = getParallelNumByColumnSize();
         } else {
-            // 5000 => 500
-            columnParallel = columnConfigList.size() / 10;
+            double[] expandedCosts = StatsColumnPlanner.expandCosts(this.columnCosts, getSegmentSize());
+            double costPerReducer = Double.parseDouble(Environment.getProperty(Constants.SHIFU_STATS_REDUCER_COST,
+                    "5"));
+            columnParallel = StatsColumnPlanner.getReducerNum(expandedCosts, costPerReducer, 999);
+            log.info("Plan parallel number to {} according to estimated column cost {}", columnParallel,
+                    StatsColumnPlanner.sum(expandedCosts));
         }
         // limit max reducer to 999
         int parallelNumbByVolume = getParallelNumByDataVolume();
@@ -145,7 +144,11 @@ public class MapReducerStatsWorker extends AbstractStatsExecutor {
         // new PigInputFormat().getSplits(jobcontext)
 
         try {
-            runStatsPig(paramsMap);
+            if(isSinglePassStats()) {
+                runSinglePassStats();
+            } else {
+                runStatsPig(paramsMap);
+            }
         } catch (IOException e) {
             throw new ShifuException(ShifuErrorCode.ERROR_RUNNING_PIG_JOB, e);
         } catch (Throwable e) {
@@ -175,6 +178,85 @@ public class MapReducerStatsWorker extends AbstractStatsExecutor {
         return true;
     }
 
+    private int getParallelNumByColumnSize() {
+        int columnParallel = 0;
+        if(columnConfigList.size() <= 100) {
+            columnParallel = columnConfigList.size() * 2;
+        } else if(columnConfigList.size() <= 500) {
+            columnParallel = columnConfigList.size();
+        } else if(columnConfigList.size() <= 1000) {
+            // 1000 => 200 reducers
+            columnParallel = columnConfigList.size() / 2;
+        } else if(columnConfigList.size() > 1000 && columnConfigList.size() <= 2000) {
+            // 2000 => 320 reducers
+            columnParallel = columnConfigList.size() / 4;
+        } else if(columnConfigList.size() > 2000 && columnConfigList.size() <= 3000) {
+            // 3000 => 420 reducers
+            columnParallel = columnConfigList.size() / 6;
+        } else if(columnConfigList.size() > 3000 && columnConfigList.size() <= 4000) {
+            // 4000 => 500
+            columnParallel = columnConfigList.size() / 8;
+        } else {
+            // 5000 => 500
+            columnParallel = columnConfigList.size() / 10;
+        }
+        return columnParallel;
+    }
+
+    private int getSegmentSize() throws IOException {
+        List<String> expressions = super.modelConfig.getSegmentFilterExpressions();
+        return expressions == null ? 0 : expressions.size();
+    }
+
+    /**
+     * Sample records of data set to estimate stats cost of each column by {@link StatsColumnPlanner}. Files are picked
+     * by stride over all data files and lines are reservoir sampled in each picked file.
+     * 
+     * @return estimated column costs, null if planning is disabled or failed, then reducers are planned by column size
+     */
+    private double[] estimateColumnCosts() {
+        int sampleSize = Environment.getInt(Constants.SHIFU_STATS_PLANNER_SAMPLE_SIZE, 5000);
+        if(sampleSize <= 0) {
+            return null;
+        }
+        RawSourceData.SourceType source = modelConfig.getDataSet().getSource();
+        StatsColumnPlanner planner = new StatsColumnPlanner(this.columnConfigList,
+                modelConfig.getMissingOrInvalidValues());
+        String delimiter = modelConfig.getDataSetDelimiter();
+        try {
+            List<String> files = ShifuFileUtils.getDataFiles(modelConfig.getDataSetRawPath(), source);
+            // open one file at a time and at most sample size files spread over all files, each gives a quota
+            int fileNum = Math.min(files.size(), sampleSize);
+            int quota = fileNum == 0 ? 0 : (sampleSize + fileNum - 1) / fileNum;
+            // fixed seed to get the same plan on the same data
+            Random random = new Random(files.size());
+            for(int i = 0; i < fileNum && planner.getSampleCount() < sampleSize; i++) {
+                String file = files.get((int) ((long) i * files.size() / fileNum));
+                List<Scanner> scanners = ShifuFileUtils.getDataScanners(file, source);
+                try {
+                    for(String line: StatsColumnPlanner.reservoirSample(scanners, quota,
+                            quota * StatsColumnPlanner.SCAN_FACTOR, random)) {
+                        planner.addSample(CommonUtils.split(line, delimiter), line.length() + 1);
+                    }
+                } finally {
+                    processor.closeScanners(scanners);
+                }
+            }
+            if(planner.getSampleCount() == 0L) {
+                return null;
+            }
+            long fileSize = ShifuFileUtils.getFileOrDirectorySize(modelConfig.getDataSet().getDataPath(), source);
+            if(ShifuFileUtils.isCompressedFileOrDirectory(modelConfig.getDataSet().getDataPath(), source)) {
+                fileSize = fileSize * 3;
+            }
+            planner.setDataSize(fileSize);
+            return planner.getColumnCosts();
+        } catch (Exception e) {
+            log.warn("Failed to sample data to estimate column cost, plan reducers by column size.", e);
+            return null;
+        }
+    }
+
     private int getParallelNumByDataVolume() throws IOException {
         long fileSize = ShifuFileUtils.getFileOrDirectorySize(modelConfig.getDataSet().getDataPath(),
                 modelConfig.getDataSet().getSource());
@@ -229,19 +311,68 @@ public class MapReducerStatsWorker extends AbstractStatsExecutor {
         return numbers;
     }
 
+    /**
+     * Single-pass stats is enabled by {@link Constants#SHIFU_STATS_SINGLE_PASS}, hybrid columns are only supported in
+     * two-pass stats.
+     */
+    private boolean isSinglePassStats() {
+        if(!Environment.getBoolean(Constants.SHIFU_STATS_SINGLE_PASS, false)) {
+            return false;
+        }
+        for(ColumnConfig config: this.columnConfigList) {
+            if(config.isHybrid()) {
+                log.warn("Hybrid column {} is not supported in single-pass stats, run two-pass stats instead.",
+                        config.getColumnName());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compute bins and all column stats in one MapReduce job: mappers build mergeable sketches and reducers compute bins
+     * and stats from merged sketches. No pig binning job is needed.
+     */
+    protected void runSinglePassStats() throws IOException, InterruptedException, ClassNotFoundException {
+        log.info("Computing stats in single-pass MapReduce job ...");
+        runUpdateBinningInfoJob(null);
+    }
+
     protected void runStatsPig(Map<String, String> paramsMap) throws Exception {
-        paramsMap.put("group_binning_parallel", Integer.toString(columnConfigList.size() / (5 * 8)));
+        Map<String, String> confMap = planGroupBinning(paramsMap);
         ShifuFileUtils.deleteFile(pathFinder.getUpdatedBinningInfoPath(modelConfig.getDataSet().getSource()),
                 modelConfig.getDataSet().getSource());
 
         log.debug("this.pathFinder.getOtherConfigs() => " + this.pathFinder.getOtherConfigs());
         PigExecutor.getExecutor().submitJob(modelConfig, pathFinder.getScriptPath("scripts/StatsSpdtI.pig"), paramsMap,
-                modelConfig.getDataSet().getSource(), this.pathFinder);
+                modelConfig.getDataSet().getSource(), confMap, this.pathFinder);
         // update
         log.info("Updating binning info ...");
         updateBinningInfoWithMRJob();
     }
 
+    /**
+     * Set group binning parallel number of pig stats job. Partial bins of all groups of one column are merged in one
+     * reducer, so columns are assigned to reducers by estimated column cost if any.
+     * 
+     * @param paramsMap
+     *            pig parameters to set 'group_binning_parallel'
+     * @return pig job configurations with planned column partitions
+     */
+    protected Map<String, String> planGroupBinning(Map<String, String> paramsMap) throws IOException {
+        Map<String, String> confMap = new HashMap<String, String>();
+        int groupBinningParallel = columnConfigList.size() / (5 * 8);
+        if(this.columnCosts != null) {
+            double[] expandedCosts = StatsColumnPlanner.expandCosts(this.columnCosts, getSegmentSize());
+            groupBinningParallel = StatsColumnPlanner.getReducerNum(expandedCosts, 5d * 8, 999);
+            confMap.put(Constants.SHIFU_STATS_COLUMN_PARTITIONS, StatsColumnPlanner
+                    .encodePartitions(StatsColumnPlanner.assignPartitions(expandedCosts, groupBinningParallel)));
+            log.info("Plan group binning parallel number to {} by estimated column cost", groupBinningParallel);
+        }
+        paramsMap.put("group_binning_parallel", Integer.toString(groupBinningParallel));
+        return confMap;
+    }
+
     protected void updateBinningInfoWithMRJob() throws IOException, InterruptedException, ClassNotFoundException {
         RawSourceData.SourceType source = this.modelConfig.getDataSet().getSource();
 
@@ -264,6 +395,22 @@ public class MapReducerStatsWorker extends AbstractStatsExecutor {
             IOUtils.closeQuietly(writer);
         }
 
+        try {
+            runUpdateBinningInfoJob(filePath);
+        } finally {
+            FileUtils.deleteQuietly(new File(filePath));
+        }
+    }
+
+    /**
+     * Run updating binning info MapReduce job.
+     * 
+     * @param filePath
+     *            local binning info file shipped to mappers, null if in single-pass stats
+     */
+    private void runUpdateBinningInfoJob(String filePath) throws IOException, InterruptedException,
+            ClassNotFoundException {
+        RawSourceData.SourceType source = this.modelConfig.getDataSet().getSource();
         Configuration conf = new Configuration();
         prepareJobConf(source, conf, filePath);
 
@@ -284,18 +431,24 @@ public class MapReducerStatsWorker extends AbstractStatsExecutor {
         Integer reducerSize = Environment.getInt(CommonConstants.SHIFU_UPDATEBINNING_REDUCER);
         if(reducerSize != null) {
             job.setNumReduceTasks(Environment.getInt(CommonConstants.SHIFU_UPDATEBINNING_REDUCER, 20));
+        } else if(this.columnCosts != null) {
+            // By average, each reducer handle 100 numerical variables, categorical variables cost more by cardinality
+            double[] expandedCosts = StatsColumnPlanner.expandCosts(this.columnCosts, getSegmentSize());
+            int newReducerSize = StatsColumnPlanner.getReducerNum(expandedCosts, 100d, 999);
+            log.info("Plan updating binning info reducer size to {} by estimated column cost", newReducerSize);
+            job.setNumReduceTasks(newReducerSize);
         } else {
             // By average, each reducer handle 100 variables
             int newReducerSize = (this.columnConfigList.size() / 100) + 1;
-            // if(newReducerSize < 1) {
-            // newReducerSize = 1;
-            // }
-            // if(newReducerSize > 500) {
-            // newReducerSize = 500;
-            // }
             log.info("Adjust updating binning info reducer size to {} ", newReducerSize);
             job.setNumReduceTasks(newReducerSize);
         }
+        if(this.columnCosts != null) {
+            double[] expandedCosts = StatsColumnPlanner.expandCosts(this.columnCosts, getSegmentSize());
+            job.getConfiguration().set(Constants.SHIFU_STATS_COLUMN_PARTITIONS, StatsColumnPlanner
+                    .encodePartitions(StatsColumnPlanner.assignPartitions(expandedCosts, job.getNumReduceTasks())));
+            job.setPartitionerClass(ColumnPartitioner.class);
+        }
         job.setOutputKeyClass(NullWritable.class);
         job.setOutputValueClass(Text.class);
         job.setOutputFormatClass(TextOutputFormat.class);
@@ -308,7 +461,6 @@ public class MapReducerStatsWorker extends AbstractStatsExecutor {
 
         // submit job
         if(!job.waitForCompletion(true)) {
-            FileUtils.deleteQuietly(new File(filePath));
             throw new RuntimeException("MapReduce Job Updateing Binning Info failed.");
         } else {
             long totalValidCount = job.getCounters().findCounter(Constants.SHIFU_GROUP_COUNTER, "TOTAL_VALID_COUNT")
@@ -327,13 +479,17 @@ public class MapReducerStatsWorker extends AbstractStatsExecutor {
                 log.warn("Too many invalid tags, please check you configuration on positive tags and negative tags.");
             }
         }
-        FileUtils.deleteQuietly(new File(filePath));
     }
 
     private void prepareJobConf(RawSourceData.SourceType source, final Configuration conf, String filePath)
             throws IOException {
         // add jars to hadoop mapper and reducer
-        new GenericOptionsParser(conf, new String[] { "-libjars", addRuntimeJars(), "-files", filePath });
+        if(filePath == null) {
+            new GenericOptionsParser(conf, new String[] { "-libjars", addRuntimeJars() });
+        } else {
+            new GenericOptionsParser(conf, new String[] { "-libjars", addRuntimeJars(), "-files", filePath });
+        }
+        conf.setBoolean(Constants.SHIFU_STATS_SINGLE_PASS, filePath == null);
 
         conf.setBoolean(CombineInputFormat.SHIFU_VS_SPLIT_COMBINABLE, true);
         conf.setBoolean("mapreduce.input.fileinputformat.input.dir.recursive", true);
@@ -44,8 +44,8 @@ public class SPDTIStatsExecutor extends MapReducerStatsWorker {
     protected void runStatsPig(Map<String, String> paramsMap) throws Exception {
         log.info("Run SPDTI to stats ... ");
 
-        paramsMap.put("group_binning_parallel", Integer.toString(columnConfigList.size() / (5 * 8)));
-        
+        Map<String, String> confMap = planGroupBinning(paramsMap);
+
         String expressionsAsString = super.modelConfig.getSegmentFilterExpressionsAsString();
         Environment.getProperties().put("shifu.segment.expressions", expressionsAsString);
         
@@ -53,7 +53,7 @@ public class SPDTIStatsExecutor extends MapReducerStatsWorker {
                 modelConfig.getDataSet().getSource());
 
         PigExecutor.getExecutor().submitJob(modelConfig, pathFinder.getScriptPath("scripts/StatsSpdtI.pig"),
-                paramsMap, modelConfig.getDataSet().getSource(), super.pathFinder);
+                paramsMap, modelConfig.getDataSet().getSource(), confMap, super.pathFinder);
 
         // update
         log.info("Updating binning info ...");
@@ -0,0 +1,57 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.varselect;
+
+import ml.shifu.shifu.core.LR;
+
+import org.encog.mathutil.BoundMath;
+
+/**
+ * Sensitivity evaluator of logistic regression models. Removing input i (input value set to 0) only removes its item
+ * from the linear sum, so score with input i removed is computed from the linear sum of all inputs in constant time
+ * and all scores of one record are computed in one pass of inputs.
+ */
+public class LRSensitivityEvaluator implements SensitivityEvaluator {
+
+    /**
+     * Weights of inputs with bias as the last one.
+     */
+    private final double[] weights;
+
+    public LRSensitivityEvaluator(LR lr) {
+        this.weights = lr.getWeights();
+    }
+
+    @Override
+    public double compute(double[] input, double[] scores) {
+        int inputCount = this.weights.length - 1;
+        double sum = 0d;
+        for(int i = 0; i < inputCount; i++) {
+            sum += this.weights[i] * input[i];
+        }
+        sum += this.weights[inputCount];
+
+        for(int i = 0; i < inputCount; i++) {
+            scores[i] = sigmoid(sum - this.weights[i] * input[i]);
+        }
+        return sigmoid(sum);
+    }
+
+    private static double sigmoid(double value) {
+        return 1.0d / (1.0d + BoundMath.exp(-1 * value));
+    }
+
+}
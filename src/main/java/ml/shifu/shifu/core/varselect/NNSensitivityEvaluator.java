@@ -0,0 +1,190 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.varselect;
+
+import ml.shifu.shifu.core.dtrain.dataset.CacheFlatNetwork;
+
+import org.encog.engine.network.activation.ActivationFunction;
+import org.encog.neural.flat.FlatNetwork;
+
+/**
+ * Sensitivity evaluator of neural network models, to compute model score of one record with all inputs and model
+ * scores with each single input removed (input value set to 0).
+ *
+ * <p>
+ * Like {@link CacheFlatNetwork}, first hidden layer sums with all inputs are computed once for each record and removing
+ * input i only subtracts its item from the cached sums. Different from {@link CacheFlatNetwork}, inputs are removed in
+ * blocks: first hidden layer outputs of a block are a matrix with one row per removed input, upper layers are computed
+ * neuron by neuron for all rows, so weights of one neuron are read once per block instead of once per input. Sums are
+ * accumulated in the same order as {@link CacheFlatNetwork}, scores are the same.
+ *
+ * <p>
+ * Network weights are only read. Each instance has its own buffers and is not thread safe, one instance per thread
+ * should be used.
+ */
+public class NNSensitivityEvaluator implements SensitivityEvaluator {
+
+    /**
+     * Default number of removed inputs computed together.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 64;
+
+    private final double[] weights;
+
+    /**
+     * Layer structure in flat network order, output layer is 0 and input layer is the last one.
+     */
+    private final int[] layerCounts;
+
+    private final int[] layerFeedCounts;
+
+    private final int[] weightIndex;
+
+    private final ActivationFunction[] activationFunctions;
+
+    private final int inputCount;
+
+    private final int blockSize;
+
+    /**
+     * Input layer values including bias.
+     */
+    private final double[] inputLayer;
+
+    /**
+     * First hidden layer sums with all inputs.
+     */
+    private final double[] firstLayerSums;
+
+    /**
+     * Outputs of computed layers for a block, one row per removed input and each row with bias neuron.
+     */
+    private final double[][] blockOutputs;
+
+    public NNSensitivityEvaluator(FlatNetwork flat) {
+        this(flat, DEFAULT_BLOCK_SIZE);
+    }
+
+    public NNSensitivityEvaluator(FlatNetwork flat, int blockSize) {
+        if(flat.getHasContext()) {
+            throw new IllegalArgumentException("Network with context neurons is not supported.");
+        }
+        this.weights = flat.getWeights();
+        this.layerCounts = flat.getLayerCounts();
+        this.layerFeedCounts = flat.getLayerFeedCounts();
+        this.weightIndex = flat.getWeightIndex();
+        this.inputCount = flat.getInputCount();
+        this.blockSize = Math.max(1, blockSize);
+
+        int layers = this.layerCounts.length;
+        // activation functions may keep state, use own copies
+        this.activationFunctions = new ActivationFunction[layers];
+        for(int i = 0; i < layers; i++) {
+            if(flat.getActivationFunctions()[i] != null) {
+                this.activationFunctions[i] = flat.getActivationFunctions()[i].clone();
+            }
+        }
+
+        // bias neurons are after feed neurons in each layer and never changed in computing
+        double[] layerOutput = flat.getLayerOutput();
+        int[] layerIndex = flat.getLayerIndex();
+        this.inputLayer = new double[this.layerCounts[layers - 1]];
+        System.arraycopy(layerOutput, layerIndex[layers - 1], this.inputLayer, 0, this.inputLayer.length);
+        this.firstLayerSums = new double[this.layerFeedCounts[layers - 2]];
+        this.blockOutputs = new double[layers - 1][];
+        for(int l = 0; l < layers - 1; l++) {
+            int stride = this.layerCounts[l];
+            this.blockOutputs[l] = new double[this.blockSize * stride];
+            for(int b = 0; b < this.blockSize; b++) {
+                System.arraycopy(layerOutput, layerIndex[l], this.blockOutputs[l], b * stride, stride);
+            }
+        }
+    }
+
+    @Override
+    public double compute(double[] input, double[] scores) {
+        int firstLayer = this.layerCounts.length - 2;
+        int inputSize = this.inputLayer.length;
+        int outputSize = this.layerFeedCounts[firstLayer];
+        double[] firstOutputs = this.blockOutputs[firstLayer];
+        int stride = this.layerCounts[firstLayer];
+        System.arraycopy(input, 0, this.inputLayer, 0, this.inputCount);
+
+        int index = this.weightIndex[firstLayer];
+        for(int x = 0; x < outputSize; x++) {
+            double sum = 0d;
+            for(int y = 0; y < inputSize; y++) {
+                sum += this.weights[index++] * this.inputLayer[y];
+            }
+            this.firstLayerSums[x] = sum;
+        }
+
+        // model score with all inputs is computed as a block of one row
+        System.arraycopy(this.firstLayerSums, 0, firstOutputs, 0, outputSize);
+        double score = computeUpperLayers(1)[0];
+
+        for(int start = 0; start < this.inputCount; start += this.blockSize) {
+            int rows = Math.min(this.blockSize, this.inputCount - start);
+            index = this.weightIndex[firstLayer] + start;
+            for(int x = 0; x < outputSize; x++, index += inputSize) {
+                double sum = this.firstLayerSums[x];
+                for(int b = 0; b < rows; b++) {
+                    firstOutputs[b * stride + x] = sum - this.weights[index + b] * this.inputLayer[start + b];
+                }
+            }
+
+            double[] outputs = computeUpperLayers(rows);
+            int outputStride = this.layerCounts[0];
+            for(int b = 0; b < rows; b++) {
+                scores[start + b] = outputs[b * outputStride];
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Activate first hidden layer sums of block rows and compute all upper layers.
+     *
+     * @return output layer values of block rows
+     */
+    private double[] computeUpperLayers(int rows) {
+        for(int l = this.layerCounts.length - 2; l >= 0; l--) {
+            double[] outputs = this.blockOutputs[l];
+            int stride = this.layerCounts[l];
+            int outputSize = this.layerFeedCounts[l];
+            if(l < this.layerCounts.length - 2) {
+                double[] inputs = this.blockOutputs[l + 1];
+                int inputSize = this.layerCounts[l + 1];
+                int index = this.weightIndex[l];
+                for(int x = 0; x < outputSize; x++, index += inputSize) {
+                    for(int b = 0; b < rows; b++) {
+                        int offset = b * inputSize;
+                        double sum = 0d;
+                        for(int y = 0; y < inputSize; y++) {
+                            sum += this.weights[index + y] * inputs[offset + y];
+                        }
+                        outputs[b * stride + x] = sum;
+                    }
+                }
+            }
+            for(int b = 0; b < rows; b++) {
+                this.activationFunctions[l].activationFunction(outputs, b * stride, outputSize);
+            }
+        }
+        return this.blockOutputs[0];
+    }
+
+}
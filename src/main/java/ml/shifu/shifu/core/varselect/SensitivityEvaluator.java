@@ -0,0 +1,39 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.varselect;
+
+/**
+ * Sensitivity evaluator to compute model score of one record with all inputs and model scores with each single input
+ * removed, used by sensitivity variable selection in {@link VarSelectMapper}.
+ *
+ * <p>
+ * How one input is removed depends on model: it is set to 0 in normalized inputs of neural network and logistic
+ * regression models, and it is treated as missing value in tree models.
+ */
+public interface SensitivityEvaluator {
+
+    /**
+     * Compute model score of all inputs and model scores of each input removed.
+     *
+     * @param input
+     *            input values of one record
+     * @param scores
+     *            to fill score with input i removed into scores[i]
+     * @return model score with all inputs
+     */
+    double compute(double[] input, double[] scores);
+
+}
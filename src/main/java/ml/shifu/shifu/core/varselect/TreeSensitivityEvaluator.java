@@ -0,0 +1,211 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.varselect;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+
+import ml.shifu.shifu.core.dtrain.dt.IndependentTreeModel;
+import ml.shifu.shifu.core.dtrain.dt.Node;
+import ml.shifu.shifu.core.dtrain.dt.TreeNode;
+
+/**
+ * Sensitivity evaluator of GBT and RF regression models, input removed is treated as missing value: mean value for
+ * numerical column and missing category for categorical column.
+ *
+ * <p>
+ * Inputs are in data array format of {@link IndependentTreeModel#compute(double[])}. For each record, all trees are
+ * computed once and tree scores and features split on in the path of each tree are cached. Removing input i only
+ * re-computes trees whose path of such record splits on input i, bag sums are updated by score changes of such trees.
+ * Most inputs are not in any path of one record and their scores are the same as model score with all inputs.
+ *
+ * <p>
+ * Model is only read. Each instance has its own buffers and is not thread safe, one instance per thread should be
+ * used.
+ */
+public class TreeSensitivityEvaluator implements SensitivityEvaluator {
+
+    private final IndependentTreeModel model;
+
+    /**
+     * Top nodes of all trees in all bags.
+     */
+    private final Node[] topNodes;
+
+    /**
+     * Bag index of each tree.
+     */
+    private final int[] treeBags;
+
+    private final double[] treeWeights;
+
+    /**
+     * Sum of tree weights in each bag, only used in RF.
+     */
+    private final double[] bagWeightSums;
+
+    /**
+     * Data value of each input if it is removed.
+     */
+    private final double[] missingValues;
+
+    private final double[] data;
+
+    private final double[] treeScores;
+
+    private final double[] bagSums;
+
+    private final double[] newBagSums;
+
+    /**
+     * Paths of current record, trees split on input i are linked from inputHeads[i] by linkNexts, -1 is the end.
+     */
+    private final int[] inputHeads;
+
+    /**
+     * Last tree linked to each input, to link one tree once even if its path splits on one input several times.
+     */
+    private final int[] inputLastTrees;
+
+    private int[] linkTrees;
+
+    private int[] linkNexts;
+
+    private int linkSize;
+
+    public TreeSensitivityEvaluator(IndependentTreeModel model) {
+        if(model.isClassification()) {
+            throw new IllegalArgumentException("Only regression tree model is supported in sensitivity evaluation.");
+        }
+        this.model = model;
+
+        List<List<TreeNode>> trees = model.getTrees();
+        List<List<Double>> weights = model.getWeights();
+        int treeCount = 0;
+        for(List<TreeNode> bagTrees: trees) {
+            treeCount += bagTrees.size();
+        }
+        this.topNodes = new Node[treeCount];
+        this.treeBags = new int[treeCount];
+        this.treeWeights = new double[treeCount];
+        this.bagWeightSums = new double[trees.size()];
+        int t = 0;
+        for(int i = 0; i < trees.size(); i++) {
+            for(int j = 0; j < trees.get(i).size(); j++, t++) {
+                this.topNodes[t] = trees.get(i).get(j).getNode();
+                this.treeBags[t] = i;
+                this.treeWeights[t] = weights.get(i).get(j);
+                this.bagWeightSums[i] += this.treeWeights[t];
+            }
+        }
+
+        int inputCount = model.getColumnNumIndexMapping().size();
+        this.missingValues = new double[inputCount];
+        for(Entry<Integer, Integer> entry: model.getColumnNumIndexMapping().entrySet()) {
+            this.missingValues[entry.getValue()] = model.convertToDataValue(entry.getKey(), null);
+        }
+
+        this.data = new double[inputCount];
+        this.treeScores = new double[treeCount];
+        this.bagSums = new double[trees.size()];
+        this.newBagSums = new double[trees.size()];
+        this.inputHeads = new int[inputCount];
+        this.inputLastTrees = new int[inputCount];
+        this.linkTrees = new int[Math.max(16, treeCount * 4)];
+        this.linkNexts = new int[this.linkTrees.length];
+    }
+
+    @Override
+    public double compute(double[] input, double[] scores) {
+        System.arraycopy(input, 0, this.data, 0, this.data.length);
+        Arrays.fill(this.inputHeads, -1);
+        Arrays.fill(this.inputLastTrees, -1);
+        Arrays.fill(this.bagSums, 0d);
+        this.linkSize = 0;
+
+        for(int t = 0; t < this.topNodes.length; t++) {
+            Node currNode = this.topNodes[t];
+            Node nextNode;
+            while((nextNode = this.model.nextNode(currNode, this.data)) != null) {
+                link(this.model.getColumnIndex(currNode.getSplit().getColumnNum()), t);
+                currNode = nextNode;
+            }
+            this.treeScores[t] = this.model.getLeafScore(currNode);
+            this.bagSums[this.treeBags[t]] += this.treeScores[t] * this.treeWeights[t];
+        }
+        double score = computeScore(this.bagSums);
+
+        for(int i = 0; i < this.data.length; i++) {
+            if(this.inputHeads[i] < 0) {
+                // no tree path splits on input i, removing it doesn't change score
+                scores[i] = score;
+                continue;
+            }
+
+            double value = this.data[i];
+            this.data[i] = this.missingValues[i];
+            System.arraycopy(this.bagSums, 0, this.newBagSums, 0, this.bagSums.length);
+            for(int l = this.inputHeads[i]; l >= 0; l = this.linkNexts[l]) {
+                int t = this.linkTrees[l];
+                double treeScore = predict(this.topNodes[t]);
+                this.newBagSums[this.treeBags[t]] += (treeScore - this.treeScores[t]) * this.treeWeights[t];
+            }
+            scores[i] = computeScore(this.newBagSums);
+            this.data[i] = value;
+        }
+        return score;
+    }
+
+    private void link(int input, int tree) {
+        if(this.inputLastTrees[input] == tree) {
+            return;
+        }
+        this.inputLastTrees[input] = tree;
+        if(this.linkSize == this.linkTrees.length) {
+            this.linkTrees = Arrays.copyOf(this.linkTrees, this.linkSize * 2);
+            this.linkNexts = Arrays.copyOf(this.linkNexts, this.linkSize * 2);
+        }
+        this.linkTrees[this.linkSize] = tree;
+        this.linkNexts[this.linkSize] = this.inputHeads[input];
+        this.inputHeads[input] = this.linkSize++;
+    }
+
+    private double predict(Node topNode) {
+        Node currNode = topNode;
+        Node nextNode;
+        while((nextNode = this.model.nextNode(currNode, this.data)) != null) {
+            currNode = nextNode;
+        }
+        return this.model.getLeafScore(currNode);
+    }
+
+    /**
+     * Average bag scores like {@link IndependentTreeModel#compute(double[])}.
+     */
+    private double computeScore(double[] sums) {
+        double finalPredict = 0d;
+        for(int i = 0; i < sums.length; i++) {
+            if(this.model.isGBDT()) {
+                finalPredict += this.model.convertGBTScore(sums[i]);
+            } else {
+                finalPredict += sums[i] / this.bagWeightSums[i];
+            }
+        }
+        return finalPredict / sums.length;
+    }
+
+}
@@ -30,7 +30,6 @@ import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Mapper;
 import org.encog.ml.MLRegression;
-import org.encog.ml.data.basic.BasicMLData;
 import org.encog.persist.PersistorRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,12 +41,15 @@ import ml.shifu.guagua.util.NumberFormatUtils;
 import ml.shifu.shifu.container.obj.ColumnConfig;
 import ml.shifu.shifu.container.obj.ModelConfig;
 import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
+import ml.shifu.shifu.core.LR;
+import ml.shifu.shifu.core.TreeModel;
 import ml.shifu.shifu.core.dtrain.CommonConstants;
 import ml.shifu.shifu.core.dtrain.DTrainUtils;
 import ml.shifu.shifu.core.dtrain.dataset.BasicFloatNetwork;
 import ml.shifu.shifu.core.dtrain.dataset.CacheBasicFloatNetwork;
 import ml.shifu.shifu.core.dtrain.dataset.CacheFlatNetwork;
 import ml.shifu.shifu.core.dtrain.dataset.PersistBasicFloatNetwork;
+import ml.shifu.shifu.core.dtrain.dt.IndependentTreeModel;
 import ml.shifu.shifu.fs.ShifuFileUtils;
 
 /**
@@ -84,8 +86,8 @@ public class VarSelectMapper extends Mapper<LongWritable, Text, LongWritable, Co
     private static List<ColumnConfig> columnConfigList;
 
     /**
-     * Basic neural network model instance to compute basic score with all selected columns and wrapper selected
-     * columns
+     * Basic neural network, logistic regression or tree model instance to compute basic score with all selected columns
+     * and wrapper selected columns
      */
     private MLRegression model;
 
@@ -117,11 +119,6 @@ public class VarSelectMapper extends Mapper<LongWritable, Text, LongWritable, Co
      */
     private long[] columnIndexes;
 
-    /**
-     * Input MLData instance to save new.
-     */
-    private BasicMLData inputsMLData;
-
     /**
      * Prevent too many new objects for output key.
      */
@@ -143,9 +140,31 @@ public class VarSelectMapper extends Mapper<LongWritable, Text, LongWritable, Co
     private Set<Integer> featureSet;
 
     /**
-     * Network which will cache first layer outputs and later use minus to replace sum to save CPU time.
+     * Sensitivity evaluator by model type to compute model scores with each input removed.
+     */
+    private SensitivityEvaluator evaluator;
+
+    /**
+     * Tree model if model is GBT or RF, tree models are trained on cleaned data and raw values are converted to data
+     * array of tree model in {@link #map(LongWritable, Text, org.apache.hadoop.mapreduce.Mapper.Context)}.
+     */
+    private IndependentTreeModel treeModel;
+
+    /**
+     * Model scores with each input removed for each record. To save new objects in
+     * {@link #map(LongWritable, Text, org.apache.hadoop.mapreduce.Mapper.Context)}.
+     */
+    private double[] scores;
+
+    /**
+     * Sum of absolute score diff of each input, by input index and written to {@link #results} in cleanup.
+     */
+    private double[] sumScoreDiffs;
+
+    /**
+     * Sum of square score diff of each input, by input index and written to {@link #results} in cleanup.
      */
-    private CacheBasicFloatNetwork cacheNetwork;
+    private double[] sumSquareScoreDiffs;
 
     /**
      * The splitter for normalization data set
@@ -235,8 +254,19 @@ public class VarSelectMapper extends Mapper<LongWritable, Text, LongWritable, Co
 
         loadModel();
 
-        // Copy mode to here
-        cacheNetwork = copy((BasicFloatNetwork) model);
+        if(model instanceof BasicFloatNetwork) {
+            this.evaluator = new NNSensitivityEvaluator(((BasicFloatNetwork) model).getFlat(), context
+                    .getConfiguration().getInt(Constants.SHIFU_VARSEL_SE_BLOCK_SIZE,
+                            NNSensitivityEvaluator.DEFAULT_BLOCK_SIZE));
+        } else if(model instanceof LR) {
+            this.evaluator = new LRSensitivityEvaluator((LR) model);
+        } else if(model instanceof TreeModel) {
+            this.treeModel = ((TreeModel) model).getIndependentTreeModel();
+            this.evaluator = new TreeSensitivityEvaluator(this.treeModel);
+        } else {
+            throw new IllegalArgumentException("Sensitivity variable selection is not supported in model "
+                    + model.getClass().getName() + ".");
+        }
 
         this.filterBy = context.getConfiguration().get(Constants.SHIFU_VARSELECT_FILTEROUT_TYPE,
                 Constants.FILTER_BY_SE);
@@ -246,6 +276,11 @@ public class VarSelectMapper extends Mapper<LongWritable, Text, LongWritable, Co
         if(model instanceof BasicFloatNetwork) {
             this.inputs = new double[((BasicFloatNetwork) model).getFeatureSet().size()];
             this.featureSet = ((BasicFloatNetwork) model).getFeatureSet();
+        } else if(this.treeModel != null) {
+            // tree model inputs are all columns in model by data index of tree model
+            this.inputs = new double[this.treeModel.getColumnNumIndexMapping().size()];
+            this.featureSet = new HashSet<Integer>(this.treeModel.getColumnNumIndexMapping().keySet());
+            this.inputNodeCount = this.inputs.length;
         } else {
             this.inputs = new double[this.inputNodeCount];
         }
@@ -264,7 +299,9 @@ public class VarSelectMapper extends Mapper<LongWritable, Text, LongWritable, Co
 
         this.outputs = new double[inputOutputIndex[1]];
         this.columnIndexes = new long[this.inputs.length];
-        this.inputsMLData = new BasicMLData(this.inputs.length);
+        this.scores = new double[this.inputs.length];
+        this.sumScoreDiffs = new double[this.inputs.length];
+        this.sumSquareScoreDiffs = new double[this.inputs.length];
         this.outputKey = new LongWritable();
         LOG.info("Filter by is {}", filterBy);
 
@@ -287,40 +324,36 @@ public class VarSelectMapper extends Mapper<LongWritable, Text, LongWritable, Co
                     this.outputs[outputsIndex++] = doubleValue;
                 } else {
                     if(this.featureSet != null && this.featureSet.contains(columnConfig.getColumnNum())) {
-                        inputs[inputsIndex] = doubleValue;
-                        columnIndexes[inputsIndex++] = columnConfig.getColumnNum();
+                        if(this.treeModel != null) {
+                            int dataIndex = this.treeModel.getColumnIndex(columnConfig.getColumnNum());
+                            inputs[dataIndex] = this.treeModel.convertToDataValue(columnConfig.getColumnNum(),
+                                    input.trim());
+                            columnIndexes[dataIndex] = columnConfig.getColumnNum();
+                        } else {
+                            inputs[inputsIndex] = doubleValue;
+                            columnIndexes[inputsIndex++] = columnConfig.getColumnNum();
+                        }
                     }
                 }
             }
             index++;
         }
 
-        this.inputsMLData.setData(this.inputs);
-        // compute candidate model score , cache first layer of sum values in such call method, cache flag here is true
-        double candidateModelScore = cacheNetwork.compute(inputsMLData, true, -1).getData()[0];
+        // candidate model score with all inputs and model scores with each input removed
+        double candidateModelScore = this.evaluator.compute(this.inputs, this.scores);
 
+        boolean isFilterByST = Constants.FILTER_BY_ST.equalsIgnoreCase(this.filterBy);
         for(int i = 0; i < this.inputs.length; i++) {
-            // cache flag is false to reuse cache sum of first layer of values.
-            double currentModelScore = cacheNetwork.compute(inputsMLData, false, i).getData()[0];
             double diff = 0d;
-            if(Constants.FILTER_BY_ST.equalsIgnoreCase(this.filterBy)) {
+            if(isFilterByST) {
                 // ST
-                diff = this.outputs[0] - currentModelScore;
+                diff = this.outputs[0] - this.scores[i];
             } else {
                 // SE
-                diff = candidateModelScore - currentModelScore;
-            }
-            ColumnInfo columnInfo = this.results.get(this.columnIndexes[i]);
-
-            if(columnInfo == null) {
-                columnInfo = new ColumnInfo();
-                columnInfo.setSumScoreDiff(Math.abs(diff));
-                columnInfo.setSumSquareScoreDiff(power2(diff));
-            } else {
-                columnInfo.setSumScoreDiff(columnInfo.getSumScoreDiff() + Math.abs(diff));
-                columnInfo.setSumSquareScoreDiff(columnInfo.getSumSquareScoreDiff() + power2(diff));
+                diff = candidateModelScore - this.scores[i];
             }
-            this.results.put(this.columnIndexes[i], columnInfo);
+            this.sumScoreDiffs[i] += Math.abs(diff);
+            this.sumSquareScoreDiffs[i] += power2(diff);
         }
 
         if(this.recordCount % 1000 == 0) {
@@ -333,6 +366,14 @@ public class VarSelectMapper extends Mapper<LongWritable, Text, LongWritable, Co
      */
     @Override
     protected void cleanup(Context context) throws IOException, InterruptedException {
+        if(this.recordCount > 0L) {
+            for(int i = 0; i < this.columnIndexes.length; i++) {
+                ColumnInfo columnInfo = new ColumnInfo();
+                columnInfo.setSumScoreDiff(this.sumScoreDiffs[i]);
+                columnInfo.setSumSquareScoreDiff(this.sumSquareScoreDiffs[i]);
+                this.results.put(this.columnIndexes[i], columnInfo);
+            }
+        }
         for(Entry<Long, ColumnInfo> entry: results.entrySet()) {
             this.outputKey.set(entry.getKey());
             // value is sumValue, not sumValue/(number of records)
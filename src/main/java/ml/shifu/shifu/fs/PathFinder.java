@@ -714,6 +714,25 @@ public class PathFinder {
         return new Path(scoreMetaPath, metaColumn).toString();
     }
 
+    /**
+     * Get the path of evaluation score histograms
+     *
+     * @param evalConfig
+     *            - EvalConfig to find
+     * @return path of evaluation score histograms
+     */
+    public String getEvalScoreHistogramPath(EvalConfig evalConfig) {
+        SourceType sourceType = evalConfig.getDataSet().getSource();
+
+        String scorePath = getPreferPath(evalConfig.getCustomPaths(), Constants.KEY_SCORE_PATH);
+        if(StringUtils.isBlank(scorePath)) {
+            return getEvalFilePath(evalConfig.getName(), Constants.EVAL_SCORE_HISTOGRAM, sourceType);
+        } else {
+            // not under custom score folder which is the score output folder itself
+            return new Path(scorePath + "_" + Constants.EVAL_SCORE_HISTOGRAM).toString();
+        }
+    }
+
     /**
      * Get the path of evaluation score
      *
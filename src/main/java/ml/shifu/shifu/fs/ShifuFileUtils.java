@@ -287,7 +287,61 @@ public class ShifuFileUtils {
     public static List<Scanner> getDataScanners(String path, SourceType sourceType, final PathFilter pathFilter)
             throws IOException {
         FileSystem fs = getFileSystemBySourceType(sourceType);
+        FileStatus[] listStatus = listDataFiles(fs, path, pathFilter);
 
+        List<Scanner> scanners = new ArrayList<Scanner>();
+        for(FileStatus f: listStatus) {
+            String filename = f.getPath().getName();
+
+            if(f.isDir()) {
+                log.warn("Skip - {}, since it's direcory, please check your configuration.", filename);
+                continue;
+            }
+
+            log.debug("Creating Scanner for file: {} ", filename);
+            if(filename.endsWith(Constants.GZ_SUFFIX)) {
+                scanners.add(new Scanner(new GZIPInputStream(fs.open(f.getPath())), Constants.DEFAULT_CHARSET));
+            } else if(filename.endsWith(Constants.BZ2_SUFFIX)) {
+                scanners.add(new Scanner(new BZip2CompressorInputStream(fs.open(f.getPath())),
+                        Constants.DEFAULT_CHARSET));
+            } else {
+                scanners.add(new Scanner(new BufferedInputStream(fs.open(f.getPath())), Constants.DEFAULT_CHARSET));
+            }
+        }
+
+        return scanners;
+    }
+
+    /**
+     * Get paths of normal data files for some specified path in file name order, if the file is directory, get all
+     * normal sub-files, if the file is normal file, get itself. Hidden files and '_SUCCESS' are skipped as
+     * {@link #getDataScanners(String, SourceType, PathFilter)}.
+     * 
+     * @param path
+     *            - file path
+     * @param sourceType
+     *            - local/hdfs
+     * @return paths of data files
+     * @throws IOException
+     *             - if any I/O exception in processing
+     */
+    @SuppressWarnings("deprecation")
+    public static List<String> getDataFiles(String path, SourceType sourceType) throws IOException {
+        FileStatus[] listStatus = listDataFiles(getFileSystemBySourceType(sourceType), path, null);
+        List<String> files = new ArrayList<String>(listStatus.length);
+        for(FileStatus f: listStatus) {
+            if(f.isDir()) {
+                log.warn("Skip - {}, since it's direcory, please check your configuration.", f.getPath().getName());
+                continue;
+            }
+            files.add(f.getPath().toString());
+        }
+        return files;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static FileStatus[] listDataFiles(FileSystem fs, String path, final PathFilter pathFilter)
+            throws IOException {
         FileStatus[] listStatus;
         Path p = new Path(path);
         if(fs.getFileStatus(p).isDir()) {
@@ -318,28 +372,7 @@ public class ShifuFileUtils {
 
             });
         }
-
-        List<Scanner> scanners = new ArrayList<Scanner>();
-        for(FileStatus f: listStatus) {
-            String filename = f.getPath().getName();
-
-            if(f.isDir()) {
-                log.warn("Skip - {}, since it's direcory, please check your configuration.", filename);
-                continue;
-            }
-
-            log.debug("Creating Scanner for file: {} ", filename);
-            if(filename.endsWith(Constants.GZ_SUFFIX)) {
-                scanners.add(new Scanner(new GZIPInputStream(fs.open(f.getPath())), Constants.DEFAULT_CHARSET));
-            } else if(filename.endsWith(Constants.BZ2_SUFFIX)) {
-                scanners.add(new Scanner(new BZip2CompressorInputStream(fs.open(f.getPath())),
-                        Constants.DEFAULT_CHARSET));
-            } else {
-                scanners.add(new Scanner(new BufferedInputStream(fs.open(f.getPath())), Constants.DEFAULT_CHARSET));
-            }
-        }
-
-        return scanners;
+        return listStatus;
     }
 
     /**
@@ -0,0 +1,328 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.guagua;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ml.shifu.shifu.core.dtrain.dataset.NormBinaryFormat;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Combine file splits into an exact number of worker splits balanced by estimated record count, instead of combining
+ * by a max size which makes worker data uneven.
+ * 
+ * <p>
+ * Records per byte of files are estimated by sampling the head of some files, compressed files are read by their
+ * codec so compression ratio is included. Files not sampled use the average rate of sampled files with the same codec,
+ * or the average rate of all sampled files if no file of that codec is sampled. Binary norm files are weighted by size.
+ * 
+ * <p>
+ * Splits are assigned from the largest one, each split goes to the least loaded worker on one of its hosts if that
+ * worker is not full, otherwise to the least loaded worker. Large uncompressed text splits are cut smaller before
+ * assignment for better balance.
+ */
+public class BalancedSplitCombiner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BalancedSplitCombiner.class);
+
+    /**
+     * Uncompressed bytes read from head of one sampled file.
+     */
+    private static final int SAMPLE_BYTES = 1024 * 1024;
+
+    /**
+     * Worker load can be over average load by this ratio if split is assigned to a worker on its host.
+     */
+    private static final double LOCALITY_SLACK = 0.05d;
+
+    /**
+     * Uncompressed text splits over 1/PIECES_PER_WORKER of average worker load are cut.
+     */
+    private static final int PIECES_PER_WORKER = 4;
+
+    private final Configuration conf;
+
+    private final int workers;
+
+    private final int sampleFiles;
+
+    private final boolean isLocalityAware;
+
+    private final CompressionCodecFactory codecFactory;
+
+    public BalancedSplitCombiner(Configuration conf, int workers, int sampleFiles, boolean isLocalityAware) {
+        this.conf = conf;
+        this.workers = workers;
+        this.sampleFiles = sampleFiles;
+        this.isLocalityAware = isLocalityAware;
+        this.codecFactory = new CompressionCodecFactory(conf);
+    }
+
+    /**
+     * Combine file splits into worker splits, the number of worker splits is not over the number of file splits.
+     */
+    public List<FileSplit[]> combine(List<FileSplit> fileSplits) throws IOException {
+        Map<Path, Double> rates = estimateRecordsPerByte(fileSplits);
+
+        double totalRecords = 0d;
+        for(FileSplit fileSplit: fileSplits) {
+            totalRecords += fileSplit.getLength() * rates.get(fileSplit.getPath());
+        }
+
+        // cut large uncompressed text splits, text record reader starts from the next line of split start
+        double pieceRecords = totalRecords / Math.max(1, this.workers) / PIECES_PER_WORKER;
+        List<FileSplit> pieces = new ArrayList<FileSplit>();
+        for(FileSplit fileSplit: fileSplits) {
+            double rate = rates.get(fileSplit.getPath());
+            if(rate <= 0d || !isCuttable(fileSplit.getPath())) {
+                pieces.add(fileSplit);
+                continue;
+            }
+            long pieceSize = Math.max(1L, (long) (pieceRecords / rate));
+            long start = fileSplit.getStart(), end = start + fileSplit.getLength();
+            while(end - start > pieceSize * 3 / 2) {
+                pieces.add(new FileSplit(fileSplit.getPath(), start, pieceSize, fileSplit.getLocations()));
+                start += pieceSize;
+            }
+            pieces.add(new FileSplit(fileSplit.getPath(), start, end - start, fileSplit.getLocations()));
+        }
+
+        // worker count is bounded by splits after cutting, a few large files can still feed all workers
+        int workerCount = Math.max(1, Math.min(this.workers, pieces.size()));
+
+        double[] records = new double[pieces.size()];
+        String[][] hosts = new String[pieces.size()][];
+        for(int i = 0; i < pieces.size(); i++) {
+            FileSplit piece = pieces.get(i);
+            records[i] = piece.getLength() * rates.get(piece.getPath());
+            hosts[i] = this.isLocalityAware ? piece.getLocations() : new String[0];
+        }
+
+        List<List<Integer>> groups = assign(records, hosts, workerCount, LOCALITY_SLACK);
+        List<FileSplit[]> result = new ArrayList<FileSplit[]>(groups.size());
+        for(List<Integer> group: groups) {
+            FileSplit[] workerSplits = new FileSplit[group.size()];
+            for(int i = 0; i < group.size(); i++) {
+                workerSplits[i] = pieces.get(group.get(i));
+            }
+            result.add(workerSplits);
+        }
+        LOG.info("{} file splits with {} estimated records are combined into {} worker splits.", pieces.size(),
+                (long) totalRecords, result.size());
+        return result;
+    }
+
+    private boolean isCuttable(Path path) {
+        return this.codecFactory.getCodec(path) == null && !path.getName().endsWith(NormBinaryFormat.EXTENSION);
+    }
+
+    /**
+     * Assign items to workers from the largest item. Each item goes to the least loaded worker sharing one of its
+     * hosts if load of that worker is not over average load * (1 + slack), otherwise to the least loaded worker. A
+     * worker takes hosts of its first item.
+     * 
+     * @param records
+     *            estimated record count of items
+     * @param hosts
+     *            hosts of items
+     * @param workers
+     *            worker count, not over item count
+     * @param slack
+     *            ratio of load over average load allowed for local assignment
+     * @return item indexes of each worker
+     */
+    static List<List<Integer>> assign(final double[] records, String[][] hosts, int workers, double slack) {
+        double total = 0d;
+        Integer[] order = new Integer[records.length];
+        for(int i = 0; i < records.length; i++) {
+            total += records[i];
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                return Double.compare(records[i2], records[i1]);
+            }
+        });
+        double maxLocalLoad = total / workers * (1d + slack);
+
+        List<List<Integer>> groups = new ArrayList<List<Integer>>(workers);
+        double[] loads = new double[workers];
+        for(int i = 0; i < workers; i++) {
+            groups.add(new ArrayList<Integer>());
+        }
+        Map<String, List<Integer>> hostWorkers = new HashMap<String, List<Integer>>();
+        int emptyWorkers = workers;
+        for(int n = 0; n < order.length; n++) {
+            int item = order[n];
+            int worker = -1;
+            // no local assignment if left items are only enough for empty workers
+            for(String host: (order.length - n > emptyWorkers ? hosts[item] : new String[0])) {
+                List<Integer> candidates = hostWorkers.get(host);
+                if(candidates == null) {
+                    continue;
+                }
+                for(Integer candidate: candidates) {
+                    if(loads[candidate] + records[item] <= maxLocalLoad
+                            && (worker < 0 || loads[candidate] < loads[worker])) {
+                        worker = candidate;
+                    }
+                }
+            }
+            if(worker < 0) {
+                // empty workers first, so each worker has at least one item
+                worker = 0;
+                for(int i = 1; i < workers; i++) {
+                    if(groups.get(i).isEmpty() != groups.get(worker).isEmpty() ? groups.get(i).isEmpty()
+                            : loads[i] < loads[worker]) {
+                        worker = i;
+                    }
+                }
+                if(groups.get(worker).isEmpty()) {
+                    emptyWorkers -= 1;
+                    for(String host: hosts[item]) {
+                        List<Integer> candidates = hostWorkers.get(host);
+                        if(candidates == null) {
+                            candidates = new ArrayList<Integer>();
+                            hostWorkers.put(host, candidates);
+                        }
+                        candidates.add(worker);
+                    }
+                }
+            }
+            groups.get(worker).add(item);
+            loads[worker] += records[item];
+        }
+        return groups;
+    }
+
+    /**
+     * Estimate records per byte of each file, by sampled files or average rate of sampled files with the same codec, or
+     * average rate of all sampled files.
+     */
+    private Map<Path, Double> estimateRecordsPerByte(List<FileSplit> fileSplits) throws IOException {
+        List<Path> paths = new ArrayList<Path>();
+        Map<Path, Double> rates = new HashMap<Path, Double>();
+        for(FileSplit fileSplit: fileSplits) {
+            if(!rates.containsKey(fileSplit.getPath())) {
+                rates.put(fileSplit.getPath(), null);
+                paths.add(fileSplit.getPath());
+            }
+        }
+
+        // sample files evenly in file list
+        Map<String, double[]> codecRates = new HashMap<String, double[]>();
+        int samples = Math.min(this.sampleFiles, paths.size());
+        for(int i = 0; i < samples; i++) {
+            Path path = paths.get((int) ((long) i * paths.size() / samples));
+            double rate = sampleRecordsPerByte(path);
+            if(rate > 0d) {
+                rates.put(path, rate);
+                double[] sum = codecRates.get(getCodecName(path));
+                if(sum == null) {
+                    sum = new double[2];
+                    codecRates.put(getCodecName(path), sum);
+                }
+                sum[0] += rate;
+                sum[1] += 1d;
+            }
+        }
+
+        double allRateSum = 0d, allRateCount = 0d;
+        for(double[] sum: codecRates.values()) {
+            allRateSum += sum[0];
+            allRateCount += sum[1];
+        }
+        for(Path path: paths) {
+            if(rates.get(path) == null) {
+                double[] sum = codecRates.get(getCodecName(path));
+                if(sum != null) {
+                    rates.put(path, sum[0] / sum[1]);
+                } else {
+                    // without any sample, splits are weighted by size
+                    rates.put(path, allRateCount > 0d ? allRateSum / allRateCount : 1d);
+                }
+            }
+        }
+        if(codecRates.isEmpty()) {
+            LOG.info("No file is sampled, splits are weighted by size.");
+        }
+        return rates;
+    }
+
+    private String getCodecName(Path path) {
+        CompressionCodec codec = this.codecFactory.getCodec(path);
+        return codec == null ? "" : codec.getClass().getName();
+    }
+
+    /**
+     * Count lines in head of file, records per compressed byte is lines / compressed bytes consumed.
+     * 
+     * @return records per byte, or 0 if file is binary norm file or empty
+     */
+    private double sampleRecordsPerByte(Path path) throws IOException {
+        if(path.getName().endsWith(NormBinaryFormat.EXTENSION)) {
+            return 0d;
+        }
+        FSDataInputStream fileIn = null;
+        InputStream in = null;
+        try {
+            fileIn = path.getFileSystem(this.conf).open(path);
+            CompressionCodec codec = this.codecFactory.getCodec(path);
+            in = codec == null ? fileIn : codec.createInputStream(fileIn);
+            byte[] buffer = new byte[64 * 1024];
+            long bytes = 0L, lines = 0L;
+            int read = 0;
+            byte lastByte = '\n';
+            while(bytes < SAMPLE_BYTES && (read = in.read(buffer)) > 0) {
+                for(int i = 0; i < read; i++) {
+                    if(buffer[i] == '\n') {
+                        lines += 1;
+                    }
+                }
+                bytes += read;
+                lastByte = buffer[read - 1];
+            }
+            if(read < 0 && lastByte != '\n') {
+                // whole file is read and last line has no line end
+                lines += 1;
+            }
+            // compressed bytes consumed by codec
+            long consumed = fileIn.getPos();
+            return consumed <= 0L ? 0d : lines * 1d / consumed;
+        } finally {
+            IOUtils.closeQuietly(in);
+            IOUtils.closeQuietly(fileIn);
+        }
+    }
+
+}
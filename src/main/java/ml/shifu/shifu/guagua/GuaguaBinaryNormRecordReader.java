@@ -0,0 +1,131 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.guagua;
+
+import java.io.IOException;
+
+import ml.shifu.guagua.hadoop.io.GuaguaWritableAdapter;
+import ml.shifu.guagua.io.GuaguaFileSplit;
+import ml.shifu.guagua.io.GuaguaRecordReader;
+import ml.shifu.shifu.core.dtrain.dataset.NormBinaryFormat;
+import ml.shifu.shifu.core.dtrain.dataset.NormBinaryReader;
+import ml.shifu.shifu.core.dtrain.dataset.NormRecord;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+
+/**
+ * {@link GuaguaBinaryNormRecordReader} is a reader to read normalized data in {@link NormBinaryFormat}. Value of each
+ * record is binary record bytes which should be parsed by {@link NormRecord} in binary mode, so workers can share the
+ * same record reader type with text normalized data.
+ */
+public class GuaguaBinaryNormRecordReader implements
+        GuaguaRecordReader<GuaguaWritableAdapter<LongWritable>, GuaguaWritableAdapter<Text>> {
+
+    private Configuration conf;
+
+    private NormBinaryReader reader;
+
+    private GuaguaWritableAdapter<LongWritable> key;
+
+    private GuaguaWritableAdapter<Text> value;
+
+    public GuaguaBinaryNormRecordReader() {
+        this.conf = new Configuration();
+    }
+
+    public GuaguaBinaryNormRecordReader(GuaguaFileSplit split) throws IOException {
+        this(new Configuration(), split);
+    }
+
+    public GuaguaBinaryNormRecordReader(Configuration conf, GuaguaFileSplit split) throws IOException {
+        this.conf = conf;
+        initialize(split);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see ml.shifu.guagua.io.GuaguaRecordReader#initialize(ml.shifu.guagua.io.GuaguaFileSplit)
+     */
+    @Override
+    public void initialize(GuaguaFileSplit split) throws IOException {
+        Path path = new Path(split.getPath());
+        FileSystem fs = path.getFileSystem(this.conf);
+        this.reader = new NormBinaryReader(fs.open(path), split.getOffset(), split.getLength());
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see ml.shifu.guagua.io.GuaguaRecordReader#nextKeyValue()
+     */
+    @Override
+    public boolean nextKeyValue() throws IOException {
+        if(this.key == null) {
+            this.key = new GuaguaWritableAdapter<LongWritable>(new LongWritable());
+        }
+        if(this.value == null) {
+            this.value = new GuaguaWritableAdapter<Text>(new Text());
+        }
+
+        if(!this.reader.nextRecord()) {
+            this.key = null;
+            this.value = null;
+            return false;
+        }
+        this.key.getWritable().set(this.reader.getRecordCount());
+        this.value.getWritable().set(this.reader.getRecordBytes(), 0, this.reader.getRecordLength());
+        return true;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see ml.shifu.guagua.io.GuaguaRecordReader#getCurrentKey()
+     */
+    @Override
+    public GuaguaWritableAdapter<LongWritable> getCurrentKey() {
+        return this.key;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see ml.shifu.guagua.io.GuaguaRecordReader#getCurrentValue()
+     */
+    @Override
+    public GuaguaWritableAdapter<Text> getCurrentValue() {
+        return this.value;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see ml.shifu.guagua.io.GuaguaRecordReader#close()
+     */
+    @Override
+    public void close() throws IOException {
+        if(this.reader != null) {
+            this.reader.close();
+            this.reader = null;
+        }
+    }
+
+}
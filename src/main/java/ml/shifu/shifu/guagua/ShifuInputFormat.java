@@ -18,11 +18,16 @@ package ml.shifu.shifu.guagua;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
+import ml.shifu.guagua.GuaguaConstants;
 import ml.shifu.guagua.hadoop.io.GuaguaInputSplit;
 import ml.shifu.guagua.mapreduce.GuaguaInputFormat;
 import ml.shifu.shifu.core.dtrain.CommonConstants;
+import ml.shifu.shifu.pig.ShifuPigStorage;
+import ml.shifu.shifu.util.Constants;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.hadoop.fs.BlockLocation;
@@ -73,6 +78,23 @@ public class ShifuInputFormat extends GuaguaInputFormat {
     @Override
     public List<InputSplit> getSplits(JobContext job) throws IOException {
         List<InputSplit> newSplits = super.getSplits(job);
+        boolean isBucketed = false;
+        if(job.getConfiguration().getInt(Constants.SHIFU_NORM_SHUFFLE_BUCKETS, 0) > 1) {
+            // buckets setting may be changed after norm, only trust file names of input
+            isBucketed = isBucketedLayout(newSplits);
+            if(!isBucketed) {
+                LOG.warn("Norm shuffle buckets are set but input files are not bucket files, splits are not mixed.");
+            }
+        }
+        // worker count may be forwarded from shifuconfig without balanced splits enabled
+        int workers = job.getConfiguration().getBoolean(CommonConstants.SHIFU_TRAIN_SPLIT_BALANCED, false)
+                ? job.getConfiguration().getInt(CommonConstants.SHIFU_TRAIN_SPLIT_WORKERS, 0) : 0;
+        if(workers > 0) {
+            // locality grouping puts buckets of the same norm task together, not used for bucketed data
+            newSplits = combineBalancedSplits(newSplits, job, workers, !isBucketed);
+        } else if(isBucketed) {
+            mixBucketSplits(newSplits);
+        }
         String testDirs = job.getConfiguration().get("shifu.crossValidation.dir", "");
         LOG.info("Validation dir is {};", testDirs);
         if(org.apache.commons.lang.StringUtils.isNotBlank(testDirs)) {
@@ -81,6 +103,105 @@ public class ShifuInputFormat extends GuaguaInputFormat {
         return newSplits;
     }
 
+    /**
+     * Regroup file splits of workers into given number of worker splits by {@link BalancedSplitCombiner}, worker
+     * number in job configuration is updated.
+     */
+    private List<InputSplit> combineBalancedSplits(List<InputSplit> splits, JobContext job, int workers,
+            boolean isLocalityAware) throws IOException {
+        List<InputSplit> masterSplits = new ArrayList<InputSplit>();
+        List<FileSplit> fileSplits = new ArrayList<FileSplit>();
+        for(InputSplit split: splits) {
+            GuaguaInputSplit guaguaInput = (GuaguaInputSplit) split;
+            if(guaguaInput.isMaster()) {
+                masterSplits.add(guaguaInput);
+            } else {
+                fileSplits.addAll(Arrays.asList(guaguaInput.getFileSplits()));
+            }
+        }
+        if(fileSplits.isEmpty()) {
+            return splits;
+        }
+
+        int sampleFiles = job.getConfiguration().getInt(CommonConstants.SHIFU_TRAIN_SPLIT_SAMPLE_FILES, 64);
+        List<FileSplit[]> groups = new BalancedSplitCombiner(job.getConfiguration(), workers, sampleFiles,
+                isLocalityAware).combine(fileSplits);
+        List<InputSplit> newSplits = new ArrayList<InputSplit>(groups.size() + masterSplits.size());
+        for(FileSplit[] group: groups) {
+            newSplits.add(new GuaguaInputSplit(false, group));
+        }
+        newSplits.addAll(masterSplits);
+        job.getConfiguration().setInt(GuaguaConstants.GUAGUA_WORKER_NUMBER, groups.size());
+        return newSplits;
+    }
+
+    /**
+     * @return if all worker input files are bucket files written by {@link ShifuPigStorage} with shuffle buckets
+     */
+    static boolean isBucketedLayout(List<InputSplit> splits) {
+        boolean hasFile = false;
+        for(InputSplit split: splits) {
+            GuaguaInputSplit guaguaInput = (GuaguaInputSplit) split;
+            if(guaguaInput.isMaster()) {
+                continue;
+            }
+            for(FileSplit fileSplit: guaguaInput.getFileSplits()) {
+                if(!ShifuPigStorage.isBucketFile(fileSplit.getPath().getName())) {
+                    return false;
+                }
+                hasFile = true;
+            }
+        }
+        return hasFile;
+    }
+
+    /**
+     * Bucket files of one norm task are random subsets of records of that task. Bucket files are regrouped in random
+     * order into worker splits with balanced size, so each worker reads buckets of different norm tasks in random
+     * order, the same effect as shuffled data without a shuffle job.
+     */
+    static void mixBucketSplits(List<InputSplit> splits) {
+        List<GuaguaInputSplit> workerSplits = new ArrayList<GuaguaInputSplit>();
+        List<FileSplit> fileSplits = new ArrayList<FileSplit>();
+        for(InputSplit split: splits) {
+            GuaguaInputSplit guaguaInput = (GuaguaInputSplit) split;
+            if(guaguaInput.isMaster()) {
+                continue;
+            }
+            workerSplits.add(guaguaInput);
+            fileSplits.addAll(Arrays.asList(guaguaInput.getFileSplits()));
+        }
+        int workers = workerSplits.size();
+        if(workers <= 1) {
+            return;
+        }
+
+        Collections.shuffle(fileSplits, new Random(System.currentTimeMillis()));
+        List<List<FileSplit>> groups = new ArrayList<List<FileSplit>>(workers);
+        long[] groupSizes = new long[workers];
+        for(int i = 0; i < workers; i++) {
+            groups.add(new ArrayList<FileSplit>());
+        }
+        for(int i = 0; i < fileSplits.size(); i++) {
+            FileSplit fileSplit = fileSplits.get(i);
+            // each worker gets one split at first, then the smallest worker gets next split
+            int group = i < workers ? i : 0;
+            if(i >= workers) {
+                for(int j = 1; j < workers; j++) {
+                    if(groupSizes[j] < groupSizes[group]) {
+                        group = j;
+                    }
+                }
+            }
+            groups.get(group).add(fileSplit);
+            groupSizes[group] += fileSplit.getLength();
+        }
+        for(int i = 0; i < workers; i++) {
+            workerSplits.get(i).setFileSplits(groups.get(i).toArray(new FileSplit[0]));
+        }
+        LOG.info("{} norm bucket files are mixed into {} worker splits.", fileSplits.size(), workers);
+    }
+
     private FileSplit getFileSplit(FileSystem fs, FileStatus file, long offset, long length) throws IOException {
         BlockLocation[] blkLocations = fs.getFileBlockLocations(file, offset, length);
         List<String> hosts = new ArrayList<String>();
@@ -0,0 +1,61 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.pig;
+
+import ml.shifu.shifu.core.binning.StatsColumnPlanner;
+import ml.shifu.shifu.util.Constants;
+
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.Partitioner;
+import org.apache.pig.impl.io.PigNullableWritable;
+
+/**
+ * Pig partitioner used in 'GROUP ... BY columnId PARTITION BY', column ids are sent to reducers planned by
+ * {@link StatsColumnPlanner} in {@link Constants#SHIFU_STATS_COLUMN_PARTITIONS}. Keys not in the plan fall back to
+ * hash partitioning as the default pig partitioner.
+ */
+public class ColumnIdPartitioner extends Partitioner<PigNullableWritable, Writable> implements Configurable {
+
+    private Configuration conf;
+
+    private int[] partitions;
+
+    @Override
+    public int getPartition(PigNullableWritable key, Writable value, int numPartitions) {
+        Object columnId = key.getValueAsPigType();
+        if(this.partitions != null && columnId instanceof Integer) {
+            int index = (Integer) columnId;
+            if(index >= 0 && index < this.partitions.length) {
+                return this.partitions[index] % numPartitions;
+            }
+        }
+        return (key.hashCode() & Integer.MAX_VALUE) % numPartitions;
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+        this.partitions = StatsColumnPlanner.decodePartitions(conf.get(Constants.SHIFU_STATS_COLUMN_PARTITIONS));
+    }
+
+    @Override
+    public Configuration getConf() {
+        return this.conf;
+    }
+
+}
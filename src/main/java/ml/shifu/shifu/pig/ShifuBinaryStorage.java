@@ -0,0 +1,107 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.pig;
+
+import java.io.IOException;
+
+import ml.shifu.shifu.core.dtrain.dataset.NormBinaryFormat;
+import ml.shifu.shifu.core.dtrain.dataset.NormBinaryWriter;
+import ml.shifu.shifu.udf.NormalizeUDF.PrecisionType;
+import ml.shifu.shifu.util.Constants;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.OutputFormat;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.pig.StoreFunc;
+import org.apache.pig.data.Tuple;
+
+/**
+ * {@link ShifuBinaryStorage} stores normalized tuples in {@link NormBinaryFormat} which can be read by training
+ * workers without text formatting and parsing.
+ *
+ * <p>
+ * Float fields are stored in fp16 if {@link Constants#SHIFU_NORM_PRECISION_TYPE} is FLOAT16. Output compression
+ * setting of the job is mapped to block-level deflate compression, files are still splittable.
+ */
+public class ShifuBinaryStorage extends StoreFunc {
+
+    @SuppressWarnings("rawtypes")
+    private RecordWriter writer;
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public OutputFormat getOutputFormat() throws IOException {
+        return new NormBinaryOutputFormat();
+    }
+
+    @Override
+    public void setStoreLocation(String location, Job job) throws IOException {
+        FileOutputFormat.setOutputPath(job, new Path(location));
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void prepareToWrite(RecordWriter writer) throws IOException {
+        this.writer = writer;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void putNext(Tuple tuple) throws IOException {
+        try {
+            this.writer.write(NullWritable.get(), tuple);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Output format to write tuples by {@link NormBinaryWriter}.
+     */
+    public static class NormBinaryOutputFormat extends FileOutputFormat<NullWritable, Tuple> {
+
+        @Override
+        public RecordWriter<NullWritable, Tuple> getRecordWriter(TaskAttemptContext job) throws IOException,
+                InterruptedException {
+            Configuration conf = job.getConfiguration();
+            boolean isHalfPrecision = PrecisionType.FLOAT16 == PrecisionType.of(conf.get(
+                    Constants.SHIFU_NORM_PRECISION_TYPE, PrecisionType.FLOAT32.toString()));
+            int blockSize = conf.getInt(NormBinaryFormat.BLOCK_SIZE, NormBinaryFormat.DEFAULT_BLOCK_SIZE);
+
+            Path file = getDefaultWorkFile(job, NormBinaryFormat.EXTENSION);
+            final NormBinaryWriter binaryWriter = new NormBinaryWriter(file.getFileSystem(conf).create(file, false),
+                    isHalfPrecision, getCompressOutput(job), blockSize);
+
+            return new RecordWriter<NullWritable, Tuple>() {
+                @Override
+                public void write(NullWritable key, Tuple value) throws IOException, InterruptedException {
+                    binaryWriter.write(value.getAll());
+                }
+
+                @Override
+                public void close(TaskAttemptContext context) throws IOException, InterruptedException {
+                    binaryWriter.close();
+                }
+            };
+        }
+    }
+
+}
@@ -15,27 +15,58 @@
  */
 package ml.shifu.shifu.pig;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
 
+import ml.shifu.shifu.util.Constants;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.GzipCodec;
 import org.apache.hadoop.mapreduce.InputFormat;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.OutputFormat;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.util.ReflectionUtils;
 import org.apache.pig.ResourceSchema;
 import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.PigSplit;
 import org.apache.pig.builtin.PigStorage;
 import org.apache.pig.data.Tuple;
 import org.apache.pig.impl.logicalLayer.FrontendException;
+import org.apache.pig.impl.util.StorageUtil;
 import org.apache.pig.piggybank.storage.CSVExcelStorage;
 
+/**
+ * Text storage of normalized data, in CSV format or in PigStorage format with schema.
+ * 
+ * <p>
+ * If {@link Constants#SHIFU_NORM_SHUFFLE_BUCKETS} is set in PigStorage format, each task writes records into random
+ * bucket files by {@link BucketTextOutputFormat}, so output is randomized without a shuffle job.
+ */
 public class ShifuPigStorage extends PigStorage {
 
+    /**
+     * Bucket file names are task output names with bucket index like 'part-m-00000-b00003', then codec extension.
+     */
+    private static final Pattern BUCKET_FILE_PATTERN = Pattern.compile(".*-b\\d{5}(\\.\\w+)?");
+
     private PigStorage shifuStorage;
 
+    private boolean isCSV;
+
+    private String delimiter = "\t";
+
     public ShifuPigStorage(String isCSV) {
         if("true".equals(isCSV.toLowerCase()) && isCSV != null) {
+           this.isCSV = true;
            shifuStorage = new CSVExcelStorage("\t", "NO_MULTILINE", "UNIX", "WRITE_OUTPUT_HEADER");
         } else {
            shifuStorage = new PigStorage("\t", "-schema");
@@ -44,7 +75,9 @@ public class ShifuPigStorage extends PigStorage {
     
     public ShifuPigStorage(String isCSV, String delimiter) {
         super(delimiter);
+        this.delimiter = delimiter;
         if("true".equals(isCSV.toLowerCase()) && isCSV != null) {
+           this.isCSV = true;
            shifuStorage = new CSVExcelStorage(delimiter, "NO_MULTILINE", "UNIX", "WRITE_OUTPUT_HEADER");
         } else {
            shifuStorage = new PigStorage(delimiter, "-schema");
@@ -120,14 +153,97 @@ public class ShifuPigStorage extends PigStorage {
         return shifuStorage.getSchema(location, job);
     }
     
-    @SuppressWarnings("rawtypes")
+    @SuppressWarnings({ "rawtypes", "unchecked" })
     @Override
     public OutputFormat getOutputFormat() {
-        return shifuStorage.getOutputFormat();
+        if(this.isCSV) {
+            return shifuStorage.getOutputFormat();
+        }
+        return new BucketTextOutputFormat(shifuStorage.getOutputFormat(), StorageUtil.parseFieldDel(this.delimiter));
     }
 
     @Override
     public void setStoreLocation(String location, Job job) throws IOException {
         shifuStorage.setStoreLocation(location, job);
     }
+
+    /**
+     * Output format to write tuples into {@link Constants#SHIFU_NORM_SHUFFLE_BUCKETS} bucket files of each task, each
+     * tuple goes to a random bucket. Lines are the same as PigStorage output. If buckets are not set, tuples are
+     * written by the PigStorage output format.
+     */
+    /**
+     * @param name
+     *            file name
+     * @return if the file is a bucket file written by {@link BucketTextOutputFormat}
+     */
+    public static boolean isBucketFile(String name) {
+        return BUCKET_FILE_PATTERN.matcher(name).matches();
+    }
+
+    @SuppressWarnings("rawtypes")
+    public static class BucketTextOutputFormat extends FileOutputFormat<WritableComparable, Tuple> {
+
+        private final OutputFormat<WritableComparable, Tuple> delegate;
+
+        private final byte fieldDel;
+
+        public BucketTextOutputFormat(OutputFormat<WritableComparable, Tuple> delegate, byte fieldDel) {
+            this.delegate = delegate;
+            this.fieldDel = fieldDel;
+        }
+
+        @Override
+        public RecordWriter<WritableComparable, Tuple> getRecordWriter(final TaskAttemptContext job)
+                throws IOException, InterruptedException {
+            final Configuration conf = job.getConfiguration();
+            int buckets = conf.getInt(Constants.SHIFU_NORM_SHUFFLE_BUCKETS, 0);
+            if(buckets <= 1) {
+                return this.delegate.getRecordWriter(job);
+            }
+
+            final CompressionCodec codec;
+            if(getCompressOutput(job)) {
+                codec = ReflectionUtils.newInstance(getOutputCompressorClass(job, GzipCodec.class), conf);
+            } else {
+                codec = null;
+            }
+            final DataOutputStream[] outputs = new DataOutputStream[buckets];
+            final Random random = new Random(System.nanoTime() ^ job.getTaskAttemptID().getTaskID().getId());
+
+            return new RecordWriter<WritableComparable, Tuple>() {
+                @Override
+                public void write(WritableComparable key, Tuple value) throws IOException, InterruptedException {
+                    int bucket = random.nextInt(outputs.length);
+                    if(outputs[bucket] == null) {
+                        // bucket files are created when there is data
+                        String extension = String.format("-b%05d", bucket)
+                                + (codec == null ? "" : codec.getDefaultExtension());
+                        Path file = getDefaultWorkFile(job, extension);
+                        outputs[bucket] = new DataOutputStream(codec == null ? file.getFileSystem(conf).create(
+                                file, false) : codec.createOutputStream(file.getFileSystem(conf).create(file, false)));
+                    }
+                    DataOutputStream out = outputs[bucket];
+                    int size = value.size();
+                    for(int i = 0; i < size; i++) {
+                        StorageUtil.putField(out, value.get(i));
+                        if(i != size - 1) {
+                            out.writeByte(fieldDel);
+                        }
+                    }
+                    out.writeByte('\n');
+                }
+
+                @Override
+                public void close(TaskAttemptContext context) throws IOException, InterruptedException {
+                    for(DataOutputStream out: outputs) {
+                        if(out != null) {
+                            out.close();
+                        }
+                    }
+                }
+            };
+        }
+    }
+
 }
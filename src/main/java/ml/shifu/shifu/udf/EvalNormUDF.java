@@ -38,8 +38,8 @@ import org.encog.ml.BasicML;
 import ml.shifu.shifu.column.NSColumn;
 import ml.shifu.shifu.container.CaseScoreResult;
 import ml.shifu.shifu.container.obj.ColumnConfig;
+import ml.shifu.shifu.core.ColumnNormalizer;
 import ml.shifu.shifu.core.ModelRunner;
-import ml.shifu.shifu.core.Normalizer;
 import ml.shifu.shifu.core.dtrain.DTrainUtils;
 import ml.shifu.shifu.udf.NormalizeUDF.PrecisionType;
 import ml.shifu.shifu.util.CommonUtils;
@@ -96,6 +96,16 @@ public class EvalNormUDF extends AbstractEvalUDF<Tuple> {
 
     private PrecisionType precisionType;
 
+    /**
+     * (name, column normalizer) map, normalizer is created at first time of such column normalized.
+     */
+    private Map<String, ColumnNormalizer> columnNormalizerMap = new HashMap<String, ColumnNormalizer>();
+
+    /**
+     * Reusable buffer for normalized values of one column.
+     */
+    private double[] normBuffer = new double[1];
+
     public EvalNormUDF(String source, String pathModelConfig, String pathColumnConfig, String evalSetName, String scale)
             throws IOException {
         super(source, pathModelConfig, pathColumnConfig, evalSetName);
@@ -282,14 +292,13 @@ public class EvalNormUDF extends AbstractEvalUDF<Tuple> {
                 // [2, 2 + validMetaSize) are meta columns
                 tuple.append(raw);
             } else {
-                ColumnConfig columnConfig = this.columnConfigMap.get(name);
-                List<Double> normVals = Normalizer.normalize(columnConfig, raw,
-                        this.modelConfig.getNormalizeStdDevCutOff(), this.modelConfig.getNormalizeType());
+                ColumnNormalizer normalizer = getColumnNormalizer(name);
+                int normSize = normalizer.normalize(raw, this.normBuffer, 0);
                 if(this.isOutputRaw) {
                     tuple.append(raw);
                 }
-                for(Double normVal: normVals) {
-                    tuple.append(getOutputValue(normVal, true));
+                for(int j = 0; j < normSize; j++) {
+                    tuple.append(getOutputValue(this.normBuffer[j], true));
                 }
             }
         }
@@ -308,6 +317,19 @@ public class EvalNormUDF extends AbstractEvalUDF<Tuple> {
         return tuple;
     }
 
+    private ColumnNormalizer getColumnNormalizer(String name) {
+        ColumnNormalizer normalizer = this.columnNormalizerMap.get(name);
+        if(normalizer == null) {
+            normalizer = new ColumnNormalizer(this.columnConfigMap.get(name),
+                    this.modelConfig.getNormalizeStdDevCutOff(), this.modelConfig.getNormalizeType());
+            this.columnNormalizerMap.put(name, normalizer);
+            if(normalizer.size() > this.normBuffer.length) {
+                this.normBuffer = new double[normalizer.size()];
+            }
+        }
+        return normalizer;
+    }
+
     /**
      * output the schema for evaluation score
      */
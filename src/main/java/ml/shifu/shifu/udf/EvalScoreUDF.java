@@ -66,6 +66,11 @@ public class EvalScoreUDF extends AbstractEvalUDF<Tuple> {
     private ModelRunner modelRunner;
     private String[] headers;
 
+    /**
+     * Models acquired from {@link SharedModelCache}, released in {@link #finish()}
+     */
+    private List<BasicML> models;
+
     private double maxScore = Double.MIN_VALUE;
     private double minScore = Double.MAX_VALUE;
 
@@ -112,11 +117,22 @@ public class EvalScoreUDF extends AbstractEvalUDF<Tuple> {
 
     private MultiClsTagPredictor mcPredictor;
 
+    /**
+     * Counter group of tag counters, eval sets scored in one job have their own groups and max/min score folders.
+     */
+    private String counterGroup = Constants.SHIFU_GROUP_COUNTER;
+
     public EvalScoreUDF(String source, String pathModelConfig, String pathColumnConfig, String evalSetName)
             throws IOException {
         this(source, pathModelConfig, pathColumnConfig, evalSetName, Integer.toString(Scorer.DEFAULT_SCORE_SCALE));
     }
 
+    public EvalScoreUDF(String source, String pathModelConfig, String pathColumnConfig, String evalSetName,
+            String scale, String counterGroup) throws IOException {
+        this(source, pathModelConfig, pathColumnConfig, evalSetName, scale);
+        this.counterGroup = counterGroup;
+    }
+
     @SuppressWarnings("unchecked")
     public EvalScoreUDF(String source, String pathModelConfig, String pathColumnConfig, String evalSetName,
             String scale) throws IOException {
@@ -237,9 +253,11 @@ public class EvalScoreUDF extends AbstractEvalUDF<Tuple> {
         if(this.modelRunner == null) {
             // here to initialize modelRunner, this is moved from constructor to here to avoid OOM in client side.
             // UDF in pig client will be initialized to get some metadata issues
-            List<BasicML> models = ModelSpecLoaderUtils.loadBasicModels(modelConfig, evalConfig,
+            // models are shared with other UDF instances in the same task JVM
+            this.models = SharedModelCache.acquireBasicModels(modelConfig, evalConfig,
                     evalConfig.getDataSet().getSource(), evalConfig.getGbtConvertToProb(),
                     evalConfig.getGbtScoreConvertStrategy());
+            List<BasicML> models = this.models;
             this.modelRunner = new ModelRunner(modelConfig, columnConfigList, this.headers,
                     evalConfig.getDataSet().getDataDelimiter(), models, this.outputHiddenLayerIndex,this.isMultiThreadScoring);
 
@@ -439,6 +457,10 @@ public class EvalScoreUDF extends AbstractEvalUDF<Tuple> {
         if(this.modelRunner != null) {
             this.modelRunner.close();
         }
+        if(this.models != null) {
+            SharedModelCache.release(this.models);
+            this.models = null;
+        }
 
         if(modelConfig.isClassification()) {
             return;
@@ -449,6 +471,9 @@ public class EvalScoreUDF extends AbstractEvalUDF<Tuple> {
         BufferedWriter writer = null;
         Configuration jobConf = UDFContext.getUDFContext().getJobConf();
         String scoreOutput = jobConf.get(Constants.SHIFU_EVAL_MAXMIN_SCORE_OUTPUT);
+        if(!Constants.SHIFU_GROUP_COUNTER.equals(this.counterGroup)) {
+            scoreOutput = scoreOutput + File.separator + this.counterGroup;
+        }
 
         log.debug("shifu.eval.maxmin.score.output is {}, job id is {}, task id is {}, attempt id is {}" + scoreOutput
                 + " " + jobConf.get("mapreduce.job.id") + " " + jobConf.get("mapreduce.task.id") + " "
@@ -487,8 +512,8 @@ public class EvalScoreUDF extends AbstractEvalUDF<Tuple> {
             try {
                 dWeight = Double.parseDouble(weight);
             } catch (Exception e) {
-                if(isPigEnabled(Constants.SHIFU_GROUP_COUNTER, "weight_exceptions")) {
-                    PigStatusReporter.getInstance().getCounter(Constants.SHIFU_GROUP_COUNTER, "weight_exceptions")
+                if(isPigEnabled(this.counterGroup, "weight_exceptions")) {
+                    PigStatusReporter.getInstance().getCounter(this.counterGroup, "weight_exceptions")
                             .increment(1);
                 }
                 weightExceptions += 1;
@@ -501,34 +526,34 @@ public class EvalScoreUDF extends AbstractEvalUDF<Tuple> {
         long weightLong = (long) (dWeight * Constants.EVAL_COUNTER_WEIGHT_SCALE);
 
         // update model run time for stats
-        if(isPigEnabled(Constants.SHIFU_GROUP_COUNTER, Constants.TOTAL_MODEL_RUNTIME)) {
-            PigStatusReporter.getInstance().getCounter(Constants.SHIFU_GROUP_COUNTER, Constants.TOTAL_MODEL_RUNTIME)
+        if(isPigEnabled(this.counterGroup, Constants.TOTAL_MODEL_RUNTIME)) {
+            PigStatusReporter.getInstance().getCounter(this.counterGroup, Constants.TOTAL_MODEL_RUNTIME)
                     .increment(runModelInterval);
         }
 
-        if(isPigEnabled(Constants.SHIFU_GROUP_COUNTER, Constants.COUNTER_RECORDS)) {
-            PigStatusReporter.getInstance().getCounter(Constants.SHIFU_GROUP_COUNTER, Constants.COUNTER_RECORDS)
+        if(isPigEnabled(this.counterGroup, Constants.COUNTER_RECORDS)) {
+            PigStatusReporter.getInstance().getCounter(this.counterGroup, Constants.COUNTER_RECORDS)
                     .increment(1);
         }
 
         if(posTagSet.contains(tag)) {
-            if(isPigEnabled(Constants.SHIFU_GROUP_COUNTER, Constants.COUNTER_POSTAGS)) {
-                PigStatusReporter.getInstance().getCounter(Constants.SHIFU_GROUP_COUNTER, Constants.COUNTER_POSTAGS)
+            if(isPigEnabled(this.counterGroup, Constants.COUNTER_POSTAGS)) {
+                PigStatusReporter.getInstance().getCounter(this.counterGroup, Constants.COUNTER_POSTAGS)
                         .increment(1);
             }
-            if(isPigEnabled(Constants.SHIFU_GROUP_COUNTER, Constants.COUNTER_WPOSTAGS)) {
-                PigStatusReporter.getInstance().getCounter(Constants.SHIFU_GROUP_COUNTER, Constants.COUNTER_WPOSTAGS)
+            if(isPigEnabled(this.counterGroup, Constants.COUNTER_WPOSTAGS)) {
+                PigStatusReporter.getInstance().getCounter(this.counterGroup, Constants.COUNTER_WPOSTAGS)
                         .increment(weightLong);
             }
         }
 
         if(negTagSet.contains(tag)) {
-            if(isPigEnabled(Constants.SHIFU_GROUP_COUNTER, Constants.COUNTER_NEGTAGS)) {
-                PigStatusReporter.getInstance().getCounter(Constants.SHIFU_GROUP_COUNTER, Constants.COUNTER_NEGTAGS)
+            if(isPigEnabled(this.counterGroup, Constants.COUNTER_NEGTAGS)) {
+                PigStatusReporter.getInstance().getCounter(this.counterGroup, Constants.COUNTER_NEGTAGS)
                         .increment(1);
             }
-            if(isPigEnabled(Constants.SHIFU_GROUP_COUNTER, Constants.COUNTER_WNEGTAGS)) {
-                PigStatusReporter.getInstance().getCounter(Constants.SHIFU_GROUP_COUNTER, Constants.COUNTER_WNEGTAGS)
+            if(isPigEnabled(this.counterGroup, Constants.COUNTER_WNEGTAGS)) {
+                PigStatusReporter.getInstance().getCounter(this.counterGroup, Constants.COUNTER_WNEGTAGS)
                         .increment(weightLong);
             }
         }
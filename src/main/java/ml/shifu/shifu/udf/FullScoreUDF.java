@@ -20,7 +20,8 @@ import ml.shifu.shifu.container.CaseScoreResult;
 import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
 import ml.shifu.shifu.core.ModelRunner;
 import ml.shifu.shifu.util.CommonUtils;
-import ml.shifu.shifu.util.ModelSpecLoaderUtils;
+import ml.shifu.shifu.util.Constants;
+import ml.shifu.shifu.util.SharedModelCache;
 import org.apache.pig.data.Tuple;
 import org.apache.pig.data.TupleFactory;
 import org.apache.pig.impl.logicalLayer.schema.Schema;
@@ -38,12 +39,15 @@ public class FullScoreUDF extends AbstractTrainerUDF<Tuple> {
 
     private String[] header;
     private ModelRunner modelRunner;
+    private List<BasicML> models;
 
     public FullScoreUDF(String source, String pathModelConfig, String pathColumnConfig, String pathHeader,
             String delimiter) throws Exception {
         super(source, pathModelConfig, pathColumnConfig);
 
-        List<BasicML> models = ModelSpecLoaderUtils.loadBasicModels(modelConfig, null, SourceType.valueOf(source));
+        // models are shared with other UDF instances in the same task JVM
+        this.models = SharedModelCache.acquireBasicModels(modelConfig, null, SourceType.valueOf(source), false,
+                Constants.GBT_SCORE_RAW_CONVETER);
         this.header = CommonUtils.getHeaders(pathHeader, delimiter, SourceType.valueOf(source));
         modelRunner = new ModelRunner(modelConfig, columnConfigList, this.header, modelConfig.getDataSetDelimiter(),
                 models);
@@ -76,6 +80,17 @@ public class FullScoreUDF extends AbstractTrainerUDF<Tuple> {
         return tuple;
     }
 
+    @Override
+    public void finish() {
+        if(this.modelRunner != null) {
+            this.modelRunner.close();
+        }
+        if(this.models != null) {
+            SharedModelCache.release(this.models);
+            this.models = null;
+        }
+    }
+
     public Schema outputSchema(Schema input) {
         return null;
     }
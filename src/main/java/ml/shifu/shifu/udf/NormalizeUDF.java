@@ -19,6 +19,7 @@ import ml.shifu.shifu.column.NSColumn;
 import ml.shifu.shifu.container.WeightAmplifier;
 import ml.shifu.shifu.container.obj.ColumnConfig;
 import ml.shifu.shifu.container.obj.ModelNormalizeConf.NormType;
+import ml.shifu.shifu.core.ColumnNormalizer;
 import ml.shifu.shifu.core.DataPurifier;
 import ml.shifu.shifu.core.DataSampler;
 import ml.shifu.shifu.core.Normalizer;
@@ -100,6 +101,16 @@ public class NormalizeUDF extends AbstractTrainerUDF<Tuple> {
      */
     private Map<Integer, Map<String, Integer>> categoricalIndexMap = new HashMap<Integer, Map<String, Integer>>();
 
+    /**
+     * Per column normalizers indexed by column num, lazily created in first normalization of such column.
+     */
+    private ColumnNormalizer[] columnNormalizers;
+
+    /**
+     * Reusable buffer of normalized values for current column, size is max normalized size of all columns.
+     */
+    private double[] normBuffer = new double[1];
+
     public static enum WarnInNormalizeUDF {
         INVALID_TAG;
     };
@@ -220,10 +231,34 @@ public class NormalizeUDF extends AbstractTrainerUDF<Tuple> {
         }
 
         this.isLinearTarget = CommonUtils.isLinearTarget(modelConfig, columnConfigList);
+        this.columnNormalizers = new ColumnNormalizer[columnConfigList.size()];
 
         setPrecisionType();
     }
 
+    /**
+     * Normalize value of one column into {@link #normBuffer} by per-column {@link ColumnNormalizer}.
+     * 
+     * @param config
+     *            the column config
+     * @param val
+     *            raw value
+     * @return how many normalized values are written into {@link #normBuffer}
+     */
+    private int normalizeToBuffer(ColumnConfig config, String val) {
+        int columnNum = config.getColumnNum();
+        ColumnNormalizer normalizer = this.columnNormalizers[columnNum];
+        if(normalizer == null) {
+            normalizer = new ColumnNormalizer(config, cutoff, normType, this.categoryMissingNormType,
+                    this.categoricalIndexMap.get(columnNum));
+            this.columnNormalizers[columnNum] = normalizer;
+            if(normalizer.size() > this.normBuffer.length) {
+                this.normBuffer = new double[normalizer.size()];
+            }
+        }
+        return normalizer.normalize(val, this.normBuffer, 0);
+    }
+
     private void setPrecisionType() {
         if(UDFContext.getUDFContext() != null && UDFContext.getUDFContext().getJobConf() != null) {
             this.precisionType = PrecisionType.of(UDFContext.getUDFContext().getJobConf()
@@ -290,7 +325,6 @@ public class NormalizeUDF extends AbstractTrainerUDF<Tuple> {
 
         // append tuple with tag, normalized value.
         Tuple tuple = TupleFactory.getInstance().newTuple();
-        final NormType normType = modelConfig.getNormalizeType();
 
         Map<String, Object> compactVarMap = null;
         if(this.isCompactNorm) {
@@ -398,10 +432,9 @@ public class NormalizeUDF extends AbstractTrainerUDF<Tuple> {
                         if(!config.isMeta() && config.isFinalSelect()) {
                             // for multiple classification, binPosRate means rate of such category over all counts,
                             // reuse binPosRate for normalize
-                            List<Double> normVals = Normalizer.fullNormalize(config, val, cutoff, normType,
-                                    this.categoryMissingNormType, this.categoricalIndexMap.get(config.getColumnNum()));
-                            for(Double normVal: normVals) {
-                                String formatVal = getOutputValue(normVal, true);
+                            int normSize = normalizeToBuffer(config, val);
+                            for(int j = 0; j < normSize; j++) {
+                                String formatVal = getOutputValue(this.normBuffer[j], true);
                                 compactVarMap.put(CommonUtils.normColumnName(config.getColumnName()), formatVal);
                             }
                         } else if(config.isMeta()) {
@@ -420,11 +453,9 @@ public class NormalizeUDF extends AbstractTrainerUDF<Tuple> {
                             // for multiple classification, binPosRate means rate of such category over all counts,
                             // reuse binPosRate for normalize
 
-                            List<Double> normVals = Normalizer.fullNormalize(config, val, cutoff, normType,
-                                    this.categoryMissingNormType, this.categoricalIndexMap.get(config.getColumnNum()));
-
-                            for(Double normVal: normVals) {
-                                appendOutputValue(tuple, normVal, true);
+                            int normSize = normalizeToBuffer(config, val);
+                            for(int j = 0; j < normSize; j++) {
+                                appendOutputValue(tuple, this.normBuffer[j], true);
                             }
                         } else {
                             tuple.append(config.isMeta() ? val : null);
@@ -488,10 +519,9 @@ public class NormalizeUDF extends AbstractTrainerUDF<Tuple> {
                     if(!config.isMeta() && config.isFinalSelect()) {
                         // for multiple classification, binPosRate means rate of such category over all counts,
                         // reuse binPosRate for normalize
-                        List<Double> normVals = Normalizer.fullNormalize(config, val, cutoff, normType,
-                                this.categoryMissingNormType, this.categoricalIndexMap.get(config.getColumnNum()));
-                        for(Double normVal: normVals) {
-                            String formatVal = getOutputValue(normVal, true);
+                        int normSize = normalizeToBuffer(config, val);
+                        for(int j = 0; j < normSize; j++) {
+                            String formatVal = getOutputValue(this.normBuffer[j], true);
                             compactVarMap.put(CommonUtils.normColumnName(config.getColumnName()), formatVal);
                         }
                     } else if(config.isMeta()) {
@@ -504,10 +534,9 @@ public class NormalizeUDF extends AbstractTrainerUDF<Tuple> {
                 } else {
                     // for others
                     if(CommonUtils.isToNormVariable(config, super.hasCandidates, modelConfig.isRegression())) {
-                        List<Double> normVals = Normalizer.fullNormalize(config, val, cutoff, normType,
-                                this.categoryMissingNormType, this.categoricalIndexMap.get(config.getColumnNum()));
-                        for(Double normVal: normVals) {
-                            appendOutputValue(tuple, normVal, true);
+                        int normSize = normalizeToBuffer(config, val);
+                        for(int j = 0; j < normSize; j++) {
+                            appendOutputValue(tuple, this.normBuffer[j], true);
                         }
                     } else {
                         tuple.append(config.isMeta() ? val : null);
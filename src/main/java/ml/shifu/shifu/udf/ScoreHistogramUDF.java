@@ -0,0 +1,119 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.udf;
+
+import java.io.IOException;
+
+import ml.shifu.shifu.core.eval.ScoreHistogram;
+import ml.shifu.shifu.util.CommonUtils;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.pig.data.BagFactory;
+import org.apache.pig.data.DataBag;
+import org.apache.pig.data.DataType;
+import org.apache.pig.data.Tuple;
+import org.apache.pig.data.TupleFactory;
+import org.apache.pig.impl.logicalLayer.schema.Schema;
+import org.apache.pig.impl.logicalLayer.schema.Schema.FieldSchema;
+
+/**
+ * Map one eval score record (target, weight, score1, score2, ...) to score histogram units of each score column:
+ * (column index, bucket, positive count, negative count, weighted positive count, weighted negative count, score).
+ * Units are summed by column index and bucket in 'EvalScoreHist.pig', pig combiner sums them in mapper side so only
+ * small histograms are shuffled.
+ */
+public class ScoreHistogramUDF extends AbstractEvalUDF<DataBag> {
+
+    private int digits;
+
+    public ScoreHistogramUDF(String source, String pathModelConfig, String pathColumnConfig, String evalSetName,
+            String digits) throws IOException {
+        super(source, pathModelConfig, pathColumnConfig, evalSetName);
+        this.digits = Integer.parseInt(digits);
+    }
+
+    @Override
+    public DataBag exec(Tuple input) throws IOException {
+        if(input == null || input.size() < 3) {
+            return null;
+        }
+
+        Object tval = input.get(0);
+        String tag = CommonUtils.trimTag((tval == null) ? "" : tval.toString());
+        boolean isPositive = posTagSet.contains(tag);
+        if(!isPositive && !negTagSet.contains(tag)) {
+            return null;
+        }
+
+        double weight = 1d;
+        Object wval = input.get(1);
+        if(wval != null && StringUtils.isNotBlank(wval.toString())) {
+            try {
+                weight = Double.parseDouble(wval.toString());
+            } catch (NumberFormatException e) {
+                weight = 1d;
+            }
+            if(weight < 0d) {
+                weight = 1d;
+            }
+        }
+
+        DataBag bag = BagFactory.getInstance().newDefaultBag();
+        for(int i = 2; i < input.size(); i++) {
+            Object sval = input.get(i);
+            if(sval == null) {
+                continue;
+            }
+            double score;
+            try {
+                score = Double.parseDouble(sval.toString());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+
+            Tuple tuple = TupleFactory.getInstance().newTuple(7);
+            tuple.set(0, i - 2);
+            tuple.set(1, ScoreHistogram.toBucket(score, this.digits));
+            tuple.set(2, isPositive ? 1L : 0L);
+            tuple.set(3, isPositive ? 0L : 1L);
+            tuple.set(4, isPositive ? weight : 0d);
+            tuple.set(5, isPositive ? 0d : weight);
+            tuple.set(6, score);
+            bag.add(tuple);
+        }
+        return bag;
+    }
+
+    @Override
+    public Schema outputSchema(Schema input) {
+        try {
+            Schema tupleSchema = new Schema();
+            tupleSchema.add(new FieldSchema("column", DataType.INTEGER));
+            tupleSchema.add(new FieldSchema("bucket", DataType.DOUBLE));
+            tupleSchema.add(new FieldSchema("pos", DataType.LONG));
+            tupleSchema.add(new FieldSchema("neg", DataType.LONG));
+            tupleSchema.add(new FieldSchema("wpos", DataType.DOUBLE));
+            tupleSchema.add(new FieldSchema("wneg", DataType.DOUBLE));
+            tupleSchema.add(new FieldSchema("score", DataType.DOUBLE));
+            return new Schema(new FieldSchema("ScoreHistogram", new Schema(new FieldSchema("unit", tupleSchema,
+                    DataType.TUPLE)), DataType.BAG));
+        } catch (IOException e) {
+            log.error("Error in outputSchema", e);
+            return null;
+        }
+    }
+
+}
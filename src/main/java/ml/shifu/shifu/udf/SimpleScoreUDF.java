@@ -25,7 +25,8 @@ import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
 import ml.shifu.shifu.core.ModelRunner;
 import ml.shifu.shifu.util.CommonUtils;
 
-import ml.shifu.shifu.util.ModelSpecLoaderUtils;
+import ml.shifu.shifu.util.Constants;
+import ml.shifu.shifu.util.SharedModelCache;
 import org.apache.pig.data.Tuple;
 import org.apache.pig.impl.logicalLayer.schema.Schema;
 import org.encog.ml.BasicML;
@@ -41,6 +42,7 @@ public class SimpleScoreUDF extends AbstractTrainerUDF<Double> {
 
     private String[] header;
     private ModelRunner modelRunner;
+    private List<BasicML> models;
 
     public SimpleScoreUDF(String source, String pathModelConfig, String pathColumnConfig, String pathHeader,
             String delimiter) throws IOException {
@@ -48,7 +50,9 @@ public class SimpleScoreUDF extends AbstractTrainerUDF<Double> {
 
         SourceType sourceType = SourceType.valueOf(source);
 
-        List<BasicML> models = ModelSpecLoaderUtils.loadBasicModels(modelConfig, null, sourceType);
+        // models are shared with other UDF instances in the same task JVM
+        this.models = SharedModelCache.acquireBasicModels(modelConfig, null, sourceType, false,
+                Constants.GBT_SCORE_RAW_CONVETER);
         this.header = CommonUtils.getHeaders(pathHeader, delimiter, sourceType);
         modelRunner = new ModelRunner(modelConfig, columnConfigList, this.header, modelConfig.getDataSetDelimiter(),
                 models);
@@ -79,6 +83,17 @@ public class SimpleScoreUDF extends AbstractTrainerUDF<Double> {
         return cs.getAvgScore();
     }
 
+    @Override
+    public void finish() {
+        if(this.modelRunner != null) {
+            this.modelRunner.close();
+        }
+        if(this.models != null) {
+            SharedModelCache.release(this.models);
+            this.models = null;
+        }
+    }
+
     public Schema outputSchema(Schema input) {
         return null;
     }
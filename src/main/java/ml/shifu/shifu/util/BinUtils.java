@@ -235,4 +235,130 @@ public final class BinUtils {
         }
     }
 
+
+    /**
+     * Exact powers of ten as double, used in {@link #parseNumber(String)} fast path.
+     */
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    /**
+     * Parse number without exception for non-numeric values, result is the same as {@link Double#parseDouble(String)}
+     * for valid numbers. Plain decimal values with no more than 15 significant digits are parsed without creating any
+     * object, other formats fall back to {@link Double#parseDouble(String)}.
+     * 
+     * @param str
+     *            the string value
+     * @return double value, NaN if not a number
+     */
+    public static double parseNumber(String str) {
+        if(str == null) {
+            return Double.NaN;
+        }
+        int end = str.length();
+        int pos = 0;
+        while(pos < end && str.charAt(pos) <= ' ') {
+            pos++;
+        }
+        while(end > pos && str.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if(pos == end) {
+            return Double.NaN;
+        }
+
+        boolean isNegative = false;
+        char c = str.charAt(pos);
+        if(c == '-' || c == '+') {
+            isNegative = (c == '-');
+            pos++;
+        }
+        int numberStart = pos;
+
+        long mantissa = 0L;
+        int digits = 0, significantDigits = 0, exponent = 0;
+        boolean isPointMet = false;
+        for(; pos < end; pos++) {
+            c = str.charAt(pos);
+            if(c >= '0' && c <= '9') {
+                digits++;
+                if(mantissa != 0L || c != '0') {
+                    significantDigits++;
+                }
+                if(significantDigits <= 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if(isPointMet) {
+                        exponent--;
+                    }
+                } else if(!isPointMet) {
+                    exponent++;
+                }
+            } else if(c == '.' && !isPointMet) {
+                isPointMet = true;
+            } else {
+                break;
+            }
+        }
+
+        if(pos < end && digits > 0 && (str.charAt(pos) == 'e' || str.charAt(pos) == 'E')) {
+            pos++;
+            boolean isNegativeExp = false;
+            if(pos < end && (str.charAt(pos) == '-' || str.charAt(pos) == '+')) {
+                isNegativeExp = (str.charAt(pos) == '-');
+                pos++;
+            }
+            int expDigits = 0, exp = 0;
+            for(; pos < end && str.charAt(pos) >= '0' && str.charAt(pos) <= '9'; pos++) {
+                if(exp < 10000) {
+                    exp = exp * 10 + (str.charAt(pos) - '0');
+                }
+                expDigits++;
+            }
+            if(expDigits == 0) {
+                return Double.NaN;
+            }
+            exponent += isNegativeExp ? -exp : exp;
+        }
+
+        if(pos < end || digits == 0) {
+            // not a plain decimal value, only values like 'NaN', 'Infinity', '0x1p3' or '1.0d' can be valid
+            char first = numberStart < end ? str.charAt(numberStart) : ' ';
+            if((first >= '0' && first <= '9') || first == '.' || first == 'N' || first == 'I') {
+                try {
+                    return Double.parseDouble(str);
+                } catch (NumberFormatException e) {
+                    return Double.NaN;
+                }
+            }
+            return Double.NaN;
+        }
+
+        if(significantDigits > 15 || exponent < -22 || exponent > 22) {
+            // out of exact double range, fall back to JDK parsing to get correctly rounded value
+            return Double.parseDouble(str);
+        }
+        double value = (double) mantissa;
+        value = exponent < 0 ? value / POWERS_OF_TEN[-exponent] : value * POWERS_OF_TEN[exponent];
+        return isNegative ? -value : value;
+    }
+
+    /**
+     * Check if string is a 'NaN' literal which is accepted by {@link Double#parseDouble(String)}. Such value is parsed
+     * to NaN by {@link #parseNumber(String)} like non-numeric values, but it is still a valid number in stats.
+     * 
+     * @param str
+     *            the string value
+     * @return true if value is 'NaN' with optional sign and surrounding whitespace
+     */
+    public static boolean isNaNLiteral(String str) {
+        if(str == null) {
+            return false;
+        }
+        String value = str.trim();
+        if(value.length() == 4 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            value = value.substring(1);
+        }
+        return "NaN".equals(value);
+    }
+
 }
\ No newline at end of file
@@ -678,6 +678,39 @@ public final class CommonUtils {
         return splitAndReturnList(raw, delimiter).toArray(new String[0]);
     }
 
+    /**
+     * Split into a reusable array to avoid list and array creation per record, the same tokens as
+     * {@link #split(String, String)}.
+     *
+     * @param raw
+     *            raw string
+     * @param delimiter
+     *            the delimeter to split the string
+     * @param units
+     *            array to store tokens, tokens over array length are only counted
+     * @return number of tokens in raw string, which may be larger than array length
+     */
+    public static int split(String raw, String delimiter, String[] units) {
+        int dLen = delimiter.length();
+        int count = 0;
+        int start = 0;
+        while(true) {
+            int end = raw.indexOf(delimiter, start);
+            boolean isLast = end < 0;
+            if(isLast) {
+                end = raw.length();
+            }
+            if(count < units.length) {
+                units[count] = raw.substring(start, end);
+            }
+            count += 1;
+            if(isLast) {
+                return count;
+            }
+            start = end + dLen;
+        }
+    }
+
     /**
      * Common split function to ignore special character like '|'.
      *
@@ -117,6 +117,7 @@ public interface Constants {
     public static final String EVAL_NORMALIZED = "EvalNormalized";
     public static final String EVAL_SCORE = "EvalScore";
     public static final String EVAL_META_SCORE = "EvalMetaScore";
+    public static final String EVAL_SCORE_HISTOGRAM = "EvalScoreHistogram";
     public static final String EVAL_PERFORMANCE = "EvalPerformance.json";
     public static final String EVAL_MATRIX = "EvalConfusionMatrix";
 
@@ -186,6 +187,15 @@ public interface Constants {
     public static final String VAR_SEL_MASTER_CONDUCTOR = "dvarsel.master.conductor.cls";
     public static final String VAR_SEL_WORKER_CONDUCTOR = "dvarsel.worker.conductor.cls";
     public static final String VAR_SEL_COLUMN_IDS_OUPUT = "dvarsle.column.ids.output";
+    /**
+     * Rounds of recursive sensitivity variable selection in one distributed variable selection job.
+     */
+    public static final String VAR_SEL_RECURSIVE_CNT = "dvarsel.recursive.cnt";
+    /**
+     * Folder of per round output in recursive sensitivity variable selection, each round has a sub folder with 'se'
+     * report and 'VarSels' column ids.
+     */
+    public static final String VAR_SEL_SE_HISTORY_OUTPUT = "dvarsel.se.history.output";
 
     public static final String SHIFU_COLUMN_CONFIG = "shifu.column.config";
 
@@ -207,6 +217,18 @@ public interface Constants {
 
     public static final int SHIFU_DEFAULT_VARSEL_SE_MULTI_THREAD = 6;
 
+    /**
+     * Number of removed inputs computed together in sensitivity analysis of NN models, 64 by default.
+     */
+    public static final String SHIFU_VARSEL_SE_BLOCK_SIZE = "shifu.varsel.se.block.size";
+
+    /**
+     * Run recursive SE/ST variable selection of NN models in one guagua job, workers keep normalized data in memory
+     * and only working columns are changed between rounds. Each worker trains its own model on its own data, so
+     * sensitivity is approximate compared with the MR path. False by default.
+     */
+    public static final String SHIFU_VARSEL_SE_IN_MEMORY = "shifu.varsel.se.inmemory";
+
     public static final String FILTER_BY_ST = "ST";
 
     public static final String FILTER_BY_SE = "SE";
@@ -253,20 +275,107 @@ public interface Constants {
 
     public static final String SHIFU_STATS_EXLCUDE_MISSING = "shifu.stats.exlcudeMissing";
 
+    /**
+     * If stats is computed in one data pass by mergeable sketches instead of pig binning job and updating binning job.
+     */
+    public static final String SHIFU_STATS_SINGLE_PASS = "shifu.stats.single.pass";
+
+    /**
+     * Numerical sketch size in single-pass stats is max bin number * this factor.
+     */
+    public static final String SHIFU_STATS_SKETCH_SCALE_FACTOR = "shifu.stats.sketch.scale.factor";
+
+    /**
+     * Reducer index of each column id planned by estimated column cost in stats MapReduce job.
+     */
+    public static final String SHIFU_STATS_COLUMN_PARTITIONS = "shifu.stats.column.partitions";
+
+    /**
+     * Record number sampled to estimate column cost for planning stats reducers, 0 to disable planning.
+     */
+    public static final String SHIFU_STATS_PLANNER_SAMPLE_SIZE = "shifu.stats.planner.sample.size";
+
+    /**
+     * Estimated column cost handled by one reducer in stats pig job, one numerical column costs 1.
+     */
+    public static final String SHIFU_STATS_REDUCER_COST = "shifu.stats.reducer.cost";
+
+    /**
+     * Threads to process column groups in each auto type mapper.
+     */
+    public static final String SHIFU_AUTOTYPE_MAPPER_THREADS = "shifu.autotype.mapper.threads";
+
+    /**
+     * Records between two distinct count checks in auto type mapper, 0 to disable adaptive sampling.
+     */
+    public static final String SHIFU_AUTOTYPE_SAMPLE_CHECK_INTERVAL = "shifu.autotype.sample.check.interval";
+
+    /**
+     * Column is stable and not sampled any more if its distinct count grows less than this ratio in two checks.
+     */
+    public static final String SHIFU_AUTOTYPE_SAMPLE_STABLE_RATIO = "shifu.autotype.sample.stable.ratio";
+
     public static final String COLUMN_META_FOLDER_NAME = "columns";
 
     public static final String POST_TRAIN_OUTPUT_SCORE = "score";
 
     public static final String SHIFU_EVAL_MAXMIN_SCORE_OUTPUT = "shifu.eval.maxmin.score.output";
 
+    /**
+     * If performance of distributed eval is computed from score histograms instead of sorting all scores, false by
+     * default.
+     */
+    public static final String SHIFU_EVAL_SCORE_HISTOGRAM = "shifu.eval.score.histogram";
+
+    /**
+     * Significant digits kept in score histogram buckets, 5 by default.
+     */
+    public static final String SHIFU_EVAL_SCORE_HISTOGRAM_DIGITS = "shifu.eval.score.histogram.digits";
+
+    /**
+     * Threads to read sorted score part files in computing performance, number of processors by default.
+     */
+    public static final String SHIFU_EVAL_CONFUSION_PARALLEL_NUM = "shifu.eval.confusion.parallel.num";
+
+    /**
+     * If eval sets on the same raw data are scored in one pig job in score step, false by default.
+     */
+    public static final String SHIFU_EVAL_COMBINED_SCORE = "shifu.eval.combined.score";
+
+    /**
+     * If eval score outputs are reused when models, configs, pig scripts, shifu version and eval data are not changed
+     * since last run, false by default.
+     */
+    public static final String SHIFU_EVAL_INCREMENTAL = "shifu.eval.incremental";
+
     public static final String SHIFU_DTRAIN_PARALLEL = "shifu.dtrain.parallel";
 
+    /**
+     * If NN bagging models are trained together in one guagua job, workers load data once and train all bags with
+     * different bagging sample weights. Only for NN bagging without grid search, k-fold, continuous training and
+     * feature subset sampling. By default it is false.
+     */
+    public static final String SHIFU_DTRAIN_MULTIBAG = "shifu.dtrain.multibag";
+
+    /**
+     * If NN grid search trials are trained together in one guagua job, workers load data once and train all trials
+     * with their own hyper parameters, losing trials are stopped early by successive halving. Only for NN grid search
+     * of trials with the same data settings. By default it is false.
+     */
+    public static final String SHIFU_DTRAIN_SHARED_GRIDSEARCH = "shifu.dtrain.shared.gridsearch";
+
     public static final String SHIFU_TMPMODEL_COPYTOLOCAL = "shifu.tmpmodel.copytolocal";
 
     public static final String SHIFU_NORM_SHUFFLE_SIZE = "shifu.norm.shuffle.size";
 
     public static final String SHIFU_NORM_PREFER_PART_SIZE = "shifu.norm.prefer.part.size";
 
+    /**
+     * Random buckets written by each norm task, normalized text data is randomized at write time and the shuffle job
+     * is skipped. By default it is 0 which means data is shuffled by a MapReduce job if shuffle is on.
+     */
+    public static final String SHIFU_NORM_SHUFFLE_BUCKETS = "shifu.norm.shuffle.buckets";
+
     public static final String SHIFU_SCORE_SCALE = "shifu.score.scale";
 
     public static final String SHIFU_CORRELATION_MULTI_THREADS = "shifu.correlation.multi.threads";
@@ -277,6 +386,17 @@ public interface Constants {
 
     public static final String SHIFU_CORRELATION_COMPUTE_ALL = "shifu.correlation.computeAll";
 
+    /**
+     * Rows buffered in one block before accumulating pair sums in fast correlation mapper.
+     */
+    public static final String SHIFU_CORRELATION_BLOCK_SIZE = "shifu.correlation.block.size";
+
+    /**
+     * Column groups in tiled correlation, column pairs of each two groups are computed in separated mapper tasks. Each
+     * tile reads input again, groups are bounded by CorrelationTileInputFormat#MAX_COLUMN_GROUPS.
+     */
+    public static final String SHIFU_CORRELATION_COLUMN_GROUPS = "shifu.correlation.column.groups";
+
     public static final String CATEGORICAL_GROUP_VAL_DELIMITER = "@^";
 
     public static final String SHIFU_NAMESPACE_STRICT_MODE = "shifu.namespace.strict.mode";
@@ -350,6 +470,12 @@ public interface Constants {
     public static final String SHIFU_OUTPUT_DATA_CSV = "shifu.output.data.csv";
     
     public static final String SHIFU_NORM_PRECISION_TYPE = "shifu.norm.precision.type";
+
+    /**
+     * Output format of normalized data, 'text' by default or 'binary' for compact binary rows only read by distributed
+     * NN/LR/tree model training.
+     */
+    public static final String SHIFU_NORM_OUTPUT_FORMAT = "shifu.norm.output.format";
     
     public static final String TF_ALG_NAME = "Tensorflow";
     
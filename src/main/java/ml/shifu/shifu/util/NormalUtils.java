@@ -3,6 +3,7 @@ package ml.shifu.shifu.util;
 import ml.shifu.shifu.column.NSColumn;
 import ml.shifu.shifu.container.obj.ColumnConfig;
 import ml.shifu.shifu.container.obj.ModelConfig;
+import ml.shifu.shifu.core.ColumnNormalizer;
 import ml.shifu.shifu.core.Normalizer;
 import ml.shifu.shifu.core.dtrain.CommonConstants;
 import org.apache.commons.collections.CollectionUtils;
@@ -47,68 +48,8 @@ public class NormalUtils {
     public static MLDataPair assembleNsDataPair(Map<Integer, Map<String, Integer>> binCategoryMap, boolean noVarSel,
             ModelConfig modelConfig, List<ColumnConfig> columnConfigList, Map<NSColumn, String> rawNsDataMap,
             double cutoff, String alg) {
-        double[] ideal = { Constants.DEFAULT_IDEAL_VALUE };
-
-        List<Double> inputList = new ArrayList<Double>();
-        boolean hasCandidates = CommonUtils.hasCandidateColumns(columnConfigList);
-        for(ColumnConfig config : columnConfigList) {
-            if(config == null) {
-                continue;
-            }
-            NSColumn key = new NSColumn(config.getColumnName());
-            if(config.isFinalSelect() // check whole name
-                    && !rawNsDataMap.containsKey(key) // and then check simple name, in case user use wrong namespace
-                    && !rawNsDataMap.containsKey(new NSColumn(key.getSimpleName()))) {
-                throw new IllegalStateException(String.format("Variable Missing in Test Data: %s", key));
-            }
-
-            if(config.isTarget()) {
-                continue;
-            } else {
-                if(!noVarSel) {
-                    if(config != null && !config.isMeta() && !config.isTarget() && config.isFinalSelect()) {
-                        String val = getNSVariableVal(rawNsDataMap, key);
-                        if(CommonUtils.isTreeModel(alg) && config.isCategorical()) {
-                            Integer index = binCategoryMap.get(config.getColumnNum()).get(val == null ? "" : val);
-                            if(index == null) {
-                                // not in binCategories, should be missing value
-                                // -1 as missing value
-                                inputList.add(-1d);
-                            } else {
-                                inputList.add(index * 1d);
-                            }
-                        } else {
-                            inputList.addAll(computeNumericNormResult(modelConfig, cutoff, config, val));
-                        }
-                    }
-                } else {
-                    if(!config.isMeta() && !config.isTarget() && CommonUtils.isGoodCandidate(config, hasCandidates)) {
-                        String val = getNSVariableVal(rawNsDataMap, key);
-                        if(CommonUtils.isTreeModel(alg) && config.isCategorical()) {
-                            Integer index = binCategoryMap.get(config.getColumnNum()).get(val == null ? "" : val);
-                            if(index == null) {
-                                // not in binCategories, should be missing value
-                                // -1 as missing value
-                                inputList.add(-1d);
-                            } else {
-                                inputList.add(index * 1d);
-                            }
-                        } else {
-                            inputList.addAll(computeNumericNormResult(modelConfig, cutoff, config, val));
-                        }
-                    }
-                }
-            }
-        }
-
-        // god, Double [] cannot be casted to double[], toArray doesn't work
-        int size = inputList.size();
-        double[] input = new double[size];
-        for(int i = 0; i < size; i++) {
-            input[i] = inputList.get(i);
-        }
-
-        return new BasicMLDataPair(new BasicMLData(input), new BasicMLData(ideal));
+        return assembleNsDataPair(binCategoryMap, noVarSel, modelConfig, columnConfigList, rawNsDataMap, cutoff, alg,
+                null, new HashMap<Integer, ColumnNormalizer>());
     }
 
     /**
@@ -176,13 +117,39 @@ public class NormalUtils {
     public static MLDataPair assembleNsDataPair(Map<Integer, Map<String, Integer>> binCategoryMap, boolean noVarSel,
             ModelConfig modelConfig, List<ColumnConfig> columnConfigList, Map<NSColumn, String> rawNsDataMap,
             double cutoff, String alg, Set<Integer> featureSet) {
-        if(CollectionUtils.isEmpty(featureSet)) {
-            return assembleNsDataPair(binCategoryMap, noVarSel, modelConfig, columnConfigList, rawNsDataMap, cutoff,
-                    alg);
-        }
+        return assembleNsDataPair(binCategoryMap, noVarSel, modelConfig, columnConfigList, rawNsDataMap, cutoff, alg,
+                featureSet, new HashMap<Integer, ColumnNormalizer>());
+    }
+
+    /**
+     * Assemble map data to Encog standard input format with cached per column {@link ColumnNormalizer}s. Normalized
+     * values are written into one double array without boxing. If featureSet is empty, variables are selected by
+     * noVarSel like {@link #assembleNsDataPair(Map, boolean, ModelConfig, List, Map, double, String)}.
+     *
+     * @param binCategoryMap   categorical map
+     * @param noVarSel         if after var select
+     * @param modelConfig      model config instance
+     * @param columnConfigList column config list
+     * @param rawNsDataMap     raw NSColumn data
+     * @param cutoff           cut off value
+     * @param alg              algorithm used in model
+     * @param featureSet       feature set used in NN model, can be null
+     * @param normalizers      column num to column normalizer cache, new normalizers will be put into it
+     * @return data pair instance
+     * @throws NullPointerException  if input is null
+     */
+    public static MLDataPair assembleNsDataPair(Map<Integer, Map<String, Integer>> binCategoryMap, boolean noVarSel,
+            ModelConfig modelConfig, List<ColumnConfig> columnConfigList, Map<NSColumn, String> rawNsDataMap,
+            double cutoff, String alg, Set<Integer> featureSet, Map<Integer, ColumnNormalizer> normalizers) {
         double[] ideal = { Constants.DEFAULT_IDEAL_VALUE };
 
-        List<Double> inputList = new ArrayList<Double>();
+        boolean hasFeatureSet = CollectionUtils.isNotEmpty(featureSet);
+        boolean hasCandidates = hasFeatureSet ? false : CommonUtils.hasCandidateColumns(columnConfigList);
+        boolean isTreeModel = CommonUtils.isTreeModel(alg);
+        boolean isTreeNorm = CommonUtils.isTreeModel(modelConfig.getAlgorithm());
+
+        double[] input = new double[columnConfigList.size()];
+        int size = 0;
         for(ColumnConfig config : columnConfigList) {
             if(config == null) {
                 continue;
@@ -196,34 +163,55 @@ public class NormalUtils {
 
             if(config.isTarget()) {
                 continue;
+            }
+
+            boolean isInput;
+            if(hasFeatureSet) {
+                isInput = featureSet.contains(config.getColumnNum());
+            } else if(!noVarSel) {
+                isInput = !config.isMeta() && config.isFinalSelect();
             } else {
-                if(featureSet.contains(config.getColumnNum())) {
-                    String val = getNSVariableVal(rawNsDataMap, key);
-                    if(CommonUtils.isTreeModel(alg) && config.isCategorical()) {
-                        Integer index = binCategoryMap.get(config.getColumnNum()).get(val == null ? "" : val);
-                        if(index == null) {
-                            // not in binCategories, should be missing value -1 as missing value
-                            inputList.add(-1d);
-                        } else {
-                            inputList.add(index * 1d);
-                        }
-                    } else {
-                        inputList.addAll(computeNumericNormResult(modelConfig, cutoff, config, val));
-                    }
-                }
+                isInput = !config.isMeta() && CommonUtils.isGoodCandidate(config, hasCandidates);
+            }
+            if(!isInput) {
+                continue;
+            }
+
+            String val = getNSVariableVal(rawNsDataMap, key);
+            boolean isTreeCategorical = isTreeModel && config.isCategorical();
+            // tree model input is not normalized, no need normalizer
+            ColumnNormalizer normalizer = (isTreeCategorical || isTreeNorm) ? null
+                    : getColumnNormalizer(normalizers, modelConfig, cutoff, config);
+            int normSize = (normalizer == null ? 1 : normalizer.size());
+            if(size + normSize > input.length) {
+                input = Arrays.copyOf(input, Math.max(input.length * 2, size + normSize));
             }
-        }
 
-        // god, Double [] cannot be casted to double[], toArray doesn't work
-        int size = inputList.size();
-        double[] input = new double[size];
-        for(int i = 0; i < size; i++) {
-            input[i] = inputList.get(i);
+            if(isTreeCategorical) {
+                Integer index = binCategoryMap.get(config.getColumnNum()).get(val == null ? "" : val);
+                // not in binCategories, should be missing value, -1 as missing value
+                input[size++] = (index == null ? -1d : index * 1d);
+            } else {
+                size += computeNumericNormResult(config, normalizer, val, input, size);
+            }
         }
 
+        if(size != input.length) {
+            input = Arrays.copyOf(input, size);
+        }
         return new BasicMLDataPair(new BasicMLData(input), new BasicMLData(ideal));
     }
 
+    private static ColumnNormalizer getColumnNormalizer(Map<Integer, ColumnNormalizer> normalizers,
+            ModelConfig modelConfig, double cutoff, ColumnConfig config) {
+        ColumnNormalizer normalizer = normalizers.get(config.getColumnNum());
+        if(normalizer == null) {
+            normalizer = new ColumnNormalizer(config, cutoff, modelConfig.getNormalizeType());
+            normalizers.put(config.getColumnNum(), normalizer);
+        }
+        return normalizer;
+    }
+
     /**
      * Get all available feature ids from ColumnConfig list.
      * There are two situations for this:
@@ -300,37 +288,36 @@ public class NormalUtils {
     /**
      * Normalize variable by (modelType, normMethod). One variable val could be normalized into multi double value
      *
-     * @param modelConfig - to check modelType. TreeModel or NN/LR model?
-     * @param cutoff      - cutoff for ZScale
      * @param config      - variable configuration
+     * @param normalizer  - column normalizer of such variable, null for tree model which only parses raw value
      * @param val         - raw variable value
-     * @return - most normalization method return 1 element double list,
-     * but OneHot will will return multi-elements double list
+     * @param output      - output array to write normalized values
+     * @param offset      - start index in output array
+     * @return - number of values written, most normalization method write 1 element,
+     * but OneHot will write multi-elements
      */
-    private static List<Double> computeNumericNormResult(ModelConfig modelConfig, double cutoff, ColumnConfig config,
-            String val) {
-        List<Double> normalizeValue = null;
-        if(CommonUtils.isTreeModel(modelConfig.getAlgorithm())) {
+    private static int computeNumericNormResult(ColumnConfig config, ColumnNormalizer normalizer, String val,
+            double[] output, int offset) {
+        int size;
+        if(normalizer == null) {
             try {
-                normalizeValue = Arrays.asList(new Double[] { Double.parseDouble(val) });
+                output[offset] = Double.parseDouble(val);
             } catch (Exception e) {
-                normalizeValue = Arrays.asList(new Double[] { Normalizer.defaultMissingValue(config) });
+                output[offset] = Normalizer.defaultMissingValue(config);
             }
+            size = 1;
         } else {
-            normalizeValue = Normalizer.normalize(config, val, cutoff, modelConfig.getNormalizeType());
+            size = normalizer.normalize(val, output, offset);
         }
 
-        if(CollectionUtils.isNotEmpty(normalizeValue)) {
-            for(int i = 0; i < normalizeValue.size(); i++) {
-                Double nval = normalizeValue.get(i);
-                if(Double.isInfinite(nval) || Double.isNaN(nval)) {
-                    // if the value is Infinite or NaN, treat it as missing value
-                    // should treat Infinite as missing value also?
-                    normalizeValue.set(i, defaultMissingValue(config));
-                }
+        for(int i = offset; i < offset + size; i++) {
+            if(Double.isInfinite(output[i]) || Double.isNaN(output[i])) {
+                // if the value is Infinite or NaN, treat it as missing value
+                // should treat Infinite as missing value also?
+                output[i] = defaultMissingValue(config);
             }
         }
-        return normalizeValue;
+        return size;
     }
 
     /**
@@ -144,4 +144,151 @@ public class QuickSort {
         values.set(i, values.get(j));
         values.set(j, tmp);
     }
+
+    /**
+     * Sort parallel arrays in place by keys in range [left, right], elements of payload arrays are moved together with
+     * their keys. Used by histograms which keep one primitive array per field to avoid objects per element.
+     * 
+     * @param keys
+     *            sort keys
+     * @param left
+     *            first index, inclusive
+     * @param right
+     *            last index, inclusive
+     * @param isDescending
+     *            if sort in descending order
+     * @param doubles
+     *            double payload arrays, can be empty
+     * @param longs
+     *            long payload arrays, can be empty
+     */
+    public static void sort(double[] keys, int left, int right, boolean isDescending, double[][] doubles,
+            long[][] longs) {
+        while(left < right) {
+            double pivot = keys[(left + right) >>> 1];
+            int i = left, j = right;
+            while(i <= j) {
+                if(isDescending) {
+                    while(keys[i] > pivot) {
+                        i++;
+                    }
+                    while(keys[j] < pivot) {
+                        j--;
+                    }
+                } else {
+                    while(keys[i] < pivot) {
+                        i++;
+                    }
+                    while(keys[j] > pivot) {
+                        j--;
+                    }
+                }
+                if(i <= j) {
+                    swap(keys, i, j, doubles, longs);
+                    i++;
+                    j--;
+                }
+            }
+            // recurse on smaller part to bound stack depth
+            if(j - left < right - i) {
+                sort(keys, left, j, isDescending, doubles, longs);
+                left = i;
+            } else {
+                sort(keys, i, right, isDescending, doubles, longs);
+                right = j;
+            }
+        }
+    }
+
+    private static void swap(double[] keys, int i, int j, double[][] doubles, long[][] longs) {
+        double d = keys[i];
+        keys[i] = keys[j];
+        keys[j] = d;
+        for(double[] array: doubles) {
+            d = array[i];
+            array[i] = array[j];
+            array[j] = d;
+        }
+        for(long[] array: longs) {
+            long l = array[i];
+            array[i] = array[j];
+            array[j] = l;
+        }
+    }
+
+    /**
+     * Merge two adjacent ranges [from, mid) and [mid, to) sorted by keys in ascending order, payload arrays are moved
+     * together with their keys. Scratch arrays of {@link MergeBuffer} are reused by later merges.
+     * 
+     * @param keys
+     *            sort keys
+     * @param from
+     *            start of first range, inclusive
+     * @param mid
+     *            end of first range and start of second range
+     * @param to
+     *            end of second range, exclusive
+     * @param doubles
+     *            double payload arrays, can be empty
+     * @param longs
+     *            long payload arrays, can be empty
+     * @param buffer
+     *            reusable scratch arrays
+     */
+    public static void mergeSorted(double[] keys, int from, int mid, int to, double[][] doubles, long[][] longs,
+            MergeBuffer buffer) {
+        if(mid <= from || mid >= to || keys[mid - 1] <= keys[mid]) {
+            return;
+        }
+        int length = to - from;
+        buffer.ensureCapacity(length);
+        int[] order = buffer.order;
+        int i = from, j = mid, k = 0;
+        while(i < mid || j < to) {
+            if(j >= to || (i < mid && keys[i] <= keys[j])) {
+                order[k++] = i++;
+            } else {
+                order[k++] = j++;
+            }
+        }
+        permute(keys, from, length, order, buffer.doubles);
+        for(double[] array: doubles) {
+            permute(array, from, length, order, buffer.doubles);
+        }
+        for(long[] array: longs) {
+            long[] scratch = buffer.longs;
+            for(k = 0; k < length; k++) {
+                scratch[k] = array[order[k]];
+            }
+            System.arraycopy(scratch, 0, array, from, length);
+        }
+    }
+
+    private static void permute(double[] array, int from, int length, int[] order, double[] scratch) {
+        for(int k = 0; k < length; k++) {
+            scratch[k] = array[order[k]];
+        }
+        System.arraycopy(scratch, 0, array, from, length);
+    }
+
+    /**
+     * Scratch arrays of {@link QuickSort#mergeSorted(double[], int, int, int, double[][], long[][], MergeBuffer)}, they
+     * are only grown and reused in later merges.
+     */
+    public static class MergeBuffer {
+
+        private int[] order = new int[0];
+
+        private double[] doubles = new double[0];
+
+        private long[] longs = new long[0];
+
+        private void ensureCapacity(int capacity) {
+            if(this.order.length < capacity) {
+                this.order = new int[capacity];
+                this.doubles = new double[capacity];
+                this.longs = new long[capacity];
+            }
+        }
+    }
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.util;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ml.shifu.shifu.container.obj.EvalConfig;
+import ml.shifu.shifu.container.obj.ModelConfig;
+import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
+import ml.shifu.shifu.fs.ShifuFileUtils;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.encog.ml.BasicML;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Process-wide cache of basic models shared by scoring UDF instances in one task JVM. Pig may create UDF instances
+ * several times in one task and with JVM reuse tasks run in the same JVM, models are only deserialized once for the
+ * same model files.
+ *
+ * <p>
+ * Models are keyed by model file paths with file length and modification time, so changed model files are loaded
+ * again. Each {@link #acquireBasicModels(ModelConfig, EvalConfig, SourceType, boolean, String)} should be paired with
+ * {@link #release(List)}. Models with no reference are kept by soft reference and can be reclaimed by GC when memory
+ * is not enough.
+ *
+ * <p>
+ * Generic and TensorFlow models are not cached and loaded by {@link ModelSpecLoaderUtils} as before.
+ */
+public final class SharedModelCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SharedModelCache.class);
+
+    /**
+     * Cached models by model key.
+     */
+    private static final Map<String, CacheEntry> ENTRIES = new HashMap<String, CacheEntry>();
+
+    /**
+     * Model lists returned to callers and their keys, used to release models.
+     */
+    private static final Map<List<BasicML>, String> ACQUIRED = new IdentityHashMap<List<BasicML>, String>();
+
+    private SharedModelCache() {
+    }
+
+    /**
+     * Get basic models from cache or load them if not cached, same models as
+     * {@link ModelSpecLoaderUtils#loadBasicModels(ModelConfig, EvalConfig, SourceType, boolean, String)}. Model
+     * instances are shared, the returned list is owned by caller.
+     *
+     * @param modelConfig
+     *            model config
+     * @param evalConfig
+     *            eval config
+     * @param sourceType
+     *            source type
+     * @param gbtConvertToProb
+     *            convert gbt score to prob or not
+     * @param gbtScoreConvertStrategy
+     *            specify how to convert gbt raw score
+     * @return list of models
+     * @throws IOException
+     *             if any IO exception in reading model file.
+     */
+    public static List<BasicML> acquireBasicModels(ModelConfig modelConfig, EvalConfig evalConfig,
+            SourceType sourceType, boolean gbtConvertToProb, String gbtScoreConvertStrategy) throws IOException {
+        if(Constants.GENERIC.equalsIgnoreCase(modelConfig.getAlgorithm())
+                || Constants.TENSORFLOW.equalsIgnoreCase(modelConfig.getAlgorithm())) {
+            return ModelSpecLoaderUtils.loadBasicModels(modelConfig, evalConfig, sourceType, gbtConvertToProb,
+                    gbtScoreConvertStrategy);
+        }
+
+        List<FileStatus> modelFileStats = ModelSpecLoaderUtils.locateBasicModels(modelConfig, evalConfig,
+                sourceType);
+        StringBuilder key = new StringBuilder(modelConfig.getAlgorithm()).append('|').append(gbtConvertToProb)
+                .append('|').append(gbtScoreConvertStrategy);
+        for(FileStatus fst: modelFileStats) {
+            key.append('|').append(fst.getPath()).append(':').append(fst.getLen()).append(':')
+                    .append(fst.getModificationTime());
+        }
+
+        synchronized(SharedModelCache.class) {
+            String modelKey = key.toString();
+            CacheEntry entry = ENTRIES.get(modelKey);
+            List<BasicML> models = (entry == null ? null : entry.getModels());
+            if(models == null) {
+                FileSystem fs = ShifuFileUtils.getFileSystemBySourceType(sourceType);
+                models = new ArrayList<BasicML>(modelFileStats.size());
+                for(FileStatus fst: modelFileStats) {
+                    models.add(ModelSpecLoaderUtils.loadModel(modelConfig, fst.getPath(), fs, gbtConvertToProb,
+                            gbtScoreConvertStrategy));
+                }
+                entry = new CacheEntry(models, entry == null ? 0 : entry.refCount);
+                ENTRIES.put(modelKey, entry);
+                LOG.info("Load {} models into shared model cache.", models.size());
+            } else {
+                LOG.info("Reuse {} models in shared model cache.", models.size());
+            }
+
+            entry.refCount += 1;
+            entry.models = models;
+            List<BasicML> result = new ArrayList<BasicML>(models);
+            ACQUIRED.put(result, modelKey);
+            return result;
+        }
+    }
+
+    /**
+     * Release models got from {@link #acquireBasicModels(ModelConfig, EvalConfig, SourceType, boolean, String)}, if
+     * no one refers the models, they are only kept by soft reference.
+     *
+     * @param models
+     *            the model list returned by acquire
+     */
+    public static synchronized void release(List<BasicML> models) {
+        String modelKey = ACQUIRED.remove(models);
+        if(modelKey == null) {
+            return;
+        }
+        CacheEntry entry = ENTRIES.get(modelKey);
+        if(entry != null && --entry.refCount <= 0) {
+            entry.refCount = 0;
+            entry.models = null;
+        }
+    }
+
+    private static class CacheEntry {
+
+        /**
+         * Strong reference when models are referred.
+         */
+        private List<BasicML> models;
+
+        private final SoftReference<List<BasicML>> softModels;
+
+        private int refCount;
+
+        CacheEntry(List<BasicML> models, int refCount) {
+            this.models = models;
+            this.softModels = new SoftReference<List<BasicML>>(models);
+            this.refCount = refCount;
+        }
+
+        List<BasicML> getModels() {
+            return this.models != null ? this.models : this.softModels.get();
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ml.shifu.shifu.container.obj.ColumnBinning;
+import ml.shifu.shifu.container.obj.ColumnConfig;
+import ml.shifu.shifu.container.obj.ColumnType;
+import ml.shifu.shifu.container.obj.ModelNormalizeConf.NormType;
+import ml.shifu.shifu.udf.NormalizeUDF.CategoryMissingNormType;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ColumnNormalizerTest {
+
+    private static final Object[] NUMERICAL_VALUES = new Object[] { "5.0", "3", "-100", "1e10", "wrong_format", "",
+            null, 2.5d, 7 };
+
+    private static final Object[] CATEGORICAL_VALUES = new Object[] { "a", "b", "c", "d", "e", "wrong_format", "",
+            null };
+
+    private ColumnConfig buildNumericalConfig() {
+        ColumnConfig config = new ColumnConfig();
+        config.setColumnNum(0);
+        config.setMean(2.0);
+        config.setStdDev(1.0);
+        config.setColumnType(ColumnType.N);
+
+        ColumnBinning cbin = new ColumnBinning();
+        cbin.setBinCountWoe(Arrays.asList(new Double[] { 10.0, 11.0, 12.0, 13.0, 6.5 }));
+        cbin.setBinWeightedWoe(Arrays.asList(new Double[] { 20.0, 21.0, 22.0, 23.0, 16.5 }));
+        cbin.setBinBoundary(Arrays.asList(new Double[] { Double.NEGATIVE_INFINITY, 2.0, 4.0, 6.0 }));
+        cbin.setBinPosRate(Arrays.asList(new Double[] { 0.2, 0.4, 0.8, 1.0, 0.5 }));
+        cbin.setBinCountNeg(Arrays.asList(1, 2, 3, 4, 5));
+        cbin.setBinCountPos(Arrays.asList(5, 4, 3, 2, 1));
+        config.setColumnBinning(cbin);
+        config.getColumnStats().setMin(-1d);
+        return config;
+    }
+
+    private ColumnConfig buildCategoricalConfig() {
+        ColumnConfig config = new ColumnConfig();
+        config.setColumnNum(1);
+        config.setMean(0.2);
+        config.setStdDev(1.0);
+        config.setColumnType(ColumnType.C);
+
+        ColumnBinning cbin = new ColumnBinning();
+        cbin.setBinCountWoe(Arrays.asList(new Double[] { 10.0, 11.0, 12.0, 13.0, 6.5 }));
+        cbin.setBinWeightedWoe(Arrays.asList(new Double[] { 20.0, 21.0, 22.0, 23.0, 16.5 }));
+        cbin.setBinCategory(Arrays.asList(new String[] { "a", "b", "c^e", "d" }));
+        cbin.setBinPosRate(Arrays.asList(new Double[] { 0.2, 0.4, 0.8, 1.0, 0.6 }));
+        cbin.setBinCountNeg(Arrays.asList(1, 2, 3, 4, 5));
+        cbin.setBinCountPos(Arrays.asList(5, 4, 3, 2, 1));
+        config.setColumnBinning(cbin);
+        return config;
+    }
+
+    private Map<String, Integer> buildCateIndexMap() {
+        Map<String, Integer> map = new HashMap<String, Integer>();
+        map.put("a", 0);
+        map.put("b", 1);
+        map.put("c", 2);
+        map.put("e", 2);
+        map.put("d", 3);
+        return map;
+    }
+
+    private void assertSameAsNormalizer(ColumnConfig config, Object[] values, Map<String, Integer> cateIndexMap) {
+        for(NormType normType: NormType.values()) {
+            for(CategoryMissingNormType missingType: CategoryMissingNormType.values()) {
+                ColumnNormalizer normalizer = new ColumnNormalizer(config, 4.0, normType, missingType, cateIndexMap);
+                double[] doubleOutput = new double[normalizer.size() + 2];
+                float[] floatOutput = new float[normalizer.size() + 2];
+                for(Object value: values) {
+                    List<Double> expected = cateIndexMap == null
+                            ? Normalizer.normalize(config, value, 4.0, normType, missingType)
+                            : Normalizer.fullNormalize(config, value, 4.0, normType, missingType, cateIndexMap);
+                    String msg = normType + "/" + missingType + "/" + value;
+
+                    Assert.assertEquals(normalizer.normalize(value, doubleOutput, 2), expected.size(), msg);
+                    Assert.assertEquals(normalizer.normalize(value, floatOutput, 2), expected.size(), msg);
+                    for(int i = 0; i < expected.size(); i++) {
+                        Assert.assertEquals(doubleOutput[2 + i], expected.get(i), 1e-10, msg);
+                        Assert.assertEquals(floatOutput[2 + i], expected.get(i).floatValue(), 1e-6, msg);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNumericalSameAsNormalizer() {
+        assertSameAsNormalizer(buildNumericalConfig(), NUMERICAL_VALUES, null);
+        assertSameAsNormalizer(buildNumericalConfig(), NUMERICAL_VALUES, new HashMap<String, Integer>());
+    }
+
+    @Test
+    public void testCategoricalSameAsNormalizer() {
+        assertSameAsNormalizer(buildCategoricalConfig(), CATEGORICAL_VALUES, null);
+        assertSameAsNormalizer(buildCategoricalConfig(), CATEGORICAL_VALUES, buildCateIndexMap());
+    }
+
+    @Test
+    public void testOneHotSize() {
+        ColumnNormalizer normalizer = new ColumnNormalizer(buildCategoricalConfig(), 4.0, NormType.ONEHOT);
+        Assert.assertEquals(normalizer.size(), 5);
+
+        double[] output = new double[5];
+        Assert.assertEquals(normalizer.normalize("e", output, 0), 5);
+        Assert.assertTrue(Arrays.equals(output, new double[] { 0d, 0d, 1d, 0d, 0d }));
+        Assert.assertEquals(normalizer.normalize("not_exist", output, 0), 5);
+        Assert.assertTrue(Arrays.equals(output, new double[] { 0d, 0d, 0d, 0d, 1d }));
+    }
+
+}
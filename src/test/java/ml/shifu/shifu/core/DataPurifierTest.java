@@ -139,4 +139,15 @@ public class DataPurifierTest {
         
         Assert.assertFalse(dataPurifier.isFilter(tuple));
     }
+
+    @Test
+    public void testFilterReferencedColumns() throws IOException {
+        modelConfig.getDataSet().setFilterExpressions("diagnosis == \"M\" && column_3 == \"17.99\" && column_32 != \"0.2189\"");
+        dataPurifier = new DataPurifier(modelConfig, false);
+        Assert.assertTrue(dataPurifier.isFilter("M|17.99|10.38|122.8|1001|0.1184|0.2776|0.3001|0.1471|0.2419|0.07871|1.095|0.9053|8.589|153.4|0.006399|0.04904|0.05373|0.01587|0.03003|0.006193|25.38|17.33|184.6|2019|0.1622|0.6656|0.7119|0.2654|0.4601|0.1189"));
+        Assert.assertFalse(dataPurifier.isFilter("M|12.99|10.38|122.8|1001|0.1184|0.2776|0.3001|0.1471|0.2419|0.07871|1.095|0.9053|8.589|153.4|0.006399|0.04904|0.05373|0.01587|0.03003|0.006193|25.38|17.33|184.6|2019|0.1622|0.6656|0.7119|0.2654|0.4601|0.1189"));
+        Assert.assertFalse(dataPurifier.isFilter("M|17.99|10.38|122.8|1001|0.1184|0.2776|0.3001|0.1471|0.2419|0.07871|1.095|0.9053|8.589|153.4|0.006399|0.04904|0.05373|0.01587|0.03003|0.006193|25.38|17.33|184.6|2019|0.1622|0.6656|0.7119|0.2654|0.4601|0.2189"));
+        // illegal format data with less fields
+        Assert.assertFalse(dataPurifier.isFilter("M|17.99|10.38"));
+    }
 }
@@ -0,0 +1,253 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import ml.shifu.shifu.container.ConfusionMatrixObject;
+import ml.shifu.shifu.container.PerformanceObject;
+import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
+import ml.shifu.shifu.core.eval.ScoreHistogram;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * SortedScoreConfusionMatrixBuilderTest class
+ */
+public class SortedScoreConfusionMatrixBuilderTest {
+
+    private static final Set<String> POS_TAGS = new HashSet<String>(Arrays.asList("1"));
+
+    private static final Set<String> NEG_TAGS = new HashSet<String>(Arrays.asList("0"));
+
+    @Test
+    public void testRoundScore() {
+        Assert.assertEquals(SortedScoreConfusionMatrixBuilder.roundScore(0.12345678d), 0.123457d);
+        Assert.assertEquals(SortedScoreConfusionMatrixBuilder.roundScore(-0.5d), -0.5d);
+        Assert.assertEquals(SortedScoreConfusionMatrixBuilder.roundScore(999.0000001d), 999d);
+        Assert.assertTrue(Double.isNaN(SortedScoreConfusionMatrixBuilder.roundScore(Double.NaN)));
+    }
+
+    @Test
+    public void testExtractFields() {
+        SortedScoreConfusionMatrixBuilder builder = newBuilder(10, 0L, 0L, 0d, 0d);
+        String[] fields = new String[4];
+        builder.extractFields(" 1 | 2.0|0.3", fields);
+        Assert.assertEquals(fields[0], "1");
+        Assert.assertEquals(fields[1], "2.0");
+        Assert.assertEquals(fields[2], "0.3");
+        Assert.assertNull(fields[3]);
+    }
+
+    @Test
+    public void testSplitFilesSameAsOneFile() throws IOException {
+        Random random = new Random(1234L);
+        int size = 5000;
+        double[] scores = new double[size];
+        for(int i = 0; i < size; i++) {
+            scores[i] = Math.round(random.nextDouble() * 100d) / 100d;
+        }
+        Arrays.sort(scores);
+
+        List<String> lines = new ArrayList<String>();
+        long posTags = 0L, negTags = 0L;
+        double posWeightTags = 0d, negWeightTags = 0d;
+        for(int i = size - 1; i >= 0; i--) {
+            boolean isPositive = random.nextDouble() < 0.3d;
+            double weight = random.nextInt(5);
+            if(isPositive) {
+                posTags += 1;
+                posWeightTags += weight;
+            } else {
+                negTags += 1;
+                negWeightTags += weight;
+            }
+            lines.add((isPositive ? "1" : "0") + "|" + weight + "|" + scores[i]);
+        }
+
+        List<String> oneFile = Arrays.asList(writeFile(lines));
+        List<String> splitFiles = new ArrayList<String>();
+        // tiny and single record files check carried bins and score counts in stitching
+        int[] ends = new int[] { 3, 10, 1200, 1201, 2600, 4000, size };
+        int start = 0;
+        for(int end: ends) {
+            splitFiles.add(writeFile(lines.subList(start, end)));
+            start = end;
+        }
+
+        SortedScoreConfusionMatrixBuilder expected = newBuilder(20, posTags, negTags, posWeightTags, negWeightTags);
+        expected.build(oneFile, SourceType.LOCAL, false, newFirstPO(posTags, negTags, posWeightTags, negWeightTags),
+                1);
+        SortedScoreConfusionMatrixBuilder actual = newBuilder(20, posTags, negTags, posWeightTags, negWeightTags);
+        actual.build(splitFiles, SourceType.LOCAL, false, newFirstPO(posTags, negTags, posWeightTags, negWeightTags),
+                4);
+
+        Assert.assertEquals(actual.lineCnt, (long) size);
+        assertSameList(actual.FPRList, expected.FPRList);
+        assertSameList(actual.catchRateList, expected.catchRateList);
+        assertSameList(actual.gainList, expected.gainList);
+        assertSameList(actual.modelScoreList, expected.modelScoreList);
+        assertSameList(actual.FPRWeightList, expected.FPRWeightList);
+        assertSameList(actual.catchRateWeightList, expected.catchRateWeightList);
+        assertSameList(actual.gainWeightList, expected.gainWeightList);
+    }
+
+    @Test
+    public void testHistogramSameAsSorted() throws IOException {
+        Random random = new Random(4321L);
+        int size = 5000;
+        boolean[] isPositives = new boolean[size];
+        double[] weights = new double[size];
+        double[] scores = new double[size];
+        List<String> lines = new ArrayList<String>();
+        long posTags = 0L, negTags = 0L;
+        double posWeightTags = 0d, negWeightTags = 0d;
+        for(int i = 0; i < size; i++) {
+            // distinct scores in descending order
+            scores[i] = SortedScoreConfusionMatrixBuilder.roundScore((size - i - 0.5d) / size);
+            isPositives[i] = random.nextDouble() < 0.3d;
+            weights[i] = random.nextInt(5);
+            if(isPositives[i]) {
+                posTags += 1;
+                posWeightTags += weights[i];
+            } else {
+                negTags += 1;
+                negWeightTags += weights[i];
+            }
+            lines.add((isPositives[i] ? "1" : "0") + "|" + weights[i] + "|" + scores[i]);
+        }
+
+        SortedScoreConfusionMatrixBuilder expected = newBuilder(20, posTags, negTags, posWeightTags, negWeightTags);
+        expected.build(Arrays.asList(writeFile(lines)), SourceType.LOCAL, false,
+                newFirstPO(posTags, negTags, posWeightTags, negWeightTags), 1);
+
+        // one bucket per record is the same as sorted records
+        SortedScoreConfusionMatrixBuilder actual = newBuilder(20, posTags, negTags, posWeightTags, negWeightTags);
+        actual.buildFromHistogram(newHistogram(scores, isPositives, weights, 10),
+                newFirstPO(posTags, negTags, posWeightTags, negWeightTags));
+        Assert.assertEquals(actual.lineCnt, (long) size);
+        assertSameList(actual.FPRList, expected.FPRList);
+        assertSameList(actual.catchRateList, expected.catchRateList);
+        assertSameList(actual.gainList, expected.gainList);
+        assertSameList(actual.modelScoreList, expected.modelScoreList);
+        assertSameList(actual.FPRWeightList, expected.FPRWeightList);
+        assertSameList(actual.catchRateWeightList, expected.catchRateWeightList);
+        assertSameList(actual.gainWeightList, expected.gainWeightList);
+
+        // coarse buckets, a bin is off by at most the records of one bucket
+        ScoreHistogram histogram = newHistogram(scores, isPositives, weights, 2);
+        long maxBucketCount = 0L;
+        for(int i = 0; i < histogram.size(); i++) {
+            maxBucketCount = Math.max(maxBucketCount, histogram.getPosCount(i) + histogram.getNegCount(i));
+        }
+        Assert.assertTrue(maxBucketCount > 1L);
+        actual = newBuilder(20, posTags, negTags, posWeightTags, negWeightTags);
+        actual.buildFromHistogram(histogram, newFirstPO(posTags, negTags, posWeightTags, negWeightTags));
+        Assert.assertEquals(actual.lineCnt, (long) size);
+        assertCloseList(actual.FPRList, expected.FPRList, maxBucketCount);
+        assertCloseList(actual.catchRateList, expected.catchRateList, maxBucketCount);
+        assertCloseList(actual.gainList, expected.gainList, maxBucketCount);
+        assertCloseList(actual.modelScoreList, expected.modelScoreList, maxBucketCount);
+    }
+
+    private ScoreHistogram newHistogram(double[] scores, boolean[] isPositives, double[] weights, int digits) {
+        Map<Double, double[]> buckets = new LinkedHashMap<Double, double[]>();
+        for(int i = 0; i < scores.length; i++) {
+            Double bucket = ScoreHistogram.toBucket(scores[i], digits);
+            // min score, max score, pos count, neg count, pos weight, neg weight
+            double[] values = buckets.get(bucket);
+            if(values == null) {
+                values = new double[] { scores[i], scores[i], 0d, 0d, 0d, 0d };
+                buckets.put(bucket, values);
+            }
+            values[0] = Math.min(values[0], scores[i]);
+            values[1] = Math.max(values[1], scores[i]);
+            values[isPositives[i] ? 2 : 3] += 1d;
+            values[isPositives[i] ? 4 : 5] += weights[i];
+        }
+        ScoreHistogram histogram = new ScoreHistogram();
+        for(double[] values: buckets.values()) {
+            histogram.add(values[0], values[1], (long) values[2], (long) values[3], values[4], values[5]);
+        }
+        return histogram;
+    }
+
+    private void assertCloseList(List<PerformanceObject> actual, List<PerformanceObject> expected, long delta) {
+        Assert.assertEquals(actual.size(), expected.size());
+        for(int i = 0; i < actual.size(); i++) {
+            Assert.assertEquals(actual.get(i).binNum, expected.get(i).binNum);
+            Assert.assertEquals(actual.get(i).tp, expected.get(i).tp, delta);
+            Assert.assertEquals(actual.get(i).fp, expected.get(i).fp, delta);
+            Assert.assertEquals(actual.get(i).recall, expected.get(i).recall, delta / (double) expected.get(0).fn);
+            Assert.assertEquals(actual.get(i).fpr, expected.get(i).fpr, delta / (double) expected.get(0).tn);
+        }
+    }
+
+    private void assertSameList(List<PerformanceObject> actual, List<PerformanceObject> expected) {
+        Assert.assertEquals(actual.size(), expected.size());
+        for(int i = 0; i < actual.size(); i++) {
+            Assert.assertEquals(actual.get(i).binNum, expected.get(i).binNum);
+            Assert.assertEquals(actual.get(i).tp, expected.get(i).tp);
+            Assert.assertEquals(actual.get(i).fp, expected.get(i).fp);
+            Assert.assertEquals(actual.get(i).binLowestScore, expected.get(i).binLowestScore);
+            Assert.assertEquals(actual.get(i).scoreCount, expected.get(i).scoreCount);
+            Assert.assertEquals(actual.get(i).scoreWgtCount, expected.get(i).scoreWgtCount);
+        }
+    }
+
+    private SortedScoreConfusionMatrixBuilder newBuilder(int numBucket, long posTags, long negTags,
+            double posWeightTags, double negWeightTags) {
+        return new SortedScoreConfusionMatrixBuilder("|", POS_TAGS, NEG_TAGS, 0, 2, 1, numBucket, 1d, 0d,
+                SortedScoreConfusionMatrixBuilder.GBT_SCORE_NONE, 1d, 0d, 1d, posTags, negTags, posWeightTags,
+                negWeightTags);
+    }
+
+    private PerformanceObject newFirstPO(long posTags, long negTags, double posWeightTags, double negWeightTags) {
+        ConfusionMatrixObject cmo = new ConfusionMatrixObject();
+        cmo.setFn(posTags);
+        cmo.setTn(negTags);
+        cmo.setWeightedFn(posWeightTags);
+        cmo.setWeightedTn(negWeightTags);
+        cmo.setScore(1d);
+        return PerformanceEvaluator.setPerformanceObject(cmo);
+    }
+
+    private String writeFile(List<String> lines) throws IOException {
+        File file = File.createTempFile("score", ".txt");
+        file.deleteOnExit();
+        PrintWriter writer = new PrintWriter(file, "UTF-8");
+        try {
+            for(String line: lines) {
+                writer.println(line);
+            }
+        } finally {
+            writer.close();
+        }
+        return file.getPath();
+    }
+
+}
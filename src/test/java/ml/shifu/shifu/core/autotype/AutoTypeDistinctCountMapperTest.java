@@ -0,0 +1,89 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.autotype;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * AutoTypeDistinctCountMapperTest class
+ */
+public class AutoTypeDistinctCountMapperTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int CHECK_INTERVAL = 1000;
+
+    @Test
+    public void testLatePopulatedColumn() throws InterruptedException {
+        AutoTypeDistinctCountMapper mapper = newMapper();
+
+        // column 2 is blank or missing in leading records, which are over two check intervals
+        for(int i = 0; i < 5000; i++) {
+            addRecord(mapper, i % 2 + "|" + i % 3 + "|" + (i % 2 == 0 ? "" : "?"));
+        }
+        mapper.processBatch();
+        Assert.assertTrue(mapper.isStable(1));
+        Assert.assertFalse(mapper.isStable(2));
+        Assert.assertEquals(mapper.getCardinality(2), 0L);
+
+        for(int i = 5000; i < 20000; i++) {
+            addRecord(mapper, i % 2 + "|" + i % 3 + "|v" + i % 500);
+        }
+        mapper.processBatch();
+        Assert.assertTrue(mapper.isStable(2));
+        Assert.assertTrue(Math.abs(mapper.getCardinality(2) - 500L) < 75L, "" + mapper.getCardinality(2));
+    }
+
+    @Test
+    public void testMissingColumnNotStable() throws InterruptedException {
+        AutoTypeDistinctCountMapper mapper = newMapper();
+        for(int i = 0; i < 20000; i++) {
+            addRecord(mapper, i % 2 + "|" + i % 3 + "|");
+        }
+        mapper.processBatch();
+        Assert.assertTrue(mapper.isStable(0));
+        Assert.assertTrue(mapper.isStable(1));
+        // column without any value is sampled to the end
+        Assert.assertFalse(mapper.isStable(2));
+    }
+
+    @Test
+    public void testInvalidTag() throws InterruptedException {
+        AutoTypeDistinctCountMapper mapper = newMapper();
+        Assert.assertFalse(addRecord(mapper, "x|1|a"));
+        Assert.assertTrue(addRecord(mapper, "1|1|a"));
+        mapper.processBatch();
+        Assert.assertEquals(mapper.getCardinality(0), 1L);
+    }
+
+    private static AutoTypeDistinctCountMapper newMapper() {
+        AutoTypeDistinctCountMapper mapper = new AutoTypeDistinctCountMapper();
+        mapper.init(3, 0, new HashSet<String>(Arrays.asList("0", "1")), new HashSet<String>(Arrays.asList("", "?")),
+                "|", 1, CHECK_INTERVAL, 0.001d);
+        return mapper;
+    }
+
+    private static boolean addRecord(AutoTypeDistinctCountMapper mapper, String record) throws InterruptedException {
+        byte[] bytes = record.getBytes(UTF8);
+        return mapper.addRecord(bytes, bytes.length);
+    }
+
+}
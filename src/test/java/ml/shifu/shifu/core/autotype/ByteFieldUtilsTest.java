@@ -0,0 +1,55 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.autotype;
+
+import java.io.UnsupportedEncodingException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * ByteFieldUtilsTest class
+ */
+public class ByteFieldUtilsTest {
+
+    @Test
+    public void testIsNumberSameAsParseDouble() throws UnsupportedEncodingException {
+        String[] values = new String[] { "", " ", "1", "-1", "+1.", ".5", ".", "-.", "1e5", "1e", "1e+", "1E-3d",
+                "1.5f", "1.5x", " 3 ", "NaN", "-Infinity", "Inf", "0x1p3", "0x", "abc", "1,2", "1.2.3", "e5", "12d ",
+                "\t7\n", "1 2", "++1", "-", "00012", "1.e3", "\u00e91" };
+        for(String value: values) {
+            boolean isNumber = true;
+            try {
+                Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                isNumber = false;
+            }
+            byte[] bytes = ("ab" + value + "cd").getBytes("UTF-8");
+            Assert.assertEquals(ByteFieldUtils.isNumber(bytes, 2, value.getBytes("UTF-8").length), isNumber, value);
+        }
+    }
+
+    @Test
+    public void testHash64() {
+        byte[] bytes = "hello world, hello shifu".getBytes();
+        byte[] shifted = "##hello world, hello shifu".getBytes();
+        Assert.assertEquals(ByteFieldUtils.hash64(shifted, 2, bytes.length),
+                ByteFieldUtils.hash64(bytes, 0, bytes.length));
+        Assert.assertNotEquals(ByteFieldUtils.hash64(bytes, 0, bytes.length - 1),
+                ByteFieldUtils.hash64(bytes, 0, bytes.length));
+    }
+
+}
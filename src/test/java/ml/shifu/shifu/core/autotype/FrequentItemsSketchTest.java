@@ -0,0 +1,54 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.autotype;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * FrequentItemsSketchTest class
+ */
+public class FrequentItemsSketchTest {
+
+    @Test
+    public void testHeavyHitters() {
+        FrequentItemsSketch sketch = new FrequentItemsSketch(3);
+        Random random = new Random(1L);
+        for(int i = 0; i < 10000; i++) {
+            String value = random.nextDouble() < 0.5d ? "A" : (random.nextDouble() < 0.5d ? "B" : "u" + i);
+            byte[] bytes = value.getBytes();
+            sketch.offer(ByteFieldUtils.hash64(bytes, 0, bytes.length), bytes, 0, bytes.length);
+        }
+        Assert.assertTrue(sketch.size() <= 3);
+        // values over 1/4 frequency are kept and ordered by counter
+        Assert.assertEquals(sketch.getItems().toArray(new String[0])[0], "A");
+        Assert.assertTrue(sketch.getItems().contains("B"));
+    }
+
+    @Test
+    public void testSmallDistinctValues() {
+        FrequentItemsSketch sketch = new FrequentItemsSketch(20);
+        for(int i = 0; i < 100; i++) {
+            sketch.offer(i % 2, Integer.toString(i % 2));
+        }
+        Assert.assertEquals(sketch.getItems(), new HashSet<String>(Arrays.asList("0", "1")));
+    }
+
+}
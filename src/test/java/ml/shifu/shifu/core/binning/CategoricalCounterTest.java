@@ -0,0 +1,61 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.binning;
+
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CategoricalCounterTest {
+
+    @Test
+    public void testExactCountsAfterMerge() {
+        CategoricalCounter c1 = new CategoricalCounter(10);
+        c1.add("a", 1L, 0L, 1d, 0d);
+        c1.add("b", 0L, 1L, 0d, 2d);
+        c1.addMissing(1L, 0L, 1d, 0d);
+        CategoricalCounter c2 = new CategoricalCounter(10);
+        c2.add("b", 1L, 0L, 1d, 0d);
+        c2.add("c", 0L, 1L, 0d, 1d);
+
+        BinningInfoWritable info = new BinningInfoWritable();
+        c2.fill(info);
+        c1.merge(info);
+
+        Assert.assertEquals(c1.getCategories(), Arrays.asList("a", "b", "c"));
+        Assert.assertTrue(Arrays.equals(c1.getBinCountPos(), new long[] { 1L, 1L, 0L, 1L }));
+        Assert.assertTrue(Arrays.equals(c1.getBinCountNeg(), new long[] { 0L, 1L, 1L, 0L }));
+        Assert.assertTrue(Arrays.equals(c1.getBinWeightNeg(), new double[] { 0d, 2d, 1d, 0d }));
+        Assert.assertFalse(c1.isOverflow());
+    }
+
+    @Test
+    public void testOverflowNotCountedAsMissing() {
+        CategoricalCounter counter = new CategoricalCounter(3);
+        for(int i = 0; i < 10; i++) {
+            counter.add("c" + i, 1L, 0L, 1d, 0d);
+        }
+        Assert.assertTrue(counter.isOverflow());
+        // max size + 1 categories are kept, so reducer can tell the column is over max category size
+        Assert.assertEquals(counter.size(), 4);
+        Assert.assertEquals(counter.getBinCountPos()[counter.size()], 0L);
+        // existing categories are still counted exactly
+        Assert.assertTrue(counter.add("c0", 1L, 0L, 1d, 0d));
+        Assert.assertEquals(counter.getBinCountPos()[0], 2L);
+    }
+
+}
@@ -177,4 +177,30 @@ public class EqualPopulationBinningTest {
         Assert.assertTrue(fieldArr.length == 5);
     }
 
+    @Test
+    public void testUniformQuantiles() {
+        Random rd = new Random(1234L);
+        EqualPopulationBinning binning = new EqualPopulationBinning(10);
+        EqualPopulationBinning merged = new EqualPopulationBinning(10);
+        EqualPopulationBinning partial = new EqualPopulationBinning(10);
+        for ( int i = 0; i < 200000; i ++ ) {
+            double val = rd.nextDouble() * 1000d;
+            binning.addData(val);
+            partial.addData(val);
+            if ( (i + 1) % 50000 == 0 ) {
+                merged.mergeBin(partial);
+                partial = new EqualPopulationBinning(10);
+            }
+        }
+
+        List<Double> bins = binning.getDataBin();
+        List<Double> mergedBins = merged.getDataBin();
+        Assert.assertEquals(bins.size(), 10);
+        Assert.assertEquals(mergedBins.size(), 10);
+        for ( int i = 1; i < 10; i ++ ) {
+            Assert.assertEquals(bins.get(i), i * 100d, 5d);
+            Assert.assertEquals(mergedBins.get(i), i * 100d, 5d);
+        }
+    }
+
 }
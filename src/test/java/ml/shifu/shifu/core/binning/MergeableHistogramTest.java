@@ -0,0 +1,138 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.binning;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import ml.shifu.shifu.container.obj.ModelStatsConf.BinningMethod;
+import ml.shifu.shifu.util.BinUtils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MergeableHistogramTest {
+
+    private static final int RECORDS = 100000;
+
+    /**
+     * Values 0 to RECORDS - 1 in random order, values over half are positive, split into 4 partial histograms.
+     */
+    private MergeableHistogram buildMergedHistogram() {
+        List<Integer> values = new ArrayList<Integer>(RECORDS);
+        for(int i = 0; i < RECORDS; i++) {
+            values.add(i);
+        }
+        Collections.shuffle(values, new Random(1L));
+
+        MergeableHistogram merged = new MergeableHistogram(200);
+        for(int p = 0; p < 4; p++) {
+            MergeableHistogram partial = new MergeableHistogram(200);
+            for(int i = p * RECORDS / 4; i < (p + 1) * RECORDS / 4; i++) {
+                int value = values.get(i);
+                partial.add(value, value >= RECORDS / 2, 2d);
+            }
+            merged.merge(partial);
+        }
+        return merged;
+    }
+
+    @Test
+    public void testEqualTotal() {
+        MergeableHistogram histogram = buildMergedHistogram();
+        Assert.assertTrue(histogram.getCentroidSize() <= 2 * 200 + 1);
+
+        List<Double> boundaries = histogram.getBinBoundaries(10, BinningMethod.EqualTotal);
+        Assert.assertEquals(boundaries.size(), 10);
+        Assert.assertEquals(boundaries.get(0).doubleValue(), Double.NEGATIVE_INFINITY);
+        for(int i = 1; i < boundaries.size(); i++) {
+            Assert.assertEquals(boundaries.get(i).doubleValue(), i * RECORDS / 10d, RECORDS * 0.01d);
+        }
+
+        long[] countPos = new long[boundaries.size() + 1];
+        long[] countNeg = new long[boundaries.size() + 1];
+        double[] weightPos = new double[boundaries.size() + 1];
+        double[] weightNeg = new double[boundaries.size() + 1];
+        histogram.fillBins(boundaries, countPos, countNeg, weightPos, weightNeg);
+        long total = 0L;
+        for(int i = 0; i < boundaries.size(); i++) {
+            long count = countPos[i] + countNeg[i];
+            Assert.assertEquals(count, RECORDS / 10d, RECORDS * 0.02d);
+            Assert.assertEquals(weightPos[i] + weightNeg[i], 2d * count, 1e-6);
+            total += count;
+        }
+        Assert.assertEquals(total, RECORDS);
+        Assert.assertEquals(countPos[countPos.length - 1], 0L);
+    }
+
+    @Test
+    public void testEqualPositive() {
+        List<Double> boundaries = buildMergedHistogram().getBinBoundaries(5, BinningMethod.EqualPositive);
+        Assert.assertEquals(boundaries.size(), 5);
+        for(int i = 1; i < boundaries.size(); i++) {
+            Assert.assertEquals(boundaries.get(i).doubleValue(), RECORDS / 2d + i * RECORDS / 10d, RECORDS * 0.01d);
+        }
+    }
+
+    @Test
+    public void testEqualInterval() {
+        List<Double> boundaries = buildMergedHistogram().getBinBoundaries(4, BinningMethod.EqualInterval);
+        Assert.assertEquals(boundaries.size(), 4);
+        Assert.assertEquals(boundaries.get(2).doubleValue(), (RECORDS - 1) / 2d, 1e-6);
+    }
+
+    @Test
+    public void testHeavyValue() {
+        MergeableHistogram histogram = new MergeableHistogram(50);
+        for(int i = 0; i < 10000; i++) {
+            histogram.add(i % 2 == 0 ? 5d : i, true, 1d);
+        }
+        List<Double> boundaries = histogram.getBinBoundaries(10, BinningMethod.EqualTotal);
+        // half values are 5, all of them should be in one bin
+        long[] countPos = new long[boundaries.size() + 1];
+        histogram.fillBins(boundaries, countPos, new long[countPos.length], new double[countPos.length],
+                new double[countPos.length]);
+        Assert.assertTrue(countPos[BinUtils.getBinIndex(boundaries, 5d)] >= 5000);
+        // bins covered by the heavy value are collapsed
+        Assert.assertTrue(boundaries.size() < 10);
+        for(int i = 1; i < boundaries.size(); i++) {
+            Assert.assertTrue(boundaries.get(i).doubleValue() > boundaries.get(i - 1).doubleValue());
+        }
+    }
+
+    @Test
+    public void testSerialization() throws IOException {
+        MergeableHistogram histogram = buildMergedHistogram();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        histogram.write(new DataOutputStream(bytes));
+
+        MergeableHistogram copy = new MergeableHistogram();
+        copy.readFields(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        Assert.assertEquals(copy.getCentroidSize(), histogram.getCentroidSize());
+        Assert.assertEquals(copy.getMin(), 0d);
+        Assert.assertEquals(copy.getMax(), RECORDS - 1d);
+        Assert.assertEquals(copy.getBinBoundaries(10, BinningMethod.WeightEqualTotal),
+                histogram.getBinBoundaries(10, BinningMethod.WeightEqualTotal));
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.binning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+import ml.shifu.shifu.container.obj.ColumnConfig;
+import ml.shifu.shifu.container.obj.ColumnType;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class StatsColumnPlannerTest {
+
+    private ColumnConfig newColumnConfig(ColumnType type) {
+        ColumnConfig config = new ColumnConfig();
+        config.setColumnType(type);
+        return config;
+    }
+
+    @Test
+    public void testColumnCosts() {
+        List<ColumnConfig> columnConfigList = new ArrayList<ColumnConfig>();
+        columnConfigList.add(newColumnConfig(ColumnType.N));
+        columnConfigList.add(newColumnConfig(ColumnType.C));
+        columnConfigList.add(newColumnConfig(ColumnType.C));
+
+        StatsColumnPlanner planner = new StatsColumnPlanner(columnConfigList, Arrays.asList(new String[] { "", "?" }));
+        for(int i = 0; i < 5000; i++) {
+            String line = i + "|" + (i % 10) + "|" + (i % 3 == 0 ? "?" : "id" + i);
+            planner.addSample(line.split("\\|", -1), line.length() + 1);
+        }
+        Assert.assertEquals(planner.getSampleCount(), 5000L);
+        planner.setDataSize(5000L * 1000);
+
+        Assert.assertEquals(planner.estimateCardinality(1), 10L);
+        // unique values saturate tracking and are estimated by distinct ratio of non-missing values
+        long idCardinality = planner.estimateCardinality(2);
+        Assert.assertTrue(idCardinality > 100000L, "cardinality " + idCardinality);
+
+        double[] costs = planner.getColumnCosts();
+        Assert.assertEquals(costs[0], 1d);
+        Assert.assertEquals(costs[1], 1.01d, 1e-6);
+        Assert.assertTrue(costs[2] > 100d);
+    }
+
+    @Test
+    public void testAssignPartitions() {
+        double[] costs = new double[] { 1d, 1d, 10d, 1d, 1d, 5d, 1d, 1d, 1d, 4d };
+        int[] partitions = StatsColumnPlanner.assignPartitions(costs, 3);
+        double[] loads = new double[3];
+        for(int i = 0; i < costs.length; i++) {
+            loads[partitions[i]] += costs[i];
+        }
+        Arrays.sort(loads);
+        // the heaviest column takes one reducer alone, others are balanced
+        Assert.assertEquals(loads[2], 10d);
+        Assert.assertEquals(loads[0], 8d);
+        Assert.assertEquals(loads[1], 8d);
+
+        Assert.assertEquals(StatsColumnPlanner.getReducerNum(costs, 5d, 999), 6);
+        Assert.assertEquals(StatsColumnPlanner.getReducerNum(costs, 5d, 4), 4);
+        Assert.assertEquals(StatsColumnPlanner.getReducerNum(new double[0], 5d, 4), 1);
+    }
+
+    @Test
+    public void testEncoding() {
+        int[] partitions = new int[] { 3, 0, 2, 1 };
+        Assert.assertTrue(Arrays.equals(
+                StatsColumnPlanner.decodePartitions(StatsColumnPlanner.encodePartitions(partitions)), partitions));
+        Assert.assertNull(StatsColumnPlanner.decodePartitions(""));
+
+
+        double[] expanded = StatsColumnPlanner.expandCosts(new double[] { 1d, 2d }, 2);
+        Assert.assertEquals(expanded.length, 6);
+        Assert.assertEquals(expanded[5], 2d);
+    }
+
+    @Test
+    public void testMissingValuesLowerCase() {
+        List<ColumnConfig> columnConfigList = new ArrayList<ColumnConfig>();
+        columnConfigList.add(newColumnConfig(ColumnType.C));
+        StatsColumnPlanner planner = new StatsColumnPlanner(columnConfigList, Arrays.asList(new String[] { "na" }));
+        planner.addSample(new String[] { "NA" }, 3);
+        planner.addSample(new String[] { "Na" }, 3);
+        planner.addSample(new String[] { "a" }, 2);
+        // missing values are checked on lower case values like stats mapper
+        Assert.assertEquals(planner.estimateCardinality(0), 1L);
+    }
+
+    @Test
+    public void testReservoirSample() {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < 1000; i++) {
+            sb.append(i).append('\n');
+        }
+        List<String> sample = StatsColumnPlanner.reservoirSample(
+                Arrays.asList(new Scanner(sb.toString()), new Scanner("1000\n1001\n")), 100, 2000, new Random(1L));
+        Assert.assertEquals(sample.size(), 100);
+        int tail = 0;
+        for(String line: sample) {
+            if(Integer.parseInt(line) >= 500) {
+                tail++;
+            }
+        }
+        // not only head lines are sampled
+        Assert.assertTrue(tail > 20, "tail " + tail);
+
+        sample = StatsColumnPlanner.reservoirSample(Arrays.asList(new Scanner(sb.toString())), 100, 100,
+                new Random(1L));
+        Assert.assertEquals(sample.get(99), "99");
+    }
+
+}
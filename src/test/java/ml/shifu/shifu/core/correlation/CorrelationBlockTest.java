@@ -0,0 +1,152 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.correlation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * CorrelationBlockTest class
+ */
+public class CorrelationBlockTest {
+
+    private static final int COLUMNS = 45;
+
+    private static final int ROWS = 301;
+
+    @Test
+    public void testSameAsPerPair() {
+        double[][] records = newRecords(COLUMNS, ROWS, 1234L);
+        boolean[] isRowColumns = new boolean[COLUMNS];
+        boolean[] isPairColumns = new boolean[COLUMNS];
+        Arrays.fill(isRowColumns, true);
+        Arrays.fill(isPairColumns, true);
+        // meta column, and target column which is only other column in pairs
+        isRowColumns[3] = isPairColumns[3] = false;
+        isRowColumns[0] = false;
+
+        for(boolean isComputeAll: new boolean[] { false, true }) {
+            // block sizes less than, equal to and not dividing record count
+            for(int blockSize: new int[] { 1, 64, 128, ROWS, 1000 }) {
+                CorrelationWritable[] expected = perPair(records, isRowColumns, isPairColumns, isComputeAll);
+                CorrelationWritable[] actual = newCorrelations(isRowColumns, 0, COLUMNS);
+                CorrelationBlock block = new CorrelationBlock(isRowColumns, isPairColumns, 0, COLUMNS, blockSize,
+                        isComputeAll);
+                for(double[] record: records) {
+                    block.add(record);
+                    if(block.isFull()) {
+                        block.accumulate(actual);
+                    }
+                }
+                if(!block.isEmpty()) {
+                    block.accumulate(actual);
+                }
+                assertSameCorrelations(actual, expected);
+            }
+        }
+    }
+
+    /**
+     * Pair sums like {@link FastCorrelationMapper} before block-wise accumulation, record by record and pair by pair.
+     */
+    static CorrelationWritable[] perPair(double[][] records, boolean[] isRowColumns, boolean[] isPairColumns,
+            boolean isComputeAll) {
+        CorrelationWritable[] correlations = newCorrelations(isRowColumns, 0, isRowColumns.length);
+        for(double[] dValues: records) {
+            for(int i = 0; i < dValues.length; i++) {
+                if(!isRowColumns[i]) {
+                    continue;
+                }
+                CorrelationWritable cw = correlations[i];
+                for(int j = (isComputeAll ? 0 : i); j < dValues.length; j++) {
+                    if(!isPairColumns[j]) {
+                        continue;
+                    }
+                    if(dValues[i] != Double.MIN_VALUE && dValues[j] != Double.MIN_VALUE) {
+                        cw.getXySum()[j] += dValues[i] * dValues[j];
+                        cw.getXxSum()[j] += dValues[i] * dValues[i];
+                        cw.getYySum()[j] += dValues[j] * dValues[j];
+                        cw.getAdjustCount()[j] += 1d;
+                        cw.getAdjustSumX()[j] += dValues[i];
+                        cw.getAdjustSumY()[j] += dValues[j];
+                    }
+                }
+            }
+        }
+        return correlations;
+    }
+
+    /**
+     * Random records with about 10% invalid values.
+     */
+    static double[][] newRecords(int columns, int rows, long seed) {
+        Random random = new Random(seed);
+        double[][] records = new double[rows][columns];
+        for(double[] record: records) {
+            for(int i = 0; i < columns; i++) {
+                record[i] = random.nextDouble() < 0.1d ? Double.MIN_VALUE : random.nextInt(1000) / 10d - 50d;
+            }
+        }
+        return records;
+    }
+
+    static CorrelationWritable[] newCorrelations(boolean[] isRowColumns, int pairOffset, int pairSize) {
+        CorrelationWritable[] correlations = new CorrelationWritable[isRowColumns.length];
+        for(int i = 0; i < isRowColumns.length; i++) {
+            if(isRowColumns[i]) {
+                CorrelationWritable cw = new CorrelationWritable();
+                cw.setColumnIndex(i);
+                cw.setPairOffset(pairOffset);
+                cw.setXySum(new double[pairSize]);
+                cw.setXxSum(new double[pairSize]);
+                cw.setYySum(new double[pairSize]);
+                cw.setAdjustCount(new double[pairSize]);
+                cw.setAdjustSumX(new double[pairSize]);
+                cw.setAdjustSumY(new double[pairSize]);
+                correlations[i] = cw;
+            }
+        }
+        return correlations;
+    }
+
+    static void assertSameCorrelations(CorrelationWritable[] actual, CorrelationWritable[] expected) {
+        Assert.assertEquals(actual.length, expected.length);
+        for(int i = 0; i < actual.length; i++) {
+            if(expected[i] == null) {
+                Assert.assertNull(actual[i]);
+                continue;
+            }
+            // values are multiples of 0.1, sums only differ by rounding of summation order
+            assertSameArray(actual[i].getXySum(), expected[i].getXySum());
+            assertSameArray(actual[i].getXxSum(), expected[i].getXxSum());
+            assertSameArray(actual[i].getYySum(), expected[i].getYySum());
+            assertSameArray(actual[i].getAdjustCount(), expected[i].getAdjustCount());
+            assertSameArray(actual[i].getAdjustSumX(), expected[i].getAdjustSumX());
+            assertSameArray(actual[i].getAdjustSumY(), expected[i].getAdjustSumY());
+        }
+    }
+
+    private static void assertSameArray(double[] actual, double[] expected) {
+        Assert.assertEquals(actual.length, expected.length);
+        for(int i = 0; i < actual.length; i++) {
+            Assert.assertEquals(actual[i], expected[i], 1e-6 * Math.max(1d, Math.abs(expected[i])));
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.correlation;
+
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * CorrelationTileInputFormatTest class
+ */
+public class CorrelationTileInputFormatTest {
+
+    private static final int[] COLUMN_SIZES = new int[] { 1, 2, 5, 7, 10, 33, 64 };
+
+    private static final int[] GROUPS = new int[] { 1, 2, 3, 4, 7, 9 };
+
+    @Test
+    public void testTilesCoverPairsOnce() {
+        for(boolean isComputeAll: new boolean[] { false, true }) {
+            for(int columnSize: COLUMN_SIZES) {
+                for(int groups: GROUPS) {
+                    int[][] covered = new int[columnSize][columnSize];
+                    int tiles = CorrelationTileInputFormat.getTileNum(groups, isComputeAll);
+                    for(int tile = 0; tile < tiles; tile++) {
+                        int[] range = getTileRange(tile, groups, columnSize, isComputeAll);
+                        for(int i = range[0]; i < range[1]; i++) {
+                            for(int j = range[2]; j < range[3]; j++) {
+                                if(isComputeAll || j >= i) {
+                                    covered[i][j] += 1;
+                                }
+                            }
+                        }
+                    }
+                    String message = "columns " + columnSize + ", groups " + groups + ", all " + isComputeAll;
+                    for(int i = 0; i < columnSize; i++) {
+                        for(int j = 0; j < columnSize; j++) {
+                            Assert.assertEquals(covered[i][j], (isComputeAll || i <= j) ? 1 : 0,
+                                    message + ", pair (" + i + ", " + j + ")");
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTileGroups() {
+        // tiles are ordered by row group and then by other group
+        Assert.assertEquals(CorrelationTileInputFormat.getTileGroups(0, 3, false), new int[] { 0, 0 });
+        Assert.assertEquals(CorrelationTileInputFormat.getTileGroups(2, 3, false), new int[] { 0, 2 });
+        Assert.assertEquals(CorrelationTileInputFormat.getTileGroups(3, 3, false), new int[] { 1, 1 });
+        Assert.assertEquals(CorrelationTileInputFormat.getTileGroups(5, 3, false), new int[] { 2, 2 });
+        Assert.assertEquals(CorrelationTileInputFormat.getTileGroups(5, 3, true), new int[] { 1, 2 });
+        Assert.assertEquals(CorrelationTileInputFormat.getTileGroups(8, 3, true), new int[] { 2, 2 });
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testTileOutOfRange() {
+        CorrelationTileInputFormat.getTileGroups(6, 3, false);
+    }
+
+    @Test
+    public void testTiledSumsCombined() {
+        double[][] records = CorrelationBlockTest.newRecords(33, 150, 4321L);
+        int columnSize = 33;
+        boolean[] allColumns = new boolean[columnSize];
+        Arrays.fill(allColumns, true);
+        for(boolean isComputeAll: new boolean[] { false, true }) {
+            CorrelationWritable[] expected = CorrelationBlockTest.perPair(records, allColumns, allColumns,
+                    isComputeAll);
+            for(int groups: new int[] { 1, 2, 3, 4 }) {
+                CorrelationWritable[] combined = new CorrelationWritable[columnSize];
+                int tiles = CorrelationTileInputFormat.getTileNum(groups, isComputeAll);
+                for(int tile = 0; tile < tiles; tile++) {
+                    // pair stats of one tile like FastCorrelationMapper with tile split
+                    int[] range = getTileRange(tile, groups, columnSize, isComputeAll);
+                    boolean[] isRowColumns = new boolean[columnSize];
+                    boolean[] isPairColumns = new boolean[columnSize];
+                    Arrays.fill(isRowColumns, range[0], range[1], true);
+                    Arrays.fill(isPairColumns, range[2], range[3], true);
+                    int pairSize = range[3] - range[2];
+                    CorrelationWritable[] partial = CorrelationBlockTest.newCorrelations(isRowColumns, range[2],
+                            pairSize);
+                    CorrelationBlock block = new CorrelationBlock(isRowColumns, isPairColumns, range[2], pairSize, 64,
+                            isComputeAll);
+                    for(double[] record: records) {
+                        block.add(record);
+                        if(block.isFull()) {
+                            block.accumulate(partial);
+                        }
+                    }
+                    block.accumulate(partial);
+
+                    // trimmed like FastCorrelationMapper output, merged into full width instances like CorrelationReducer
+                    for(int i = range[0]; i < range[1]; i++) {
+                        if(!isComputeAll) {
+                            partial[i].trimPairs(i);
+                        }
+                        if(combined[i] == null) {
+                            combined[i] = CorrelationBlockTest.newCorrelations(new boolean[] { true }, 0,
+                                    columnSize)[0];
+                            combined[i].setColumnIndex(i);
+                        }
+                        combined[i].combine(partial[i]);
+                    }
+                }
+                CorrelationBlockTest.assertSameCorrelations(combined, expected);
+            }
+        }
+    }
+
+    /**
+     * @return row column range and other column range of the tile, as [rowStart, rowEnd, pairStart, pairEnd)
+     */
+    private int[] getTileRange(int tile, int groups, int columnSize, boolean isComputeAll) {
+        int[] tileGroups = CorrelationTileInputFormat.getTileGroups(tile, groups, isComputeAll);
+        return new int[] { CorrelationTileInputFormat.getGroupStart(tileGroups[0], groups, columnSize),
+                CorrelationTileInputFormat.getGroupStart(tileGroups[0] + 1, groups, columnSize),
+                CorrelationTileInputFormat.getGroupStart(tileGroups[1], groups, columnSize),
+                CorrelationTileInputFormat.getGroupStart(tileGroups[1] + 1, groups, columnSize) };
+    }
+
+}
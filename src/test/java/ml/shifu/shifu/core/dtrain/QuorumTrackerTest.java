@@ -0,0 +1,81 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dtrain;
+
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * QuorumTrackerTest class
+ */
+public class QuorumTrackerTest {
+
+    @Test
+    public void testScale() {
+        QuorumTracker tracker = new QuorumTracker(4, true, 1.5d, 10);
+        for(int i = 0; i < 4; i++) {
+            tracker.add(newStats("w" + i, 100L));
+        }
+        Assert.assertEquals(tracker.finish(2), 1d);
+
+        for(int i = 0; i < 3; i++) {
+            tracker.add(newStats("w" + i, 100L));
+        }
+        Assert.assertEquals(tracker.finish(3), 4d / 3d, 1e-9);
+
+        // combined results count all workers in them
+        QuorumStats combined = newStats("w0", 100L);
+        combined.combine(newStats("w1", 300L));
+        tracker.add(combined);
+        tracker.add(newStats("w2", 100L));
+        Assert.assertEquals(tracker.finish(4), 4d / 3d, 1e-9);
+        Assert.assertEquals(combined.getWorkerCount(), 2);
+        Assert.assertEquals(combined.getSlowestWorker(), "w1");
+
+        QuorumTracker noReweight = new QuorumTracker(4, false, 1.5d, 10);
+        noReweight.add(newStats("w0", 100L));
+        Assert.assertEquals(noReweight.finish(2), 1d);
+    }
+
+    @Test
+    public void testStragglers() {
+        QuorumTracker tracker = new QuorumTracker(4, true, 1.5d, 10);
+        for(int iteration = 2; iteration < 12; iteration++) {
+            tracker.add(newStats("w0", 100L));
+            tracker.add(newStats("w1", 110L));
+            tracker.add(newStats("w2", 400L));
+            // w3 is only reported in the first iteration
+            if(iteration == 2) {
+                tracker.add(newStats("w3", 100L));
+            }
+            tracker.finish(iteration);
+        }
+
+        List<String> stragglers = tracker.getStragglers();
+        Assert.assertEquals(stragglers.size(), 2);
+        Assert.assertTrue(stragglers.get(0).startsWith("w2:400:"));
+        Assert.assertEquals(stragglers.get(1), "w3:100:9");
+    }
+
+    private QuorumStats newStats(String worker, long computeTime) {
+        QuorumStats stats = new QuorumStats();
+        stats.setWorker(worker, computeTime);
+        return stats;
+    }
+
+}
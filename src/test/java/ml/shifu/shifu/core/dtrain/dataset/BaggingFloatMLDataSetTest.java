@@ -0,0 +1,54 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dtrain.dataset;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * BaggingFloatMLDataSetTest class
+ */
+public class BaggingFloatMLDataSetTest {
+
+    @Test
+    public void testBagSignificance() {
+        int bags = 3;
+        BasicFloatMLDataSet data = new BasicFloatMLDataSet();
+        byte[] sampleWeights = new byte[10 * bags];
+        for(int i = 0; i < 10; i++) {
+            FloatMLDataPair pair = new BasicFloatMLDataPair(new BasicFloatMLData(new float[] { i, i * 2f }),
+                    new BasicFloatMLData(new float[] { i % 2 }));
+            pair.setSignificance(i % 3 == 0 ? 2f : 1f);
+            data.add(pair);
+            for(int j = 0; j < bags; j++) {
+                sampleWeights[i * bags + j] = (byte) ((i + j) % 3);
+            }
+        }
+
+        for(int j = 0; j < bags; j++) {
+            FloatMLDataSet bagData = new BaggingFloatMLDataSet(data, sampleWeights, bags, j);
+            Assert.assertEquals(bagData.getRecordCount(), 10L);
+            FloatMLDataPair pair = BasicFloatMLDataPair.createPair(bagData.getInputSize(), bagData.getIdealSize());
+            for(int i = 0; i < 10; i++) {
+                bagData.getRecord(i, pair);
+                Assert.assertEquals(pair.getInputArray()[1], i * 2f);
+                Assert.assertEquals(pair.getIdealArray()[0], (float) (i % 2));
+                Assert.assertEquals(pair.getSignificance(), (i % 3 == 0 ? 2f : 1f) * ((i + j) % 3));
+            }
+        }
+    }
+
+}
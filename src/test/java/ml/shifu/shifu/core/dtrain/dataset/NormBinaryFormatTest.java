@@ -0,0 +1,265 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dtrain.dataset;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import ml.shifu.shifu.udf.NormalizeUDF;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Splitter;
+
+public class NormBinaryFormatTest {
+
+    private static final int RECORDS = 1000;
+
+    private File tmpFile = new File("target/NormBinaryFormatTest.snb");
+
+    private List<Object> buildRecord(int i) {
+        List<Object> fields = new ArrayList<Object>();
+        fields.add(i % 2);
+        fields.add(i * 0.5f);
+        fields.add(i % 7 == 0 ? null : "cat" + i);
+        fields.add(i * 1.5d);
+        // switch to int type in the middle to start a new type run
+        fields.add(i < RECORDS / 2 ? i : i + 100000);
+        fields.add(1f);
+        return fields;
+    }
+
+    private void writeFile(boolean isCompress) throws IOException {
+        writeFile(isCompress, RECORDS, 512);
+    }
+
+    private void writeFile(boolean isCompress, int records, int blockSize) throws IOException {
+        NormBinaryWriter writer = new NormBinaryWriter(new FileOutputStream(tmpFile), false, isCompress, blockSize);
+        try {
+            for(int i = 0; i < records; i++) {
+                writer.write(buildRecord(i));
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private List<Integer> readSplits(int splitCount) throws IOException {
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        Path path = new Path(tmpFile.getAbsolutePath());
+        long length = fs.getFileStatus(path).getLen();
+        long splitSize = length / splitCount + 1;
+
+        List<Integer> targets = new ArrayList<Integer>();
+        NormRecord record = new NormRecord(null, true);
+        Text text = new Text();
+        for(long start = 0; start < length; start += splitSize) {
+            NormBinaryReader reader = new NormBinaryReader(fs.open(path), start, Math.min(splitSize, length - start));
+            try {
+                while(reader.nextRecord()) {
+                    text.set(reader.getRecordBytes(), 0, reader.getRecordLength());
+                    record.parse(text);
+                    int i = (int) (record.getFloat(1, 0f) * 2);
+                    List<Object> expected = buildRecord(i);
+                    Assert.assertEquals(record.size(), expected.size());
+                    Assert.assertEquals(record.getFloat(0, -1f), (float) (i % 2));
+                    Assert.assertEquals(record.getFloat(1, -1f), i * 0.5f);
+                    Assert.assertEquals(record.getString(2), expected.get(2) == null ? "" : expected.get(2));
+                    Assert.assertEquals(record.isEmpty(2), expected.get(2) == null);
+                    Assert.assertEquals(record.getDouble(4, -1d), ((Integer) expected.get(4)).doubleValue());
+                    Assert.assertEquals(record.getFloat(5, -1f), 1f);
+                    targets.add(i);
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return targets;
+    }
+
+    @Test
+    public void testReadWithSplits() throws IOException {
+        for(boolean isCompress: new boolean[] { false, true }) {
+            writeFile(isCompress);
+            for(int splitCount: new int[] { 1, 3, 17 }) {
+                List<Integer> targets = readSplits(splitCount);
+                Assert.assertEquals(targets.size(), RECORDS);
+                for(int i = 0; i < RECORDS; i++) {
+                    Assert.assertEquals(targets.get(i).intValue(), i);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReadWithSplitsOfLargeFile() throws IOException {
+        // file is much larger than one buffer of sync marker scanning
+        int records = 20000;
+        writeFile(false, records, 4096);
+        for(int splitCount: new int[] { 2, 7, 30 }) {
+            List<Integer> targets = readSplits(splitCount);
+            Assert.assertEquals(targets.size(), records);
+            for(int i = 0; i < records; i++) {
+                Assert.assertEquals(targets.get(i).intValue(), i);
+            }
+        }
+    }
+
+    @Test
+    public void testTypeRunsInOneBlock() throws IOException {
+        NormBinaryWriter writer = new NormBinaryWriter(new FileOutputStream(tmpFile), false, false);
+        try {
+            for(int i = 0; i < 100; i++) {
+                // field types change on every record
+                writer.write(Arrays.asList(new Object[] { i % 2 == 0 ? 1 : 100000, i % 3 == 0 ? null : "v" + i }));
+            }
+        } finally {
+            writer.close();
+        }
+
+        // sync marker in file header and at start of the only block
+        byte[] bytes = FileUtils.readFileToByteArray(tmpFile);
+        byte[] sync = Arrays.copyOfRange(bytes, NormBinaryFormat.MAGIC.length + 1,
+                NormBinaryFormat.MAGIC.length + 1 + NormBinaryFormat.SYNC_SIZE);
+        int syncCount = 0;
+        for(int i = 0; i <= bytes.length - sync.length; i++) {
+            if(Arrays.equals(Arrays.copyOfRange(bytes, i, i + sync.length), sync)) {
+                syncCount += 1;
+            }
+        }
+        Assert.assertEquals(syncCount, 2);
+
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        Path path = new Path(tmpFile.getAbsolutePath());
+        NormBinaryReader reader = new NormBinaryReader(fs.open(path), 0L, fs.getFileStatus(path).getLen());
+        try {
+            NormRecord record = new NormRecord(null, true);
+            for(int i = 0; i < 100; i++) {
+                Assert.assertTrue(reader.nextRecord());
+                record.parseBinary(reader.getRecordBytes(), reader.getRecordLength());
+                Assert.assertEquals(record.getDouble(0, -1d), i % 2 == 0 ? 1d : 100000d);
+                Assert.assertEquals(record.getString(1), i % 3 == 0 ? "" : "v" + i);
+            }
+            Assert.assertFalse(reader.nextRecord());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testHashCodeSameAsText() throws IOException {
+        List<Object> fields = Arrays.asList(new Object[] { 1, 0.35f, null, "abc", 2.5d, 100000,
+                NormalizeUDF.toFloat(NormalizeUDF.fromFloat(-2.3f)) });
+        NormBinaryWriter writer = new NormBinaryWriter(new FileOutputStream(tmpFile), false, false);
+        try {
+            writer.write(fields);
+        } finally {
+            writer.close();
+        }
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        Path path = new Path(tmpFile.getAbsolutePath());
+        NormBinaryReader reader = new NormBinaryReader(fs.open(path), 0L, fs.getFileStatus(path).getLen());
+        NormRecord binary = new NormRecord(null, true);
+        try {
+            Assert.assertTrue(reader.nextRecord());
+            binary.parseBinary(reader.getRecordBytes(), reader.getRecordLength());
+        } finally {
+            reader.close();
+        }
+
+        // the same line as pig text output
+        StringBuilder line = new StringBuilder();
+        for(Object field: fields) {
+            line.append(line.length() == 0 ? "" : "|").append(field == null ? "" : field.toString());
+        }
+        NormRecord text = new NormRecord(Splitter.on("|"));
+        text.parse(new Text(line.toString()));
+
+        Assert.assertEquals(binary.size(), text.size());
+        for(int i = 0; i < fields.size(); i++) {
+            Assert.assertEquals(binary.hashCode(i), text.hashCode(i));
+        }
+    }
+
+    @Test
+    public void testFileFormat() {
+        NormBinaryFormat.checkFileFormat("/norm/part-m-00000.snb", true);
+        NormBinaryFormat.checkFileFormat("/norm/part-m-00000.gz", false);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testFileFormatMismatch() {
+        NormBinaryFormat.checkFileFormat("/norm/part-m-00000.gz", true);
+    }
+
+    @Test
+    public void testTextRecord() {
+        NormRecord record = new NormRecord(Splitter.on("|"));
+        record.parse(new Text("1|0.25||abc|NaN"));
+        Assert.assertEquals(record.size(), 5);
+        Assert.assertEquals(record.getFloat(0, 0f), 1f);
+        Assert.assertEquals(record.getDouble(1, 0d), 0.25d);
+        Assert.assertTrue(record.isEmpty(2));
+        Assert.assertEquals(record.getFloat(2, 1f), 1f);
+        Assert.assertEquals(record.getString(3), "abc");
+        Assert.assertEquals(record.hashCode(3), "abc".hashCode());
+        Assert.assertTrue(Float.isNaN(record.getFloat(4, 0f)));
+    }
+
+    @Test
+    public void testHalfPrecision() throws IOException {
+        NormBinaryWriter writer = new NormBinaryWriter(new FileOutputStream(tmpFile), true, false);
+        try {
+            // values are already rounded to fp16 by NormalizeUDF
+            writer.write(Arrays.asList(new Object[] { NormalizeUDF.toFloat(NormalizeUDF.fromFloat(0.5f)),
+                    NormalizeUDF.toFloat(NormalizeUDF.fromFloat(-2.3f)) }));
+        } finally {
+            writer.close();
+        }
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        Path path = new Path(tmpFile.getAbsolutePath());
+        NormBinaryReader reader = new NormBinaryReader(fs.open(path), 0L, fs.getFileStatus(path).getLen());
+        try {
+            Assert.assertTrue(reader.nextRecord());
+            // 4 bytes field count + 2 * (1 byte type + 2 bytes fp16)
+            Assert.assertEquals(reader.getRecordLength(), 10);
+            NormRecord record = new NormRecord(null, true);
+            record.parseBinary(reader.getRecordBytes(), reader.getRecordLength());
+            Assert.assertEquals(record.getFloat(0, 0f), NormalizeUDF.toFloat(NormalizeUDF.fromFloat(0.5f)));
+            Assert.assertEquals(record.getFloat(1, 0f), NormalizeUDF.toFloat(NormalizeUDF.fromFloat(-2.3f)));
+            Assert.assertFalse(reader.nextRecord());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @AfterClass
+    public void tearDown() {
+        tmpFile.delete();
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dtrain.gs;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import ml.shifu.shifu.core.dtrain.CommonConstants;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * GridSearchTest class
+ */
+public class GridSearchTest {
+
+    @Test
+    public void testSameParam() {
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("LearningRate", Arrays.asList(0.1d, 0.2d));
+        params.put(CommonConstants.MINI_BATCH, 1);
+        GridSearch gs = new GridSearch(params, null);
+        Assert.assertEquals(gs.getFlattenParams().size(), 2);
+        Assert.assertTrue(gs.isSameParam(CommonConstants.MINI_BATCH));
+        Assert.assertTrue(gs.isSameParam(CommonConstants.DROPOUT_RATE));
+        Assert.assertFalse(gs.isSameParam("LearningRate"));
+    }
+
+    @Test
+    public void testPositiveParam() {
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("LearningRate", Arrays.asList(0.1d, 0.2d));
+        Assert.assertFalse(new GridSearch(params, null).isPositiveParam(CommonConstants.DROPOUT_RATE));
+
+        params.put(CommonConstants.DROPOUT_RATE, 0d);
+        Assert.assertFalse(new GridSearch(params, null).isPositiveParam(CommonConstants.DROPOUT_RATE));
+
+        // dropout in only one trial is enough to train trials one job per trial
+        params.put(CommonConstants.DROPOUT_RATE, Arrays.asList(0d, 0.2d));
+        GridSearch gs = new GridSearch(params, null);
+        Assert.assertEquals(gs.getFlattenParams().size(), 4);
+        Assert.assertTrue(gs.isPositiveParam(CommonConstants.DROPOUT_RATE));
+
+        params.put(CommonConstants.DROPOUT_RATE, 0.1d);
+        Assert.assertTrue(new GridSearch(params, null).isPositiveParam(CommonConstants.DROPOUT_RATE));
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dtrain.gs;
+
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * SuccessiveHalvingTest class
+ */
+public class SuccessiveHalvingTest {
+
+    @Test
+    public void testRungEpochs() {
+        SuccessiveHalving halving = new SuccessiveHalving(48, 100, 3);
+        Assert.assertEquals(halving.getRungEpochs().toArray(), new Integer[] { 1, 3, 11, 33 });
+        Assert.assertTrue(halving.isRung(11));
+        Assert.assertFalse(halving.isRung(100));
+
+        // disabled by eta and by single trial
+        Assert.assertTrue(new SuccessiveHalving(48, 100, 1).getRungEpochs().isEmpty());
+        Assert.assertTrue(new SuccessiveHalving(1, 100, 3).getRungEpochs().isEmpty());
+    }
+
+    @Test
+    public void testStopLosers() {
+        SuccessiveHalving halving = new SuccessiveHalving(7, 100, 3);
+        double[] errors = new double[] { 0.5d, 0.1d, Double.NaN, 0.3d, 0.2d, 0.6d, 0.4d };
+        Assert.assertEquals(halving.stopLosers(errors), Arrays.asList(0, 2, 5, 6));
+        Assert.assertFalse(halving.isStopped(1));
+        Assert.assertFalse(halving.isStopped(3));
+
+        // errors of stopped trials are ignored
+        errors[0] = 0d;
+        errors[4] = 0.05d;
+        Assert.assertEquals(halving.stopLosers(errors), Arrays.asList(1, 3));
+        // last trial is always kept
+        Assert.assertTrue(halving.stopLosers(errors).isEmpty());
+        Assert.assertFalse(halving.isStopped(4));
+    }
+
+}
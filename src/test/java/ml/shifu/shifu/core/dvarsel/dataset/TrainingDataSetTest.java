@@ -0,0 +1,83 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dvarsel.dataset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.encog.ml.data.MLDataPair;
+import org.encog.ml.data.MLDataSet;
+import org.encog.ml.data.basic.BasicMLDataPair;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * TrainingDataSetTest class
+ */
+public class TrainingDataSetTest {
+
+    @Test
+    public void testValidateDataViews() {
+        List<Integer> columnIdList = new ArrayList<Integer>();
+        for(int i = 0; i < 20; i++) {
+            columnIdList.add(i + 2);
+        }
+        TrainingDataSet trainingDataSet = new TrainingDataSet(columnIdList);
+        List<TrainingRecord> records = new ArrayList<TrainingRecord>();
+        Random random = new Random(1234L);
+        for(int i = 0; i < 100; i++) {
+            double[] inputs = new double[columnIdList.size()];
+            for(int j = 0; j < inputs.length; j++) {
+                inputs[j] = random.nextDouble();
+            }
+            TrainingRecord record = new TrainingRecord(inputs, new double[] { random.nextInt(2) }, 1d);
+            records.add(record);
+            trainingDataSet.addTrainingRecord(record);
+        }
+        Set<Integer> workingColumnSet = new HashSet<Integer>(Arrays.asList(3, 7, 8, 21));
+
+        // all records in training data
+        MLDataSet[] views = trainingDataSet.generateValidateDataViews(workingColumnSet, 0d);
+        Assert.assertEquals(views[0].getRecordCount(), 100L);
+        Assert.assertEquals(views[1].getRecordCount(), 0L);
+        Assert.assertEquals(views[0].getInputSize(), 4);
+        MLDataPair pair = BasicMLDataPair.createPair(views[0].getInputSize(), views[0].getIdealSize());
+        Iterator<MLDataPair> iterator = views[0].iterator();
+        for(int i = 0; i < records.size(); i++) {
+            MLDataPair expected = records.get(i).toMLDataPair(columnIdList, workingColumnSet);
+            views[0].openAdditional().getRecord(i, pair);
+            Assert.assertEquals(pair.getInputArray(), expected.getInputArray());
+            Assert.assertEquals(pair.getIdealArray(), expected.getIdealArray());
+            MLDataPair next = iterator.next();
+            Assert.assertEquals(next.getInputArray(), expected.getInputArray());
+        }
+        Assert.assertFalse(iterator.hasNext());
+
+        // all records in testing data
+        views = trainingDataSet.generateValidateDataViews(workingColumnSet, 1d);
+        Assert.assertEquals(views[0].getRecordCount(), 0L);
+        Assert.assertEquals(views[1].getRecordCount(), 100L);
+
+        views = trainingDataSet.generateValidateDataViews(workingColumnSet, 0.2d);
+        Assert.assertEquals(views[0].getRecordCount() + views[1].getRecordCount(), 100L);
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.dvarsel.sensitivity;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import ml.shifu.shifu.container.obj.ColumnConfig;
+import ml.shifu.shifu.container.obj.ModelConfig;
+import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
+import ml.shifu.shifu.core.dvarsel.CandidatePerf;
+import ml.shifu.shifu.core.dvarsel.VarSelWorkerResult;
+import ml.shifu.shifu.util.CommonUtils;
+import ml.shifu.shifu.util.Constants;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * SensitivityMasterConductorTest class
+ */
+public class SensitivityMasterConductorTest {
+
+    @Test
+    public void testRecursiveDrop() throws IOException {
+        ModelConfig modelConfig = CommonUtils.loadModelConfig(
+                "src/test/resources/example/cancer-judgement/ModelStore/ModelSet1/ModelConfig.json",
+                SourceType.LOCAL);
+        List<ColumnConfig> columnConfigList = CommonUtils.loadColumnConfigList(
+                "src/test/resources/example/cancer-judgement/ModelStore/ModelSet1/ColumnConfig.json",
+                SourceType.LOCAL);
+        modelConfig.getVarSelect().setFilterNum(-1);
+        modelConfig.getVarSelect().setFilerOutRatio(0.5f);
+
+        SensitivityMasterConductor conductor = new SensitivityMasterConductor(modelConfig, columnConfigList);
+        Properties props = new Properties();
+        props.setProperty(Constants.VAR_SEL_RECURSIVE_CNT, "2");
+        conductor.init(props);
+
+        // empty results when workers are loading data
+        conductor.consumeWorkerResults(Arrays.asList(new VarSelWorkerResult(new ArrayList<CandidatePerf>())));
+        Assert.assertFalse(conductor.isToStop());
+        List<Integer> columnIds = conductor.getNextWorkingSet().get(0).getColumnIdList();
+        int columnCnt = columnIds.size();
+        Assert.assertTrue(columnCnt > 2);
+
+        // sensitivity grows with column id, two workers with half of sums each
+        conductor.consumeWorkerResults(Arrays.asList(newWorkerResult(columnIds), newWorkerResult(columnIds)));
+        Assert.assertFalse(conductor.isToStop());
+        List<Integer> nextColumnIds = conductor.getNextWorkingSet().get(0).getColumnIdList();
+        Assert.assertEquals(nextColumnIds.size(), columnCnt / 2);
+        Assert.assertEquals(nextColumnIds, columnIds.subList(columnCnt - nextColumnIds.size(), columnCnt));
+
+        conductor.consumeWorkerResults(Arrays.asList(newWorkerResult(nextColumnIds)));
+        Assert.assertTrue(conductor.isToStop());
+        Assert.assertEquals(conductor.voteBestSeed().getColumnIdList().size(), columnCnt / 2 / 2);
+    }
+
+    @Test
+    public void testHistory() throws IOException {
+        ModelConfig modelConfig = CommonUtils.loadModelConfig(
+                "src/test/resources/example/cancer-judgement/ModelStore/ModelSet1/ModelConfig.json",
+                SourceType.LOCAL);
+        List<ColumnConfig> columnConfigList = CommonUtils.loadColumnConfigList(
+                "src/test/resources/example/cancer-judgement/ModelStore/ModelSet1/ColumnConfig.json",
+                SourceType.LOCAL);
+        modelConfig.getVarSelect().setFilterNum(-1);
+        modelConfig.getVarSelect().setFilerOutRatio(0.5f);
+        File history = new File("target/SensitivityMasterConductorTest");
+        FileUtils.deleteQuietly(history);
+
+        SensitivityMasterConductor conductor = new SensitivityMasterConductor(modelConfig, columnConfigList);
+        Properties props = new Properties();
+        props.setProperty(Constants.VAR_SEL_RECURSIVE_CNT, "1");
+        props.setProperty(Constants.VAR_SEL_SE_HISTORY_OUTPUT, history.getAbsolutePath());
+        conductor.init(props);
+
+        List<Integer> columnIds = conductor.getNextWorkingSet().get(0).getColumnIdList();
+        VarSelWorkerResult workerResult = newWorkerResult(columnIds);
+        double[] sums = new double[columnIds.size()];
+        Arrays.fill(sums, 10d);
+        workerResult.setScoreDiffSums(sums);
+        conductor.consumeWorkerResults(Arrays.asList(workerResult));
+        Assert.assertTrue(conductor.isToStop());
+
+        List<String> seLines = FileUtils.readLines(new File(history, "0/" + Constants.SHIFU_VARSELECT_SE_OUTPUT_NAME));
+        Assert.assertEquals(seLines.size(), columnIds.size());
+        // the most sensitive column first, mean is 1 with 10 records
+        String[] fields = seLines.get(0).split("\t");
+        Assert.assertEquals(Integer.parseInt(fields[0]), columnIds.get(columnIds.size() - 1).intValue());
+        Assert.assertEquals(Double.parseDouble(fields[2]), 1d);
+
+        List<Integer> keptColumnIds = conductor.voteBestSeed().getColumnIdList();
+        Assert.assertEquals(FileUtils.readLines(new File(history, "0/VarSels")),
+                Arrays.asList(keptColumnIds.size() + "|" + keptColumnIds));
+        FileUtils.deleteQuietly(history);
+    }
+
+    private VarSelWorkerResult newWorkerResult(List<Integer> columnIds) {
+        List<CandidatePerf> perfList = new ArrayList<CandidatePerf>();
+        for(Integer columnId: columnIds) {
+            perfList.add(new CandidatePerf(columnId, columnId * 10d));
+        }
+        VarSelWorkerResult workerResult = new VarSelWorkerResult(perfList);
+        workerResult.setRecordCount(10L);
+        return workerResult;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.eval;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * CombinedScoreScriptTest class
+ */
+public class CombinedScoreScriptTest {
+
+    private String template;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        this.template = CombinedScoreScript.load("src/main/pig/EvalScoreCombined.pig");
+    }
+
+    @Test
+    public void testEvalSetOutputs() {
+        String script = CombinedScoreScript.expand(this.template, 3, false);
+        for(String line: script.split("\n")) {
+            // no template marker or index placeholder left in pig statements
+            Assert.assertFalse(line.startsWith("--@"), line);
+            Assert.assertTrue(line.startsWith("--") || !line.contains("{i}"), line);
+        }
+        Assert.assertFalse(script.contains(" ORDER "));
+        Assert.assertEquals(count(script, "REGISTER $path_jar;"), 1);
+        Assert.assertEquals(count(script, "LOAD '$pathEvalRawData'"), 1);
+        Assert.assertEquals(count(script, "STORE "), 3);
+
+        for(int i = 0; i < 3; i++) {
+            // filter, score udf with its own counter group and output of each eval set
+            Assert.assertEquals(count(script, "raw_" + i + " = FILTER raw BY IsDataFilterOut_" + i + "(*);"), 1);
+            Assert.assertEquals(count(script, "'$eval_set_name_" + i + "');"), 1);
+            Assert.assertEquals(count(script, "'$eval_set_name_" + i + "', '$scale', '$counter_group_" + i + "');"),
+                    1);
+            Assert.assertEquals(count(script, "evalScore_" + i + " = FOREACH raw_" + i
+                    + " GENERATE FLATTEN(EvalScore_" + i + "(*));"), 1);
+            Assert.assertEquals(count(script, "STORE evalScore_" + i + " INTO '$pathEvalScore_" + i + "'"), 1);
+        }
+        Assert.assertTrue(script.trim().endsWith("USING PigStorage('$output_delimiter', '-schema');"));
+    }
+
+    @Test
+    public void testSortedScores() {
+        String script = CombinedScoreScript.expand(this.template, 2, true);
+        Assert.assertEquals(count(script, " ORDER "), 2);
+        for(int i = 0; i < 2; i++) {
+            int order = script.indexOf("evalScore_" + i + " = ORDER evalScore_" + i + " BY shifu::$columnIndex_" + i
+                    + " DESC;");
+            Assert.assertTrue(order > script.indexOf("evalScore_" + i + " = FILTER evalScore_" + i));
+            Assert.assertTrue(order < script.indexOf("STORE evalScore_" + i));
+        }
+    }
+
+    @Test
+    public void testCounterGroups() {
+        Set<String> groups = new HashSet<String>();
+        for(int i = 0; i < 10; i++) {
+            groups.add(CombinedScoreScript.getCounterGroup(i));
+        }
+        Assert.assertEquals(groups.size(), 10);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNoSection() {
+        CombinedScoreScript.expand("raw = LOAD '$pathEvalRawData';\n", 2, false);
+    }
+
+    private static int count(String script, String text) {
+        int count = 0;
+        for(int i = script.indexOf(text); i >= 0; i = script.indexOf(text, i + 1)) {
+            count += 1;
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.eval;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * EvalFingerprintTest class
+ */
+public class EvalFingerprintTest {
+
+    private File root;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        this.root = new File("target/EvalFingerprintTest");
+        FileUtils.deleteQuietly(this.root);
+        FileUtils.forceMkdir(new File(this.root, "output"));
+        FileUtils.writeStringToFile(new File(this.root, "data/part-00000"), "1|0.5\n0|0.2\n");
+        FileUtils.writeStringToFile(new File(this.root, "ModelConfig.json"), "{}");
+        FileUtils.writeStringToFile(new File(this.root, "output/part-m-00000"), "1|500\n0|200\n");
+    }
+
+    @AfterClass
+    public void tearDown() {
+        FileUtils.deleteQuietly(this.root);
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        String outputPath = new File(this.root, "output").getPath();
+        Properties status = new Properties();
+        status.setProperty("evalRecords", "2");
+
+        newFingerprint("eval1").save(outputPath, SourceType.LOCAL, status);
+        Assert.assertTrue(new File(outputPath, EvalFingerprint.FINGERPRINT_FILE).exists());
+
+        Properties loaded = newFingerprint("eval1").load(outputPath, SourceType.LOCAL);
+        Assert.assertNotNull(loaded);
+        Assert.assertEquals(loaded.getProperty("evalRecords"), "2");
+
+        // changed settings are not reused
+        Assert.assertNull(newFingerprint("eval2").load(outputPath, SourceType.LOCAL));
+
+        // changed data is not reused
+        FileUtils.writeStringToFile(new File(this.root, "data/part-00000"), "1|0.5\n0|0.2\n1|0.9\n");
+        Assert.assertNull(newFingerprint("eval1").load(outputPath, SourceType.LOCAL));
+    }
+
+    @Test
+    public void testScriptChanged() throws IOException {
+        File script = new File(this.root, "Eval.pig");
+        FileUtils.writeStringToFile(script, "a = load '$pathEvalRawData';\n");
+        String first = newFingerprint("eval1").addScript("pigScript", script.getPath()).addShifuVersion().digest();
+        Assert.assertEquals(newFingerprint("eval1").addScript("pigScript", script.getPath()).addShifuVersion()
+                .digest(), first);
+
+        FileUtils.writeStringToFile(script, "a = load '$pathEvalRawData' using PigStorage('|');\n");
+        Assert.assertNotEquals(newFingerprint("eval1").addScript("pigScript", script.getPath()).addShifuVersion()
+                .digest(), first);
+    }
+
+    private EvalFingerprint newFingerprint(String evalSet) throws IOException {
+        return new EvalFingerprint().add("evalSet", evalSet)
+                .addFileContent("modelConfig", new File(this.root, "ModelConfig.json").getPath(), SourceType.LOCAL)
+                .addFiles("data", new File(this.root, "data").getPath(), SourceType.LOCAL);
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.eval;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import ml.shifu.shifu.container.PerformanceObject;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * GainChartTest class
+ */
+public class GainChartTest {
+
+    @Test
+    public void testGenerateCsv() throws IOException {
+        PerformanceObject po = new PerformanceObject();
+        po.actionRate = 0.123456d;
+        po.weightedActionRate = 0.5d;
+        po.recall = 1d;
+        po.weightedRecall = 0d;
+        po.precision = 0.33333d;
+        po.weightedPrecision = 0.66666d;
+        po.fpr = 0.1d;
+        po.weightedFpr = 0.2d;
+        po.binLowestScore = 750.5d;
+        List<PerformanceObject> performanceList = new ArrayList<PerformanceObject>();
+        performanceList.add(po);
+
+        File file = File.createTempFile("gainchart", ".csv");
+        file.deleteOnExit();
+        new GainChart().generateCsv(null, null, file.getPath(), performanceList);
+
+        List<String> lines = FileUtils.readLines(file);
+        Assert.assertEquals(lines.size(), 2);
+        Assert.assertEquals(lines.get(0),
+                "ActionRate,WeightedActionRate,Recall,WeightedRecall,Precision,WeightedPrecision,FPR,WeightedFPR,"
+                        + "BinLowestScore");
+        Assert.assertEquals(lines.get(1), "0.1235,0.5,1,0,0.3333,0.6667,0.1,0.2,750.5");
+    }
+
+}
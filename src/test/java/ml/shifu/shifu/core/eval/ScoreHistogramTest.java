@@ -0,0 +1,64 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.eval;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ScoreHistogramTest {
+
+    @Test
+    public void testToBucket() {
+        Assert.assertEquals(ScoreHistogram.toBucket(123.456789d, 5), 123.46d, 1e-9);
+        Assert.assertEquals(ScoreHistogram.toBucket(0.000123456d, 3), 0.000123d, 1e-12);
+        Assert.assertEquals(ScoreHistogram.toBucket(-98765.4d, 2), -99000d, 1e-6);
+        Assert.assertEquals(ScoreHistogram.toBucket(0d, 5), 0d);
+
+        // rounding keeps score order
+        double prev = ScoreHistogram.toBucket(0d, 3);
+        for(int i = 1; i < 100000; i++) {
+            double bucket = ScoreHistogram.toBucket(i * 0.0173d, 3);
+            Assert.assertTrue(bucket >= prev);
+            prev = bucket;
+        }
+    }
+
+    @Test
+    public void testSortDesc() {
+        ScoreHistogram histogram = new ScoreHistogram();
+        histogram.add(300d, 310d, 1L, 2L, 1d, 4d);
+        histogram.add(900d, 905d, 3L, 0L, 6d, 0d);
+        histogram.add(100d, 101d, 0L, 5L, 0d, 5d);
+        histogram.add(500d, 500d, 2L, 2L, 2d, 2d);
+        histogram.sortDesc();
+
+        Assert.assertEquals(histogram.size(), 4);
+        Assert.assertEquals(histogram.getMinScore(0), 900d);
+        Assert.assertEquals(histogram.getMinScore(1), 500d);
+        Assert.assertEquals(histogram.getMinScore(2), 300d);
+        Assert.assertEquals(histogram.getMinScore(3), 100d);
+        Assert.assertEquals(histogram.getPosCount(0), 3L);
+        Assert.assertEquals(histogram.getNegWeight(3), 5d);
+
+        Assert.assertEquals(histogram.getTotalPosCount(), 6L);
+        Assert.assertEquals(histogram.getTotalNegCount(), 9L);
+        Assert.assertEquals(histogram.getTotalPosWeight(), 9d);
+        Assert.assertEquals(histogram.getTotalNegWeight(), 11d);
+        Assert.assertEquals(histogram.getMaxScore(), 905d);
+        Assert.assertEquals(histogram.getMinScore(), 100d);
+    }
+
+}
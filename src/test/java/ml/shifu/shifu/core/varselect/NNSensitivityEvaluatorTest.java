@@ -0,0 +1,62 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.varselect;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import ml.shifu.shifu.core.dtrain.DTrainUtils;
+import ml.shifu.shifu.core.dtrain.dataset.BasicFloatNetwork;
+import ml.shifu.shifu.core.dtrain.dataset.CacheBasicFloatNetwork;
+import ml.shifu.shifu.core.dtrain.nn.NNConstants;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * NNSensitivityEvaluatorTest class
+ */
+public class NNSensitivityEvaluatorTest {
+
+    @Test
+    public void testSameAsCacheNetwork() {
+        int inputCount = 150;
+        BasicFloatNetwork network = (BasicFloatNetwork) DTrainUtils.generateNetwork(inputCount, 1, 2,
+                Arrays.asList(NNConstants.NN_TANH, NNConstants.NN_SIGMOID), Arrays.asList(20, 7), true, 0d, null,
+                false, NNConstants.NN_SIGMOID);
+        CacheBasicFloatNetwork cacheNetwork = VarSelectMapper.copy(network);
+
+        Random random = new Random(1L);
+        double[] input = new double[inputCount];
+        double[] output = new double[1];
+        double[] scores = new double[inputCount];
+        // block size not divisible by input count to check the last block
+        NNSensitivityEvaluator evaluator = new NNSensitivityEvaluator(network.getFlat(), 64);
+        for(int record = 0; record < 10; record++) {
+            for(int i = 0; i < inputCount; i++) {
+                input[i] = random.nextDouble();
+            }
+
+            cacheNetwork.compute(input, output, true, -1);
+            Assert.assertEquals(evaluator.compute(input, scores), output[0]);
+            for(int i = 0; i < inputCount; i++) {
+                cacheNetwork.compute(input, output, false, i);
+                Assert.assertEquals(scores[i], output[0]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.core.varselect;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import ml.shifu.shifu.core.LR;
+import ml.shifu.shifu.core.dtrain.dt.IndependentTreeModel;
+
+import org.apache.commons.io.IOUtils;
+import org.encog.ml.data.basic.BasicMLData;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * SensitivityEvaluatorTest class
+ */
+public class SensitivityEvaluatorTest {
+
+    @Test
+    public void testTreeSameAsModel() throws IOException {
+        InputStream is = new FileInputStream("src/test/resources/example/readablespec/model0.gbt");
+        IndependentTreeModel model;
+        try {
+            model = IndependentTreeModel.loadFromStream(is);
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+        TreeSensitivityEvaluator evaluator = new TreeSensitivityEvaluator(model);
+
+        int inputCount = model.getColumnNumIndexMapping().size();
+        int[] columnNums = new int[inputCount];
+        for(Entry<Integer, Integer> entry: model.getColumnNumIndexMapping().entrySet()) {
+            columnNums[entry.getValue()] = entry.getKey();
+        }
+
+        Random random = new Random(1234L);
+        double[] input = new double[inputCount];
+        double[] scores = new double[inputCount];
+        int changedScores = 0;
+        for(int r = 0; r < 100; r++) {
+            for(int i = 0; i < inputCount; i++) {
+                if(model.getCategoricalColumnNameNames().containsKey(columnNums[i])) {
+                    input[i] = random.nextInt(model.getCategoricalSize(columnNums[i]) + 1);
+                } else {
+                    input[i] = model.convertToDataValue(columnNums[i], null) * 2d * random.nextDouble();
+                }
+            }
+            double[] copy = input.clone();
+
+            double score = evaluator.compute(input, scores);
+            Assert.assertEquals(input, copy);
+            Assert.assertEquals(score, model.compute(input)[0], 1e-10);
+            for(int i = 0; i < inputCount; i++) {
+                copy[i] = model.convertToDataValue(columnNums[i], null);
+                Assert.assertEquals(scores[i], model.compute(copy)[0], 1e-10);
+                copy[i] = input[i];
+                if(scores[i] != score) {
+                    changedScores += 1;
+                }
+            }
+        }
+        Assert.assertTrue(changedScores > 0);
+    }
+
+    @Test
+    public void testLRSameAsModel() throws IOException {
+        InputStream is = new FileInputStream(
+                "src/test/resources/example/cancer-judgement/ModelStore/ModelSet1/LR/models/model0.lr");
+        LR lr;
+        try {
+            lr = LR.loadFromStream(is);
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+        LRSensitivityEvaluator evaluator = new LRSensitivityEvaluator(lr);
+
+        Random random = new Random(1234L);
+        double[] input = new double[lr.getInputCount()];
+        double[] scores = new double[input.length];
+        for(int r = 0; r < 10; r++) {
+            for(int i = 0; i < input.length; i++) {
+                input[i] = random.nextGaussian();
+            }
+            double score = evaluator.compute(input, scores);
+            Assert.assertEquals(score, lr.compute(new BasicMLData(input)).getData(0), 1e-12);
+            for(int i = 0; i < input.length; i++) {
+                double[] removed = input.clone();
+                removed[i] = 0d;
+                Assert.assertEquals(scores[i], lr.compute(new BasicMLData(removed)).getData(0), 1e-12);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.guagua;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * BalancedSplitCombinerTest class
+ */
+public class BalancedSplitCombinerTest {
+
+    @Test
+    public void testAssignBalanced() {
+        double[] records = new double[] { 70d, 10d, 10d, 10d, 30d, 30d, 20d, 20d };
+        String[][] hosts = new String[records.length][0];
+        List<List<Integer>> groups = BalancedSplitCombiner.assign(records, hosts, 4, 0.05d);
+
+        Assert.assertEquals(groups.size(), 4);
+        for(List<Integer> group: groups) {
+            double load = 0d;
+            for(Integer item: group) {
+                load += records[item];
+            }
+            Assert.assertFalse(group.isEmpty());
+            Assert.assertTrue(load <= 70d, "load " + load);
+        }
+    }
+
+    @Test
+    public void testAssignLocality() {
+        double[] records = new double[] { 10d, 10d, 10d, 10d };
+        String[][] hosts = new String[][] { { "h1" }, { "h2" }, { "h1" }, { "h2" } };
+        List<List<Integer>> groups = BalancedSplitCombiner.assign(records, hosts, 2, 0.05d);
+
+        Assert.assertEquals(groups.size(), 2);
+        for(List<Integer> group: groups) {
+            Assert.assertEquals(group.size(), 2);
+            Assert.assertEquals(hosts[group.get(0)][0], hosts[group.get(1)][0]);
+        }
+    }
+
+    @Test
+    public void testCombineOneLargeFile() throws IOException {
+        // one text file is cut into pieces, so all workers have data
+        File file = new File("target/BalancedSplitCombinerTest/part-m-00000");
+        FileUtils.writeStringToFile(file, StringUtils.repeat("0.1|0.2|0.3|1", "\n", 10000) + "\n");
+        try {
+            FileSplit fileSplit = new FileSplit(new Path(file.getAbsolutePath()), 0L, file.length(), new String[0]);
+            List<FileSplit[]> groups = new BalancedSplitCombiner(new Configuration(), 4, 64, false)
+                    .combine(Arrays.asList(fileSplit));
+
+            Assert.assertEquals(groups.size(), 4);
+            long length = 0L;
+            for(FileSplit[] group: groups) {
+                Assert.assertTrue(group.length > 0);
+                for(FileSplit split: group) {
+                    length += split.getLength();
+                }
+            }
+            Assert.assertEquals(length, file.length());
+        } finally {
+            FileUtils.deleteQuietly(file.getParentFile());
+        }
+    }
+
+    @Test
+    public void testAssignNoEmptyWorker() {
+        // all items on one host, local assignment should not leave workers empty
+        double[] records = new double[] { 1d, 1d, 1d };
+        String[][] hosts = new String[][] { { "h1" }, { "h1" }, { "h1" } };
+        List<List<Integer>> groups = BalancedSplitCombiner.assign(records, hosts, 3, 10d);
+
+        for(List<Integer> group: groups) {
+            Assert.assertEquals(group.size(), 1);
+        }
+    }
+
+}
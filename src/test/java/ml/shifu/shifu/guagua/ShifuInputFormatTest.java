@@ -0,0 +1,109 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.guagua;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import ml.shifu.guagua.hadoop.io.GuaguaInputSplit;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * ShifuInputFormatTest class
+ */
+public class ShifuInputFormatTest {
+
+    @Test
+    public void testMixBucketSplits() {
+        // 3 workers of norm task bucket files with uneven sizes, and the master split
+        List<InputSplit> splits = new ArrayList<InputSplit>();
+        Set<String> files = new HashSet<String>();
+        long maxLength = 0L;
+        for(int worker = 0; worker < 3; worker++) {
+            FileSplit[] fileSplits = new FileSplit[6 + worker * 3];
+            for(int i = 0; i < fileSplits.length; i++) {
+                long length = 1000L * (worker + 1) + 37L * i;
+                String file = String.format("norm/part-m-%05d-b%05d.gz", worker, i);
+                fileSplits[i] = new FileSplit(new Path(file), 0L, length, new String[0]);
+                files.add(file);
+                maxLength = Math.max(maxLength, length);
+            }
+            splits.add(new GuaguaInputSplit(false, fileSplits));
+        }
+        GuaguaInputSplit master = new GuaguaInputSplit(true, new FileSplit[0]);
+        splits.add(master);
+
+        Assert.assertTrue(ShifuInputFormat.isBucketedLayout(splits));
+        ShifuInputFormat.mixBucketSplits(splits);
+
+        Assert.assertEquals(splits.size(), 4);
+        Assert.assertSame(splits.get(3), master);
+        Set<String> mixedFiles = new HashSet<String>();
+        long minSize = Long.MAX_VALUE, maxSize = 0L;
+        int mixedSplits = 0;
+        for(int i = 0; i < 3; i++) {
+            long size = 0L;
+            for(FileSplit fileSplit: ((GuaguaInputSplit) splits.get(i)).getFileSplits()) {
+                mixedFiles.add(fileSplit.getPath().toString());
+                size += fileSplit.getLength();
+                mixedSplits += 1;
+            }
+            minSize = Math.min(minSize, size);
+            maxSize = Math.max(maxSize, size);
+        }
+        // each bucket file is kept in exactly one worker split
+        Assert.assertEquals(mixedSplits, files.size());
+        Assert.assertEquals(mixedFiles, files);
+        // sizes of worker splits differ by at most one bucket file
+        Assert.assertTrue(maxSize - minSize <= maxLength, "min " + minSize + ", max " + maxSize);
+    }
+
+    @Test
+    public void testMixOneWorker() {
+        FileSplit[] fileSplits = new FileSplit[] { new FileSplit(new Path("norm/a"), 0L, 10L, new String[0]),
+                new FileSplit(new Path("norm/b"), 0L, 20L, new String[0]) };
+        List<InputSplit> splits = new ArrayList<InputSplit>();
+        splits.add(new GuaguaInputSplit(false, fileSplits));
+
+        ShifuInputFormat.mixBucketSplits(splits);
+
+        Assert.assertEquals(((GuaguaInputSplit) splits.get(0)).getFileSplits(), fileSplits);
+    }
+
+    @Test
+    public void testBucketedLayout() {
+        List<InputSplit> splits = new ArrayList<InputSplit>();
+        splits.add(new GuaguaInputSplit(false, new FileSplit[] {
+                new FileSplit(new Path("norm/part-m-00000-b00000"), 0L, 10L, new String[0]),
+                new FileSplit(new Path("norm/part-m-00001-b00012.gz"), 0L, 10L, new String[0]) }));
+        splits.add(new GuaguaInputSplit(true, new FileSplit[0]));
+        Assert.assertTrue(ShifuInputFormat.isBucketedLayout(splits));
+
+        // norm output of plain PigStorage, even if buckets are set after norm
+        splits.add(new GuaguaInputSplit(false, new FileSplit[] {
+                new FileSplit(new Path("norm/part-m-00002.gz"), 0L, 10L, new String[0]) }));
+        Assert.assertFalse(ShifuInputFormat.isBucketedLayout(splits));
+        Assert.assertFalse(ShifuInputFormat.isBucketedLayout(new ArrayList<InputSplit>()));
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.pig;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import ml.shifu.shifu.pig.ShifuPigStorage.BucketTextOutputFormat;
+import ml.shifu.shifu.util.Constants;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.io.compress.GzipCodec;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.OutputFormat;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.pig.builtin.PigStorage;
+import org.apache.pig.data.Tuple;
+import org.apache.pig.data.TupleFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+/**
+ * ShifuPigStorageTest class
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class ShifuPigStorageTest {
+
+    private static final File ROOT = new File("target/ShifuPigStorageTest");
+
+    @AfterClass
+    public void tearDown() {
+        FileUtils.deleteQuietly(ROOT);
+    }
+
+    @Test
+    public void testBucketLines() throws Exception {
+        List<String> expected = write("pig", 0, false);
+        List<String> actual = write("bucket", 4, false);
+
+        Assert.assertEquals(expected.size(), 500);
+        Assert.assertEquals(actual, expected);
+        List<Path> files = listFiles("bucket");
+        Assert.assertTrue(files.size() > 1 && files.size() <= 4, files.toString());
+        for(Path file: files) {
+            Assert.assertTrue(file.getName().matches("part-m-00001-b0000[0-3]"), file.getName());
+        }
+    }
+
+    @Test
+    public void testCompressedBucketLines() throws Exception {
+        List<String> expected = write("pigGzip", 0, true);
+        List<String> actual = write("bucketGzip", 4, true);
+
+        Assert.assertEquals(actual, expected);
+        for(Path file: listFiles("bucketGzip")) {
+            Assert.assertTrue(file.getName().endsWith(new GzipCodec().getDefaultExtension()), file.getName());
+        }
+    }
+
+    @Test
+    public void testNoBuckets() throws Exception {
+        // one bucket is the same as PigStorage output, one file without bucket suffix
+        List<String> expected = write("pigOne", 0, false);
+        List<String> actual = write("bucketOne", 1, false);
+
+        Assert.assertEquals(actual, expected);
+        List<Path> files = listFiles("bucketOne");
+        Assert.assertEquals(files.size(), 1);
+        Assert.assertEquals(files.get(0).getName(), "part-m-00001");
+    }
+
+    /**
+     * Write the same tuples by PigStorage output format if buckets is 0, else by bucket output format.
+     * 
+     * @return sorted lines of all output files
+     */
+    private List<String> write(String name, int buckets, boolean isCompressed) throws Exception {
+        Job job = Job.getInstance(new Configuration());
+        FileOutputFormat.setOutputPath(job, new Path(new File(ROOT, name).getAbsolutePath()));
+        FileOutputFormat.setCompressOutput(job, isCompressed);
+        FileOutputFormat.setOutputCompressorClass(job, GzipCodec.class);
+        job.getConfiguration().setInt(Constants.SHIFU_NORM_SHUFFLE_BUCKETS, buckets);
+        TaskAttemptContext context = new TaskAttemptContextImpl(job.getConfiguration(),
+                new TaskAttemptID("shifu", 1, TaskType.MAP, 1, 0));
+
+        OutputFormat pigOutputFormat = new PigStorage("|").getOutputFormat();
+        OutputFormat outputFormat = buckets == 0 ? pigOutputFormat
+                : new BucketTextOutputFormat(pigOutputFormat, (byte) '|');
+        RecordWriter<WritableComparable, Tuple> writer = outputFormat.getRecordWriter(context);
+        TupleFactory factory = TupleFactory.getInstance();
+        for(int i = 0; i < 500; i++) {
+            writer.write(null, factory.newTuple(Arrays.<Object> asList(i % 2, i * 0.5d, "v" + i, null, (long) i)));
+        }
+        writer.close(context);
+
+        List<String> lines = new ArrayList<String>();
+        FileSystem fs = FileSystem.getLocal(job.getConfiguration());
+        CompressionCodecFactory codecs = new CompressionCodecFactory(job.getConfiguration());
+        for(Path file: listFiles(name)) {
+            CompressionCodec codec = codecs.getCodec(file);
+            InputStream is = codec == null ? fs.open(file) : codec.createInputStream(fs.open(file));
+            try {
+                lines.addAll(IOUtils.readLines(new BufferedReader(new InputStreamReader(is, "UTF-8"))));
+            } finally {
+                IOUtils.closeQuietly(is);
+            }
+        }
+        Collections.sort(lines);
+        return lines;
+    }
+
+    /**
+     * Output files in task work directory.
+     */
+    private List<Path> listFiles(String name) throws IOException {
+        List<Path> files = new ArrayList<Path>();
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        listFiles(fs, new Path(new File(ROOT, name).getAbsolutePath()), files);
+        Collections.sort(files);
+        return files;
+    }
+
+    private void listFiles(FileSystem fs, Path dir, List<Path> files) throws IOException {
+        for(FileStatus status: fs.listStatus(dir)) {
+            if(status.isDirectory()) {
+                listFiles(fs, status.getPath(), files);
+            } else if(status.getPath().getName().startsWith("part-")) {
+                files.add(status.getPath());
+            }
+        }
+    }
+
+}
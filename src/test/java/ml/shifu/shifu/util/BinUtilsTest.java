@@ -0,0 +1,87 @@
+/*
+ * Copyright [2012-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.util;
+
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BinUtilsTest {
+
+    @Test
+    public void testParseNumberSameAsJdk() {
+        String[] values = { "0", "-0", "1", "+1.5", " 12.25 ", "0.1", "3.14159", "-1234567.891", "1e3", "1.5E-7",
+                ".5", "5.", "123456789012345678", "0.30000000000000004", "1e400", "0x10", "1.5f", "NaN", "Infinity",
+                "-Infinity", "", " ", "-", ".", "1e", "1e5x", "abc", "N/A", "1,000", "192.168.0.1", "e5" };
+        for(String value: values) {
+            double expected;
+            try {
+                expected = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                expected = Double.NaN;
+            }
+            Assert.assertEquals(Double.doubleToLongBits(BinUtils.parseNumber(value)),
+                    Double.doubleToLongBits(expected), value);
+        }
+
+        Random random = new Random(1L);
+        for(int i = 0; i < 10000; i++) {
+            String value = Double.toString((random.nextDouble() - 0.5d) * Math.pow(10, random.nextInt(20) - 10));
+            Assert.assertEquals(BinUtils.parseNumber(value), Double.parseDouble(value), 0d, value);
+            value = Long.toString(random.nextLong() % 100000000L) + "." + random.nextInt(10000);
+            Assert.assertEquals(BinUtils.parseNumber(value), Double.parseDouble(value), 0d, value);
+        }
+    }
+
+    @Test
+    public void testParseNumberSpecialValues() {
+        Assert.assertTrue(Double.isNaN(BinUtils.parseNumber("NaN")));
+        Assert.assertTrue(Double.isNaN(BinUtils.parseNumber((String) null)));
+        Assert.assertEquals(BinUtils.parseNumber("Infinity"), Double.POSITIVE_INFINITY);
+        Assert.assertEquals(BinUtils.parseNumber("-Infinity"), Double.NEGATIVE_INFINITY);
+        Assert.assertEquals(BinUtils.parseNumber("+Infinity"), Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    public void testParseNumberExponentAndSign() {
+        Assert.assertEquals(BinUtils.parseNumber("1.5e3"), 1500d, 0d);
+        Assert.assertEquals(BinUtils.parseNumber("2E-2"), 0.02d, 0d);
+        Assert.assertEquals(BinUtils.parseNumber("1e+2"), 100d, 0d);
+        Assert.assertEquals(BinUtils.parseNumber("+42"), 42d, 0d);
+        Assert.assertEquals(BinUtils.parseNumber(" +0.5 "), 0.5d, 0d);
+        Assert.assertEquals(Double.doubleToLongBits(BinUtils.parseNumber("-0.0")), Double.doubleToLongBits(-0d));
+    }
+
+    @Test
+    public void testParseNumberMalformed() {
+        String[] values = { "", "+", "--1", "1e", "1e+", "1.2.3", "12abc", "abc", "1 2", "e10", "0x" };
+        for(String value: values) {
+            Assert.assertTrue(Double.isNaN(BinUtils.parseNumber(value)), value);
+        }
+    }
+
+    @Test
+    public void testIsNaNLiteral() {
+        Assert.assertTrue(BinUtils.isNaNLiteral("NaN"));
+        Assert.assertTrue(BinUtils.isNaNLiteral(" -NaN "));
+        Assert.assertTrue(BinUtils.isNaNLiteral("+NaN"));
+        Assert.assertFalse(BinUtils.isNaNLiteral("nan"));
+        Assert.assertFalse(BinUtils.isNaNLiteral("abc"));
+        Assert.assertFalse(BinUtils.isNaNLiteral(null));
+    }
+
+}
@@ -456,6 +456,17 @@ public class CommonUtilsTest {
 
     }
 
+    @Test
+    public void splitIntoArrayTest() {
+        String[] units = new String[4];
+        Assert.assertEquals(CommonUtils.split("a||b|", "|", units), 4);
+        Assert.assertEquals(units, new String[] { "a", "", "b", "" });
+        Assert.assertEquals(CommonUtils.split("a::b", "::", units), 2);
+        Assert.assertEquals(units[1], "b");
+        Assert.assertEquals(CommonUtils.split("1|2|3|4|5|6", "|", units), 6);
+        Assert.assertEquals(units, CommonUtils.split("1|2|3|4", "|"));
+    }
+
     @Test
     public void trimNumber() {
         Assert.assertEquals(CommonUtils.trimTag("1000"), "1000");
@@ -143,4 +143,44 @@ public class QuickSortTest {
         // Sometimes Collections.sort may run faster than QuickSort
         Assert.assertTrue((double)timeConsumptionB/timeConsumptionA < 5.0d);
     }
+
+    @Test
+    public void testSortParallelArrays() {
+        Random rd = new Random(1L);
+        for(boolean isDescending: new boolean[] { false, true }) {
+            double[] keys = new double[1000];
+            double[] doubles = new double[keys.length];
+            long[] longs = new long[keys.length];
+            for(int i = 0; i < keys.length; i++) {
+                keys[i] = rd.nextInt(100);
+                doubles[i] = keys[i] * 2d;
+                longs[i] = (long) keys[i] * 3L;
+            }
+            // sort range [10, 989], elements out of range are not moved
+            double first = keys[0];
+            QuickSort.sort(keys, 10, 989, isDescending, new double[][] { doubles }, new long[][] { longs });
+            Assert.assertEquals(keys[0], first);
+            for(int i = 10; i < 990; i++) {
+                if(i > 10) {
+                    Assert.assertTrue(isDescending ? keys[i - 1] >= keys[i] : keys[i - 1] <= keys[i]);
+                }
+                Assert.assertEquals(doubles[i], keys[i] * 2d);
+                Assert.assertEquals(longs[i], (long) keys[i] * 3L);
+            }
+        }
+    }
+
+    @Test
+    public void testMergeSortedParallelArrays() {
+        QuickSort.MergeBuffer buffer = new QuickSort.MergeBuffer();
+        double[] keys = new double[] { 9d, 1d, 3d, 5d, 2d, 4d, 6d, 0d };
+        double[] doubles = new double[] { 9d, 10d, 30d, 50d, 20d, 40d, 60d, 0d };
+        long[] longs = new long[] { 9L, 100L, 300L, 500L, 200L, 400L, 600L, 0L };
+        // merge [1, 4) and [4, 7), buffer is reused in the second merge
+        QuickSort.mergeSorted(keys, 1, 4, 7, new double[][] { doubles }, new long[][] { longs }, buffer);
+        QuickSort.mergeSorted(keys, 1, 4, 7, new double[][] { doubles }, new long[][] { longs }, buffer);
+        Assert.assertTrue(Arrays.equals(keys, new double[] { 9d, 1d, 2d, 3d, 4d, 5d, 6d, 0d }));
+        Assert.assertTrue(Arrays.equals(doubles, new double[] { 9d, 10d, 20d, 30d, 40d, 50d, 60d, 0d }));
+        Assert.assertTrue(Arrays.equals(longs, new long[] { 9L, 100L, 200L, 300L, 400L, 500L, 600L, 0L }));
+    }
 }
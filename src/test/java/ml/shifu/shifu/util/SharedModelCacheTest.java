@@ -0,0 +1,66 @@
+/*
+ * Copyright [2013-2018] PayPal Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ml.shifu.shifu.util;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+
+import ml.shifu.shifu.container.obj.EvalConfig;
+import ml.shifu.shifu.container.obj.ModelConfig;
+import ml.shifu.shifu.container.obj.RawSourceData.SourceType;
+
+import org.encog.ml.BasicML;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * SharedModelCacheTest class
+ */
+public class SharedModelCacheTest {
+
+    @Test
+    public void testAcquireAndRelease() throws IOException {
+        ModelConfig modelConfig = CommonUtils.loadModelConfig(
+                "src/test/resources/example/cancer-judgement/ModelStore/ModelSet1/ModelConfig.json",
+                SourceType.LOCAL);
+        EvalConfig evalConfig = modelConfig.getEvalConfigByName("EvalA");
+        evalConfig.setCustomPaths(new HashMap<String, String>());
+        evalConfig.getCustomPaths().put(Constants.KEY_MODELS_PATH,
+                "./src/test/resources/example/cancer-judgement/ModelStore/ModelSet1/models/model0.nn");
+
+        List<BasicML> models = SharedModelCache.acquireBasicModels(modelConfig, evalConfig, SourceType.LOCAL, false,
+                Constants.GBT_SCORE_RAW_CONVETER);
+        List<BasicML> otherModels = SharedModelCache.acquireBasicModels(modelConfig, evalConfig, SourceType.LOCAL,
+                false, Constants.GBT_SCORE_RAW_CONVETER);
+
+        Assert.assertEquals(models.size(), 1);
+        Assert.assertNotSame(models, otherModels);
+        // model instances are shared
+        Assert.assertSame(models.get(0), otherModels.get(0));
+
+        SharedModelCache.release(models);
+        SharedModelCache.release(otherModels);
+        // release twice is ignored
+        SharedModelCache.release(models);
+
+        List<BasicML> convertedModels = SharedModelCache.acquireBasicModels(modelConfig, evalConfig,
+                SourceType.LOCAL, true, Constants.GBT_SCORE_RAW_CONVETER);
+        Assert.assertNotSame(models.get(0), convertedModels.get(0));
+        SharedModelCache.release(convertedModels);
+    }
+
+}